@@ -8,12 +8,12 @@ function publish {
     ORG_GRADLE_PROJECT_signingKey="$SIGNING_KEY" \
     ORG_GRADLE_PROJECT_signingKeyId="$SIGNING_KEY_ID" \
     ORG_GRADLE_PROJECT_signingPassword="$SIGNING_KEY_PASSWORD" \
-      ./gradlew --no-daemon publish -PartifactRepository=$1 $2;
+      ./gradlew --no-daemon publish -Pjava21 -PartifactRepository=$1 $2;
 }
 
 function sonatypePublish {
     ORG_GRADLE_PROJECT_signingKey="$SIGNING_KEY" \
     ORG_GRADLE_PROJECT_signingKeyId="$SIGNING_KEY_ID" \
     ORG_GRADLE_PROJECT_signingPassword="$SIGNING_KEY_PASSWORD" \
-      ./gradlew --no-daemon publishToSonatype closeSonatypeStagingRepository $1;
+      ./gradlew --no-daemon publishToSonatype closeSonatypeStagingRepository -Pjava21 $1;
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.bench;
+
+import co.cookies.sdk.ProtoLoader;
+import co.cookies.sdk.SDKUtil;
+import co.cookies.sdk.catalog.v1.CatalogClientV1;
+import co.cookies.sdk.catalog.v1.stub.CatalogV1StubSettings;
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.SyncRPC;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import cookies.schema.Brand;
+import cookies.schema.Strain;
+import cookies.schema.catalog.*;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static co.cookies.sdk.CookiesSDK.async;
+import static co.cookies.sdk.CookiesSDK.sync;
+
+
+/**
+ * Measures each {@link CatalogClientV1} method end-to-end against an in-process server, which covers the unary
+ * pipeline ({@link SDKUtil#invoke} and {@link SDKUtil#applyAsync}), the streaming pipeline
+ * ({@link SDKUtil#applyStream}), and the result transformer attached to each method.
+ *
+ * <p>The server answers from the same prototxt fixtures as {@code MockCatalogServiceImpl}, but parses them once at
+ * set-up rather than on every call, so fixture parsing does not dominate the numbers. Run with
+ * {@code ./gradlew jmh}; the GC profiler is enabled by default.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogTransformBenchmark {
+    /** Catalog service which serves fixtures parsed once, up front. */
+    static final class FixtureCatalogService extends CatalogV1Grpc.CatalogV1ImplBase {
+        private final BrandsResponse brands =
+            ProtoLoader.loadTextFile(BrandsResponse.newBuilder(), "/brands_full.prototxt");
+        private final StrainsResponse strains =
+            ProtoLoader.loadTextFile(StrainsResponse.newBuilder(), "/strains_full.prototxt");
+        private final CatalogProduct product =
+            ProtoLoader.loadTextFile(CatalogProduct.newBuilder(), "/product.prototxt");
+        private final CatalogProductSet stanza1 =
+            ProtoLoader.loadTextFile(CatalogProductSet.newBuilder(), "/sync_stanza1.prototxt");
+        private final CatalogProductSet stanza2 =
+            ProtoLoader.loadTextFile(CatalogProductSet.newBuilder(), "/sync_stanza2.prototxt");
+
+        @Override
+        public void brands(BrandsRequest request, StreamObserver<BrandsResponse> responseObserver) {
+            responseObserver.onNext(brands);
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void strains(StrainsRequest request, StreamObserver<StrainsResponse> responseObserver) {
+            responseObserver.onNext(strains);
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void product(ProductRequest request, StreamObserver<CatalogProduct> responseObserver) {
+            responseObserver.onNext(product);
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void sync(MultiProductRequest request, StreamObserver<CatalogProductSet> responseObserver) {
+            responseObserver.onNext(stanza1);
+            responseObserver.onNext(stanza2);
+            responseObserver.onCompleted();
+        }
+    }
+
+    private Server server;
+    private ManagedChannel channel;
+    private CatalogClientV1 client;
+    private SyncRPC<BrandsRequest> brands;
+    private SyncRPC<StrainsRequest> strains;
+    private SyncRPC<ProductRequest> product;
+    private AsyncRPC<BrandsRequest> brandsAsync;
+    private AsyncRPC<MultiProductRequest> products;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        var serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+            .addService(new FixtureCatalogService())
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+        client = CatalogClientV1.forStub(CatalogV1StubSettings.newBuilder()
+            .setTransportChannelProvider(FixedTransportChannelProvider.create(GrpcTransportChannel.create(channel)))
+            .build()
+            .createStub());
+        brands = sync(BrandsRequest.getDefaultInstance());
+        strains = sync(StrainsRequest.getDefaultInstance());
+        product = sync(ProductRequest.getDefaultInstance());
+        brandsAsync = async(BrandsRequest.getDefaultInstance());
+        products = async(MultiProductRequest.getDefaultInstance());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws InterruptedException {
+        client.close();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /** Unary brands call on the direct blocking path. */
+    @Benchmark
+    public Collection<Brand> brands() {
+        return client.brands(brands);
+    }
+
+    /** Unary brands call through the async future chain. */
+    @Benchmark
+    public Collection<Brand> brandsAsync() throws ExecutionException, InterruptedException {
+        return client.brands(brandsAsync).get();
+    }
+
+    /** Unary strains call on the direct blocking path. */
+    @Benchmark
+    public Collection<Strain> strains() {
+        return client.strains(strains);
+    }
+
+    /** Unary product call, including the optional-mapping transformer. */
+    @Benchmark
+    public Optional<FinalProduct> product() {
+        return client.product(product);
+    }
+
+    /** Server-streaming sync call, with both stanzas flattened and drained through the stream transformer. */
+    @Benchmark
+    public long syncStream() throws ExecutionException, InterruptedException {
+        return client.sync(products).get().count();
+    }
+}
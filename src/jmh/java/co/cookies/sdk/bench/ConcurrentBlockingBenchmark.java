@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.bench;
+
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.services.ServiceOptions;
+import co.cookies.sdk.services.SyncRPC;
+import co.cookies.sdk.storefront.v1.MockStorefrontMenuServiceImpl;
+import co.cookies.sdk.storefront.v1.StorefrontClientV1;
+import co.cookies.sdk.storefront.v1.stub.MenuV1StubSettings;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import cookies.schema.store.MenuRequest;
+import cookies.schema.store.MenuResponse;
+import io.grpc.*;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static co.cookies.sdk.CookiesSDK.sync;
+
+
+/**
+ * Measures how many concurrent blocking {@code menu(SyncRPC)} calls a single JVM sustains, with blocking work running
+ * on a bounded platform pool versus virtual threads. Each invocation issues {@code concurrency} blocking calls against
+ * an in-process server which adds a fixed response latency, and waits for all of them to finish; scores are bursts per
+ * second, so sustained calls per second are the score multiplied by {@code concurrency}.
+ *
+ * <p>Virtual threads require JDK 21+ and the multi-release benchmark JAR ({@code ./gradlew jmh -Pjava21}); elsewhere,
+ * the {@code virtual} mode falls back to platform threads, and scores the same as the {@code platform} mode.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ConcurrentBlockingBenchmark {
+    /** Simulated server-side latency per call, in milliseconds. */
+    private static final long LATENCY_MS = 20;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"64", "512", "4096"})
+    public int concurrency;
+
+    private Server server;
+    private ManagedChannel channel;
+    private ScheduledExecutorService delays;
+    private ExecutionEngine engine;
+    private StorefrontClientV1.MenuClientV1 client;
+    private SyncRPC<MenuRequest> rpc;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        delays = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        var serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+            .addService(ServerInterceptors.intercept(MockStorefrontMenuServiceImpl.acquire(), new LatencyInterceptor()))
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+        engine = "virtual".equals(mode) ? ExecutionEngine.virtual() : ExecutionEngine.create();
+        var stub = MenuV1StubSettings.newBuilder()
+            .setTransportChannelProvider(FixedTransportChannelProvider.create(GrpcTransportChannel.create(channel)))
+            .build()
+            .createStub();
+        client = StorefrontClientV1.MenuClientV1.forStub(stub, ServiceOptions.builder().setEngine(engine).build());
+        rpc = sync(MenuRequest.getDefaultInstance());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws InterruptedException {
+        client.close();
+        engine.close();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        delays.shutdownNow();
+    }
+
+    /** Issue a burst of concurrent blocking menu calls on the engine, and wait for all of them. */
+    @Benchmark
+    public Object blockingBurst() throws Exception {
+        var calls = new ArrayList<ListenableFuture<MenuResponse>>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            calls.add(engine.callbacks().submit(() -> client.menu(rpc)));
+        }
+        return Futures.allAsList(calls).get(2, TimeUnit.MINUTES);
+    }
+
+    // Delays each call's half-close by a fixed latency, to simulate network and server time.
+    private final class LatencyInterceptor implements ServerInterceptor {
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                     Metadata headers,
+                                                                     ServerCallHandler<ReqT, RespT> next) {
+            var delegate = next.startCall(call, headers);
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+                @Override
+                public void onHalfClose() {
+                    delays.schedule(delegate::onHalfClose, LATENCY_MS, TimeUnit.MILLISECONDS);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.bench;
+
+import co.cookies.sdk.ProtoLoader;
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.storefront.Storefront;
+import co.cookies.sdk.storefront.v1.MenuRequestSpec;
+import co.cookies.sdk.storefront.v1.StorefrontClientV1;
+import co.cookies.sdk.storefront.v1.stub.MenuV1StubSettings;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import cookies.schema.StoreKey;
+import cookies.schema.store.MenuRequest;
+import cookies.schema.store.MenuResponse;
+import cookies.schema.store.MenuV1Grpc;
+import cookies.schema.store.model.ProductContext;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the cost of building menu requests from a {@link MenuRequestSpec} via
+ * {@link Storefront.MenuClient#menu(MenuRequestSpec)}, compared with dispatching an equivalent pre-built
+ * {@link MenuRequest}. The difference between the two is the request-building overhead; the spec factories are also
+ * measured on their own.
+ *
+ * <p>The in-process server answers from the {@code store_menu_default} fixture, parsed once at set-up. Run with
+ * {@code ./gradlew jmh}; the GC profiler is enabled by default.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MenuRequestBenchmark {
+    /** Menu service which serves a fixture parsed once, up front. */
+    static final class FixtureMenuService extends MenuV1Grpc.MenuV1ImplBase {
+        private final MenuResponse menu =
+            ProtoLoader.loadTextFile(MenuResponse.newBuilder(), "/store_menu_default.prototxt");
+
+        @Override
+        public void menu(MenuRequest request, StreamObserver<MenuResponse> responseObserver) {
+            responseObserver.onNext(menu);
+            responseObserver.onCompleted();
+        }
+    }
+
+    private Server server;
+    private ManagedChannel channel;
+    private StorefrontClientV1.MenuClientV1 client;
+    private StoreKey store;
+    private MenuRequestSpec spec;
+    private AsyncRPC<MenuRequest> prebuilt;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        var serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+            .addService(new FixtureMenuService())
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+        client = StorefrontClientV1.MenuClientV1.forStub(MenuV1StubSettings.newBuilder()
+            .setTransportChannelProvider(FixedTransportChannelProvider.create(GrpcTransportChannel.create(channel)))
+            .build()
+            .createStub());
+        store = StoreKey.newBuilder().setCode("CTL").build();
+        spec = MenuRequestSpec.forStore(store, Locale.FRANCE);
+        prebuilt = AsyncRPC.of(MenuRequest.newBuilder()
+            .setContext(ProductContext.newBuilder().setLocale("fr-FR"))
+            .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws InterruptedException {
+        client.close();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /** Spec construction alone, for a store and explicit locale. */
+    @Benchmark
+    public MenuRequestSpec specForStore() {
+        return MenuRequestSpec.forStore(store, Locale.FRANCE);
+    }
+
+    /** Spec construction alone, with all defaults. */
+    @Benchmark
+    public MenuRequestSpec specDefaults() {
+        return MenuRequestSpec.defaults();
+    }
+
+    /** Menu call which builds its request from a spec on every invocation. */
+    @Benchmark
+    public MenuResponse menuFromSpec() throws ExecutionException, InterruptedException {
+        return client.menu(spec).get();
+    }
+
+    /** Menu call with an equivalent, pre-built request, as a baseline for {@link #menuFromSpec()}. */
+    @Benchmark
+    public MenuResponse menuPrebuilt() throws ExecutionException, InterruptedException {
+        return client.menu(prebuilt).get();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.bench;
+
+import co.cookies.sdk.ProtoLoader;
+import co.cookies.sdk.SDKUtil;
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.SyncRPC;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.Futures;
+import cookies.schema.Brand;
+import cookies.schema.Strain;
+import cookies.schema.catalog.BrandsRequest;
+import cookies.schema.catalog.BrandsResponse;
+import cookies.schema.catalog.CatalogV1Grpc;
+import cookies.schema.catalog.StrainsRequest;
+import cookies.schema.catalog.StrainsResponse;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static co.cookies.sdk.CookiesSDK.async;
+import static co.cookies.sdk.CookiesSDK.sync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+
+/**
+ * Measures the client-side stages of the SDK request pipeline in isolation from the transport: the future chain built
+ * by {@link SDKUtil#applyAsync}, and the blocking wait performed by {@link SDKUtil#block}. Responses are loaded once
+ * from the same prototxt fixtures used by the mock services, and handed to each stage as already-completed futures,
+ * so the numbers reported here are pure SDK overhead.
+ *
+ * <p>Run with {@code ./gradlew jmh}; the GC profiler is enabled by default, so allocation rates per operation are
+ * reported alongside throughput and latency.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestPipelineBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(RequestPipelineBenchmark.class);
+
+    private BrandsResponse brands;
+    private StrainsResponse strains;
+    private SyncRPC<BrandsRequest> syncBrands;
+    private AsyncRPC<BrandsRequest> asyncBrands;
+    private AsyncRPC<StrainsRequest> asyncStrains;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        brands = ProtoLoader.loadTextFile(BrandsResponse.newBuilder(), "/brands_full.prototxt");
+        strains = ProtoLoader.loadTextFile(StrainsResponse.newBuilder(), "/strains_full.prototxt");
+        syncBrands = sync(BrandsRequest.getDefaultInstance());
+        asyncBrands = async(BrandsRequest.getDefaultInstance());
+        asyncStrains = async(StrainsRequest.getDefaultInstance());
+    }
+
+    /** Blocking wait on an already-resolved future, which isolates the cost of {@link SDKUtil#block} itself. */
+    @Benchmark
+    public Collection<Brand> block() {
+        return SDKUtil.block(
+            syncBrands,
+            logger,
+            CatalogV1Grpc.getBrandsMethod(),
+            (op) -> Futures.immediateFuture(brands.getBrandList())
+        );
+    }
+
+    /** Error-mapping and transform stages wired by {@link SDKUtil#applyAsync}, for the brands response. */
+    @Benchmark
+    public Collection<Brand> applyAsyncBrands() throws ExecutionException, InterruptedException {
+        return SDKUtil.applyAsync(
+            logger,
+            asyncBrands,
+            ApiFutures.immediateFuture(brands),
+            CatalogV1Grpc.getBrandsMethod(),
+            BrandsResponse::getBrandList,
+            directExecutor()
+        ).get();
+    }
+
+    /** Error-mapping and transform stages wired by {@link SDKUtil#applyAsync}, for the strains response. */
+    @Benchmark
+    public Collection<Strain> applyAsyncStrains() throws ExecutionException, InterruptedException {
+        return SDKUtil.applyAsync(
+            logger,
+            asyncStrains,
+            ApiFutures.immediateFuture(strains),
+            CatalogV1Grpc.getStrainsMethod(),
+            StrainsResponse::getStrainList,
+            directExecutor()
+        ).get();
+    }
+}
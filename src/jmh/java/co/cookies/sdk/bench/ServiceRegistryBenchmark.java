@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.bench;
+
+import co.cookies.sdk.CookiesSDK;
+import co.cookies.sdk.CookiesSDKManager;
+import co.cookies.sdk.catalog.CatalogClient;
+import co.cookies.sdk.storefront.Storefront;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures service resolution on a {@link CookiesSDKManager} under contention. The {@code steady} benchmarks resolve
+ * already-built services from many threads at once, which should neither allocate (check the {@code gc} profiler's
+ * {@code gc.alloc.rate.norm}) nor contend; {@code coldBurst} races {@code threads} callers to resolve the Catalog
+ * service on a fresh manager, as happens during a startup burst, which should build exactly one client.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ServiceRegistryBenchmark {
+    /** Manager with services already built, shared by all benchmark threads. */
+    @State(Scope.Benchmark)
+    public static class Warm {
+        CookiesSDKManager sdk;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            sdk = CookiesSDK.builder().build();
+            sdk.catalog();
+            sdk.storefront();
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() {
+            sdk.close();
+        }
+    }
+
+    /** Pool of threads which race to resolve a service on a fresh manager. */
+    @State(Scope.Benchmark)
+    public static class Cold {
+        @Param({"4", "32"})
+        public int threads;
+
+        ExecutorService pool;
+        CookiesSDKManager sdk;
+
+        @Setup(Level.Trial)
+        public void setupPool() {
+            pool = Executors.newFixedThreadPool(threads);
+        }
+
+        @Setup(Level.Invocation)
+        public void setupManager() {
+            sdk = CookiesSDK.builder().build();
+        }
+
+        @TearDown(Level.Invocation)
+        public void teardownManager() {
+            sdk.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void teardownPool() {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Resolve the already-built Catalog client, from every available thread at once. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public CatalogClient steadyCatalog(Warm state) {
+        return state.sdk.catalog();
+    }
+
+    /** Resolve the already-built Storefront facade, from every available thread at once. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Storefront steadyStorefront(Warm state) {
+        return state.sdk.storefront();
+    }
+
+    /** Race {@code threads} callers to resolve the Catalog client on a fresh manager, and wait for all of them. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public Object coldBurst(Cold state) throws Exception {
+        var start = new CountDownLatch(1);
+        var results = new ArrayList<Future<CatalogClient>>(state.threads);
+        for (int i = 0; i < state.threads; i++) {
+            results.add(state.pool.submit(() -> {
+                start.await();
+                return state.sdk.catalog();
+            }));
+        }
+        start.countDown();
+        var first = results.get(0).get(1, TimeUnit.MINUTES);
+        for (var result : results) {
+            if (result.get(1, TimeUnit.MINUTES) != first) {
+                throw new IllegalStateException("Service was built more than once.");
+            }
+        }
+        return first;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.bench;
+
+import co.cookies.sdk.SDKUtil;
+import co.cookies.sdk.catalog.v1.CatalogClientV1;
+import co.cookies.sdk.catalog.v1.MockCatalogServiceImpl;
+import co.cookies.sdk.catalog.v1.stub.CatalogV1StubSettings;
+import co.cookies.sdk.services.SyncRPC;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import cookies.schema.Brand;
+import cookies.schema.catalog.BrandsRequest;
+import cookies.schema.catalog.CatalogV1Grpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static co.cookies.sdk.CookiesSDK.sync;
+
+
+/**
+ * Compares the two blocking dispatch paths available to {@link SyncRPC} operations: the legacy path, which unwraps to
+ * an async operation and waits on the resulting future chain via {@link SDKUtil#block}, and the direct path, which
+ * invokes the callable's blocking form with the timeout applied as a transport deadline.
+ *
+ * <p>Run with {@code ./gradlew jmh}; the GC profiler is enabled by default, so allocation rates per operation are
+ * reported alongside latency.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyncDispatchBenchmark {
+    private Server server;
+    private ManagedChannel channel;
+    private CatalogClientV1 client;
+    private SyncRPC<BrandsRequest> rpc;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        var serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+            .addService(MockCatalogServiceImpl.acquire())
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+        client = CatalogClientV1.forStub(CatalogV1StubSettings.newBuilder()
+            .setTransportChannelProvider(FixedTransportChannelProvider.create(GrpcTransportChannel.create(channel)))
+            .build()
+            .createStub());
+        rpc = sync(BrandsRequest.getDefaultInstance());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws InterruptedException {
+        client.close();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /** Blocking call via the async future chain, which is how every sync RPC was dispatched previously. */
+    @Benchmark
+    public Collection<Brand> futureChain() {
+        return SDKUtil.block(rpc, client.logger(), CatalogV1Grpc.getBrandsMethod(), client::brands);
+    }
+
+    /** Blocking call via the direct fast path, with the deadline enforced by the transport. */
+    @Benchmark
+    public Collection<Brand> directCall() {
+        return client.brands(rpc);
+    }
+}
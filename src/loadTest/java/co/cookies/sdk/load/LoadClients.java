@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.load;
+
+import co.cookies.sdk.catalog.v1.CatalogClientV1;
+import co.cookies.sdk.catalog.v1.stub.CatalogV1StubSettings;
+import co.cookies.sdk.services.CircuitBreakerPolicy;
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.services.HedgingPolicy;
+import co.cookies.sdk.services.LimiterPolicy;
+import co.cookies.sdk.services.ServiceOptions;
+import co.cookies.sdk.storefront.v1.StorefrontClientV1;
+import co.cookies.sdk.storefront.v1.stub.MenuV1StubSettings;
+import co.cookies.sdk.storefront.v1.stub.ProfileV1StubSettings;
+import co.cookies.sdk.transport.ChannelPool;
+import co.cookies.sdk.transport.RetryServiceConfig;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import com.google.api.gax.rpc.TransportChannelProvider;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static co.cookies.sdk.SDKUtil.protect;
+
+
+/**
+ * Set of SDK clients wired to a single backend of the {@link MockBackend}, through a pool of plaintext Netty channels
+ * configured like those of the SDK manager (retries, keep-alive), and with the client-side tuning described by the
+ * {@link LoadOptions}.
+ */
+public final class LoadClients implements Closeable {
+    private final ChannelPool pool;
+    private final CatalogClientV1 catalog;
+    private final StorefrontClientV1.MenuClientV1 menu;
+    private final StorefrontClientV1.ProfileClientV1 profile;
+
+    private LoadClients(ChannelPool pool,
+                        CatalogClientV1 catalog,
+                        StorefrontClientV1.MenuClientV1 menu,
+                        StorefrontClientV1.ProfileClientV1 profile) {
+        this.pool = pool;
+        this.catalog = catalog;
+        this.menu = menu;
+        this.profile = profile;
+    }
+
+    /**
+     * Connect a fresh set of clients to the provided backend address.
+     *
+     * @param address Loopback address of the backend.
+     * @param options Load options, which carry the client-side tuning under test.
+     * @param engine Execution engine for the clients; it is left running when the clients are closed.
+     * @return Connected clients; close them to release their channels.
+     */
+    public static @Nonnull LoadClients connect(@Nonnull InetSocketAddress address,
+                                               @Nonnull LoadOptions options,
+                                               @Nonnull ExecutionEngine engine) {
+        var retryConfig = RetryServiceConfig.forServices(List.of(
+            CatalogClientV1.INFO,
+            StorefrontClientV1.MenuClientV1.INFO,
+            StorefrontClientV1.ProfileClientV1.INFO
+        ));
+        var pool = ChannelPool.create(options.channels(), () -> NettyChannelBuilder.forAddress(address)
+            .usePlaintext()
+            .keepAliveWithoutCalls(true)
+            .keepAliveTime(1, TimeUnit.MINUTES)
+            .keepAliveTimeout(10, TimeUnit.MINUTES)
+            .enableRetry()
+            .maxRetryAttempts(RetryServiceConfig.MAX_ATTEMPTS)
+            .defaultServiceConfig(retryConfig)
+            .userAgent("Cookies SDK/J v1 (load)")
+            .build());
+        var serviceOptions = ServiceOptions.builder()
+            .setEngine(engine)
+            .setLimiter(options.limiter() ? Optional.of(LimiterPolicy.defaults()) : Optional.empty())
+            .setCircuitBreaker(options.breaker() ? Optional.of(CircuitBreakerPolicy.defaults()) : Optional.empty())
+            .setHedging(options.hedging() ? Optional.of(HedgingPolicy.defaults()) : Optional.empty())
+            .build();
+        TransportChannelProvider transport = FixedTransportChannelProvider.create(GrpcTransportChannel.create(pool));
+
+        return new LoadClients(
+            pool,
+            CatalogClientV1.forStub(protect(() -> CatalogV1StubSettings.newBuilder()
+                .setTransportChannelProvider(transport)
+                .build()
+                .createStub()), serviceOptions),
+            StorefrontClientV1.MenuClientV1.forStub(protect(() -> MenuV1StubSettings.newBuilder()
+                .setTransportChannelProvider(transport)
+                .build()
+                .createStub()), serviceOptions),
+            StorefrontClientV1.ProfileClientV1.forStub(protect(() -> ProfileV1StubSettings.newBuilder()
+                .setTransportChannelProvider(transport)
+                .build()
+                .createStub()), serviceOptions)
+        );
+    }
+
+    /** @return Catalog client. */
+    public @Nonnull CatalogClientV1 catalog() {
+        return catalog;
+    }
+
+    /** @return Storefront menu client. */
+    public @Nonnull StorefrontClientV1.MenuClientV1 menu() {
+        return menu;
+    }
+
+    /** @return Storefront profile client. */
+    public @Nonnull StorefrontClientV1.ProfileClientV1 profile() {
+        return profile;
+    }
+
+    /** @return Channel pool the clients dispatch through. */
+    public @Nonnull ChannelPool pool() {
+        return pool;
+    }
+
+    // -- Interface: Closeable -- //
+
+    @Override
+    public void close() {
+        try {
+            catalog.close();
+            menu.close();
+            profile.close();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.load;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.protobuf.TextFormat;
+
+import javax.annotation.Nonnull;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+
+/**
+ * Open-loop load generator, which drives a configurable mix of SDK calls at a fixed rate against a {@link MockBackend}
+ * on loopback, and reports latency percentiles (corrected for coordinated omission) and error rates per operation.
+ *
+ * <p>Calls are dispatched on a fixed schedule by a single thread, through the async API, without waiting for earlier
+ * calls to complete; a slow SDK therefore builds up in-flight calls rather than quietly lowering the offered load.
+ * See {@link LoadReport} for how latency is measured. Run with {@code ./gradlew loadTest}, passing flags via
+ * {@code --args}, for instance:</p>
+ *
+ * <pre>
+ *   ./gradlew loadTest --args="--qps 8000 --duration 60 --channels 4 --engine pool:2:16:4096 --label pool16"
+ * </pre>
+ *
+ * <p>Supported flags:</p>
+ * <ul>
+ *   <li>{@code --label}: Name for the run, carried into the report and CSV.</li>
+ *   <li>{@code --qps}: Offered load, in calls per second (default 5000).</li>
+ *   <li>{@code --duration}, {@code --warmup}, {@code --drain}: Measured run length, warm-up length, and budget to
+ *   wait for in-flight calls afterward, in seconds (defaults 30, 5 and 10).</li>
+ *   <li>{@code --mix}: Call mix as comma-separated {@code operation=weight} pairs, using the labels of
+ *   {@link Operation}; e.g. {@code catalog.brands=3,menu.menu=1}.</li>
+ *   <li>{@code --fault-ratio}: Fraction of calls steered to the error-injecting services (default 0).</li>
+ *   <li>{@code --fault-status}, {@code --fault-delay-ms}: Status the error-injecting services fail with (default
+ *   {@code UNAVAILABLE}, which is retried by the transport), and how long they wait first (default 0).</li>
+ *   <li>{@code --channels}: Channel pool size per backend (default 2).</li>
+ *   <li>{@code --engine}: {@code shared}, {@code virtual}, or {@code pool:<timer>:<callbacks>:<queue>}.</li>
+ *   <li>{@code --limiter}, {@code --breaker}, {@code --hedging}: Enable the corresponding client policy, with its
+ *   default settings.</li>
+ *   <li>{@code --seed}: Seed for the call sequence, so runs offer identical load (default 42).</li>
+ *   <li>{@code --csv}: File to append a one-line summary to, for comparing runs side by side.</li>
+ * </ul>
+ */
+public final class LoadHarness {
+    /**
+     * Logger which the mock services' fixture parser warns through on every call, since the fixtures carry fields
+     * unknown to this schema version; held strongly so its level sticks.
+     */
+    private static final java.util.logging.Logger TEXT_FORMAT_LOGGER =
+        java.util.logging.Logger.getLogger(TextFormat.class.getName());
+
+    private final LoadOptions options;
+    private final LoadClients healthy;
+    private final LoadClients faulty;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final SplittableRandom random;
+
+    private LoadHarness(LoadOptions options, LoadClients healthy, LoadClients faulty) {
+        this.options = options;
+        this.healthy = healthy;
+        this.faulty = faulty;
+        this.operations = options.mix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += options.mix().get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+        this.random = new SplittableRandom(options.seed());
+    }
+
+    // -- Dispatch -- //
+
+    /** @return Next operation to call, chosen at random according to the call mix. */
+    private Operation pick() {
+        var ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    /**
+     * Issue a single call, and arrange for its outcome to be recorded.
+     *
+     * @param report Report to record the call into.
+     * @param intended Time the call was scheduled for.
+     */
+    private void dispatch(LoadReport report, long intended) {
+        var operation = pick();
+        var clients = random.nextDouble() < options.faultRatio() ? faulty : healthy;
+        var sent = System.nanoTime();
+        report.dispatched(operation, intended, sent);
+
+        final ListenableFuture<?> future;
+        try {
+            future = operation.dispatch(clients);
+        } catch (RuntimeException rxe) {
+            // calls rejected up-front (by a limiter or open circuit, for instance) are failures like any other.
+            report.completed(operation, intended, sent, System.nanoTime(), rxe);
+            return;
+        }
+        future.addListener(() -> {
+            Throwable error = null;
+            try {
+                Futures.getDone(future);
+            } catch (ExecutionException exe) {
+                error = exe.getCause();
+            } catch (CancellationException cxe) {
+                error = cxe;
+            }
+            report.completed(operation, intended, sent, System.nanoTime(), error);
+        }, directExecutor());
+    }
+
+    /**
+     * Offer load at the configured rate for the provided length of time, recording into the provided report.
+     *
+     * <p>Each call is scheduled at a fixed offset from the start of the run. If the dispatcher falls behind, it issues
+     * overdue calls back-to-back until it catches up, and the report counts the delay against each of them.</p>
+     *
+     * @param report Report to record calls into.
+     * @param length Length of time to offer load for.
+     * @return Time actually spent dispatching.
+     */
+    private Duration drive(LoadReport report, Duration length) {
+        var period = 1e9 / options.qps();
+        var start = System.nanoTime();
+        var end = start + length.toNanos();
+        for (long i = 0; ; i++) {
+            var intended = start + Math.round(i * period);
+            if (intended - end >= 0) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) - intended < 0) {
+                LockSupport.parkNanos(intended - now);
+            }
+            dispatch(report, intended);
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Wait for calls in flight to complete, up to the configured drain budget.
+     *
+     * @param report Report whose calls should be awaited.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private void drain(LoadReport report) throws InterruptedException {
+        var deadline = System.nanoTime() + options.drain().toNanos();
+        while (report.completedCount() < report.dispatchedCount() && System.nanoTime() - deadline < 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /**
+     * Run the warm-up, if any, and then the measured load, and render the resulting report.
+     *
+     * @throws Exception If the run fails or is interrupted.
+     */
+    private void run() throws Exception {
+        if (!options.warmup().isZero()) {
+            System.out.printf("warming up for %ss...%n", options.warmup().toMillis() / 1000.0);
+            var warmup = new LoadReport();
+            drive(warmup, options.warmup());
+            drain(warmup);
+        }
+
+        System.out.printf("offering %d rps for %ss (%s)...%n",
+            options.qps(), options.duration().toMillis() / 1000.0, options.tuning());
+        var report = new LoadReport();
+        var elapsed = drive(report, options.duration());
+        drain(report);
+
+        report.print(System.out, options, elapsed);
+        if (options.csv().isPresent()) {
+            report.appendCsv(Path.of(options.csv().get()), options, elapsed);
+        }
+    }
+
+    // -- Entrypoint -- //
+
+    /**
+     * Start the mock backend, connect clients to it, and run the load described by the provided flags.
+     *
+     * @param args Flags, as described on {@link LoadHarness}.
+     * @throws Exception If the backend fails to start, or the run fails.
+     */
+    public static void main(@Nonnull String... args) throws Exception {
+        TEXT_FORMAT_LOGGER.setLevel(Level.SEVERE);
+        final LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException iae) {
+            System.err.println("Invalid load options: " + iae.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        try (var backend = MockBackend.start(options.faultStatus(), options.faultDelay());
+             var engine = LoadOptions.createEngine(options.engine());
+             var healthy = LoadClients.connect(backend.healthy(), options, engine);
+             var faulty = LoadClients.connect(backend.faulty(), options, engine)) {
+            // bring up every channel before load starts, so connection setup isn't measured.
+            try {
+                Futures.allAsList(healthy.pool().connect(), faulty.pool().connect()).get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException | TimeoutException err) {
+                throw new IllegalStateException("Failed to connect to mock backend", err);
+            }
+            new LoadHarness(options, healthy, faulty).run();
+        }
+    }
+}
@@ -0,0 +1,521 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.load;
+
+import co.cookies.sdk.services.ExecutionEngine;
+import com.google.common.collect.ImmutableMap;
+import io.grpc.Status;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+
+/**
+ * Settings for a single run of the {@link LoadHarness}: the offered load and call mix, how much of it is steered to the
+ * fault-injecting backend, and the client-side tuning under test.
+ *
+ * <p>Options are usually parsed from the command line via {@link #parse(String...)}; each flag takes the form
+ * {@code --name value} or {@code --name=value}, and boolean flags may omit the value. See {@link LoadHarness} for the
+ * full list.</p>
+ */
+@Immutable @ThreadSafe
+public final class LoadOptions {
+    /** Default offered load, in calls per second. */
+    public static final int DEFAULT_QPS = 5000;
+
+    /** Default measured run length. */
+    public static final Duration DEFAULT_DURATION = Duration.ofSeconds(30);
+
+    /** Default warm-up length, during which results are discarded. */
+    public static final Duration DEFAULT_WARMUP = Duration.ofSeconds(5);
+
+    /** Default budget to wait for in-flight calls once dispatch stops. */
+    public static final Duration DEFAULT_DRAIN = Duration.ofSeconds(10);
+
+    /** Default call mix, by relative weight. */
+    public static final ImmutableMap<Operation, Integer> DEFAULT_MIX = ImmutableMap.of(
+        Operation.CATALOG_BRANDS, 30,
+        Operation.CATALOG_STRAINS, 20,
+        Operation.CATALOG_PRODUCT, 20,
+        Operation.MENU, 20,
+        Operation.PROFILE_FETCH, 10
+    );
+
+    /** Default status injected by the faulty backend. */
+    public static final Status.Code DEFAULT_FAULT_STATUS = Status.Code.UNAVAILABLE;
+
+    /** Accepted forms of the engine spec. */
+    private static final Pattern ENGINE_SPEC = Pattern.compile("shared|virtual|pool:[1-9]\\d*:[1-9]\\d*:[1-9]\\d*");
+
+    private final String label;
+    private final int qps;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration drain;
+    private final ImmutableMap<Operation, Integer> mix;
+    private final double faultRatio;
+    private final Status.Code faultStatus;
+    private final Duration faultDelay;
+    private final int channels;
+    private final String engine;
+    private final boolean limiter;
+    private final boolean breaker;
+    private final boolean hedging;
+    private final long seed;
+    private final Optional<String> csv;
+
+    private LoadOptions(Builder builder) {
+        this.label = builder.label;
+        this.qps = builder.qps;
+        this.duration = builder.duration;
+        this.warmup = builder.warmup;
+        this.drain = builder.drain;
+        this.mix = ImmutableMap.copyOf(builder.mix);
+        this.faultRatio = builder.faultRatio;
+        this.faultStatus = builder.faultStatus;
+        this.faultDelay = builder.faultDelay;
+        this.channels = builder.channels;
+        this.engine = builder.engine;
+        this.limiter = builder.limiter;
+        this.breaker = builder.breaker;
+        this.hedging = builder.hedging;
+        this.seed = builder.seed;
+        this.csv = builder.csv;
+    }
+
+    /** Builder for {@link LoadOptions}; every setting starts at its default. */
+    public static final class Builder {
+        private String label = "default";
+        private int qps = DEFAULT_QPS;
+        private Duration duration = DEFAULT_DURATION;
+        private Duration warmup = DEFAULT_WARMUP;
+        private Duration drain = DEFAULT_DRAIN;
+        private Map<Operation, Integer> mix = DEFAULT_MIX;
+        private double faultRatio = 0;
+        private Status.Code faultStatus = DEFAULT_FAULT_STATUS;
+        private Duration faultDelay = Duration.ZERO;
+        private int channels = 2;
+        private String engine = "shared";
+        private boolean limiter = false;
+        private boolean breaker = false;
+        private boolean hedging = false;
+        private long seed = 42;
+        private Optional<String> csv = Optional.empty();
+
+        private Builder() { /* Please use `LoadOptions.builder()`. */ }
+
+        /**
+         * @param label Name for this run, carried into the report so runs can be compared side by side.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setLabel(@Nonnull String label) {
+            if (label.isBlank()) {
+                throw new IllegalArgumentException("label must not be blank");
+            }
+            this.label = label;
+            return this;
+        }
+
+        /**
+         * @param qps Offered load, in calls per second; calls are issued on this schedule whether or not earlier
+         *            calls have completed.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setQps(int qps) {
+            if (qps < 1) {
+                throw new IllegalArgumentException("qps must be positive, got " + qps);
+            }
+            this.qps = qps;
+            return this;
+        }
+
+        /**
+         * @param duration Measured run length.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setDuration(@Nonnull Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("duration must be positive, got " + duration);
+            }
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * @param warmup Warm-up length, run at the same load before measurement begins; may be zero.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setWarmup(@Nonnull Duration warmup) {
+            if (warmup.isNegative()) {
+                throw new IllegalArgumentException("warmup must not be negative, got " + warmup);
+            }
+            this.warmup = warmup;
+            return this;
+        }
+
+        /**
+         * @param drain Budget to wait for in-flight calls once dispatch stops; calls still running after it are
+         *              reported as incomplete.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setDrain(@Nonnull Duration drain) {
+            if (drain.isNegative()) {
+                throw new IllegalArgumentException("drain must not be negative, got " + drain);
+            }
+            this.drain = drain;
+            return this;
+        }
+
+        /**
+         * @param mix Relative weight of each operation in the offered load; operations left out are never called.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMix(@Nonnull Map<Operation, Integer> mix) {
+            if (mix.isEmpty()) {
+                throw new IllegalArgumentException("mix must include at least one operation");
+            }
+            for (var entry : mix.entrySet()) {
+                if (entry.getValue() < 1) {
+                    throw new IllegalArgumentException(
+                        "mix weights must be positive, got " + entry.getValue() + " for " + entry.getKey().label());
+                }
+            }
+            this.mix = mix;
+            return this;
+        }
+
+        /**
+         * @param faultRatio Fraction of calls, in `[0, 1]`, steered to the fault-injecting backend.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setFaultRatio(double faultRatio) {
+            if (!(faultRatio >= 0 && faultRatio <= 1)) {
+                throw new IllegalArgumentException("fault ratio must be in [0, 1], got " + faultRatio);
+            }
+            this.faultRatio = faultRatio;
+            return this;
+        }
+
+        /**
+         * @param faultStatus Status the fault-injecting backend fails every call with.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setFaultStatus(@Nonnull Status.Code faultStatus) {
+            if (faultStatus == Status.Code.OK) {
+                throw new IllegalArgumentException("fault status must not be OK");
+            }
+            this.faultStatus = faultStatus;
+            return this;
+        }
+
+        /**
+         * @param faultDelay Delay the fault-injecting backend waits before failing each call; may be zero.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setFaultDelay(@Nonnull Duration faultDelay) {
+            if (faultDelay.isNegative()) {
+                throw new IllegalArgumentException("fault delay must not be negative, got " + faultDelay);
+            }
+            this.faultDelay = faultDelay;
+            return this;
+        }
+
+        /**
+         * @param channels Size of the channel pool each backend is reached through.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setChannels(int channels) {
+            if (channels < 1) {
+                throw new IllegalArgumentException("channels must be positive, got " + channels);
+            }
+            this.channels = channels;
+            return this;
+        }
+
+        /**
+         * @param engine Execution engine for the clients: {@code shared}, {@code virtual}, or
+         *               {@code pool:<timer threads>:<callback threads>:<queue capacity>}.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setEngine(@Nonnull String engine) {
+            // validate eagerly, so bad specs fail before any servers start.
+            if (!ENGINE_SPEC.matcher(engine).matches()) {
+                throw new IllegalArgumentException(
+                    "engine must be 'shared', 'virtual' or 'pool:<timer>:<callbacks>:<queue>', got '" + engine + "'");
+            }
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * @param limiter Whether to enable the adaptive concurrency limiter, with default settings.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setLimiter(boolean limiter) {
+            this.limiter = limiter;
+            return this;
+        }
+
+        /**
+         * @param breaker Whether to enable the circuit breaker, with default settings.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setBreaker(boolean breaker) {
+            this.breaker = breaker;
+            return this;
+        }
+
+        /**
+         * @param hedging Whether to enable hedging of idempotent reads, with default settings.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setHedging(boolean hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        /**
+         * @param seed Seed for choosing operations and backends, so runs offer identical call sequences.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param csv File to append a one-line summary of the run to, creating it (with a header) if needed.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setCsv(@Nonnull Optional<String> csv) {
+            this.csv = csv;
+            return this;
+        }
+
+        /** @return Load options built from this builder. */
+        public @Nonnull LoadOptions build() {
+            return new LoadOptions(this);
+        }
+    }
+
+    /** @return Builder with every setting at its default. */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    /** @return Load options with every setting at its default. */
+    public static @Nonnull LoadOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Parse load options from command-line arguments.
+     *
+     * @param args Arguments, as flags of the form {@code --name value} or {@code --name=value}.
+     * @return Parsed load options.
+     * @throws IllegalArgumentException If a flag is unknown, or its value is missing or invalid.
+     */
+    public static @Nonnull LoadOptions parse(@Nonnull String... args) {
+        var builder = builder();
+        for (int i = 0; i < args.length; i++) {
+            var arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("expected a flag, got '" + arg + "'");
+            }
+            var name = arg.substring(2);
+            String value = null;
+            var eq = name.indexOf('=');
+            if (eq >= 0) {
+                value = name.substring(eq + 1);
+                name = name.substring(0, eq);
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                value = args[++i];
+            }
+
+            switch (name) {
+                case "label": builder.setLabel(required(name, value)); break;
+                case "qps": builder.setQps(Integer.parseInt(required(name, value))); break;
+                case "duration": builder.setDuration(seconds(name, value)); break;
+                case "warmup": builder.setWarmup(seconds(name, value)); break;
+                case "drain": builder.setDrain(seconds(name, value)); break;
+                case "mix": builder.setMix(mix(required(name, value))); break;
+                case "fault-ratio": builder.setFaultRatio(Double.parseDouble(required(name, value))); break;
+                case "fault-status": builder.setFaultStatus(Status.Code.valueOf(required(name, value))); break;
+                case "fault-delay-ms":
+                    builder.setFaultDelay(Duration.ofMillis(Long.parseLong(required(name, value))));
+                    break;
+                case "channels": builder.setChannels(Integer.parseInt(required(name, value))); break;
+                case "engine": builder.setEngine(required(name, value)); break;
+                case "limiter": builder.setLimiter(flag(value)); break;
+                case "breaker": builder.setBreaker(flag(value)); break;
+                case "hedging": builder.setHedging(flag(value)); break;
+                case "seed": builder.setSeed(Long.parseLong(required(name, value))); break;
+                case "csv": builder.setCsv(Optional.of(required(name, value))); break;
+                default: throw new IllegalArgumentException("unknown flag '--" + name + "'");
+            }
+        }
+        return builder.build();
+    }
+
+    // -- Parsing -- //
+
+    private static String required(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("flag '--" + name + "' requires a value");
+        }
+        return value;
+    }
+
+    private static Duration seconds(String name, String value) {
+        return Duration.ofMillis(Math.round(Double.parseDouble(required(name, value)) * 1000));
+    }
+
+    private static boolean flag(String value) {
+        return value == null || Boolean.parseBoolean(value);
+    }
+
+    private static Map<Operation, Integer> mix(String spec) {
+        var mix = new LinkedHashMap<Operation, Integer>();
+        for (var entry : spec.split(",")) {
+            var parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("mix entries take the form 'operation=weight', got '" + entry + "'");
+            }
+            mix.merge(Operation.forLabel(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer::sum);
+        }
+        return mix;
+    }
+
+    /**
+     * Create the execution engine described by the provided spec.
+     *
+     * @param spec Engine spec: {@code shared}, {@code virtual}, or {@code pool:<timer>:<callbacks>:<queue>}.
+     * @return Execution engine; closing it is a no-op for the shared engine.
+     */
+    static @Nonnull ExecutionEngine createEngine(@Nonnull String spec) {
+        if (spec.equals("shared")) {
+            return ExecutionEngine.shared();
+        } else if (spec.equals("virtual")) {
+            return ExecutionEngine.virtual();
+        } else if (ENGINE_SPEC.matcher(spec).matches()) {
+            var parts = spec.substring("pool:".length()).split(":");
+            return ExecutionEngine.create(
+                Integer.parseInt(parts[0]),
+                Integer.parseInt(parts[1]),
+                Integer.parseInt(parts[2])
+            );
+        }
+        throw new IllegalArgumentException("unknown engine '" + spec + "'");
+    }
+
+    // -- Accessors -- //
+
+    /** @return Name for this run. */
+    public @Nonnull String label() {
+        return label;
+    }
+
+    /** @return Offered load, in calls per second. */
+    public int qps() {
+        return qps;
+    }
+
+    /** @return Measured run length. */
+    public @Nonnull Duration duration() {
+        return duration;
+    }
+
+    /** @return Warm-up length. */
+    public @Nonnull Duration warmup() {
+        return warmup;
+    }
+
+    /** @return Budget to wait for in-flight calls once dispatch stops. */
+    public @Nonnull Duration drain() {
+        return drain;
+    }
+
+    /** @return Relative weight of each operation in the offered load. */
+    public @Nonnull ImmutableMap<Operation, Integer> mix() {
+        return mix;
+    }
+
+    /** @return Fraction of calls steered to the fault-injecting backend. */
+    public double faultRatio() {
+        return faultRatio;
+    }
+
+    /** @return Status the fault-injecting backend fails calls with. */
+    public @Nonnull Status.Code faultStatus() {
+        return faultStatus;
+    }
+
+    /** @return Delay before the fault-injecting backend fails each call. */
+    public @Nonnull Duration faultDelay() {
+        return faultDelay;
+    }
+
+    /** @return Size of the channel pool for each backend. */
+    public int channels() {
+        return channels;
+    }
+
+    /** @return Execution engine spec for the clients. */
+    public @Nonnull String engine() {
+        return engine;
+    }
+
+    /** @return Whether the adaptive concurrency limiter is enabled. */
+    public boolean limiter() {
+        return limiter;
+    }
+
+    /** @return Whether the circuit breaker is enabled. */
+    public boolean breaker() {
+        return breaker;
+    }
+
+    /** @return Whether hedging of idempotent reads is enabled. */
+    public boolean hedging() {
+        return hedging;
+    }
+
+    /** @return Seed for choosing operations and backends. */
+    public long seed() {
+        return seed;
+    }
+
+    /** @return File to append a summary line to, if any. */
+    public @Nonnull Optional<String> csv() {
+        return csv;
+    }
+
+    /** @return One-line description of the client-side tuning under test. */
+    public @Nonnull String tuning() {
+        return String.format(
+            "engine=%s channels=%d limiter=%s breaker=%s hedging=%s",
+            engine,
+            channels,
+            limiter ? "on" : "off",
+            breaker ? "on" : "off",
+            hedging ? "on" : "off"
+        );
+    }
+}
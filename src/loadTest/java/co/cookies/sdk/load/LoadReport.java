@@ -0,0 +1,291 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.load;
+
+import co.cookies.sdk.metrics.MethodMetrics;
+import co.cookies.sdk.services.LatencyHistogram;
+import io.grpc.Status;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Collects the outcome of every call issued by the {@link LoadHarness}, and renders the results.
+ *
+ * <p>Each call is timed twice. <i>Service time</i> runs from the moment the call was actually dispatched, and is what
+ * a closed-loop benchmark would report. <i>Response time</i> runs from the moment the call was scheduled to be
+ * dispatched, so any time a call spent waiting behind a stalled dispatcher (or a blocked SDK entry point) is counted
+ * against it; this corrects for coordinated omission, and is the number to compare between runs.</p>
+ */
+@ThreadSafe
+public final class LoadReport {
+    /** Percentiles rendered in the latency distribution. */
+    private static final List<Double> DISTRIBUTION = List.of(0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 0.9999, 1.0);
+
+    /** Status codes, indexed by ordinal. */
+    private static final Status.Code[] CODES = Status.Code.values();
+
+    /** Outcomes of calls to a single operation, or to all of them. */
+    private static final class Tally {
+        private final LongAdder dispatched = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final AtomicLongArray errors = new AtomicLongArray(CODES.length);
+        private final LatencyHistogram service = LatencyHistogram.cumulative();
+        private final LatencyHistogram response = LatencyHistogram.cumulative();
+
+        void record(long serviceNanos, long responseNanos, Status.Code code) {
+            completed.increment();
+            service.record(serviceNanos);
+            response.record(responseNanos);
+            if (code != Status.Code.OK) {
+                errors.incrementAndGet(code.ordinal());
+            }
+        }
+
+        long errorCount() {
+            long total = 0;
+            for (int i = 0; i < errors.length(); i++) {
+                total += errors.get(i);
+            }
+            return total;
+        }
+
+        double errorRate() {
+            var done = completed.sum();
+            return done == 0 ? 0 : (double) errorCount() / done;
+        }
+    }
+
+    private final Map<Operation, Tally> operations = new EnumMap<>(Operation.class);
+    private final Tally total = new Tally();
+    private final LongAccumulator maxLag = new LongAccumulator(Math::max, 0);
+
+    /** Create an empty report, covering every operation. */
+    public LoadReport() {
+        for (var operation : Operation.values()) {
+            operations.put(operation, new Tally());
+        }
+    }
+
+    // -- Recording -- //
+
+    /**
+     * Record that a call has been dispatched.
+     *
+     * @param operation Operation which was called.
+     * @param intendedNanos Time the call was scheduled for.
+     * @param sentNanos Time the call was actually dispatched.
+     */
+    public void dispatched(@Nonnull Operation operation, long intendedNanos, long sentNanos) {
+        operations.get(operation).dispatched.increment();
+        total.dispatched.increment();
+        maxLag.accumulate(sentNanos - intendedNanos);
+    }
+
+    /**
+     * Record that a dispatched call has completed.
+     *
+     * @param operation Operation which was called.
+     * @param intendedNanos Time the call was scheduled for.
+     * @param sentNanos Time the call was actually dispatched.
+     * @param doneNanos Time the call completed.
+     * @param error Error the call failed with, or `null` if it succeeded.
+     */
+    public void completed(@Nonnull Operation operation,
+                          long intendedNanos,
+                          long sentNanos,
+                          long doneNanos,
+                          @Nullable Throwable error) {
+        var code = error == null ? Status.Code.OK : MethodMetrics.status(error);
+        operations.get(operation).record(doneNanos - sentNanos, doneNanos - intendedNanos, code);
+        total.record(doneNanos - sentNanos, doneNanos - intendedNanos, code);
+    }
+
+    // -- Accessors -- //
+
+    /** @return Count of calls dispatched. */
+    public long dispatchedCount() {
+        return total.dispatched.sum();
+    }
+
+    /** @return Count of calls completed, successfully or not. */
+    public long completedCount() {
+        return total.completed.sum();
+    }
+
+    /** @return Count of calls which failed. */
+    public long errorCount() {
+        return total.errorCount();
+    }
+
+    /** @return Largest delay between a call's scheduled and actual dispatch. */
+    public @Nonnull Duration maxLag() {
+        return Duration.ofNanos(maxLag.get());
+    }
+
+    /**
+     * @param percentile Percentile, in `[0, 1]`.
+     * @return Response time (corrected for coordinated omission) at the percentile, across all operations.
+     */
+    public @Nonnull Duration responseTime(double percentile) {
+        return total.response.percentile(percentile);
+    }
+
+    /**
+     * @param percentile Percentile, in `[0, 1]`.
+     * @return Service time (uncorrected) at the percentile, across all operations.
+     */
+    public @Nonnull Duration serviceTime(double percentile) {
+        return total.service.percentile(percentile);
+    }
+
+    // -- Rendering -- //
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+
+    /**
+     * Render the report in human-readable form.
+     *
+     * @param out Stream to render to.
+     * @param options Options the run was made with.
+     * @param elapsed Measured dispatch time.
+     */
+    public void print(@Nonnull PrintStream out, @Nonnull LoadOptions options, @Nonnull Duration elapsed) {
+        var dispatched = dispatchedCount();
+        var completed = completedCount();
+        out.printf(Locale.ROOT, "%n== Load report: %s ==%n", options.label());
+        out.printf(Locale.ROOT, "%s fault-ratio=%.4f fault-status=%s%n",
+            options.tuning(), options.faultRatio(), options.faultStatus());
+        out.printf(Locale.ROOT, "offered %d rps for %.1fs, achieved %.1f rps; max dispatch lag %.3f ms%n",
+            options.qps(),
+            elapsed.toMillis() / 1000.0,
+            dispatched / (elapsed.toNanos() / 1e9),
+            millis(maxLag()));
+        out.printf(Locale.ROOT, "%d calls, %d completed, %d incomplete, %d errors (%.3f%%)%n%n",
+            dispatched, completed, dispatched - completed, errorCount(), total.errorRate() * 100);
+
+        // per-operation summary: service time first, then corrected response time.
+        out.printf(Locale.ROOT, "%-22s %9s %8s %8s | %9s %9s %9s | %9s %9s %9s%n",
+            "operation", "calls", "errors", "err%",
+            "svc p50", "svc p99", "svc p999",
+            "rsp p50", "rsp p99", "rsp p999");
+        for (var entry : operations.entrySet()) {
+            var tally = entry.getValue();
+            if (tally.dispatched.sum() > 0) {
+                summarize(out, entry.getKey().label(), tally);
+            }
+        }
+        summarize(out, "all", total);
+
+        // error breakdown, by status.
+        if (errorCount() > 0) {
+            out.printf(Locale.ROOT, "%nerrors by status:%n");
+            for (var code : CODES) {
+                var count = total.errors.get(code.ordinal());
+                if (count > 0) {
+                    out.printf(Locale.ROOT, "  %-20s %9d%n", code, count);
+                }
+            }
+        }
+
+        // full latency distribution, corrected and uncorrected, across all operations.
+        out.printf(Locale.ROOT, "%nlatency distribution, all operations (ms):%n");
+        out.printf(Locale.ROOT, "  %10s %12s %12s%n", "percentile", "service", "response");
+        for (var percentile : DISTRIBUTION) {
+            out.printf(Locale.ROOT, "  %10s %12.3f %12.3f%n",
+                percentile == 1.0 ? "max" : String.format(Locale.ROOT, "%.2f", percentile * 100),
+                millis(total.service.percentile(percentile)),
+                millis(total.response.percentile(percentile)));
+        }
+        out.println();
+    }
+
+    private static void summarize(PrintStream out, String label, Tally tally) {
+        out.printf(Locale.ROOT, "%-22s %9d %8d %8.3f | %9.3f %9.3f %9.3f | %9.3f %9.3f %9.3f%n",
+            label,
+            tally.dispatched.sum(),
+            tally.errorCount(),
+            tally.errorRate() * 100,
+            millis(tally.service.percentile(0.5)),
+            millis(tally.service.percentile(0.99)),
+            millis(tally.service.percentile(0.999)),
+            millis(tally.response.percentile(0.5)),
+            millis(tally.response.percentile(0.99)),
+            millis(tally.response.percentile(0.999)));
+    }
+
+    /**
+     * Append a one-line summary of the run to a CSV file, writing a header first if the file is new, so that runs
+     * with different tuning can be compared side by side.
+     *
+     * @param file File to append to.
+     * @param options Options the run was made with.
+     * @param elapsed Measured dispatch time.
+     * @throws IOException If the file cannot be written.
+     */
+    public void appendCsv(@Nonnull Path file, @Nonnull LoadOptions options, @Nonnull Duration elapsed)
+            throws IOException {
+        var lines = new StringBuilder();
+        if (!Files.exists(file)) {
+            lines.append("label,engine,channels,limiter,breaker,hedging,fault_ratio,qps,achieved_qps,calls,incomplete,")
+                .append("errors,error_rate,svc_p50_ms,svc_p99_ms,svc_p999_ms,rsp_p50_ms,rsp_p99_ms,rsp_p999_ms\n");
+        }
+        lines.append(String.format(Locale.ROOT,
+            "%s,%s,%d,%b,%b,%b,%.4f,%d,%.1f,%d,%d,%d,%.6f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+            options.label(),
+            options.engine(),
+            options.channels(),
+            options.limiter(),
+            options.breaker(),
+            options.hedging(),
+            options.faultRatio(),
+            options.qps(),
+            dispatchedCount() / (elapsed.toNanos() / 1e9),
+            dispatchedCount(),
+            dispatchedCount() - completedCount(),
+            errorCount(),
+            total.errorRate(),
+            millis(serviceTime(0.5)),
+            millis(serviceTime(0.99)),
+            millis(serviceTime(0.999)),
+            millis(responseTime(0.5)),
+            millis(responseTime(0.99)),
+            millis(responseTime(0.999))));
+        Files.writeString(
+            file,
+            lines,
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND
+        );
+    }
+}
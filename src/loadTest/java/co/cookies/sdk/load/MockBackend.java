@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.load;
+
+import co.cookies.sdk.catalog.v1.ErrorInjectingCatalogServiceImpl;
+import co.cookies.sdk.catalog.v1.MockCatalogServiceImpl;
+import co.cookies.sdk.storefront.v1.ErrorInjectingStorefrontMenuServiceImpl;
+import co.cookies.sdk.storefront.v1.ErrorInjectingStorefrontProfileServiceImpl;
+import co.cookies.sdk.storefront.v1.MockStorefrontMenuServiceImpl;
+import co.cookies.sdk.storefront.v1.MockStorefrontProfileServiceImpl;
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Local backend for the {@link LoadHarness}: two Netty servers bound to ephemeral loopback ports, one serving the mock
+ * Catalog, Menu and Profile services, and one serving their error-injecting variants. A gRPC server can only hold one
+ * implementation of each service, so the two sets are split across servers, and load is steered between them by the
+ * client.
+ *
+ * <p>The mock services parse their fixtures on every call, and share the JVM (and its cores) with the clients under
+ * test, so absolute latencies are pessimistic; compare runs against each other rather than against production.</p>
+ */
+public final class MockBackend implements Closeable {
+    private final Server healthy;
+    private final Server faulty;
+
+    private MockBackend(Server healthy, Server faulty) {
+        this.healthy = healthy;
+        this.faulty = faulty;
+    }
+
+    /**
+     * Start both servers.
+     *
+     * @param faultStatus Status which the faulty server fails every call with.
+     * @param faultDelay Delay before the faulty server fails each call; may be zero.
+     * @return Running backend; close it to stop both servers.
+     * @throws IOException If either server fails to bind.
+     */
+    public static @Nonnull MockBackend start(@Nonnull Status.Code faultStatus,
+                                             @Nonnull Duration faultDelay) throws IOException {
+        var error = Status.fromCode(faultStatus)
+            .withDescription("injected by load harness")
+            .asRuntimeException();
+        var healthy = serve(List.of(
+            MockCatalogServiceImpl.acquire(),
+            MockStorefrontMenuServiceImpl.acquire(),
+            MockStorefrontProfileServiceImpl.acquire()
+        ));
+        try {
+            var faulty = serve(faultDelay.isZero() ? List.of(
+                ErrorInjectingCatalogServiceImpl.injectThrowable(error),
+                ErrorInjectingStorefrontMenuServiceImpl.injectThrowable(error),
+                ErrorInjectingStorefrontProfileServiceImpl.injectThrowable(error)
+            ) : List.of(
+                ErrorInjectingCatalogServiceImpl.injectThrowable(error, faultDelay),
+                ErrorInjectingStorefrontMenuServiceImpl.injectThrowable(error, faultDelay),
+                ErrorInjectingStorefrontProfileServiceImpl.injectThrowable(error, faultDelay)
+            ));
+            return new MockBackend(healthy, faulty);
+        } catch (IOException ioe) {
+            healthy.shutdownNow();
+            throw ioe;
+        }
+    }
+
+    private static Server serve(List<BindableService> services) throws IOException {
+        var builder = NettyServerBuilder.forAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        services.forEach(builder::addService);
+        return builder.build().start();
+    }
+
+    private static InetSocketAddress address(Server server) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    /** @return Address of the server hosting the mock services. */
+    public @Nonnull InetSocketAddress healthy() {
+        return address(healthy);
+    }
+
+    /** @return Address of the server hosting the error-injecting services. */
+    public @Nonnull InetSocketAddress faulty() {
+        return address(faulty);
+    }
+
+    // -- Interface: Closeable -- //
+
+    @Override
+    public void close() {
+        healthy.shutdownNow();
+        faulty.shutdownNow();
+        try {
+            healthy.awaitTermination(5, TimeUnit.SECONDS);
+            faulty.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ixe) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
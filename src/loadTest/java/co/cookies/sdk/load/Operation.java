@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.load;
+
+import co.cookies.sdk.storefront.v1.MenuRequestSpec;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import cookies.schema.catalog.BrandsRequest;
+import cookies.schema.catalog.MultiProductRequest;
+import cookies.schema.catalog.ProductRequest;
+import cookies.schema.catalog.StrainsRequest;
+import cookies.schema.store.ProfileRequest;
+import cookies.schema.store.UsernameCheckRequest;
+
+import javax.annotation.Nonnull;
+import java.util.stream.Stream;
+
+import static co.cookies.sdk.CookiesSDK.async;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+
+/**
+ * SDK calls which the {@link LoadHarness} can offer as load. Every operation dispatches through the async API, so that
+ * calls are issued on schedule regardless of how long earlier calls take.
+ */
+public enum Operation {
+    /** Catalog brands listing. */
+    CATALOG_BRANDS("catalog.brands") {
+        @Override
+        @Nonnull ListenableFuture<?> dispatch(@Nonnull LoadClients clients) {
+            return clients.catalog().brands(async(BrandsRequest.getDefaultInstance()));
+        }
+    },
+
+    /** Catalog strains listing. */
+    CATALOG_STRAINS("catalog.strains") {
+        @Override
+        @Nonnull ListenableFuture<?> dispatch(@Nonnull LoadClients clients) {
+            return clients.catalog().strains(async(StrainsRequest.getDefaultInstance()));
+        }
+    },
+
+    /** Catalog single-product fetch. */
+    CATALOG_PRODUCT("catalog.product") {
+        @Override
+        @Nonnull ListenableFuture<?> dispatch(@Nonnull LoadClients clients) {
+            return clients.catalog().product(async(ProductRequest.getDefaultInstance()));
+        }
+    },
+
+    /** Catalog product sync, a server stream which is drained before the call counts as complete. */
+    CATALOG_SYNC("catalog.sync") {
+        @Override
+        @Nonnull ListenableFuture<?> dispatch(@Nonnull LoadClients clients) {
+            return Futures.transform(
+                clients.catalog().sync(async(MultiProductRequest.getDefaultInstance())),
+                Stream::count,
+                directExecutor()
+            );
+        }
+    },
+
+    /** Storefront menu, built from a default request spec. */
+    MENU("menu.menu") {
+        @Override
+        @Nonnull ListenableFuture<?> dispatch(@Nonnull LoadClients clients) {
+            return clients.menu().menu(MenuRequestSpec.defaults());
+        }
+    },
+
+    /** Storefront profile fetch. */
+    PROFILE_FETCH("profile.fetch") {
+        @Override
+        @Nonnull ListenableFuture<?> dispatch(@Nonnull LoadClients clients) {
+            return clients.profile().fetch(async(PROFILE));
+        }
+    },
+
+    /** Storefront username availability check. */
+    PROFILE_USERNAME_CHECK("profile.usernameCheck") {
+        @Override
+        @Nonnull ListenableFuture<?> dispatch(@Nonnull LoadClients clients) {
+            return clients.profile().usernameCheck(async(USERNAME_CHECK));
+        }
+    };
+
+    /** Profile fetch request, served by the mock profile service. */
+    private static final ProfileRequest PROFILE = ProfileRequest.newBuilder()
+        .setProfileId("abc123")
+        .build();
+
+    /** Username check request, for a name the mock profile service reports as available. */
+    private static final UsernameCheckRequest USERNAME_CHECK = UsernameCheckRequest.newBuilder()
+        .setUsername("loadtest")
+        .build();
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    /** @return Label for this operation, as used in call mixes and reports. */
+    public @Nonnull String label() {
+        return label;
+    }
+
+    /**
+     * Issue this operation once against the provided clients.
+     *
+     * @param clients Clients for the backend which should receive the call.
+     * @return Future which completes when the call does.
+     */
+    abstract @Nonnull ListenableFuture<?> dispatch(@Nonnull LoadClients clients);
+
+    /**
+     * Resolve an operation from its label.
+     *
+     * @param label Label of the operation, such as {@code catalog.brands}.
+     * @return Matching operation.
+     * @throws IllegalArgumentException If no operation carries the label.
+     */
+    public static @Nonnull Operation forLabel(@Nonnull String label) {
+        for (var operation : values()) {
+            if (operation.label.equals(label)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("unknown operation '" + label + "'");
+    }
+}
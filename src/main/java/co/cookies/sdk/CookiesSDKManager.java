@@ -15,21 +15,38 @@ package co.cookies.sdk;
 
 import co.cookies.sdk.catalog.CatalogClient;
 import co.cookies.sdk.catalog.v1.CatalogClientV1;
+import co.cookies.sdk.metrics.MetricsSink;
 import co.cookies.sdk.services.BaseService;
+import co.cookies.sdk.services.CircuitBreakerPolicy;
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.services.HedgingPolicy;
+import co.cookies.sdk.services.LimiterPolicy;
 import co.cookies.sdk.services.ServiceInfo;
+import co.cookies.sdk.services.VirtualThreads;
 import co.cookies.sdk.storefront.Storefront;
 import co.cookies.sdk.storefront.v1.StorefrontClientV1;
+import co.cookies.sdk.transport.ChannelPool;
+import co.cookies.sdk.transport.PooledChannelProvider;
+import co.cookies.sdk.transport.RetryServiceConfig;
 import com.google.api.core.ApiFunction;
 import com.google.api.gax.core.*;
-import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
 import com.google.api.gax.rpc.HeaderProvider;
 import com.google.api.gax.rpc.TransportChannelProvider;
 import com.google.auth.Credentials;
 import com.google.auto.value.AutoValue;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.Message;
+import cookies.schema.catalog.CatalogV1Grpc;
+import cookies.schema.store.MenuV1Grpc;
+import cookies.schema.store.ProfileV1Grpc;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServiceDescriptor;
 import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.grpc.netty.NegotiationType;
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
@@ -37,18 +54,22 @@ import io.grpc.netty.shaded.io.netty.handler.ssl.util.InsecureTrustManagerFactor
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.threeten.bp.Duration;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.net.ssl.SSLException;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.TreeMap;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
-import java.util.function.Supplier;
 
 import static java.lang.String.format;
 
@@ -90,8 +111,6 @@ public abstract class CookiesSDKManager
         implements SDKConfiguration, SDKServiceProvider {
     private static final @Nonnull String SDK_USER_AGENT = "cookies-sdk-java-v1";
     private static final @Nonnull Logger logging = LoggerFactory.getLogger(CookiesSDKManager.class);
-    private static volatile @Nonnull Optional<ListeningScheduledExecutorService> DEFAULT_EXECUTOR_SERVICE = (
-            Optional.empty());
 
     /** Builder object for preparing an immutable {@link CookiesSDKManager} manager. */
     @AutoValue.Builder
@@ -115,6 +134,46 @@ public abstract class CookiesSDKManager
          */
         public abstract Optional<ListeningScheduledExecutorService> getExecutorService();
 
+        /**
+         * Set a custom execution engine, which services use to time, dispatch, and transform RPC operations.
+         *
+         * <p>If an engine is not provided via this method, one is created by the SDK manager on first use (wrapping any
+         * custom executor service or provider, if set), shared across all services, and shut down when the manager is
+         * closed. Engines provided via this method are owned by the developer, and are not closed by the SDK.</p>
+         *
+         * @param engine Execution engine to use.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setExecutionEngine(Optional<ExecutionEngine> engine);
+
+        /**
+         * Return the execution engine currently configured with this builder, if any.
+         *
+         * @return Execution engine, or {@link Optional#empty()}.
+         */
+        public abstract Optional<ExecutionEngine> getExecutionEngine();
+
+        /**
+         * Set whether to run blocking SDK work, such as draining server streams, on virtual threads.
+         *
+         * <p>Virtual threads are only available on JDK 21 and newer, and only from an SDK jar built with `-Pjava21`,
+         * which adds the JDK 21 layer of the multi-release jar (released artifacts include it). Otherwise, this setting
+         * is ignored and a platform thread pool is used instead; a warning is logged if this happens on JDK 21. In
+         * either case, timed work runs on a small platform pool. This setting only applies when the SDK spawns its own
+         * execution engine (i.e. no custom engine, executor service, or executor provider is set).</p>
+         *
+         * @param virtualThreads Whether to use virtual threads.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setVirtualThreads(Optional<Boolean> virtualThreads);
+
+        /**
+         * Return whether virtual threads are requested for this SDK.
+         *
+         * @return Virtual thread setting, or {@link Optional#empty()}.
+         */
+        public abstract Optional<Boolean> getVirtualThreads();
+
         /**
          * Set a custom API endpoint.
          *
@@ -201,6 +260,105 @@ public abstract class CookiesSDKManager
          */
         public abstract Optional<TransportChannelProvider> getTransportChannelProvider();
 
+        /**
+         * Set the number of channels in the pool shared by all services spawned from this SDK manager.
+         *
+         * <p>All services share one pool of connections to the API endpoint, and each call is placed on the channel
+         * with the fewest calls outstanding. If not set, {@link ChannelPool#DEFAULT_SIZE} channels are used. This
+         * setting has no effect if a custom transport channel provider is set.</p>
+         *
+         * @param size Number of channels to pool.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setChannelPoolSize(Optional<Integer> size);
+
+        /**
+         * Return the channel pool size currently configured with this builder, if any.
+         *
+         * @return Channel pool size, or {@link Optional#empty()}.
+         */
+        public abstract Optional<Integer> getChannelPoolSize();
+
+        /**
+         * Set a policy for hedging idempotent reads (such as menu and product fetches) on services spawned from this
+         * SDK manager: reads which run longer than a percentile of their method's observed latency are sent again, and
+         * the first response wins.
+         *
+         * <p>Hedging is disabled unless a policy is set. The extra load it adds is capped by the policy's budget.</p>
+         *
+         * @see HedgingPolicy Hedging settings
+         * @param policy Hedging policy to use.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setHedgingPolicy(Optional<HedgingPolicy> policy);
+
+        /**
+         * Return the hedging policy currently configured with this builder, if any.
+         *
+         * @return Hedging policy, or {@link Optional#empty()}.
+         */
+        public abstract Optional<HedgingPolicy> getHedgingPolicy();
+
+        /**
+         * Set a policy for adaptively limiting the calls each service spawned from this SDK manager has in flight: the
+         * limit for each service shrinks as its round-trip time grows, and calls beyond it fail fast (or wait briefly,
+         * if the policy allows) with an {@link co.cookies.sdk.exceptions.RPCOverloadException}.
+         *
+         * <p>Limiting is disabled unless a policy is set.</p>
+         *
+         * @see LimiterPolicy Limiter settings
+         * @param policy Limiter policy to use.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setLimiterPolicy(Optional<LimiterPolicy> policy);
+
+        /**
+         * Return the limiter policy currently configured with this builder, if any.
+         *
+         * @return Limiter policy, or {@link Optional#empty()}.
+         */
+        public abstract Optional<LimiterPolicy> getLimiterPolicy();
+
+        /**
+         * Set a policy for breaking the circuit of methods which fail, or run slow, too often, on each service spawned
+         * from this SDK manager: while a method's circuit is open, calls to it fail fast with an
+         * {@link co.cookies.sdk.exceptions.RPCCircuitOpenException}, rather than waiting out their timeout.
+         *
+         * <p>Circuit breaking is disabled unless a policy is set.</p>
+         *
+         * @see CircuitBreakerPolicy Circuit breaker settings
+         * @param policy Circuit breaker policy to use.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setCircuitBreakerPolicy(Optional<CircuitBreakerPolicy> policy);
+
+        /**
+         * Return the circuit breaker policy currently configured with this builder, if any.
+         *
+         * @return Circuit breaker policy, or {@link Optional#empty()}.
+         */
+        public abstract Optional<CircuitBreakerPolicy> getCircuitBreakerPolicy();
+
+        /**
+         * Set the sink which receives per-method call metrics (latency histograms, in-flight counts, and error and
+         * timeout counts) from each service spawned from this SDK manager.
+         *
+         * <p>Metrics are always recorded, and may be read from each service; they are discarded unless a sink is set.
+         * </p>
+         *
+         * @see MetricsSink Metrics SPI
+         * @param sink Metrics sink to use.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setMetricsSink(Optional<MetricsSink> sink);
+
+        /**
+         * Return the metrics sink currently configured with this builder, if any.
+         *
+         * @return Metrics sink, or {@link Optional#empty()}.
+         */
+        public abstract Optional<MetricsSink> getMetricsSink();
+
         /**
          * Set the default credentials information to use for authorization when communicating with the API.
          *
@@ -276,64 +434,141 @@ public abstract class CookiesSDKManager
     /** Keeps track of the open/closed state of the underlying executor. */
     private final AtomicBoolean closed = new AtomicBoolean(false);
 
-    /** Map of services loaded or initialized as part of this SDK manager. */
-    private final ConcurrentMap<ServiceInfo, BaseService<?>> serviceMap = new ConcurrentSkipListMap<>();
+    /** Registry of services loaded or initialized as part of this SDK manager, by service info. */
+    private final ConcurrentMap<ServiceInfo, ServiceSlot> serviceMap = new ConcurrentHashMap<>();
+
+    /** Storefront facade over this manager's registered services, once built. */
+    private final AtomicReference<Storefront> storefront = new AtomicReference<>();
+
+    /** Execution engine spawned by this SDK manager, if any; shut down when the manager is closed. */
+    private final AtomicReference<ExecutionEngine> spawnedEngine = new AtomicReference<>();
+
+    /** Channel pool spawned by this SDK manager, if any; shut down when the manager is closed. */
+    private final AtomicReference<ChannelPool> spawnedPool = new AtomicReference<>();
+
+    /** Termination future for this SDK manager, once an async close has begun. */
+    private final AtomicReference<SettableFuture<Void>> closing = new AtomicReference<>();
 
     /**
-     * Register a stubbed service with the SDK manager, so that it may be cleanly shut down when requested.
-     *
-     * @param service Lazy-instantiated service which we wish to register.
-     * @param <Stub> Type of stub attached to this service.
-     * @return Service instance.
-     * @throws IllegalStateException If a service is registered after closing an SDK manager.
+     * Registry slot holding a single lazily-built service; slots are created cheaply (and only once per service info)
+     * via `computeIfAbsent`, and the service inside is built under the slot's own lock, so that exactly one instance is
+     * ever constructed per service, without holding any map-wide lock while it happens.
      */
-    private @Nonnull <Service extends BaseService<Stub>, Stub extends BackgroundResource> Service
-            register(@Nonnull Service service) {
-        var closed = this.closed.get();
-
-        // can't register after closing
-        if (closed) {
-            if (logging.isErrorEnabled())
-                logging.error(format("Cannot register service '%s': closed.", service.getServiceInfo().serviceTag()));
-            throw new IllegalStateException(format(
-                "Cannot register service ('%s') after closing an SDK manager.",
-                service.getServiceInfo().serviceTag()
-            ));
+    private static final class ServiceSlot {
+        /** Info for the service held in this slot. */
+        private final @Nonnull ServiceInfo info;
+
+        /** Service held in this slot, once built. */
+        private volatile BaseService<?> service;
+
+        /** Whether this slot was closed; nothing may be built in it afterwards. */
+        private boolean closed = false;
+
+        ServiceSlot(@Nonnull ServiceInfo info) {
+            this.info = info;
         }
 
-        // put it, we're good to go
-        serviceMap.put(service.getServiceInfo(), service);
-        return service;
+        /**
+         * Build the service held in this slot, unless another thread already has.
+         *
+         * @param manager SDK manager which owns this slot.
+         * @param factory Factory which builds the service from the manager's settings.
+         * @return Service held in this slot.
+         * @throws IllegalStateException If the slot (and its manager) closed before the service could be registered.
+         */
+        synchronized @Nonnull BaseService<?> build(
+                @Nonnull CookiesSDKManager manager,
+                @Nonnull Function<SDKConfiguration, ? extends BaseService<?>> factory) {
+            var current = service;
+            if (current != null) {
+                return current;
+            }
+            if (closed) {
+                throw closedError(info);
+            }
+            if (logging.isDebugEnabled())
+                logging.debug(format("Creating registered service '%s'.", info.serviceTag()));
+            var built = factory.apply(manager);
+            if (manager.closed.get()) {
+                // the manager closed while we were building; don't leak the instance.
+                built.close();
+                throw closedError(info);
+            }
+            service = built;
+            return built;
+        }
+
+        /** Close the service held in this slot, if any, and prevent any further builds. */
+        synchronized void close() {
+            closed = true;
+            var current = service;
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        /**
+         * Begin closing the service held in this slot, if any, without cutting off its in-flight calls; prevents any
+         * further builds.
+         *
+         * @param drainBudget Maximum time to wait for in-flight calls to finish.
+         * @return Future which resolves once the service has terminated.
+         */
+        synchronized @Nonnull ListenableFuture<Void> closeAsync(@Nonnull Duration drainBudget) {
+            closed = true;
+            var current = service;
+            if (current == null) {
+                return Futures.immediateVoidFuture();
+            }
+            return current.closeAsync(drainBudget);
+        }
     }
 
     /**
-     * Either resolve a cached copy of, or create a new copy of, the provided service, addressed by the provided service
-     * info; if we create an instance, write it to the service map.
+     * @param info Info for the service which could not be resolved.
+     * @return Error describing an attempt to resolve a service after the SDK manager closed.
+     */
+    private static @Nonnull IllegalStateException closedError(@Nonnull ServiceInfo info) {
+        if (logging.isErrorEnabled())
+            logging.error(format("Cannot register service '%s': closed.", info.serviceTag()));
+        return new IllegalStateException(format(
+            "Cannot resolve service ('%s') after closing an SDK manager.",
+            info.serviceTag()
+        ));
+    }
+
+    /**
+     * Either resolve the registered instance of, or build and register an instance of, the provided service, addressed
+     * by the provided service info.
      *
-     * <p>This method makes sure to recycle services, which are thread-safe, where possible. We need to register weak
-     * references to services so that we may close them when the developer asks us to.</p>
+     * <p>Services are thread-safe, so each is built exactly once per SDK manager, even if many threads resolve it at
+     * once; once built, resolving a service performs no allocation and takes no locks. Registered services are closed
+     * when the manager closes.</p>
      *
      * @param info Service info for the service we want.
-     * @param service Supplier which can create the service if we need it to.
-     * @param <Stub> Stub type for the service we're creating.
-     * @return Service implementation, resolved (and potentially cached) from the registered service map.
+     * @param factory Factory which builds the service from this manager's settings, if we need it to; pass a static
+     *                method reference (i.e. `CatalogClientV1::configure`) so that no allocation happens per call.
+     * @param <Service> Service type we are resolving.
+     * @return Service implementation, resolved (and potentially built) from the registry.
+     * @throws IllegalStateException If the SDK manager is closed.
      */
-    @SuppressWarnings("SameParameterValue")
-    private @Nonnull <Service extends BaseService<Stub>, Stub extends BackgroundResource> Service resolve(
+    private @Nonnull <Service extends BaseService<?>> Service resolve(
             @Nonnull ServiceInfo info,
-            @Nonnull Supplier<Service> service) {
-        // check if we have it first
-        if (serviceMap.containsKey(info)) {
-            if (logging.isDebugEnabled())
-                logging.debug(format("Using cached service '%s'.", info.serviceTag()));
-            //noinspection unchecked
-            return (Service)serviceMap.get(info);
+            @Nonnull Function<SDKConfiguration, Service> factory) {
+        // can't create services after closing
+        if (closed.get()) {
+            throw closedError(info);
         }
-
-        // otherwise, set up the service, cache it, and return
-        if (logging.isDebugEnabled())
-            logging.debug(format("Creating registered service '%s'.", info.serviceTag()));
-        return register(service.get());
+        var slot = serviceMap.get(info);
+        if (slot == null) {
+            slot = serviceMap.computeIfAbsent(info, ServiceSlot::new);
+        }
+        var service = slot.service;
+        if (service == null) {
+            service = slot.build(this, factory);
+        }
+        //noinspection unchecked
+        return (Service) service;
     }
 
     // Method stub to return a configured custom API endpoint.
@@ -362,7 +597,7 @@ public abstract class CookiesSDKManager
      * Returns an executor provider implementing execution services for the SDK.
      *
      * <p>If a custom executor is set via the SDK settings, this will use that executor. If no explicit executor is set,
-     * the default executor generated for the SDK is returned by the provider.</p>
+     * the provider returns the {@link ExecutionEngine#transport()} pool of the SDK's execution engine.</p>
      *
      * @see Builder#setExecutorService(Optional)  Custom executor services
      * @return Executor provider for SDK use.
@@ -383,24 +618,64 @@ public abstract class CookiesSDKManager
                     return customExecutor.get();
                 }
 
-                // otherwise, fall back to any current default executor.
-                var exec = DEFAULT_EXECUTOR_SERVICE;
-                if (exec.isPresent()) {
-                    return exec.get();
-                }
-
-                // we don't have a default executor yet, so spawn a default that we can keep around.
-                synchronized (this) {
-                    var spawned = MoreExecutors.listeningDecorator(
-                            Executors.newScheduledThreadPool(3)
-                    );
-                    DEFAULT_EXECUTOR_SERVICE = Optional.of(spawned);
-                    return spawned;
-                }
+                // otherwise, fall back to the transport pool of the SDK's execution engine. this executor also runs
+                // gRPC listener callbacks, so it must not be the timer pool, which is reserved for scheduling.
+                return executionEngine().transport();
             }
         });
     }
 
+    // Method stub to return the virtual thread setting, as applicable.
+    abstract @Nonnull Optional<Boolean> getVirtualThreads();
+
+    /**
+     * Indicate whether virtual threads should be used for blocking SDK work, where the runtime supports them.
+     *
+     * @return Whether virtual threads are requested.
+     */
+    public @Nonnull Boolean virtualThreads() {
+        var requested = getVirtualThreads().orElse(false);
+        if (requested && !VirtualThreads.available() && logging.isWarnEnabled())
+            logging.warn("Virtual threads requested, but unavailable on this JVM. Using platform threads.");
+        return requested;
+    }
+
+    // Method stub to return a custom execution engine, as applicable.
+    abstract @Nonnull Optional<ExecutionEngine> getExecutionEngine();
+
+    /**
+     * Returns the execution engine shared by services spawned from this SDK manager.
+     *
+     * <p>If a custom engine is set via the SDK settings, this will use that engine. Otherwise, an engine is created on
+     * first use: wrapping any custom executor service or executor provider, or, if none is set, with its own bounded
+     * pools. Engines created by the SDK manager are shut down when the manager is closed.</p>
+     *
+     * @see Builder#setExecutionEngine(Optional) Custom execution engines
+     * @return Execution engine for SDK use.
+     */
+    @Override
+    public @Nonnull ExecutionEngine executionEngine() {
+        var custom = getExecutionEngine();
+        if (custom.isPresent()) {
+            return custom.get();
+        }
+        var current = spawnedEngine.get();
+        if (current != null) {
+            return current;
+        }
+
+        // spawn an engine, and keep it if nobody beat us to it.
+        var spawned = getExecutorService()
+            .map(ExecutionEngine::wrapping)
+            .or(() -> getExecutorProvider().map((provider) -> ExecutionEngine.wrapping(provider.getExecutor())))
+            .orElseGet(() -> virtualThreads() ? ExecutionEngine.virtual() : ExecutionEngine.create());
+        if (spawnedEngine.compareAndSet(null, spawned)) {
+            return spawned;
+        }
+        spawned.close();
+        return spawnedEngine.get();
+    }
+
     // Method stub to return the logger factory to use for services.
     abstract @Nonnull Optional<ILoggerFactory> getLoggerFactory();
 
@@ -424,6 +699,15 @@ public abstract class CookiesSDKManager
         return getPrivateAccess().orElse(false);
     }
 
+    // Info for each service offered by this SDK manager.
+    private static @Nonnull List<ServiceInfo> services() {
+        return List.of(
+            CatalogClientV1.INFO,
+            StorefrontClientV1.MenuClientV1.INFO,
+            StorefrontClientV1.ProfileClientV1.INFO
+        );
+    }
+
     // Method stub to return any higher-order channel configurator configured for this SDK manager.
     public abstract @Nonnull Optional<Function<ManagedChannelBuilder, ManagedChannelBuilder>> getChannelConfigurator();
 
@@ -439,11 +723,12 @@ public abstract class CookiesSDKManager
             input.keepAliveTime(1, TimeUnit.MINUTES);
             input.keepAliveTimeout(10, TimeUnit.MINUTES);
             input.enableRetry();
-            input.maxRetryAttempts(3);
             input.userAgent("Cookies SDK/J v1");
 
             var nettyBuilder = (NettyChannelBuilder)input;
             nettyBuilder.negotiationType(NegotiationType.TLS);
+            nettyBuilder.maxRetryAttempts(RetryServiceConfig.MAX_ATTEMPTS);
+            nettyBuilder.defaultServiceConfig(RetryServiceConfig.forServices(services()));
 
             // apply any requisite private access settings
             if (privateAccess()) {
@@ -469,6 +754,94 @@ public abstract class CookiesSDKManager
         };
     }
 
+    // Method stub to return the configured channel pool size, as applicable.
+    abstract @Nonnull Optional<Integer> getChannelPoolSize();
+
+    /**
+     * Returns the channel pool shared by all services spawned from this SDK manager, creating it on first use.
+     *
+     * <p>The pool holds a fixed number of channels to the configured endpoint (see
+     * {@link Builder#setChannelPoolSize(Optional)}), each built with the {@link #channelConfigurator()}, and places
+     * each call on its least-loaded channel. The pool is shut down when the manager is closed.</p>
+     *
+     * @return Shared channel pool.
+     */
+    public @Nonnull ChannelPool channelPool() {
+        var current = spawnedPool.get();
+        if (current != null) {
+            return current;
+        }
+
+        // spawn a pool, and keep it if nobody beat us to it.
+        var configurator = channelConfigurator();
+        var executor = executorProvider().getExecutor();
+        var spawned = ChannelPool.create(
+            getChannelPoolSize().orElse(ChannelPool.DEFAULT_SIZE),
+            () -> configurator.apply(NettyChannelBuilder.forTarget(endpoint()).executor(executor)).build()
+        );
+        if (spawnedPool.compareAndSet(null, spawned)) {
+            return spawned;
+        }
+        spawned.shutdownNow();
+        return spawnedPool.get();
+    }
+
+    // Method stub to return the configured hedging policy, as applicable.
+    abstract @Nonnull Optional<HedgingPolicy> getHedgingPolicy();
+
+    /**
+     * Returns the policy for hedging idempotent reads on services spawned from this SDK manager, if any.
+     *
+     * @see Builder#setHedgingPolicy(Optional) Hedging policy
+     * @return Hedging policy, or {@link Optional#empty()} if hedging is disabled.
+     */
+    @Override
+    public @Nonnull Optional<HedgingPolicy> hedgingPolicy() {
+        return getHedgingPolicy();
+    }
+
+    // Method stub to return the configured limiter policy, as applicable.
+    abstract @Nonnull Optional<LimiterPolicy> getLimiterPolicy();
+
+    /**
+     * Returns the policy for adaptively limiting in-flight calls on services spawned from this SDK manager, if any.
+     *
+     * @see Builder#setLimiterPolicy(Optional) Limiter policy
+     * @return Limiter policy, or {@link Optional#empty()} if limiting is disabled.
+     */
+    @Override
+    public @Nonnull Optional<LimiterPolicy> limiterPolicy() {
+        return getLimiterPolicy();
+    }
+
+    // Method stub to return the configured circuit breaker policy, as applicable.
+    abstract @Nonnull Optional<CircuitBreakerPolicy> getCircuitBreakerPolicy();
+
+    /**
+     * Returns the policy for breaking the circuit of failing methods on services spawned from this SDK manager, if any.
+     *
+     * @see Builder#setCircuitBreakerPolicy(Optional) Circuit breaker policy
+     * @return Circuit breaker policy, or {@link Optional#empty()} if circuit breaking is disabled.
+     */
+    @Override
+    public @Nonnull Optional<CircuitBreakerPolicy> circuitBreakerPolicy() {
+        return getCircuitBreakerPolicy();
+    }
+
+    // Method stub to return the configured metrics sink, as applicable.
+    abstract @Nonnull Optional<MetricsSink> getMetricsSink();
+
+    /**
+     * Returns the sink which receives per-method call metrics from services spawned from this SDK manager.
+     *
+     * @see Builder#setMetricsSink(Optional) Metrics sink
+     * @return Metrics sink; a no-op sink if none is set.
+     */
+    @Override
+    public @Nonnull MetricsSink metricsSink() {
+        return getMetricsSink().orElseGet(MetricsSink::noop);
+    }
+
     // Method stub to return an immutable transport provider.
     abstract @Nonnull Optional<TransportChannelProvider> getTransportChannelProvider();
 
@@ -476,23 +849,15 @@ public abstract class CookiesSDKManager
      * Returns a configured {@link TransportChannelProvider} which provides network transit to SDK services.
      *
      * <p>Invoking users will generally want to leave this un-customized, instead opting to specify an executor or body
-     * of method settings. The default transport provider ({@link InstantiatingGrpcChannelProvider}) intelligently
-     * manages a pool of channels on top of the configured executor.</p>
+     * of method settings. The default transport provider ({@link PooledChannelProvider}) hands every service the same
+     * {@link #channelPool()}, so that one SDK manager opens one set of connections to the API, no matter how many
+     * services are in use.</p>
      *
      * @return Provider for transport channel instances.
      */
     @Override
     public @Nonnull TransportChannelProvider transportChannelProvider() {
-        return getTransportChannelProvider().orElseGet(() ->
-            InstantiatingGrpcChannelProvider.newBuilder()
-                    .setEndpoint(endpoint())
-                    .setKeepAliveTime(Duration.ofMinutes(1))
-                    .setKeepAliveTimeout(Duration.ofMinutes(10))
-                    .setKeepAliveWithoutCalls(true)
-                    .setExecutor(executorProvider().getExecutor())
-                    .setChannelConfigurator(channelConfigurator())
-                    .build()
-        );
+        return getTransportChannelProvider().orElseGet(() -> PooledChannelProvider.of(channelPool()));
     }
 
     // Method stub to return immutable explicit credentials.
@@ -552,24 +917,227 @@ public abstract class CookiesSDKManager
         return this;
     }
 
+    // -- Warmup -- //
+
+    /**
+     * Warm up all services offered by this SDK manager (Catalog, Menu, and Profile), so that the first real call to
+     * each runs at steady-state latency.
+     *
+     * @see #warmup(ServiceInfo...) For details, and to warm a subset of services.
+     * @return Future which resolves once warmup is complete.
+     */
+    public @Nonnull ListenableFuture<Void> warmup() {
+        return warmup(services().toArray(new ServiceInfo[0]));
+    }
+
+    /**
+     * Warm up the specified services, so that the first real call to each runs at steady-state latency; this is useful
+     * to gate readiness probes at startup.
+     *
+     * <p>Each service is built (and cached) in parallel on the execution engine, and the generated message classes,
+     * marshallers, and method descriptors for each of its gRPC methods are loaded and initialized. Meanwhile, each
+     * channel in the shared {@link #channelPool()} is asked to connect, covering DNS resolution, TLS, and HTTP/2 setup.
+     * Channel connection is skipped if a custom transport channel provider is set.</p>
+     *
+     * @param services Info for each service to warm up, i.e. {@link CatalogClientV1#INFO}.
+     * @return Future which resolves once every service is built and primed, and every channel is ready.
+     * @throws IllegalArgumentException If a service is not offered by this SDK manager; nothing is warmed up.
+     */
+    public @Nonnull ListenableFuture<Void> warmup(@Nonnull ServiceInfo... services) {
+        if (closed.get()) {
+            return Futures.immediateFailedFuture(new IllegalStateException("Cannot warm up a closed SDK manager."));
+        }
+        // resolve every service before submitting any work, so that an unknown service fails the call with none done.
+        var tasks = new ArrayList<Runnable>(services.length);
+        for (var info : services) {
+            Runnable build;
+            ServiceDescriptor descriptor;
+            if (CatalogClientV1.INFO.equals(info)) {
+                build = this::catalog;
+                descriptor = CatalogV1Grpc.getServiceDescriptor();
+            } else if (StorefrontClientV1.MenuClientV1.INFO.equals(info)) {
+                build = () -> resolve(info, StorefrontClientV1.MenuClientV1::configure);
+                descriptor = MenuV1Grpc.getServiceDescriptor();
+            } else if (StorefrontClientV1.ProfileClientV1.INFO.equals(info)) {
+                build = () -> resolve(info, StorefrontClientV1.ProfileClientV1::configure);
+                descriptor = ProfileV1Grpc.getServiceDescriptor();
+            } else {
+                throw new IllegalArgumentException(format("No warmup available for service '%s'.", info.serviceTag()));
+            }
+            tasks.add(() -> {
+                build.run();
+                prime(descriptor);
+            });
+        }
+        var executor = executionEngine().callbacks();
+        var steps = new ArrayList<ListenableFuture<?>>(tasks.size() + 1);
+        for (var task : tasks) {
+            steps.add(executor.submit(task));
+        }
+        if (getTransportChannelProvider().isEmpty()) {
+            steps.add(channelPool().connect());
+        }
+        return Futures.whenAllSucceed(steps).call(() -> {
+            if (logging.isDebugEnabled())
+                logging.debug("SDK warmup complete.");
+            return null;
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Load and initialize the generated classes behind each method of the provided gRPC service, by touching each
+     * method's request and response prototypes and running their parsers once.
+     *
+     * @param descriptor Descriptor for the gRPC service to prime.
+     */
+    private static void prime(@Nonnull ServiceDescriptor descriptor) {
+        for (var method : descriptor.getMethods()) {
+            prime(method.getRequestMarshaller());
+            prime(method.getResponseMarshaller());
+        }
+    }
+
+    /**
+     * Initialize the message class behind the provided marshaller, and run its parser once over an empty message.
+     *
+     * @param marshaller Marshaller to prime.
+     */
+    private static void prime(@Nonnull MethodDescriptor.Marshaller<?> marshaller) {
+        if (marshaller instanceof MethodDescriptor.PrototypeMarshaller) {
+            var prototype = ((MethodDescriptor.PrototypeMarshaller<?>) marshaller).getMessagePrototype();
+            if (prototype instanceof Message) {
+                ((Message) prototype).getDescriptorForType();
+            }
+        }
+        marshaller.parse(new ByteArrayInputStream(new byte[0]));
+    }
+
     // -- Interface: Closeable -- //
 
     /**
      * Close this SDK by gracefully ending any in-flight RPCs, and then shutting down the managed channel and any
-     * backing executor.
+     * execution engine spawned by the SDK.
      */
     @Override
     public void close() {
         if (!closed.get()) {
             closed.compareAndSet(false, true);
-            var services = serviceMap.values();
-            if (!services.isEmpty()) {
-                services.forEach(BaseService::close);
-                serviceMap.clear();
+            serviceMap.values().forEach(ServiceSlot::close);
+            serviceMap.clear();
+            storefront.set(null);
+            var pool = spawnedPool.getAndSet(null);
+            if (pool != null) {
+                pool.shutdown();
+            }
+            var engine = spawnedEngine.getAndSet(null);
+            if (engine != null) {
+                engine.close();
             }
         }
     }
 
+    /**
+     * Close this SDK without cutting off in-flight RPCs, which is useful in shutdown hooks during rolling deploys: new
+     * calls are rejected immediately, every registered service is given up to the provided budget to finish its
+     * in-flight calls, and then the managed channel and any execution engine spawned by the SDK are shut down.
+     *
+     * <p>Services drain in parallel, on the timer pool of the execution engine, so total shutdown time is bounded by
+     * the budget no matter how many services are registered; this method does not block. Calls still in flight when
+     * the budget expires are cancelled when the channel shuts down. Calling this method more than once returns the same
+     * future; if the SDK manager was already closed via {@link #close()}, an already-resolved future is returned.</p>
+     *
+     * <p>Once shut down, the managed channel and the engine are each given up to the budget again to terminate; if
+     * either is still running after that (for instance, because an engine task is stuck), the returned future fails
+     * with a {@link TimeoutException}, and what is still running is logged.</p>
+     *
+     * @param drainBudget Maximum time to wait for in-flight calls to finish.
+     * @return Future which resolves once every service has drained, and the managed channel and any spawned engine have
+     *         terminated.
+     */
+    public @Nonnull ListenableFuture<Void> closeAsync(@Nonnull Duration drainBudget) {
+        var current = closing.get();
+        if (current != null) {
+            return current;
+        }
+        var terminated = SettableFuture.<Void>create();
+        if (!closing.compareAndSet(null, terminated)) {
+            return closing.get();
+        }
+        if (!closed.compareAndSet(false, true)) {
+            terminated.set(null);
+            return terminated;
+        }
+        var drains = new ArrayList<ListenableFuture<Void>>(serviceMap.size());
+        for (var slot : serviceMap.values()) {
+            drains.add(slot.closeAsync(drainBudget));
+        }
+        serviceMap.clear();
+        storefront.set(null);
+        Futures.whenAllComplete(drains).run(() -> {
+            var pool = spawnedPool.getAndSet(null);
+            if (pool != null) {
+                pool.shutdown();
+                if (pool.outstanding().stream().anyMatch((calls) -> calls > 0)) {
+                    pool.shutdownNow();
+                }
+            }
+            var engine = spawnedEngine.getAndSet(null);
+            if (engine != null) {
+                engine.close();
+            }
+
+            // this callback may run on one of the engine's own threads, so wait for termination on a thread of its own.
+            var waiter = new Thread(() -> awaitTermination(pool, engine, drainBudget, drains.size(), terminated),
+                "cookies-sdk-close");
+            waiter.setDaemon(true);
+            waiter.start();
+        }, MoreExecutors.directExecutor());
+        return terminated;
+    }
+
+    // Wait for the provided channel pool and engine, if any, to terminate, and then resolve the provided future. Calls
+    // still holding the pool open once the drain budget has expired again are cancelled; if the pool or the engine has
+    // still not terminated after a further budget each, the future fails with a `TimeoutException`.
+    private void awaitTermination(@Nullable ChannelPool pool,
+                                  @Nullable ExecutionEngine engine,
+                                  @Nonnull Duration drainBudget,
+                                  int drained,
+                                  @Nonnull SettableFuture<Void> terminated) {
+        try {
+            var budget = drainBudget.toNanos();
+            if (pool != null && !pool.awaitTermination(budget, TimeUnit.NANOSECONDS)) {
+                pool.shutdownNow();
+                pool.awaitTermination(budget, TimeUnit.NANOSECONDS);
+            }
+            if (engine != null) {
+                engine.awaitTermination(budget, TimeUnit.NANOSECONDS);
+            }
+            var poolStuck = pool != null && !pool.isTerminated();
+            var engineStuck = engine != null && !engine.isTerminated();
+            if (poolStuck || engineStuck) {
+                var running = new ArrayList<String>(2);
+                if (poolStuck) {
+                    running.add(format("channel pool (outstanding calls: %s)", pool.outstanding()));
+                }
+                if (engineStuck) {
+                    running.add("execution engine");
+                }
+                var message = format("SDK close timed out after %s; still running: %s.", drainBudget,
+                    String.join(", ", running));
+                if (logging.isWarnEnabled())
+                    logging.warn(message);
+                terminated.setException(new TimeoutException(message));
+                return;
+            }
+            if (logging.isDebugEnabled())
+                logging.debug(format("SDK closed after draining %s service(s).", drained));
+            terminated.set(null);
+        } catch (InterruptedException ixe) {
+            Thread.currentThread().interrupt();
+            terminated.setException(ixe);
+        }
+    }
+
     // -- Interface: Services -- //
 
     /**
@@ -581,7 +1149,7 @@ public abstract class CookiesSDKManager
      */
     @Override
     public @Nonnull CatalogClient catalog(@Nonnull Optional<SDKConfiguration> serviceConfiguration) {
-        return resolve(CatalogClientV1.INFO, () -> CatalogClientV1.configure(this));
+        return resolve(CatalogClientV1.INFO, CatalogClientV1::configure);
     }
 
     /**
@@ -593,9 +1161,23 @@ public abstract class CookiesSDKManager
      */
     @Override
     public @Nonnull Storefront storefront(@Nonnull Optional<SDKConfiguration> serviceConfiguration) {
-        return StorefrontClientV1.withServices(
-            resolve(StorefrontClientV1.MenuClientV1.INFO, () -> StorefrontClientV1.MenuClientV1.configure(this)),
-            resolve(StorefrontClientV1.ProfileClientV1.INFO, () -> StorefrontClientV1.ProfileClientV1.configure(this))
+        if (closed.get()) {
+            throw closedError(StorefrontClientV1.MenuClientV1.INFO);
+        }
+        var current = storefront.get();
+        if (current != null) {
+            return current;
+        }
+
+        // the facade is a thin wrapper over registered services, so a racing duplicate is harmless; keep the first.
+        var facade = StorefrontClientV1.withServices(
+            resolve(StorefrontClientV1.MenuClientV1.INFO, StorefrontClientV1.MenuClientV1::configure),
+            resolve(StorefrontClientV1.ProfileClientV1.INFO, StorefrontClientV1.ProfileClientV1::configure)
         );
+        if (storefront.compareAndSet(null, facade)) {
+            return facade;
+        }
+        var winner = storefront.get();
+        return winner != null ? winner : facade;
     }
 }
@@ -14,6 +14,11 @@
 package co.cookies.sdk;
 
 import co.cookies.sdk.catalog.v1.CatalogClientV1;
+import co.cookies.sdk.metrics.MetricsSink;
+import co.cookies.sdk.services.CircuitBreakerPolicy;
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.services.HedgingPolicy;
+import co.cookies.sdk.services.LimiterPolicy;
 import com.google.api.gax.core.CredentialsProvider;
 import com.google.api.gax.core.ExecutorProvider;
 import com.google.api.gax.rpc.HeaderProvider;
@@ -49,6 +54,31 @@ public interface SDKConfiguration {
     /** @return Executor provider to use for mounted services. */
     @Nonnull ExecutorProvider executorProvider();
 
+    /** @return Execution engine to use for mounted services; defaults to the process-wide shared engine. */
+    default @Nonnull ExecutionEngine executionEngine() {
+        return ExecutionEngine.shared();
+    }
+
+    /** @return Policy for hedging idempotent reads on mounted services; hedging is disabled by default. */
+    default @Nonnull Optional<HedgingPolicy> hedgingPolicy() {
+        return Optional.empty();
+    }
+
+    /** @return Policy for adaptively limiting in-flight calls on mounted services; limiting is disabled by default. */
+    default @Nonnull Optional<LimiterPolicy> limiterPolicy() {
+        return Optional.empty();
+    }
+
+    /** @return Policy for breaking the circuit of failing methods on mounted services; disabled by default. */
+    default @Nonnull Optional<CircuitBreakerPolicy> circuitBreakerPolicy() {
+        return Optional.empty();
+    }
+
+    /** @return Sink which receives per-method call metrics from mounted services; discards them by default. */
+    default @Nonnull MetricsSink metricsSink() {
+        return MetricsSink.noop();
+    }
+
     /** @return Header provider to use for mounted services. */
     @Nonnull HeaderProvider headerProvider();
 
@@ -18,12 +18,19 @@ import co.cookies.sdk.exceptions.CookiesSDKException;
 import co.cookies.sdk.exceptions.RPCExecutionException;
 import co.cookies.sdk.exceptions.RPCTimeoutException;
 import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.RPCOperation;
 import co.cookies.sdk.services.SyncRPC;
+import co.cookies.sdk.services.Timeout;
 import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutureToListenableFuture;
+import com.google.api.gax.grpc.GrpcCallContext;
+import com.google.api.gax.rpc.ApiCallContext;
+import com.google.api.gax.rpc.ApiException;
 import com.google.api.gax.rpc.ServerStream;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.api.gax.rpc.UnaryCallable;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.protobuf.Message;
 import io.grpc.MethodDescriptor;
 import io.grpc.StatusRuntimeException;
@@ -33,11 +40,15 @@ import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.google.common.util.concurrent.Futures.*;
 import static java.lang.String.format;
@@ -161,6 +172,105 @@ public final class SDKUtil {
         }
     }
 
+    /**
+     * Synchronously execute the provided unary callable on the calling thread, without hopping through any future or
+     * executor stages, and hand the response to the provided transformer before returning it directly.
+     *
+     * <p>The operation's timeout is carried to the transport as a call deadline (see {@link #callContext}), so expired
+     * calls are cancelled by gRPC itself rather than abandoned client-side. Errors are mapped to the same SDK exception
+     * types produced by {@link #block}; see {@link #translateErr} for details.</p>
+     *
+     * @param logger Service logger, in case things go haywire. Receives all exceptions.
+     * @param operation Synchronous operation which we need to execute.
+     * @param descriptor gRPC descriptor for the method we are executing.
+     * @param callable Unary callable which implements the API method.
+     * @param transformer Transformer function which converts the response into the final return value.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @param <T> Final return type from the corresponding method facade.
+     * @return Transformed return value from the operation.
+     * @throws CookiesSDKException If any error is thrown, with the inner error assigned as the cause.
+     */
+    public static <Request extends Message, Response extends Message, T> T invoke(
+            @Nonnull Logger logger,
+            @Nonnull SyncRPC<Request> operation,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull UnaryCallable<Request, Response> callable,
+            @Nonnull Function<Response, T> transformer) throws CookiesSDKException {
+        final Response response;
+        try {
+            response = callable.call(operation.request(), callContext(operation));
+        } catch (RuntimeException rxe) {
+            throw translateErr(logger, rxe, operation.timeout(), descriptor);
+        }
+        return transformer.apply(response);
+    }
+
+    /**
+     * Build the per-call context for the provided RPC operation, which carries the operation's timeout as a transport
+     * deadline; any custom call context present on the operation is merged on top, so its settings take precedence.
+     *
+     * <p>The timeout is applied both as the overall call deadline and as the stream wait timeout, so that the transport
+     * cancels expired unary calls and stalled server streams on its own, without any client-side timer.</p>
+     *
+     * @param operation RPC operation for which we are preparing a call context.
+     * @return Call context to hand to the underlying callable.
+     */
+    public static @Nonnull ApiCallContext callContext(@Nonnull RPCOperation<? extends Message> operation) {
+        var timeout = Objects.requireNonNull(operation.timeout(), "cannot provide `null` timeout");
+        var deadline = org.threeten.bp.Duration.ofNanos(timeout.unit().toNanos(timeout.value()));
+        var context = GrpcCallContext.createDefault()
+            .withTimeout(deadline)
+            .withStreamWaitTimeout(deadline);
+        var custom = operation.context();
+        return custom.isPresent() ? context.merge(custom.get()) : context;
+    }
+
+    /**
+     * Translate a runtime error raised by an RPC callable into the matching SDK exception type: errors which already
+     * originate from the SDK are passed through as-is, deadline expiry becomes an {@link RPCTimeoutException}, and any
+     * other error is wrapped in an {@link RPCExecutionException}.
+     *
+     * @param logger Logger where we should complain loudly about this error.
+     * @param rxe Runtime error raised while executing the RPC.
+     * @param timeout Timeout which was applied to the operation, for error reporting.
+     * @param descriptor gRPC descriptor for the method which failed.
+     * @return SDK exception to raise at the call-site.
+     */
+    public static @Nonnull CookiesSDKException translateErr(@Nonnull Logger logger,
+                                                            @Nonnull RuntimeException rxe,
+                                                            @Nonnull Timeout timeout,
+                                                            @Nonnull MethodDescriptor<?, ?> descriptor) {
+        Throwable cause = rxe;
+        while (cause != null && !(cause instanceof CookiesSDKException)) {
+            cause = cause.getCause();
+        }
+        if (cause != null) {
+            return (CookiesSDKException)cause;
+        }
+        if (rxe instanceof ApiException &&
+                ((ApiException)rxe).getStatusCode().getCode() == StatusCode.Code.DEADLINE_EXCEEDED) {
+            var txe = new TimeoutException(rxe.getMessage());
+            txe.initCause(rxe);
+            return runtimeErr(
+                logger,
+                RPCTimeoutException::new,
+                txe,
+                "Timeout (%s %s) error while processing RPC operation for method '%s'.",
+                timeout.value(),
+                timeout.unit().name(),
+                descriptor.getFullMethodName()
+            );
+        }
+        return runtimeErr(
+            logger,
+            RPCExecutionException::new,
+            rxe,
+            "Execution failed while processing RPC operation for method '%s'.",
+            descriptor.getFullMethodName()
+        );
+    }
+
     /**
      * Handle a runtime error that surfaced while handling a background-executing RPC operation, converting it into an
      * appropriate SDK exception and emitting logs as we go.
@@ -211,7 +321,8 @@ public final class SDKUtil {
      * which can convert each response into the final return value, and then setup a stream of such final responses.
      *
      * <p>Errors propagate via {@link CookiesRPCException} descendents, in particular {@link RPCExecutionException}. Any
-     * timeout specified on the RPC, default or otherwise, is enforced, resulting in a {@link RPCTimeoutException} if
+     * timeout specified on the RPC, default or otherwise, is expected to be applied to the call which produced the
+     * stream as a transport deadline (see {@link #callContext}), resulting in a {@link RPCTimeoutException} if
      * violated.</p>
      *
      * <p>The provided transformer is expected to produce a stream as a result, which is provided to invoking code in a
@@ -223,8 +334,8 @@ public final class SDKUtil {
      * @param stream Stream of responses from the server, issued as a result of our async request.
      * @param descriptor gRPC method descriptor -- mostly used for error logging.
      * @param transformer Method transformer, which turns a response into a final facade result.
-     * @param executor Background executor where we should prime and return the stream. Returns when the first item is
-     *                 yielded from the response.
+     * @param executor Background executor where we should prime and return the stream, which blocks until the first
+     *                 item is yielded from the response.
      * @param <R> Streaming {@link Message} response type expected from the server.
      * @param <T> Final method result type (usually also a {@link Message}), of which a {@link Stream} is produced by
      *            the provided transformer.
@@ -236,8 +347,8 @@ public final class SDKUtil {
             @Nonnull ServerStream<R> stream,
             @Nonnull MethodDescriptor<? extends Message, R> descriptor,
             @Nonnull Function<R, Stream<T>> transformer,
-            @Nonnull ListeningScheduledExecutorService executor) {
-        return withTimeout(executor.submit(() -> {
+            @Nonnull ListeningExecutorService executor) {
+        return executor.submit(() -> {
             try {
                 // firstly, we convert the response stream into a Java iterator. iterators are naturally lazy, so call
                 // execution will block once we try to produce an item.
@@ -250,34 +361,19 @@ public final class SDKUtil {
                     var item = iter.next();
 
                     // convert to a stream via the provided transformer. response streams produced by the server are
-                    // joined into a single stream.
-                    return Stream.concat(Stream.of(item), Stream.iterate(
-                        item,
-                        (entry) -> iter.hasNext(),
-                        (entry) -> iter.next()
+                    // joined into a single stream: the first item, followed by the remainder of the iterator.
+                    return Stream.concat(Stream.of(item), StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iter, Spliterator.ORDERED),
+                        false
                     )).flatMap(transformer);
                 }
 
                 // if we never have a next item, then it's an empty result stream.
                 return Stream.empty();
             } catch (RuntimeException rxe) {
-                var cause = rxe.getCause();
-                while (cause != null && !(cause instanceof CookiesSDKException)) {
-                    cause = cause.getCause();
-                }
-                if (cause != null) {
-                    throw (CookiesSDKException)cause;
-                }
-
-                throw runtimeErr(
-                    logger,
-                    RPCExecutionException::new,
-                    rxe,
-                    "Background error occurred while processing RPC stream '%s'.",
-                    descriptor.getFullMethodName()
-                );
+                throw translateErr(logger, rxe, operation.timeout(), descriptor);
             }
-        }), operation.timeout().value(), operation.timeout().unit(), executor);
+        });
     }
 
     /**
@@ -290,7 +386,8 @@ public final class SDKUtil {
      * @param future API operation which intends to produce a result of type {@link R}.
      * @param transformer Transformer function which is capable of transforming between types {@link R} and {@link T},
      *                    the final return type for the function.
-     * @param executor Background executor to use when running the transform method.
+     * @param executor Executor to use when mapping errors and running the transform method; these stages are cheap, so
+     *                 this is typically a direct executor.
      * @param <R> Return type from the API operation.
      * @param <T> Return type from the API facade.
      * @return Listenable future which wraps and transforms the provided future.
@@ -301,37 +398,18 @@ public final class SDKUtil {
             @Nonnull ApiFuture<R> future,
             @Nonnull MethodDescriptor<? extends Message, R> descriptor,
             @Nonnull Function<R, T> transformer,
-            @Nonnull ListeningScheduledExecutorService executor) {
+            @Nonnull Executor executor) {
         // note, these comments actually *execute* in reverse from how they are expressed here, because this code path
         // is planned out in non-blocking form and lazily dispatched once a value is ready. to begin with the conclusion
-        // below: after the method executes, transform it into the expected return type.
+        // below: after the method executes, transform it into the expected return type. the operation's timeout is
+        // not enforced here; it is carried by the call context as a transport deadline (see `callContext`).
         return transform(
-            // apply the timeout value configured for the async operation, whether an explicit timeout was provided or
-            // the SDK picked a sensible default.
-            withTimeout(
-                // if an error happens during processing of the RPC itself, wrap it in an expected SDK error type, and
-                // make sure we log about it.
-                catching(wrap(future), RuntimeException.class, (rxe) -> {
-                    assert rxe != null;
-                    var cause = rxe.getCause();
-                    while (cause != null && !(cause instanceof CookiesSDKException)) {
-                        cause = cause.getCause();
-                    }
-                    if (cause != null) {
-                        throw (CookiesSDKException)cause;
-                    }
-                    throw runtimeErr(
-                        logger,
-                        RPCExecutionException::new,
-                        rxe,
-                        "Background error occurred while processing method RPC '%s'.",
-                        descriptor.getFullMethodName()
-                    );
-                }, executor),
-                operation.timeout().value(),
-                operation.timeout().unit(),
-                executor
-            ),
+            // if an error happens during processing of the RPC itself, wrap it in an expected SDK error type, and make
+            // sure we log about it.
+            catching(wrap(future), RuntimeException.class, (rxe) -> {
+                assert rxe != null;
+                throw translateErr(logger, rxe, operation.timeout(), descriptor);
+            }, executor),
             transformer::apply,
             executor
         );
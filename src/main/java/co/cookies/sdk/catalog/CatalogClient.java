@@ -28,6 +28,7 @@ import cookies.schema.catalog.*;
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.Flow;
 import java.util.stream.Stream;
 
 import static co.cookies.sdk.SDKUtil.block;
@@ -153,4 +154,20 @@ public interface CatalogClient extends ServiceClient<CatalogV1Client> {
      * @throws IllegalArgumentException If a request batch exceeds the batch size limit (currently `300` products).
      */
     @Nonnull ListenableFuture<Stream<CatalogProduct>> sync(@Nonnull AsyncRPC<MultiProductRequest> rpc);
+
+    /**
+     * <b>Given batch of product requests</b>, limited not-to-exceed the ceiling of products per request batch (`300` at
+     * at the time of writing), publish found product records, if any, matched from the central canonical product
+     * database hosted by Cookies, as subscriber demand allows.
+     *
+     * <p>This is the back-pressured variant of {@link #sync(AsyncRPC)}: each subscription starts a new call, and response
+     * batches are requested from the server only as the subscriber signals demand, so a slow consumer never buffers
+     * more than one batch, and no thread is blocked waiting on the network. Cancelling the subscription cancels the call
+     * midway. The operation's timeout applies to the call as a whole, including time spent waiting on the subscriber.</p>
+     *
+     * @param rpc Batch of product records containing between one and `300` product records the invoking code wishes
+     *            to validate or otherwise resolve from canonical catalog storage.
+     * @return Publisher of products resulting from the provided multi-product batch request.
+     */
+    @Nonnull Flow.Publisher<CatalogProduct> syncPublisher(@Nonnull AsyncRPC<MultiProductRequest> rpc);
 }
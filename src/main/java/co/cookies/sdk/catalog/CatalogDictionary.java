@@ -0,0 +1,464 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.catalog;
+
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.ExecutionEngine;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import cookies.schema.Brand;
+import cookies.schema.Strain;
+import cookies.schema.catalog.BrandsRequest;
+import cookies.schema.catalog.StrainsRequest;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+
+/**
+ * Local dictionary of Cookies brands and strains, which loads both once and then keeps them fresh in the background,
+ * so that lookups by key or slug never touch the network after the first load.
+ *
+ * <p>Each load produces an immutable {@link Snapshot}, indexed by brand {@code bid} and slug, and by strain {@code id}
+ * and slug. Readers always see one complete snapshot; a refresh builds the next snapshot off to the side and swaps it
+ * in atomically. Refreshes are scheduled ahead of the snapshot's TTL, and a failed refresh keeps serving the previous
+ * snapshot while it retries.</p>
+ *
+ * <p>Loading starts with {@link #start()}. Until the first load completes, lookups find nothing; callers that must not
+ * proceed without data can wait on {@link #ready()}.</p>
+ */
+@ThreadSafe
+public final class CatalogDictionary implements Closeable {
+    /** Default age after which a snapshot is considered expired. */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(15);
+
+    /** Default delay before retrying a failed load. */
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(15);
+
+    /** Fraction of the TTL after which a refresh is scheduled. */
+    private static final double REFRESH_AHEAD = 0.8;
+
+    /** Client which brands and strains are loaded from. */
+    private final @Nonnull CatalogClient client;
+
+    /** Scheduler for background refreshes. */
+    private final @Nonnull ScheduledExecutorService scheduler;
+
+    /** Source of time for snapshot ages. */
+    private final @Nonnull Ticker ticker;
+
+    /** Snapshot TTL, in nanoseconds. */
+    private final long ttl;
+
+    /** Retry delay, in nanoseconds. */
+    private final long retryDelay;
+
+    /** Request used to load brands. */
+    private final @Nonnull BrandsRequest brandsRequest;
+
+    /** Request used to load strains. */
+    private final @Nonnull StrainsRequest strainsRequest;
+
+    /** Current snapshot. */
+    private final @Nonnull AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    /** Resolves with the first successfully loaded snapshot. */
+    private final @Nonnull SettableFuture<Snapshot> ready = SettableFuture.create();
+
+    /** Next scheduled refresh, if any. */
+    private final @Nonnull AtomicReference<ScheduledFuture<?>> scheduled = new AtomicReference<>(null);
+
+    /** Tracks whether loading has started. */
+    private final @Nonnull AtomicBoolean started = new AtomicBoolean(false);
+
+    /** Tracks whether this dictionary is closed. */
+    private final @Nonnull AtomicBoolean closed = new AtomicBoolean(false);
+
+    /** Count of successful loads. */
+    private final @Nonnull AtomicLong loads = new AtomicLong(0);
+
+    /** Count of failed loads. */
+    private final @Nonnull AtomicLong failures = new AtomicLong(0);
+
+    /** Immutable, indexed set of brands and strains, as of one load. */
+    @Immutable
+    public static final class Snapshot {
+        /** Snapshot held before the first load. */
+        static final Snapshot EMPTY = new Snapshot(ImmutableList.of(), ImmutableList.of(), Long.MIN_VALUE);
+
+        private final @Nonnull ImmutableList<Brand> brands;
+        private final @Nonnull ImmutableList<Strain> strains;
+        private final @Nonnull ImmutableMap<String, Brand> brandsByBid;
+        private final @Nonnull ImmutableMap<String, Brand> brandsBySlug;
+        private final @Nonnull ImmutableMap<String, Strain> strainsById;
+        private final @Nonnull ImmutableMap<String, Strain> strainsBySlug;
+        private final long loadedAt;
+
+        private Snapshot(@Nonnull Collection<Brand> brands, @Nonnull Collection<Strain> strains, long loadedAt) {
+            this.brands = ImmutableList.copyOf(brands);
+            this.strains = ImmutableList.copyOf(strains);
+            this.brandsByBid = index(brands, Brand::getBid);
+            this.brandsBySlug = index(brands, (brand) -> brand.getBrand().getSlug());
+            this.strainsById = index(strains, Strain::getId);
+            this.strainsBySlug = index(strains, Strain::getSlug);
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * Index the provided records by a key, skipping empty keys; on duplicates, the first record wins.
+         *
+         * @param records Records to index.
+         * @param key Function producing each record's key.
+         * @param <T> Record type.
+         * @return Immutable index.
+         */
+        private static <T> ImmutableMap<String, T> index(Collection<T> records, Function<T, String> key) {
+            var index = new HashMap<String, T>(records.size() * 2);
+            for (var record : records) {
+                var value = key.apply(record);
+                if (!value.isEmpty()) {
+                    index.putIfAbsent(value, record);
+                }
+            }
+            return ImmutableMap.copyOf(index);
+        }
+
+        /** @return All brands in this snapshot, in server order. */
+        public @Nonnull ImmutableList<Brand> brands() {
+            return brands;
+        }
+
+        /** @return All strains in this snapshot, in server order. */
+        public @Nonnull ImmutableList<Strain> strains() {
+            return strains;
+        }
+
+        /**
+         * @param bid Brand ID to look up.
+         * @return Matching brand, if any.
+         */
+        public @Nonnull Optional<Brand> brand(@Nonnull String bid) {
+            return Optional.ofNullable(brandsByBid.get(bid));
+        }
+
+        /**
+         * @param slug Brand slug to look up.
+         * @return Matching brand, if any.
+         */
+        public @Nonnull Optional<Brand> brandBySlug(@Nonnull String slug) {
+            return Optional.ofNullable(brandsBySlug.get(slug));
+        }
+
+        /**
+         * @param id Strain ID to look up.
+         * @return Matching strain, if any.
+         */
+        public @Nonnull Optional<Strain> strain(@Nonnull String id) {
+            return Optional.ofNullable(strainsById.get(id));
+        }
+
+        /**
+         * @param slug Strain slug to look up.
+         * @return Matching strain, if any.
+         */
+        public @Nonnull Optional<Strain> strainBySlug(@Nonnull String slug) {
+            return Optional.ofNullable(strainsBySlug.get(slug));
+        }
+    }
+
+    /**
+     * Private constructor. Please use {@link #builder()}.
+     *
+     * @param builder Builder holding settings for this dictionary.
+     * @param client Client which brands and strains are loaded from.
+     */
+    private CatalogDictionary(@Nonnull Builder builder, @Nonnull CatalogClient client) {
+        this.client = client;
+        this.scheduler = builder.scheduler != null ? builder.scheduler : ExecutionEngine.shared().timer();
+        this.ticker = builder.ticker;
+        this.ttl = builder.ttl.toNanos();
+        this.retryDelay = builder.retryDelay.toNanos();
+        this.brandsRequest = builder.brandsRequest;
+        this.strainsRequest = builder.strainsRequest;
+    }
+
+    /** Builder for {@link CatalogDictionary} instances. */
+    public static final class Builder {
+        private Duration ttl = DEFAULT_TTL;
+        private Duration retryDelay = DEFAULT_RETRY_DELAY;
+        private BrandsRequest brandsRequest = BrandsRequest.getDefaultInstance();
+        private StrainsRequest strainsRequest = StrainsRequest.getDefaultInstance();
+        private ScheduledExecutorService scheduler = null;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder() { /* Use `CatalogDictionary.builder()`. */ }
+
+        /**
+         * @param ttl Age after which a snapshot is considered expired; refreshes are scheduled ahead of it.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setTtl(@Nonnull Duration ttl) {
+            if (ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("ttl must be positive, got " + ttl);
+            }
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * @param retryDelay Delay before retrying a failed load.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setRetryDelay(@Nonnull Duration retryDelay) {
+            if (retryDelay.isNegative()) {
+                throw new IllegalArgumentException("retryDelay must not be negative, got " + retryDelay);
+            }
+            this.retryDelay = retryDelay;
+            return this;
+        }
+
+        /**
+         * @param request Request used to load brands, for instance to select query options.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setBrandsRequest(@Nonnull BrandsRequest request) {
+            this.brandsRequest = Objects.requireNonNull(request, "request");
+            return this;
+        }
+
+        /**
+         * @param request Request used to load strains, for instance to select query options.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setStrainsRequest(@Nonnull StrainsRequest request) {
+            this.strainsRequest = Objects.requireNonNull(request, "request");
+            return this;
+        }
+
+        /**
+         * @param scheduler Scheduler for background refreshes; defaults to the shared execution engine's timer.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setScheduler(@Nonnull ScheduledExecutorService scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+            return this;
+        }
+
+        /**
+         * @param ticker Source of time for snapshot ages; mostly useful for testing.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setTicker(@Nonnull Ticker ticker) {
+            this.ticker = Objects.requireNonNull(ticker, "ticker");
+            return this;
+        }
+
+        /**
+         * Build a dictionary which loads from the provided client. Loading does not begin until {@link #start()}.
+         *
+         * @param client Catalog client to load from.
+         * @return Catalog dictionary.
+         */
+        public @Nonnull CatalogDictionary build(@Nonnull CatalogClient client) {
+            return new CatalogDictionary(this, Objects.requireNonNull(client, "client"));
+        }
+    }
+
+    /** @return Builder for a catalog dictionary, with default settings. */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    // -- Lifecycle -- //
+
+    /**
+     * Start loading, if not already started. Later calls are no-ops.
+     *
+     * @return Future which resolves with the first successfully loaded snapshot.
+     */
+    public @Nonnull ListenableFuture<Snapshot> start() {
+        if (started.compareAndSet(false, true)) {
+            refresh();
+        }
+        return ready();
+    }
+
+    /** @return Future which resolves with the first successfully loaded snapshot, or fails if closed before then. */
+    public @Nonnull ListenableFuture<Snapshot> ready() {
+        return Futures.nonCancellationPropagating(ready);
+    }
+
+    /** Stop refreshing. The current snapshot remains readable; if nothing has loaded yet, {@link #ready()} fails. */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            var next = scheduled.getAndSet(null);
+            if (next != null) {
+                next.cancel(false);
+            }
+            ready.setException(new IllegalStateException("Catalog dictionary closed before its first load."));
+        }
+    }
+
+    // -- Reads -- //
+
+    /** @return Current snapshot; empty until the first load completes. */
+    public @Nonnull Snapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * @param bid Brand ID to look up.
+     * @return Matching brand, if any.
+     */
+    public @Nonnull Optional<Brand> brand(@Nonnull String bid) {
+        return current.get().brand(bid);
+    }
+
+    /**
+     * @param slug Brand slug to look up.
+     * @return Matching brand, if any.
+     */
+    public @Nonnull Optional<Brand> brandBySlug(@Nonnull String slug) {
+        return current.get().brandBySlug(slug);
+    }
+
+    /**
+     * @param id Strain ID to look up.
+     * @return Matching strain, if any.
+     */
+    public @Nonnull Optional<Strain> strain(@Nonnull String id) {
+        return current.get().strain(id);
+    }
+
+    /**
+     * @param slug Strain slug to look up.
+     * @return Matching strain, if any.
+     */
+    public @Nonnull Optional<Strain> strainBySlug(@Nonnull String slug) {
+        return current.get().strainBySlug(slug);
+    }
+
+    /** @return Whether the current snapshot is older than the TTL, or nothing has loaded yet. */
+    public boolean isExpired() {
+        var snapshot = current.get();
+        return snapshot == Snapshot.EMPTY || ticker.read() - snapshot.loadedAt >= ttl;
+    }
+
+    /** @return Count of successful loads. */
+    public long loadCount() {
+        return loads.get();
+    }
+
+    /** @return Count of failed loads. */
+    public long failureCount() {
+        return failures.get();
+    }
+
+    // -- Internals -- //
+
+    /**
+     * Load brands and strains together.
+     *
+     * @return Future for the loaded snapshot.
+     * @throws RuntimeException If either call could not be dispatched, such as when the client is closing.
+     */
+    private @Nonnull ListenableFuture<Snapshot> load() {
+        var brands = client.brands(AsyncRPC.of(brandsRequest));
+        ListenableFuture<Collection<Strain>> strains;
+        try {
+            strains = client.strains(AsyncRPC.of(strainsRequest));
+        } catch (RuntimeException rxe) {
+            brands.cancel(true);
+            throw rxe;
+        }
+        return Futures.whenAllSucceed(brands, strains).call(
+            () -> new Snapshot(Futures.getDone(brands), Futures.getDone(strains), ticker.read()),
+            MoreExecutors.directExecutor()
+        );
+    }
+
+    /** Load a snapshot, swap it in, and schedule the next refresh; failures, even to dispatch, are retried. */
+    private void refresh() {
+        if (closed.get()) {
+            return;
+        }
+        ListenableFuture<Snapshot> loaded;
+        try {
+            loaded = load();
+        } catch (RuntimeException rxe) {
+            loaded = Futures.immediateFailedFuture(rxe);
+        }
+
+        Futures.addCallback(loaded, new FutureCallback<>() {
+            @Override
+            public void onSuccess(Snapshot snapshot) {
+                current.set(snapshot);
+                loads.incrementAndGet();
+                ready.set(snapshot);
+                schedule((long) (ttl * REFRESH_AHEAD));
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable err) {
+                failures.incrementAndGet();
+                if (closed.get()) {
+                    ready.setException(err);
+                    return;
+                }
+                client.logger().warn("Failed to load catalog dictionary; retrying", err);
+                schedule(retryDelay);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Schedule the next refresh, unless closed.
+     *
+     * @param delayNanos Delay before the refresh, in nanoseconds.
+     */
+    private void schedule(long delayNanos) {
+        if (closed.get()) {
+            return;
+        }
+        scheduled.set(scheduler.schedule(this::refresh, delayNanos, TimeUnit.NANOSECONDS));
+        if (closed.get()) {
+            // closed while scheduling; make sure the refresh does not outlive the dictionary.
+            var next = scheduled.getAndSet(null);
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.catalog;
+
+import co.cookies.sdk.services.AsyncRPC;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import cookies.schema.catalog.CatalogProduct;
+import cookies.schema.catalog.MultiProductRequest;
+import cookies.schema.catalog.ProductRef;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+
+/**
+ * Local, in-memory mirror of canonical catalog products, fed incrementally by {@link CatalogClient#sync} stanzas and
+ * indexed by CTIN, CPID, CGID, and GTIN.
+ *
+ * <p>Writes are upserts keyed by CTIN and guarded by {@link ProductRef#getVersion()}: a record only replaces the one
+ * already held if its version is strictly newer, so stanzas may arrive out of order, or be replayed, without a stale
+ * record ever overwriting a newer one. Reads never lock; single-key lookups read straight from concurrent indexes, and
+ * {@link #snapshot()} hands out an immutable, point-in-time view which is built at most once per write.</p>
+ *
+ * <p>Products without a CTIN cannot be addressed, and are ignored.</p>
+ */
+@ThreadSafe
+public final class CatalogMirror {
+    /** Number of products requested from a sync publisher at a time. */
+    private static final int SYNC_BATCH = 64;
+
+    /** Primary index: CTIN to product. */
+    private final @Nonnull ConcurrentHashMap<String, CatalogProduct> byCtin = new ConcurrentHashMap<>();
+
+    /** Secondary index: CPID to CTIN. */
+    private final @Nonnull ConcurrentHashMap<String, String> byCpid = new ConcurrentHashMap<>();
+
+    /** Secondary index: GTIN to CTIN. */
+    private final @Nonnull ConcurrentHashMap<String, String> byGtin = new ConcurrentHashMap<>();
+
+    /** Secondary index: CGID to the set of CTINs in that group. */
+    private final @Nonnull ConcurrentHashMap<String, Set<String>> byCgid = new ConcurrentHashMap<>();
+
+    /** Highest product version seen by this mirror. */
+    private final @Nonnull AtomicLong maxVersion = new AtomicLong(0);
+
+    /** Count of upserts which replaced or added a record. */
+    private final @Nonnull AtomicLong applied = new AtomicLong(0);
+
+    /** Count of upserts which were ignored as stale. */
+    private final @Nonnull AtomicLong stale = new AtomicLong(0);
+
+    /** Write generation, bumped on every effective write. */
+    private final @Nonnull AtomicLong generation = new AtomicLong(0);
+
+    /** Cached snapshot, valid while its generation matches. */
+    private final @Nonnull AtomicReference<Snapshot> snapshot = new AtomicReference<>(null);
+
+    /** Immutable, point-in-time view of a catalog mirror. */
+    @Immutable
+    public static final class Snapshot {
+        private final @Nonnull ImmutableMap<String, CatalogProduct> products;
+        private final long version;
+        private final long generation;
+
+        private Snapshot(@Nonnull ImmutableMap<String, CatalogProduct> products, long version, long generation) {
+            this.products = products;
+            this.version = version;
+            this.generation = generation;
+        }
+
+        /** @return Products held at the time of the snapshot, keyed by CTIN. */
+        public @Nonnull ImmutableMap<String, CatalogProduct> products() {
+            return products;
+        }
+
+        /** @return Highest product version seen at the time of the snapshot. */
+        public long version() {
+            return version;
+        }
+
+        /** @return Count of products held at the time of the snapshot. */
+        public int size() {
+            return products.size();
+        }
+    }
+
+    // -- Writes -- //
+
+    /**
+     * Upsert a single product into the mirror, if it is newer than the record already held for its CTIN.
+     *
+     * @param product Product to upsert.
+     * @return Whether the product was applied; {@code false} if it was stale, or had no CTIN.
+     */
+    public boolean upsert(@Nonnull CatalogProduct product) {
+        Objects.requireNonNull(product, "cannot upsert null product");
+        var ctin = product.getRef().getCtin();
+        if (ctin.isEmpty()) {
+            return false;
+        }
+        var outcome = new boolean[] { false };
+        byCtin.compute(ctin, (key, existing) -> {
+            if (existing != null && existing.getRef().getVersion() >= product.getRef().getVersion()) {
+                return existing;
+            }
+            // the bin lock for this CTIN is held, so secondary indexes move atomically with respect to other writers
+            // of the same product.
+            reindex(ctin, existing, product);
+            outcome[0] = true;
+            return product;
+        });
+
+        if (outcome[0]) {
+            maxVersion.accumulateAndGet(product.getRef().getVersion(), Math::max);
+            applied.incrementAndGet();
+            generation.incrementAndGet();
+        } else {
+            stale.incrementAndGet();
+        }
+        return outcome[0];
+    }
+
+    /**
+     * Upsert every product in the provided stream, consuming it fully.
+     *
+     * @param products Products to upsert.
+     * @return Count of products which were applied.
+     */
+    public long apply(@Nonnull Stream<CatalogProduct> products) {
+        return products.filter(this::upsert).count();
+    }
+
+    /**
+     * Feed the mirror from a back-pressured sync call, applying products incrementally as stanzas arrive, rather than
+     * buffering the whole response.
+     *
+     * @param client Catalog client to sync with.
+     * @param rpc Multi-product sync operation to run.
+     * @return Future which resolves to the count of products applied, once the call completes.
+     */
+    public @Nonnull ListenableFuture<Long> sync(@Nonnull CatalogClient client,
+                                                @Nonnull AsyncRPC<MultiProductRequest> rpc) {
+        var subscriber = new MirrorSubscriber();
+        client.syncPublisher(rpc).subscribe(subscriber);
+        return subscriber.result;
+    }
+
+    /**
+     * Move secondary index entries for a CTIN from the previous record (if any) to the new one.
+     *
+     * @param ctin CTIN being written.
+     * @param previous Record previously held, or {@code null}.
+     * @param next Record about to be held.
+     */
+    private void reindex(@Nonnull String ctin, @Nullable CatalogProduct previous, @Nonnull CatalogProduct next) {
+        var ref = next.getRef();
+        if (previous != null) {
+            var old = previous.getRef();
+            if (!old.getCpid().equals(ref.getCpid())) {
+                byCpid.remove(old.getCpid(), ctin);
+            }
+            if (!old.getGtin().equals(ref.getGtin())) {
+                byGtin.remove(old.getGtin(), ctin);
+            }
+            if (!old.getCgid().equals(ref.getCgid()) && !old.getCgid().isEmpty()) {
+                byCgid.computeIfPresent(old.getCgid(), (key, members) -> {
+                    members.remove(ctin);
+                    return members.isEmpty() ? null : members;
+                });
+            }
+        }
+        if (!ref.getCpid().isEmpty()) {
+            byCpid.put(ref.getCpid(), ctin);
+        }
+        if (!ref.getGtin().isEmpty()) {
+            byGtin.put(ref.getGtin(), ctin);
+        }
+        if (!ref.getCgid().isEmpty()) {
+            byCgid.compute(ref.getCgid(), (key, members) -> {
+                var set = members != null ? members : ConcurrentHashMap.<String>newKeySet();
+                set.add(ctin);
+                return set;
+            });
+        }
+    }
+
+    // -- Reads -- //
+
+    /**
+     * @param ctin CTIN to look up.
+     * @return Product held for the CTIN, if any.
+     */
+    public @Nonnull Optional<CatalogProduct> byCtin(@Nonnull String ctin) {
+        return Optional.ofNullable(byCtin.get(ctin));
+    }
+
+    /**
+     * @param cpid CPID to look up.
+     * @return Product held for the CPID, if any.
+     */
+    public @Nonnull Optional<CatalogProduct> byCpid(@Nonnull String cpid) {
+        return secondary(byCpid, cpid, ProductRef::getCpid);
+    }
+
+    /**
+     * @param gtin GTIN to look up.
+     * @return Product held for the GTIN, if any.
+     */
+    public @Nonnull Optional<CatalogProduct> byGtin(@Nonnull String gtin) {
+        return secondary(byGtin, gtin, ProductRef::getGtin);
+    }
+
+    /**
+     * @param cgid CGID to look up.
+     * @return Products held within the group, which may be empty.
+     */
+    public @Nonnull Collection<CatalogProduct> byCgid(@Nonnull String cgid) {
+        var members = byCgid.get(cgid);
+        if (members == null) {
+            return ImmutableList.of();
+        }
+        return members.stream()
+                .map(byCtin::get)
+                .filter(Objects::nonNull)
+                .filter((product) -> cgid.equals(product.getRef().getCgid()))
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Resolve a secondary index entry, re-checking the primary record in case it moved since the index was read.
+     *
+     * @param index Secondary index to read.
+     * @param key Key to look up.
+     * @param field Field of the product reference which the index is keyed by.
+     * @return Matching product, if any.
+     */
+    private @Nonnull Optional<CatalogProduct> secondary(@Nonnull Map<String, String> index,
+                                                        @Nonnull String key,
+                                                        @Nonnull Function<ProductRef, String> field) {
+        var ctin = index.get(key);
+        if (ctin == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byCtin.get(ctin))
+                .filter((product) -> key.equals(field.apply(product.getRef())));
+    }
+
+    /**
+     * Acquire an immutable, point-in-time view of the mirror. Snapshots are cached until the next effective write, so
+     * repeated calls between writes are free.
+     *
+     * @return Current snapshot.
+     */
+    public @Nonnull Snapshot snapshot() {
+        var gen = generation.get();
+        var current = snapshot.get();
+        if (current != null && current.generation == gen) {
+            return current;
+        }
+        // the copy may observe writes newer than `gen`; that only means the next reader rebuilds a little early.
+        var built = new Snapshot(ImmutableMap.copyOf(byCtin), maxVersion.get(), gen);
+        snapshot.set(built);
+        return built;
+    }
+
+    // -- Stats -- //
+
+    /** @return Count of products held. */
+    public int size() {
+        return byCtin.size();
+    }
+
+    /** @return Highest product version seen by this mirror. */
+    public long version() {
+        return maxVersion.get();
+    }
+
+    /** @return Count of upserts which were applied. */
+    public long appliedCount() {
+        return applied.get();
+    }
+
+    /** @return Count of upserts which were ignored as stale. */
+    public long staleCount() {
+        return stale.get();
+    }
+
+    // -- Internals -- //
+
+    /** Subscriber which applies sync products as they arrive, in batches of {@link #SYNC_BATCH}. */
+    private final class MirrorSubscriber implements Flow.Subscriber<CatalogProduct> {
+        final SettableFuture<Long> result = SettableFuture.create();
+        private Flow.Subscription subscription;
+        private long count = 0;
+        private int outstanding = 0;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            outstanding = SYNC_BATCH;
+            subscription.request(SYNC_BATCH);
+        }
+
+        @Override
+        public void onNext(CatalogProduct product) {
+            if (upsert(product)) {
+                count++;
+            }
+            if (--outstanding == 0) {
+                outstanding = SYNC_BATCH;
+                subscription.request(SYNC_BATCH);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.setException(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.set(count);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.catalog;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CountingOutputStream;
+import com.google.protobuf.CodedInputStream;
+import cookies.schema.catalog.CatalogProduct;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * On-disk snapshot of canonical catalog products, which can be reopened at startup instead of re-running a full
+ * {@link CatalogClient#sync} cycle.
+ *
+ * <p>A snapshot is a pair of files within a directory: a data file ({@link #DATA_FILE}) holding length-delimited
+ * {@link CatalogProduct} records, and an index file ({@link #INDEX_FILE}) mapping each CTIN and GTIN to the offset of
+ * its record. Opening a snapshot reads only the index; the data file is memory-mapped, and records are decoded lazily
+ * from the mapped region as they are looked up, so the catalog itself never needs to be loaded onto the heap.</p>
+ *
+ * <p>Each snapshot carries the highest {@code ref.version} it contains, via {@link #maxVersion()}, so that a follow-up
+ * sync can refresh it: seed a {@link CatalogMirror} with {@link #loadInto(CatalogMirror)}, sync, and then
+ * {@link #write(Path, Iterable) write} the mirror back out.</p>
+ */
+@Immutable
+@ThreadSafe
+public final class CatalogSnapshot {
+    /** Name of the data file within a snapshot directory. */
+    public static final String DATA_FILE = "catalog.data";
+
+    /** Name of the index file within a snapshot directory. */
+    public static final String INDEX_FILE = "catalog.index";
+
+    /** Magic number leading each index file. */
+    private static final int MAGIC = 0x434b4958;
+
+    /** Current index file format. */
+    private static final int FORMAT = 1;
+
+    /** Mapped data file. Readers always operate on a duplicate. */
+    private final @Nonnull ByteBuffer data;
+
+    /** Record offsets, by slot. */
+    private final @Nonnull long[] offsets;
+
+    /** CTIN to record slot. */
+    private final @Nonnull Map<String, Integer> ctins;
+
+    /** GTIN to record slot. */
+    private final @Nonnull Map<String, Integer> gtins;
+
+    /** Highest product version held in the snapshot. */
+    private final long maxVersion;
+
+    /**
+     * Private constructor. Please use static factories.
+     *
+     * @param data Mapped data file.
+     * @param offsets Record offsets, by slot.
+     * @param ctins CTIN to record slot.
+     * @param gtins GTIN to record slot.
+     * @param maxVersion Highest product version held in the snapshot.
+     */
+    private CatalogSnapshot(@Nonnull ByteBuffer data,
+                            @Nonnull long[] offsets,
+                            @Nonnull Map<String, Integer> ctins,
+                            @Nonnull Map<String, Integer> gtins,
+                            long maxVersion) {
+        this.data = data;
+        this.offsets = offsets;
+        this.ctins = ctins;
+        this.gtins = gtins;
+        this.maxVersion = maxVersion;
+    }
+
+    /** Index entry for a record, tracked while writing. */
+    private static final class IndexEntry {
+        final long offset;
+        final long version;
+        final String gtin;
+
+        IndexEntry(long offset, long version, String gtin) {
+            this.offset = offset;
+            this.version = version;
+            this.gtin = gtin;
+        }
+    }
+
+    // -- Factories -- //
+
+    /**
+     * Write a snapshot of the provided products to the given directory, replacing any snapshot already there. Where a
+     * CTIN appears more than once, the record with the highest version wins. Products without a CTIN are skipped.
+     *
+     * <p>Both files are written to temporary siblings first and then moved into place, data before index, so readers
+     * never observe an index pointing into a partially-written data file.</p>
+     *
+     * @param directory Directory to write the snapshot into.
+     * @param products Products to write.
+     * @return Highest product version written.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static long write(@Nonnull Path directory, @Nonnull Iterable<CatalogProduct> products) throws IOException {
+        Objects.requireNonNull(directory, "cannot write snapshot to null directory");
+        Files.createDirectories(directory);
+        var dataTemp = Files.createTempFile(directory, DATA_FILE, ".tmp");
+        var indexTemp = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+
+        try {
+            var entries = new HashMap<String, IndexEntry>();
+            long maxVersion = 0;
+            long length;
+            try (var out = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(dataTemp)))) {
+                for (var product : products) {
+                    var ref = product.getRef();
+                    if (ref.getCtin().isEmpty()) {
+                        continue;
+                    }
+                    var existing = entries.get(ref.getCtin());
+                    if (existing != null && existing.version >= ref.getVersion()) {
+                        continue;
+                    }
+                    entries.put(ref.getCtin(), new IndexEntry(out.getCount(), ref.getVersion(), ref.getGtin()));
+                    maxVersion = Math.max(maxVersion, ref.getVersion());
+                    product.writeDelimitedTo(out);
+                }
+                out.flush();
+                length = out.getCount();
+            }
+
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexTemp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(maxVersion);
+                out.writeLong(length);
+                out.writeInt(entries.size());
+                for (var entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue().gtin);
+                    out.writeLong(entry.getValue().offset);
+                }
+            }
+
+            Files.move(dataTemp, directory.resolve(DATA_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.move(indexTemp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return maxVersion;
+        } finally {
+            Files.deleteIfExists(dataTemp);
+            Files.deleteIfExists(indexTemp);
+        }
+    }
+
+    /**
+     * Write the contents of a mirror snapshot to the given directory.
+     *
+     * @param directory Directory to write the snapshot into.
+     * @param snapshot Mirror snapshot to write.
+     * @return Highest product version written.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static long write(@Nonnull Path directory, @Nonnull CatalogMirror.Snapshot snapshot) throws IOException {
+        return write(directory, snapshot.products().values());
+    }
+
+    /**
+     * Open a snapshot previously written to the given directory. Only the index is read; the data file is mapped, and
+     * records are decoded on lookup.
+     *
+     * @param directory Directory holding the snapshot.
+     * @return Opened snapshot, or {@link Optional#empty()} if no snapshot exists in the directory.
+     * @throws IOException If the snapshot exists but cannot be read, or the index does not match the data file.
+     */
+    public static @Nonnull Optional<CatalogSnapshot> open(@Nonnull Path directory) throws IOException {
+        var dataFile = directory.resolve(DATA_FILE);
+        var indexFile = directory.resolve(INDEX_FILE);
+        if (!Files.exists(dataFile) || !Files.exists(indexFile)) {
+            return Optional.empty();
+        }
+
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)));
+             var channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a catalog snapshot index: " + indexFile);
+            }
+            var format = in.readInt();
+            if (format != FORMAT) {
+                throw new IOException("Unsupported catalog snapshot format: " + format);
+            }
+            var maxVersion = in.readLong();
+            var length = in.readLong();
+            if (length != channel.size()) {
+                throw new IOException("Catalog snapshot index does not match data file: " + dataFile);
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot data file is too large to map: " + dataFile);
+            }
+
+            var count = in.readInt();
+            var offsets = new long[count];
+            var ctins = new HashMap<String, Integer>(count * 2);
+            var gtins = new HashMap<String, Integer>(count * 2);
+            for (int slot = 0; slot < count; slot++) {
+                var ctin = in.readUTF();
+                var gtin = in.readUTF();
+                offsets[slot] = in.readLong();
+                ctins.put(ctin, slot);
+                if (!gtin.isEmpty()) {
+                    gtins.put(gtin, slot);
+                }
+            }
+
+            // the mapping remains valid once the channel is closed.
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return Optional.of(new CatalogSnapshot(mapped, offsets, ctins, gtins, maxVersion));
+        }
+    }
+
+    // -- Reads -- //
+
+    /** @return Highest product version held in this snapshot. */
+    public long maxVersion() {
+        return maxVersion;
+    }
+
+    /** @return Count of products held in this snapshot. */
+    public int size() {
+        return offsets.length;
+    }
+
+    /** @return Set of CTINs held in this snapshot. */
+    public @Nonnull Set<String> ctins() {
+        return ImmutableSet.copyOf(ctins.keySet());
+    }
+
+    /**
+     * @param ctin CTIN to look up.
+     * @return Product held for the CTIN, decoded from the mapped data file, if any.
+     */
+    public @Nonnull Optional<CatalogProduct> byCtin(@Nonnull String ctin) {
+        return Optional.ofNullable(ctins.get(ctin)).map(this::decode);
+    }
+
+    /**
+     * @param gtin GTIN to look up.
+     * @return Product held for the GTIN, decoded from the mapped data file, if any.
+     */
+    public @Nonnull Optional<CatalogProduct> byGtin(@Nonnull String gtin) {
+        return Optional.ofNullable(gtins.get(gtin)).map(this::decode);
+    }
+
+    /**
+     * Stream every product held in this snapshot, decoding each record as it is consumed.
+     *
+     * @return Stream of products.
+     */
+    public @Nonnull Stream<CatalogProduct> products() {
+        return IntStream.range(0, offsets.length).mapToObj(this::decode);
+    }
+
+    /**
+     * Seed the provided mirror with every product held in this snapshot. Records already held by the mirror at an
+     * equal or newer version are left as-is.
+     *
+     * @param mirror Mirror to seed.
+     * @return Count of products applied to the mirror.
+     */
+    public long loadInto(@Nonnull CatalogMirror mirror) {
+        return mirror.apply(products());
+    }
+
+    /**
+     * Decode the record held at the provided slot.
+     *
+     * @param slot Slot to decode.
+     * @return Decoded product.
+     */
+    private @Nonnull CatalogProduct decode(int slot) {
+        var view = data.duplicate();
+        view.position((int) offsets[slot]);
+        try {
+            var in = CodedInputStream.newInstance(view);
+            var limit = in.pushLimit(in.readRawVarint32());
+            var product = CatalogProduct.parseFrom(in);
+            in.popLimit(limit);
+            return product;
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Failed to decode catalog snapshot record", ioe);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.catalog;
+
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.services.Timeout;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import cookies.schema.catalog.CatalogProduct;
+import cookies.schema.catalog.FinalProduct;
+import cookies.schema.catalog.MultiProductRequest;
+import cookies.schema.catalog.ProductRequest;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Opt-in dispatcher which batches concurrent product lookups into a single {@link CatalogClient#syncPublisher} call,
+ * rather than issuing one {@link CatalogClient#product} call per lookup.
+ *
+ * <p>Lookups are collected until either the batching window elapses, measured from the first lookup in a batch, or the
+ * batch reaches its maximum size, whichever comes first. Each batch is sent as one {@link MultiProductRequest}, and
+ * each returned {@link CatalogProduct} is routed to the callers which asked for its CTIN as soon as it arrives.
+ * Products which do not come back resolve to {@link Optional#empty()}; if the call fails, every caller in the batch
+ * observes the error.</p>
+ *
+ * <p>Only lookups which differ solely by CTIN are batched together; lookups with different locales or query options
+ * are collected into separate batches.</p>
+ */
+@ThreadSafe
+public final class ProductBatcher implements Closeable {
+    /** Maximum number of products the server accepts in one multi-product request. */
+    public static final int MAX_BATCH_LIMIT = 300;
+
+    /** Default time to wait for a batch to fill. */
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(5);
+
+    /** Default maximum batch size. */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    /** Default timeout applied to each batch call. */
+    public static final Timeout DEFAULT_TIMEOUT = Timeout.of(30, TimeUnit.SECONDS);
+
+    /** Client which batches are sent through. */
+    private final @Nonnull CatalogClient client;
+
+    /** Scheduler which flushes batches once their window elapses. */
+    private final @Nonnull ScheduledExecutorService scheduler;
+
+    /** Batching window, in nanoseconds. */
+    private final long window;
+
+    /** Maximum number of distinct CTINs per batch. */
+    private final int maxBatchSize;
+
+    /** Timeout applied to each batch call. */
+    private final @Nonnull Timeout timeout;
+
+    /** Guards pending batches and the open/closed state. */
+    private final @Nonnull Object lock = new Object();
+
+    /** Batches still collecting lookups, by lookup template (the request without its CTIN). */
+    @GuardedBy("lock")
+    private final @Nonnull Map<ProductRequest, Batch> pending = new HashMap<>();
+
+    @GuardedBy("lock")
+    private boolean closed = false;
+
+    /** Count of batch calls dispatched. */
+    private final @Nonnull AtomicLong batches = new AtomicLong(0);
+
+    /** Count of lookups dispatched within batches. */
+    private final @Nonnull AtomicLong lookups = new AtomicLong(0);
+
+    /** Lookups collected for one template, keyed by CTIN in arrival order. */
+    private static final class Batch {
+        final @Nonnull ProductRequest template;
+        final @Nonnull LinkedHashMap<String, List<SettableFuture<Optional<FinalProduct>>>> waiters =
+            new LinkedHashMap<>();
+        ScheduledFuture<?> timer;
+        int count = 0;
+
+        Batch(@Nonnull ProductRequest template) {
+            this.template = template;
+        }
+    }
+
+    /**
+     * Private constructor. Please use {@link #builder()}.
+     *
+     * @param builder Builder holding settings for this batcher.
+     * @param client Client which batches are sent through.
+     */
+    private ProductBatcher(@Nonnull Builder builder, @Nonnull CatalogClient client) {
+        this.client = client;
+        this.scheduler = builder.scheduler != null ? builder.scheduler : ExecutionEngine.shared().timer();
+        this.window = builder.window.toNanos();
+        this.maxBatchSize = builder.maxBatchSize;
+        this.timeout = builder.timeout;
+    }
+
+    /** Builder for {@link ProductBatcher} instances. */
+    public static final class Builder {
+        private Duration window = DEFAULT_WINDOW;
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private Timeout timeout = DEFAULT_TIMEOUT;
+        private ScheduledExecutorService scheduler = null;
+
+        private Builder() { /* Use `ProductBatcher.builder()`. */ }
+
+        /**
+         * @param window Time to wait for a batch to fill, measured from its first lookup.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setWindow(@Nonnull Duration window) {
+            if (window.isNegative()) {
+                throw new IllegalArgumentException("window must not be negative, got " + window);
+            }
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * @param maxBatchSize Number of distinct products at which a batch is sent without waiting for the window.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMaxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1 || maxBatchSize > MAX_BATCH_LIMIT) {
+                throw new IllegalArgumentException(
+                    "maxBatchSize must be between 1 and " + MAX_BATCH_LIMIT + ", got " + maxBatchSize);
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * @param timeout Timeout applied to each batch call.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setTimeout(@Nonnull Timeout timeout) {
+            this.timeout = Objects.requireNonNull(timeout, "timeout");
+            return this;
+        }
+
+        /**
+         * @param scheduler Scheduler which flushes batches; defaults to the shared execution engine's timer.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setScheduler(@Nonnull ScheduledExecutorService scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+            return this;
+        }
+
+        /**
+         * Build a product batcher which sends batches through the provided client.
+         *
+         * @param client Catalog client to batch lookups for.
+         * @return Product batcher.
+         */
+        public @Nonnull ProductBatcher build(@Nonnull CatalogClient client) {
+            return new ProductBatcher(this, Objects.requireNonNull(client, "client"));
+        }
+    }
+
+    /** @return Builder for a product batcher, with default settings. */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    // -- API -- //
+
+    /**
+     * Enqueue a product lookup into the current batch for its locale and options.
+     *
+     * @param request Product lookup, addressed by CTIN.
+     * @return Future for the product, which resolves to {@link Optional#empty()} if the product is not found.
+     * @throws IllegalStateException If this batcher has been closed.
+     */
+    public @Nonnull ListenableFuture<Optional<FinalProduct>> product(@Nonnull ProductRequest request) {
+        var future = SettableFuture.<Optional<FinalProduct>>create();
+        if (request.getCtin().isEmpty()) {
+            future.set(Optional.empty());
+            return future;
+        }
+        var template = request.toBuilder().clearCtin().build();
+        Batch full = null;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Product batcher is closed");
+            }
+            var batch = pending.get(template);
+            if (batch == null) {
+                batch = new Batch(template);
+                pending.put(template, batch);
+                var scheduled = batch;
+                batch.timer = scheduler.schedule(() -> flush(scheduled), window, TimeUnit.NANOSECONDS);
+            }
+            batch.waiters.computeIfAbsent(request.getCtin(), (ctin) -> new ArrayList<>(1)).add(future);
+            batch.count++;
+            if (batch.waiters.size() >= maxBatchSize) {
+                pending.remove(template);
+                batch.timer.cancel(false);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /** Send every pending batch immediately, without waiting for their windows to elapse. */
+    public void flush() {
+        List<Batch> ready;
+        synchronized (lock) {
+            ready = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (var batch : ready) {
+            batch.timer.cancel(false);
+            dispatch(batch);
+        }
+    }
+
+    /** Send every pending batch, and refuse any further lookups. In-flight batches are left to complete. */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        flush();
+    }
+
+    /** @return Count of batch calls dispatched. */
+    public long batchCount() {
+        return batches.get();
+    }
+
+    /** @return Count of lookups dispatched within batches. */
+    public long lookupCount() {
+        return lookups.get();
+    }
+
+    // -- Internals -- //
+
+    /**
+     * Flush a batch whose window has elapsed, unless it was already sent for being full.
+     *
+     * @param batch Batch to flush.
+     */
+    private void flush(@Nonnull Batch batch) {
+        synchronized (lock) {
+            if (!pending.remove(batch.template, batch)) {
+                return;
+            }
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Send a batch as one multi-product sync call, routing products to waiters as they arrive.
+     *
+     * @param batch Batch to send.
+     */
+    private void dispatch(@Nonnull Batch batch) {
+        batches.incrementAndGet();
+        lookups.addAndGet(batch.count);
+        var request = MultiProductRequest.newBuilder()
+            .setLocale(batch.template.getLocale())
+            .setOptions(batch.template.getOptions())
+            .addAllCtin(batch.waiters.keySet())
+            .build();
+        try {
+            client.syncPublisher(AsyncRPC.async(request, timeout)).subscribe(new BatchSubscriber(batch));
+        } catch (RuntimeException rxe) {
+            batch.waiters.values().forEach((waiters) -> waiters.forEach((future) -> future.setException(rxe)));
+        }
+    }
+
+    /** Routes the products of one batch call to the futures waiting on them. */
+    private static final class BatchSubscriber implements Flow.Subscriber<CatalogProduct> {
+        private final @Nonnull Batch batch;
+
+        BatchSubscriber(@Nonnull Batch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(CatalogProduct product) {
+            var waiters = batch.waiters.get(product.getRef().getCtin());
+            if (waiters != null) {
+                var result = product.hasProduct() ? Optional.of(product.getProduct()) : Optional.<FinalProduct>empty();
+                waiters.forEach((future) -> future.set(result));
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            batch.waiters.values().forEach((waiters) -> waiters.forEach((future) -> future.setException(throwable)));
+        }
+
+        @Override
+        public void onComplete() {
+            // anything not yet resolved did not come back from the server.
+            batch.waiters.values().forEach((waiters) -> waiters.forEach((future) -> future.set(Optional.empty())));
+        }
+    }
+}
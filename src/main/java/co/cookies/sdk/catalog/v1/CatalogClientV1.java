@@ -21,23 +21,23 @@ import co.cookies.sdk.exceptions.ServiceSetupError;
 import co.cookies.sdk.services.AsyncRPC;
 import co.cookies.sdk.services.BaseService;
 import co.cookies.sdk.services.BaseServiceInfo;
+import co.cookies.sdk.services.ServiceOptions;
 import co.cookies.sdk.services.Client;
-import com.google.common.collect.ImmutableList;
+import co.cookies.sdk.services.SyncRPC;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import cookies.schema.Brand;
 import cookies.schema.Strain;
 import cookies.schema.catalog.*;
-import org.slf4j.ILoggerFactory;
-import org.slf4j.LoggerFactory;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServiceDescriptor;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import java.util.Collection;
 import java.util.Optional;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static co.cookies.sdk.SDKUtil.protect;
@@ -60,6 +60,22 @@ public final class CatalogClientV1 extends BaseService<CatalogV1Client> implemen
     /** Specification describing this service. */
     public final static CatalogServiceInfo INFO = new CatalogServiceInfo();
 
+    // -- Transformers -- //
+
+    /** Converts a brands response into the facade's collection of brands; repeated fields are already immutable. */
+    private static final Function<BrandsResponse, Collection<Brand>> BRANDS = BrandsResponse::getBrandList;
+
+    /** Converts a strains response into the facade's collection of strains. */
+    private static final Function<StrainsResponse, Collection<Strain>> STRAINS = StrainsResponse::getStrainList;
+
+    /** Converts a product sync stanza into a stream of catalog products. */
+    private static final Function<CatalogProductSet, Stream<CatalogProduct>> SYNC =
+        (response) -> response.getProductList().stream();
+
+    /** Converts a catalog product response into the facade's optional final product. */
+    private static final Function<CatalogProduct, Optional<FinalProduct>> PRODUCT =
+        (response) -> response.hasProduct() ? Optional.of(response.getProduct()) : Optional.empty();
+
     /** Service info specification for the Catalog API, version 1. */
     @Immutable @ThreadSafe
     public final static class CatalogServiceInfo extends BaseServiceInfo {
@@ -86,16 +102,28 @@ public final class CatalogClientV1 extends BaseService<CatalogV1Client> implemen
         public boolean authorizationRequired() {
             return false;
         }
+
+        // gRPC descriptor for this service.
+        @Override
+        public @Nonnull Optional<ServiceDescriptor> serviceDescriptor() {
+            return Optional.of(CatalogV1Grpc.getServiceDescriptor());
+        }
+
+        // Every Catalog method is a read, and so may be retried.
+        @Override
+        public boolean retryable(@Nonnull MethodDescriptor<?, ?> method) {
+            return true;
+        }
     }
 
     /**
      * Private constructor. Please use static factories.
      *
      * @param catalogClient Catalog client object to mount.
-     * @param serviceLogger Logger for this service.
+     * @param serviceOptions Options for this service.
      */
-    private CatalogClientV1(@Nonnull CatalogV1Client catalogClient, @Nonnull ILoggerFactory serviceLogger) {
-        super(INFO, catalogClient, serviceLogger);
+    private CatalogClientV1(@Nonnull CatalogV1Client catalogClient, @Nonnull ServiceOptions serviceOptions) {
+        super(INFO, catalogClient, serviceOptions);
     }
 
     // -- Static Factories -- //
@@ -121,7 +149,7 @@ public final class CatalogClientV1 extends BaseService<CatalogV1Client> implemen
                     .setCredentialsProvider(configuration.credentialsProvider())
                     .setTransportChannelProvider(configuration.transportChannelProvider())
                     .build()),
-                configuration.loggerFactory()
+                ServiceOptions.from(configuration)
         ));
     }
 
@@ -135,7 +163,7 @@ public final class CatalogClientV1 extends BaseService<CatalogV1Client> implemen
     public static @Nonnull CatalogClientV1 defaults() {
         return protect(ServiceSetupError::new, () -> new CatalogClientV1(
             CatalogV1Client.create(),
-            LoggerFactory.getILoggerFactory()
+            ServiceOptions.defaults()
         ));
     }
 
@@ -149,56 +177,87 @@ public final class CatalogClientV1 extends BaseService<CatalogV1Client> implemen
     public static @Nonnull CatalogClientV1 forStub(@Nonnull CatalogV1Stub stub) {
         return protect(ServiceSetupError::new, () -> new CatalogClientV1(
             CatalogV1Client.create(stub),
-            LoggerFactory.getILoggerFactory()
+            ServiceOptions.defaults()
         ));
     }
 
-    // -- Compliance: Base Service -- //
+    /**
+     * Create an instance of the Catalog Client backed directly with the provided stub and service options, including
+     * the execution engine and logger factory to use.
+     *
+     * @param stub Service stub to use for the newly-minted client facade.
+     * @param options Service options to use for the newly-minted client facade.
+     * @return Catalog client facade.
+     */
+    public static @Nonnull CatalogClientV1 forStub(@Nonnull CatalogV1Stub stub, @Nonnull ServiceOptions options) {
+        return protect(ServiceSetupError::new, () -> new CatalogClientV1(
+            CatalogV1Client.create(stub),
+            options
+        ));
+    }
+
+    // -- API Interface: Catalog -- //
 
     /** @inheritDoc */
     @Override
-    public @Nonnull ListeningScheduledExecutorService executorService() {
-        if (service().getSettings() != null) {
-            return MoreExecutors.listeningDecorator(
-                service().getSettings().getBackgroundExecutorProvider().getExecutor()
-            );
-        }
-
-        // no custom executor: use a single-thread scheduled executor.
-        return MoreExecutors.listeningDecorator(
-            Executors.newSingleThreadScheduledExecutor()
+    public @Nonnull Collection<Brand> brands(@Nonnull SyncRPC<BrandsRequest> rpc) {
+        return read(
+            rpc,
+            CatalogV1Grpc.getBrandsMethod(),
+            service().brandsCallable(),
+            BRANDS
         );
     }
 
-    // -- API Interface: Catalog -- //
-
     /** @inheritDoc */
     public @Nonnull ListenableFuture<Collection<Brand>> brands(@Nonnull AsyncRPC<BrandsRequest> rpc) {
-        return execute(
+        return read(
             rpc,
             CatalogV1Grpc.getBrandsMethod(),
             service().brandsCallable()::futureCall,
-            (response) -> ImmutableList.copyOf(response.getBrandList())
+            BRANDS
+        );
+    }
+
+    /** @inheritDoc */
+    @Override
+    public @Nonnull Collection<Strain> strains(@Nonnull SyncRPC<StrainsRequest> rpc) {
+        return read(
+            rpc,
+            CatalogV1Grpc.getStrainsMethod(),
+            service().strainsCallable(),
+            STRAINS
         );
     }
 
     /** @inheritDoc */
     public @Nonnull ListenableFuture<Collection<Strain>> strains(@Nonnull AsyncRPC<StrainsRequest> rpc) {
-        return execute(
+        return read(
             rpc,
             CatalogV1Grpc.getStrainsMethod(),
             service().strainsCallable()::futureCall,
-            (response) -> ImmutableList.copyOf(response.getStrainList())
+            STRAINS
+        );
+    }
+
+    /** @inheritDoc */
+    @Override
+    public @Nonnull Optional<FinalProduct> product(@Nonnull SyncRPC<ProductRequest> rpc) {
+        return read(
+            rpc,
+            CatalogV1Grpc.getProductMethod(),
+            service().productCallable(),
+            PRODUCT
         );
     }
 
     /** @inheritDoc */
     public @Nonnull ListenableFuture<Optional<FinalProduct>> product(@Nonnull AsyncRPC<ProductRequest> rpc) {
-        return execute(
+        return read(
             rpc,
             CatalogV1Grpc.getProductMethod(),
             service().productCallable()::futureCall,
-            (response) -> response.hasProduct() ? Optional.empty() : Optional.of(response.getProduct())
+            PRODUCT
         );
     }
 
@@ -208,7 +267,18 @@ public final class CatalogClientV1 extends BaseService<CatalogV1Client> implemen
             rpc,
             CatalogV1Grpc.getSyncMethod(),
             service().syncCallable()::call,
-            (response) -> response.getProductList().stream()
+            SYNC
+        );
+    }
+
+    /** @inheritDoc */
+    @Override
+    public @Nonnull Flow.Publisher<CatalogProduct> syncPublisher(@Nonnull AsyncRPC<MultiProductRequest> rpc) {
+        return publish(
+            rpc,
+            CatalogV1Grpc.getSyncMethod(),
+            service().syncCallable(),
+            SYNC
         );
     }
 }
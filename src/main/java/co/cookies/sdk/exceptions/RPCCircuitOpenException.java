@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.exceptions;
+
+
+/**
+ * Error class, thrown when a call is refused client-side before it is sent, because the circuit breaker for its method
+ * is open: recent calls to the method have failed, or run slow, too often.
+ *
+ * <p>Calls failing with this error never reach the server. The circuit lets probe calls through again once its open
+ * period has passed.</p>
+ */
+public final class RPCCircuitOpenException extends CookiesRPCException {
+    /**
+     * Construct a circuit-open error with a message.
+     *
+     * @param message Message describing the open circuit.
+     */
+    public RPCCircuitOpenException(String message) {
+        super(message, null);
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.metrics;
+
+import co.cookies.sdk.exceptions.RPCCircuitOpenException;
+import co.cookies.sdk.exceptions.RPCOverloadException;
+import co.cookies.sdk.exceptions.RPCTimeoutException;
+import co.cookies.sdk.services.LatencyHistogram;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiException;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+import io.grpc.Status;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Call metrics for one method of a service: a latency histogram, the count of calls in flight, error counts by gRPC
+ * status, and the count of timeouts.
+ *
+ * <p>Each call is bracketed by {@link #start()} and {@link #finish(long, Throwable)}, neither of which allocates or
+ * takes locks. Latencies are held in a cumulative {@link LatencyHistogram}, whose percentiles are accurate to within
+ * 12.5%. Errors which do not carry a gRPC status are counted under the nearest one: timeouts as
+ * {@link Status.Code#DEADLINE_EXCEEDED}, client-side refusals by the adaptive limiter as
+ * {@link Status.Code#RESOURCE_EXHAUSTED}, refusals by an open circuit as {@link Status.Code#UNAVAILABLE},
+ * cancellations as {@link Status.Code#CANCELLED}, and anything else as {@link Status.Code#UNKNOWN}.</p>
+ */
+@ThreadSafe
+public final class MethodMetrics {
+    /** Every gRPC status code, indexed by ordinal. */
+    private static final Status.Code[] CODES = Status.Code.values();
+
+    /** Tag of the service which owns the method, i.e. `catalog:v1`. */
+    private final @Nonnull String service;
+
+    /** Full gRPC name of the method. */
+    private final @Nonnull String method;
+
+    /** Sink to notify as each call concludes. */
+    private final @Nonnull MetricsSink sink;
+
+    /** Latency of every concluded call. */
+    private final @Nonnull LatencyHistogram latency = LatencyHistogram.cumulative();
+
+    /** Count of calls currently in flight. */
+    private final @Nonnull AtomicInteger inflight = new AtomicInteger(0);
+
+    // -- Counters -- //
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final AtomicLongArray errors = new AtomicLongArray(CODES.length);
+
+    /**
+     * Private constructor. Please use {@link #create(String, String, MetricsSink)}.
+     *
+     * @param service Tag of the service which owns the method.
+     * @param method Full gRPC name of the method.
+     * @param sink Sink to notify as each call concludes.
+     */
+    private MethodMetrics(@Nonnull String service, @Nonnull String method, @Nonnull MetricsSink sink) {
+        this.service = service;
+        this.method = method;
+        this.sink = sink;
+    }
+
+    /**
+     * @param service Tag of the service which owns the method, i.e. `catalog:v1`.
+     * @param method Full gRPC name of the method.
+     * @param sink Sink to notify as each call concludes.
+     * @return Method metrics.
+     */
+    public static @Nonnull MethodMetrics create(@Nonnull String service,
+                                                @Nonnull String method,
+                                                @Nonnull MetricsSink sink) {
+        return new MethodMetrics(service, method, sink);
+    }
+
+    /** @return Tag of the service which owns the method, i.e. `catalog:v1`. */
+    public @Nonnull String service() {
+        return service;
+    }
+
+    /** @return Full gRPC name of the method. */
+    public @Nonnull String method() {
+        return method;
+    }
+
+    /** @return Latency of every concluded call. */
+    public @Nonnull LatencyHistogram latency() {
+        return latency;
+    }
+
+    /** @return Count of calls currently in flight. */
+    public int inflight() {
+        return inflight.get();
+    }
+
+    /** @return Count of concluded calls. */
+    public long callCount() {
+        return calls.sum();
+    }
+
+    /** @return Count of calls which timed out. */
+    public long timeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @param code gRPC status code.
+     * @return Count of calls which failed with the status; always zero for {@link Status.Code#OK}.
+     */
+    public long errorCount(@Nonnull Status.Code code) {
+        return errors.get(code.ordinal());
+    }
+
+    // -- Recording -- //
+
+    /**
+     * Count a call as in flight.
+     *
+     * @return Time the call started, in terms of {@link System#nanoTime()}; hand it back to {@link #finish}.
+     */
+    public long start() {
+        inflight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the conclusion of a call counted via {@link #start()}.
+     *
+     * @param startNanos Time the call started, as returned by {@link #start()}.
+     * @param error Error the call failed with, or `null` if it succeeded.
+     */
+    public void finish(long startNanos, @Nullable Throwable error) {
+        long elapsed = System.nanoTime() - startNanos;
+        inflight.decrementAndGet();
+        calls.increment();
+        latency.record(elapsed);
+        var code = error == null ? Status.Code.OK : status(error);
+        if (code != Status.Code.OK) {
+            errors.incrementAndGet(code.ordinal());
+            if (code == Status.Code.DEADLINE_EXCEEDED) {
+                timeouts.increment();
+            }
+        }
+        sink.record(this, elapsed, code);
+    }
+
+    /**
+     * @param error Error raised by a call.
+     * @return gRPC status which best describes the error.
+     */
+    public static @Nonnull Status.Code status(@Nonnull Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RPCTimeoutException) {
+                return Status.Code.DEADLINE_EXCEEDED;
+            }
+            if (cause instanceof RPCOverloadException) {
+                return Status.Code.RESOURCE_EXHAUSTED;
+            }
+            if (cause instanceof RPCCircuitOpenException) {
+                return Status.Code.UNAVAILABLE;
+            }
+            if (cause instanceof CancellationException) {
+                return Status.Code.CANCELLED;
+            }
+            if (cause instanceof ApiException) {
+                var code = ((ApiException) cause).getStatusCode();
+                return code instanceof GrpcStatusCode ?
+                    ((GrpcStatusCode) code).getTransportCode() :
+                    Status.Code.valueOf(code.getCode().name());
+            }
+        }
+        return Status.Code.UNKNOWN;
+    }
+
+    // -- Snapshots -- //
+
+    /** @return Point-in-time snapshot of these metrics. */
+    public @Nonnull Snapshot snapshot() {
+        var errorCounts = ImmutableMap.<Status.Code, Long>builder();
+        for (var code : CODES) {
+            var count = errors.get(code.ordinal());
+            if (count > 0) {
+                errorCounts.put(code, count);
+            }
+        }
+        return new AutoValue_MethodMetrics_Snapshot(
+            service,
+            method,
+            calls.sum(),
+            inflight.get(),
+            timeouts.sum(),
+            errorCounts.build(),
+            latency.percentile(0.5),
+            latency.percentile(0.9),
+            latency.percentile(0.99),
+            latency.percentile(0.999)
+        );
+    }
+
+    /** Point-in-time snapshot of a method's {@link MethodMetrics}. */
+    @AutoValue @Immutable @ThreadSafe
+    public abstract static class Snapshot {
+        /** @return Tag of the service which owns the method. */
+        public abstract @Nonnull String service();
+
+        /** @return Full gRPC name of the method. */
+        public abstract @Nonnull String method();
+
+        /** @return Count of concluded calls. */
+        public abstract long callCount();
+
+        /** @return Count of calls in flight. */
+        public abstract int inflight();
+
+        /** @return Count of calls which timed out. */
+        public abstract long timeoutCount();
+
+        /** @return Count of failed calls by gRPC status; statuses with no failures are omitted. */
+        public abstract @Nonnull ImmutableMap<Status.Code, Long> errorCounts();
+
+        /** @return Median call latency. */
+        public abstract @Nonnull Duration p50();
+
+        /** @return 90th percentile call latency. */
+        public abstract @Nonnull Duration p90();
+
+        /** @return 99th percentile call latency. */
+        public abstract @Nonnull Duration p99();
+
+        /** @return 99.9th percentile call latency. */
+        public abstract @Nonnull Duration p999();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.metrics;
+
+import io.grpc.Status;
+
+import javax.annotation.Nonnull;
+
+
+/**
+ * Service provider interface through which SDK services export their call metrics, for instance to Micrometer or
+ * OpenTelemetry; every method has a no-op default, and {@link #noop()} discards everything.
+ *
+ * <p>Services record into {@link MethodMetrics} on their own. A sink is told about each method's metrics once, via
+ * {@link #register(MethodMetrics)}, and may poll them from then on (this costs nothing per call); sinks which need
+ * every sample may also implement {@link #record(MethodMetrics, long, Status.Code)}, which is invoked as each call
+ * concludes, on whichever thread concluded it. Implementations must be thread-safe, and must not block.</p>
+ */
+public interface MetricsSink {
+    /** @return Sink which discards all metrics. */
+    static @Nonnull MetricsSink noop() {
+        return NoopMetricsSink.INSTANCE;
+    }
+
+    /**
+     * Called once for each method, when it is first called through a service; the metrics may be polled from then on.
+     *
+     * @param metrics Metrics for the method.
+     */
+    default void register(@Nonnull MethodMetrics metrics) {
+        // no-op by default
+    }
+
+    /**
+     * Called as each call concludes, after it is recorded in the method's metrics.
+     *
+     * @param metrics Metrics for the method which was called.
+     * @param latencyNanos Latency of the call, in nanoseconds.
+     * @param code Status the call concluded with; {@link Status.Code#OK} if it succeeded.
+     */
+    default void record(@Nonnull MethodMetrics metrics, long latencyNanos, @Nonnull Status.Code code) {
+        // no-op by default
+    }
+}
+
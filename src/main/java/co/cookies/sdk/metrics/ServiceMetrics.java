@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import io.grpc.MethodDescriptor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+
+/**
+ * Holds the {@link MethodMetrics} for each method of one service, keyed by full gRPC method name, and registers each
+ * with the service's {@link MetricsSink} when the method is first called.
+ */
+@ThreadSafe
+public final class ServiceMetrics {
+    /** Tag of the service, i.e. `catalog:v1`. */
+    private final @Nonnull String service;
+
+    /** Sink which receives each method's metrics. */
+    private final @Nonnull MetricsSink sink;
+
+    /** Metrics for each method called so far, keyed by full method name. */
+    private final @Nonnull ConcurrentHashMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    /** Spawns and registers the metrics for a method; held so that looking up metrics allocates no lambda. */
+    private final @Nonnull Function<String, MethodMetrics> spawn = this::spawn;
+
+    /**
+     * Private constructor. Please use {@link #create(String, MetricsSink)}.
+     *
+     * @param service Tag of the service.
+     * @param sink Sink which receives each method's metrics.
+     */
+    private ServiceMetrics(@Nonnull String service, @Nonnull MetricsSink sink) {
+        this.service = service;
+        this.sink = sink;
+    }
+
+    /**
+     * @param service Tag of the service, i.e. `catalog:v1`.
+     * @param sink Sink which receives each method's metrics.
+     * @return Service metrics.
+     */
+    public static @Nonnull ServiceMetrics create(@Nonnull String service, @Nonnull MetricsSink sink) {
+        return new ServiceMetrics(service, sink);
+    }
+
+    /** @return Tag of the service, i.e. `catalog:v1`. */
+    public @Nonnull String service() {
+        return service;
+    }
+
+    /** @return Sink which receives each method's metrics. */
+    public @Nonnull MetricsSink sink() {
+        return sink;
+    }
+
+    /**
+     * @param descriptor gRPC descriptor for one of the service's methods.
+     * @return Metrics for the method, spawned (and registered with the sink) on first use.
+     */
+    public @Nonnull MethodMetrics method(@Nonnull MethodDescriptor<?, ?> descriptor) {
+        var name = descriptor.getFullMethodName();
+        var metrics = methods.get(name);
+        return metrics != null ? metrics : methods.computeIfAbsent(name, spawn);
+    }
+
+    /** @return Point-in-time snapshots for each method called so far, keyed by full method name. */
+    public @Nonnull ImmutableMap<String, MethodMetrics.Snapshot> snapshot() {
+        var snapshots = ImmutableMap.<String, MethodMetrics.Snapshot>builder();
+        methods.forEach((name, metrics) -> snapshots.put(name, metrics.snapshot()));
+        return snapshots.build();
+    }
+
+    /**
+     * @param method Full gRPC name of the method.
+     * @return Metrics for the method, registered with the sink.
+     */
+    private @Nonnull MethodMetrics spawn(@Nonnull String method) {
+        var metrics = MethodMetrics.create(service, method, sink);
+        sink.register(metrics);
+        return metrics;
+    }
+}
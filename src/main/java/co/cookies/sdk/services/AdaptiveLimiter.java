@@ -0,0 +1,443 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import co.cookies.sdk.exceptions.RPCInterruptException;
+import co.cookies.sdk.exceptions.RPCOverloadException;
+import co.cookies.sdk.exceptions.RPCTimeoutException;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.auto.value.AutoValue;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+
+/**
+ * Bounds the calls a service has in flight with a limit which adapts to observed round-trip time, so that a slow
+ * backend sees less concurrency from this client, rather than an ever-growing pile of calls.
+ *
+ * <p>The limit follows TCP Vegas: the shortest recent round-trip time is taken as the no-load latency, and each sample
+ * estimates how many calls are queued at the server as `limit * (1 - noLoad / rtt)`. A short queue grows the limit; a
+ * long one shrinks it. Calls which fail as overloaded (deadline exceeded, unavailable, or resource exhausted) cut the
+ * limit by 10%. Samples are ignored for growth while fewer than half the permits are in use, and the no-load latency is
+ * re-learned every {@link #PROBE_SAMPLES} samples, so that it follows the backend over time.</p>
+ *
+ * <p>Calls which arrive at the limit fail fast with an {@link RPCOverloadException}, or, if the {@link LimiterPolicy}
+ * allows it, wait for a permit up to its maximum wait. Waiting calls do not hold threads unless they are blocking
+ * calls. The current limit is available via {@link #limit()}, and with other figures via {@link #stats()}.</p>
+ */
+@ThreadSafe
+public final class AdaptiveLimiter {
+    /** Count of samples after which the no-load latency is re-learned. */
+    public static final int PROBE_SAMPLES = 1000;
+
+    /** Factor applied to the limit when a call fails as overloaded. */
+    private static final double DROP_FACTOR = 0.9;
+
+    /** Name of the service this limiter guards, for error reporting. */
+    private final @Nonnull String name;
+
+    /** Policy which governs this limiter. */
+    private final @Nonnull LimiterPolicy policy;
+
+    /** Timer on which waits for a permit expire. */
+    private final @Nonnull ScheduledExecutorService timer;
+
+    /** Count of permits currently held. */
+    private final @Nonnull AtomicInteger inflight = new AtomicInteger(0);
+
+    /** Current concurrency limit. */
+    private volatile int limit;
+
+    /** Calls waiting for a permit, in arrival order; entries may already have expired or been cancelled. */
+    private final @Nonnull ConcurrentLinkedQueue<SettableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+    /** Count of entries in the wait queue. */
+    private final @Nonnull AtomicInteger queued = new AtomicInteger(0);
+
+    /** Precise concurrency limit, of which {@link #limit} is the integral part. */
+    @GuardedBy("this") private double estimate;
+
+    /** Shortest round-trip time observed since the last probe, in nanoseconds; zero if none. */
+    @GuardedBy("this") private long noLoadNanos = 0;
+
+    /** Count of samples since the last probe. */
+    @GuardedBy("this") private int samples = 0;
+
+    // -- Counters -- //
+
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+
+    /**
+     * Private constructor. Please use {@link #create(String, LimiterPolicy, ScheduledExecutorService)}.
+     *
+     * @param name Name of the service this limiter guards.
+     * @param policy Policy which governs this limiter.
+     * @param timer Timer on which waits for a permit expire.
+     */
+    private AdaptiveLimiter(@Nonnull String name,
+                            @Nonnull LimiterPolicy policy,
+                            @Nonnull ScheduledExecutorService timer) {
+        this.name = name;
+        this.policy = policy;
+        this.timer = timer;
+        this.limit = policy.initialLimit();
+        this.estimate = policy.initialLimit();
+    }
+
+    /**
+     * @param name Name of the service this limiter guards, for error reporting.
+     * @param policy Policy which governs this limiter.
+     * @param timer Timer on which waits for a permit expire, typically {@link ExecutionEngine#timer()}.
+     * @return Adaptive limiter.
+     */
+    public static @Nonnull AdaptiveLimiter create(@Nonnull String name,
+                                                  @Nonnull LimiterPolicy policy,
+                                                  @Nonnull ScheduledExecutorService timer) {
+        return new AdaptiveLimiter(name, policy, timer);
+    }
+
+    /** @return Policy which governs this limiter. */
+    public @Nonnull LimiterPolicy policy() {
+        return policy;
+    }
+
+    /** @return Current concurrency limit. */
+    public int limit() {
+        return limit;
+    }
+
+    /** @return Count of permits currently held. */
+    public int inflight() {
+        return inflight.get();
+    }
+
+    /** @return Point-in-time statistics for this limiter. */
+    public @Nonnull Stats stats() {
+        return new AutoValue_AdaptiveLimiter_Stats(
+            limit,
+            inflight.get(),
+            queued.get(),
+            rejected.get(),
+            dropped.get()
+        );
+    }
+
+    // -- Running Calls -- //
+
+    /**
+     * Run an asynchronous call under this limiter: once a permit is acquired, the call is started, and its permit is
+     * released (and its round-trip time sampled) once it concludes.
+     *
+     * @param call Supplier which starts the call.
+     * @param <R> Response type of the call.
+     * @return Future for the call, which fails with an {@link RPCOverloadException} if no permit was acquired.
+     */
+    public @Nonnull <R> ListenableFuture<R> run(@Nonnull Supplier<ListenableFuture<R>> call) {
+        if (tryAcquire()) {
+            return start(call);
+        }
+        return Futures.transformAsync(acquire(), (permit) -> start(call), MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Run a blocking call under this limiter, on the calling thread: once a permit is acquired (waiting for one if the
+     * policy allows it), the call is run, and its permit is released (and its round-trip time sampled) once it returns.
+     *
+     * @param call Supplier which runs the call.
+     * @param <R> Response type of the call.
+     * @return Response from the call.
+     * @throws RPCOverloadException If no permit was acquired.
+     * @throws RPCInterruptException If the thread was interrupted while waiting for a permit.
+     */
+    public <R> R call(@Nonnull Supplier<R> call) {
+        if (!tryAcquire()) {
+            awaitPermit();
+        }
+        long start = System.nanoTime();
+        final R response;
+        try {
+            response = call.get();
+        } catch (RuntimeException | Error err) {
+            release(start, err);
+            throw err;
+        }
+        release(start, null);
+        return response;
+    }
+
+    // -- Permits -- //
+
+    /** @return Whether a permit was acquired without waiting. */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Acquire a permit, waiting for one if the limit is reached and the policy allows it; each acquired permit must be
+     * released exactly once, via {@link #release(long, Throwable)}.
+     *
+     * @return Future which resolves once a permit is held, or fails with an {@link RPCOverloadException}.
+     */
+    public @Nonnull ListenableFuture<Void> acquire() {
+        if (tryAcquire()) {
+            return Futures.immediateVoidFuture();
+        }
+        var maxWait = policy.maxWait();
+        if (maxWait.isZero()) {
+            rejected.incrementAndGet();
+            return Futures.immediateFailedFuture(overloaded());
+        }
+        if (queued.incrementAndGet() > policy.maxQueue()) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            return Futures.immediateFailedFuture(overloaded());
+        }
+        var waiter = SettableFuture.<Void>create();
+        waiters.add(waiter);
+
+        // a permit may have been released while we were queueing; if so, take it ourselves.
+        if (tryAcquire() && !waiter.set(null)) {
+            releasePermit();
+        }
+        if (!waiter.isDone()) {
+            try {
+                var expiry = timer.schedule(() -> {
+                    if (waiter.setException(overloaded())) {
+                        rejected.incrementAndGet();
+                    }
+                }, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                waiter.addListener(() -> expiry.cancel(false), MoreExecutors.directExecutor());
+            } catch (RejectedExecutionException rxe) {
+                if (waiter.setException(overloaded())) {
+                    rejected.incrementAndGet();
+                }
+            }
+        }
+        return waiter;
+    }
+
+    /**
+     * Release a permit, sampling the call it was held for.
+     *
+     * @param startNanos Time the call started, in terms of {@link System#nanoTime()}.
+     * @param error Error the call failed with, or `null` if it succeeded; only overload errors affect the limit.
+     */
+    public void release(long startNanos, @Nullable Throwable error) {
+        if (error == null) {
+            sample(System.nanoTime() - startNanos, false);
+        } else if (isOverload(error)) {
+            dropped.incrementAndGet();
+            sample(0, true);
+        }
+        releasePermit();
+    }
+
+    /**
+     * @param error Error raised by a call.
+     * @return Whether the error indicates the backend is overloaded.
+     */
+    public static boolean isOverload(@Nonnull Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RPCTimeoutException) {
+                return true;
+            }
+            if (cause instanceof ApiException) {
+                var code = ((ApiException) cause).getStatusCode().getCode();
+                return code == StatusCode.Code.DEADLINE_EXCEEDED ||
+                    code == StatusCode.Code.UNAVAILABLE ||
+                    code == StatusCode.Code.RESOURCE_EXHAUSTED;
+            }
+        }
+        return false;
+    }
+
+    // -- Internals -- //
+
+    /**
+     * Start a call for which a permit is already held.
+     *
+     * @param call Supplier which starts the call.
+     * @param <R> Response type of the call.
+     * @return Future for the call.
+     */
+    private @Nonnull <R> ListenableFuture<R> start(@Nonnull Supplier<ListenableFuture<R>> call) {
+        long start = System.nanoTime();
+        final ListenableFuture<R> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException | Error err) {
+            release(start, err);
+            throw err;
+        }
+        future.addListener(() -> release(start, failure(future)), MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /**
+     * @param future Completed future.
+     * @return Error the future failed with, or `null` if it succeeded.
+     */
+    private static @Nullable Throwable failure(@Nonnull ListenableFuture<?> future) {
+        try {
+            Futures.getDone(future);
+            return null;
+        } catch (ExecutionException exe) {
+            return exe.getCause();
+        } catch (CancellationException cxe) {
+            return cxe;
+        }
+    }
+
+    /**
+     * Wait on the calling thread for a permit.
+     *
+     * @throws RPCOverloadException If no permit was acquired.
+     * @throws RPCInterruptException If the thread was interrupted while waiting.
+     */
+    private void awaitPermit() {
+        var permit = acquire();
+        try {
+            permit.get();
+        } catch (InterruptedException ixe) {
+            if (!permit.cancel(false) && failure(permit) == null) {
+                releasePermit();  // acquired just as we gave up
+            }
+            Thread.currentThread().interrupt();
+            throw new RPCInterruptException(
+                format("Interrupted while waiting for a permit for service '%s'.", name),
+                ixe
+            );
+        } catch (ExecutionException exe) {
+            if (exe.getCause() instanceof RPCOverloadException) {
+                throw (RPCOverloadException) exe.getCause();
+            }
+            throw new IllegalStateException(exe.getCause());
+        }
+    }
+
+    /** Release a permit, handing it to the longest-waiting call if the limit allows. */
+    private void releasePermit() {
+        if (inflight.get() <= limit) {
+            SettableFuture<Void> waiter;
+            while ((waiter = waiters.poll()) != null) {
+                queued.decrementAndGet();
+                if (waiter.set(null)) {
+                    return;  // the permit passes to the waiter
+                }
+            }
+        }
+        inflight.decrementAndGet();
+    }
+
+    /** Hand newly-available permits to waiting calls, after the limit grows. */
+    private void serveWaiters() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            releasePermit();
+        }
+    }
+
+    /**
+     * Update the limit from a call's outcome.
+     *
+     * @param rttNanos Round-trip time of the call, in nanoseconds.
+     * @param overloaded Whether the call failed as overloaded.
+     */
+    private void sample(long rttNanos, boolean overloaded) {
+        int previous = limit;
+        synchronized (this) {
+            if (overloaded) {
+                estimate = Math.max(policy.minLimit(), estimate * DROP_FACTOR);
+            } else if (rttNanos > 0) {
+                if (++samples >= PROBE_SAMPLES) {
+                    samples = 0;
+                    noLoadNanos = rttNanos;  // re-learn the no-load latency
+                } else if (noLoadNanos == 0 || rttNanos < noLoadNanos) {
+                    noLoadNanos = rttNanos;
+                }
+                if (inflight.get() * 2 >= estimate) {
+                    var step = Math.max(1, Math.log10(estimate));
+                    var queue = Math.ceil(estimate * (1 - (double) noLoadNanos / rttNanos));
+                    if (queue <= step) {
+                        estimate += 6 * step;
+                    } else if (queue < 3 * step) {
+                        estimate += step;
+                    } else if (queue > 6 * step) {
+                        estimate -= step;
+                    }
+                    estimate = Math.max(policy.minLimit(), Math.min(policy.maxLimit(), estimate));
+                }
+            }
+            limit = (int) estimate;
+        }
+        if (limit > previous) {
+            serveWaiters();
+        }
+    }
+
+    /** @return Error describing a call refused at the limit. */
+    private @Nonnull RPCOverloadException overloaded() {
+        return new RPCOverloadException(format(
+            "Concurrency limit (%s) reached for service '%s'.",
+            limit,
+            name
+        ));
+    }
+
+    /** Point-in-time statistics for an {@link AdaptiveLimiter}. */
+    @AutoValue @Immutable @ThreadSafe
+    public abstract static class Stats {
+        /** @return Current concurrency limit. */
+        public abstract int limit();
+
+        /** @return Count of permits currently held. */
+        public abstract int inflight();
+
+        /** @return Count of calls waiting for a permit. */
+        public abstract int queued();
+
+        /** @return Count of calls refused at the limit. */
+        public abstract long rejectedCount();
+
+        /** @return Count of calls which failed as overloaded, cutting the limit. */
+        public abstract long droppedCount();
+    }
+}
@@ -13,25 +13,50 @@
  */
 package co.cookies.sdk.services;
 
+import co.cookies.sdk.metrics.MethodMetrics;
+import co.cookies.sdk.metrics.ServiceMetrics;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ListenableFutureToApiFuture;
 import com.google.api.gax.core.BackgroundResource;
+import com.google.api.gax.rpc.ApiCallContext;
 import com.google.api.gax.rpc.ServerStream;
+import com.google.api.gax.rpc.ServerStreamingCallable;
+import com.google.api.gax.rpc.UnaryCallable;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.protobuf.Message;
 import io.grpc.MethodDescriptor;
-import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static co.cookies.sdk.SDKUtil.applyAsync;
 import static co.cookies.sdk.SDKUtil.applyStream;
+import static co.cookies.sdk.SDKUtil.block;
+import static co.cookies.sdk.SDKUtil.callContext;
+import static co.cookies.sdk.SDKUtil.invoke;
+import static co.cookies.sdk.SDKUtil.translateErr;
+import static co.cookies.sdk.SDKUtil.wrap;
 import static java.lang.String.format;
 
 
@@ -43,12 +68,51 @@ import static java.lang.String.format;
  */
 @Immutable @ThreadSafe
 public abstract class BaseService<Stub extends BackgroundResource> implements ServiceClient<Stub> {
+    /** Interval at which an async close checks whether the stub has terminated. */
+    private static final long TERMINATION_POLL_MILLIS = 10;
+
+    /** Time an async close waits for the stub to terminate after shutdown, before forcing it. */
+    private static final long TERMINATION_GRACE_MILLIS = 150;
+
     /** Information about this service implementation. */
     private final @Nonnull ServiceInfo serviceInfo;
 
     /** Holds the stub which implements the service. */
     private final @Nonnull Stub serviceStub;
 
+    /** Options resolved for this service at construction time. */
+    private final @Nonnull ServiceOptions serviceOptions;
+
+    /** Coalesces identical in-flight reads issued through this service. */
+    private final @Nonnull RequestCoalescer coalescer = new RequestCoalescer();
+
+    /** Hedges idempotent reads issued through this service, if hedging is enabled. */
+    private final @Nullable RequestHedger hedger;
+
+    /** Limits calls in flight through this service to an adaptive limit, if limiting is enabled. */
+    private final @Nullable AdaptiveLimiter limiter;
+
+    /** Guards each method of this service with a circuit, if circuit breaking is enabled. */
+    private final @Nullable CircuitBreaker breaker;
+
+    /** Per-method call metrics for this service. */
+    private final @Nonnull ServiceMetrics metrics;
+
+    /** Count of calls currently in flight through this service. */
+    private final @Nonnull AtomicInteger inflight = new AtomicInteger(0);
+
+    /** Whether this service has stopped accepting new calls. */
+    private volatile boolean draining = false;
+
+    /** Resolves once this service is draining, and no calls remain in flight. */
+    private final @Nonnull SettableFuture<Void> drained = SettableFuture.create();
+
+    /** Whether the stub has been shut down by an async close. */
+    private final @Nonnull AtomicBoolean stopping = new AtomicBoolean(false);
+
+    /** Termination future for this service, once an async close has begun. */
+    private final @Nonnull AtomicReference<SettableFuture<Void>> closing = new AtomicReference<>();
+
     /** Holds a central logging pipe prepared for this service. */
     protected final @Nonnull Logger logging;
 
@@ -57,34 +121,293 @@ public abstract class BaseService<Stub extends BackgroundResource> implements Se
      *
      * @param serviceInfo Service info provided by the child implementation.
      * @param serviceStub Stub implementing the service.
-     * @param loggerFactory Logger factory which we should use to acquire a logger.
+     * @param serviceOptions Options for this service, including the logger factory and execution engine.
      */
     protected BaseService(@Nonnull ServiceInfo serviceInfo,
                           @Nonnull Stub serviceStub,
-                          @Nonnull ILoggerFactory loggerFactory) {
+                          @Nonnull ServiceOptions serviceOptions) {
         this.serviceInfo = serviceInfo;
         this.serviceStub = serviceStub;
-        this.logging = loggerFactory.getLogger(format(
+        this.serviceOptions = serviceOptions;
+        this.hedger = serviceOptions.hedging()
+            .map((policy) -> RequestHedger.create(policy, serviceOptions.engine().timer()))
+            .orElse(null);
+        this.limiter = serviceOptions.limiter()
+            .map((policy) -> AdaptiveLimiter.create(
+                serviceInfo.serviceTag(),
+                policy,
+                serviceOptions.engine().timer()
+            ))
+            .orElse(null);
+        this.breaker = serviceOptions.circuitBreaker()
+            .map((policy) -> CircuitBreaker.create(serviceInfo.serviceTag(), policy))
+            .orElse(null);
+        this.metrics = ServiceMetrics.create(serviceInfo.serviceTag(), serviceOptions.metricsSink());
+        this.logging = serviceOptions.loggerFactory().getLogger(format(
             "co.cookies.services:%s:%s",
             serviceInfo.serviceName(),
             serviceInfo.serviceVersion()
         ));
     }
 
+    /** @return Options resolved for this service at construction time. */
+    public @Nonnull ServiceOptions options() {
+        return this.serviceOptions;
+    }
+
     /**
-     * Return this service's initialized executor service, which typically just proxies to the executor provider mounted
-     * on the client facade.
+     * Return this service's execution engine, which is resolved once at construction time and typically shared with
+     * other services spawned by the same SDK manager.
      *
+     * @return Execution engine.
+     */
+    public @Nonnull ExecutionEngine engine() {
+        return this.serviceOptions.engine();
+    }
+
+    /**
+     * Return this service's executor service, which is the {@link ExecutionEngine#timer()} of its engine.
+     *
+     * @deprecated Services run on their {@link #engine()}; use {@link ExecutionEngine#timer()} for scheduled work, or
+     *     {@link ExecutionEngine#callbacks()} for callbacks. This method will be removed in a future release.
      * @return Executor service.
      */
-    public abstract @Nonnull ListeningScheduledExecutorService executorService();
+    @Deprecated
+    public @Nonnull ListeningScheduledExecutorService executorService() {
+        return engine().timer();
+    }
+
+    /** @return Coalescer for identical in-flight reads issued through this service. */
+    public @Nonnull RequestCoalescer coalescer() {
+        return this.coalescer;
+    }
+
+    /** @return Hedger for idempotent reads issued through this service, if hedging is enabled. */
+    public @Nonnull Optional<RequestHedger> hedger() {
+        return Optional.ofNullable(this.hedger);
+    }
+
+    /**
+     * Return the adaptive limiter for this service, if limiting is enabled; unary calls (including each copy of a
+     * hedged read) hold a permit while in flight, but streaming calls are not limited.
+     *
+     * @return Adaptive limiter for calls through this service.
+     */
+    public @Nonnull Optional<AdaptiveLimiter> limiter() {
+        return Optional.ofNullable(this.limiter);
+    }
+
+    /**
+     * Return the circuit breaker for this service, if circuit breaking is enabled; each method has its own circuit,
+     * which covers unary and streaming calls (but not publishers).
+     *
+     * @return Circuit breaker for calls through this service.
+     */
+    public @Nonnull Optional<CircuitBreaker> circuitBreaker() {
+        return Optional.ofNullable(this.breaker);
+    }
+
+    /**
+     * Return per-method call metrics for this service: latency histograms, in-flight counts, and error and timeout
+     * counts. Each unary or streaming call is recorded once, however many attempts it took, and each caller of a
+     * coalesced read is recorded separately.
+     *
+     * @return Call metrics for this service.
+     */
+    public @Nonnull ServiceMetrics metrics() {
+        return this.metrics;
+    }
+
+    // -- Call Tracking -- //
+
+    /**
+     * Admit a new call to this service, counting it as in flight; every admitted call must be released exactly once.
+     *
+     * @throws IllegalStateException If this service is closed, or closing.
+     */
+    private void admit() {
+        inflight.incrementAndGet();
+        if (draining) {
+            release();
+            throw closedError();
+        }
+    }
+
+    /** @return Error describing an attempt to call this service after it has closed. */
+    private @Nonnull IllegalStateException closedError() {
+        return new IllegalStateException(format(
+            "Cannot call service ('%s') after it has closed.",
+            serviceInfo.serviceTag()
+        ));
+    }
+
+    /** Release a call admitted via {@link #admit()}, resolving the drain once the last call finishes. */
+    private void release() {
+        if (inflight.decrementAndGet() == 0 && draining) {
+            drained.set(null);
+        }
+    }
+
+    /**
+     * Release a call admitted via {@link #admit()} once the provided future concludes, however it concludes, and record
+     * the outcome in the method's metrics.
+     *
+     * @param future Future for the admitted call.
+     * @param timing Metrics for the called method.
+     * @param startNanos Time the call started, as returned by {@link MethodMetrics#start()}.
+     * @param <T> Return type of the future.
+     * @return The same future.
+     */
+    private @Nonnull <T> ListenableFuture<T> track(@Nonnull ListenableFuture<T> future,
+                                                   @Nonnull MethodMetrics timing,
+                                                   long startNanos) {
+        future.addListener(new Conclusion(future, timing, startNanos), MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /** Releases an admitted call, and records its outcome, once its future concludes. */
+    private final class Conclusion implements Runnable {
+        private final @Nonnull ListenableFuture<?> future;
+        private final @Nonnull MethodMetrics timing;
+        private final long startNanos;
+
+        Conclusion(@Nonnull ListenableFuture<?> future, @Nonnull MethodMetrics timing, long startNanos) {
+            this.future = future;
+            this.timing = timing;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void run() {
+            release();
+            Throwable error = null;
+            try {
+                Futures.getDone(future);
+            } catch (ExecutionException exe) {
+                error = exe.getCause();
+            } catch (CancellationException cxe) {
+                error = cxe;
+            }
+            timing.finish(startNanos, error);
+        }
+    }
+
+    /**
+     * Stop accepting new calls through this service; calls already in flight are left to finish.
+     *
+     * @return Whether this call began the drain.
+     */
+    private boolean drain() {
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        if (inflight.get() == 0) {
+            drained.set(null);
+        }
+        return true;
+    }
+
+    /** @inheritDoc */
+    @Override
+    public int inflight() {
+        return inflight.get();
+    }
 
     /**
-     * Close this service down for any further interaction, by gracefully finishing any in-flight RPCs, shutting down
-     * the stub's channel, and then shutting down the associated executor.
+     * Close this service without cutting off in-flight calls: new calls are rejected immediately, calls already in
+     * flight are given up to the provided budget to finish, and then the stub is shut down. Waiting happens on the
+     * timer pool of the execution engine, so many services may drain in parallel without holding any threads.
+     *
+     * <p>Streaming calls are tracked until their response stream is handed back; publishers are rejected once this
+     * service is closing, but open subscriptions are not waited on.</p>
+     *
+     * @param drainBudget Maximum time to wait for in-flight calls to finish.
+     * @return Future which resolves once in-flight calls have drained (or the budget expired), and the stub terminated.
+     */
+    @Override
+    public @Nonnull ListenableFuture<Void> closeAsync(@Nonnull Duration drainBudget) {
+        var current = closing.get();
+        if (current != null) {
+            return current;
+        }
+        var terminated = SettableFuture.<Void>create();
+        if (!closing.compareAndSet(null, terminated)) {
+            return closing.get();
+        }
+        drain();
+        Runnable stop = () -> stop(terminated);
+        drained.addListener(stop, MoreExecutors.directExecutor());
+        if (!drained.isDone()) {
+            try {
+                var timeout = engine().timer().schedule(stop, drainBudget.toNanos(), TimeUnit.NANOSECONDS);
+                terminated.addListener(() -> timeout.cancel(false), MoreExecutors.directExecutor());
+            } catch (RejectedExecutionException rxe) {
+                // the engine is gone; there is nothing left to wait with.
+                stop.run();
+            }
+        }
+        return terminated;
+    }
+
+    /**
+     * Shut down the stub once in-flight calls have drained, or the drain budget has expired, and then resolve the
+     * provided future once the stub terminates.
+     *
+     * @param terminated Future to resolve upon termination.
+     */
+    private void stop(@Nonnull SettableFuture<Void> terminated) {
+        if (!stopping.compareAndSet(false, true)) {
+            return;
+        }
+        var remaining = inflight.get();
+        if (remaining > 0 && logging.isWarnEnabled())
+            logging.warn(format("Drain budget expired with %s call(s) in flight; shutting down.", remaining));
+        var svc = service();
+        svc.shutdown();
+        awaitTermination(terminated, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TERMINATION_GRACE_MILLIS));
+    }
+
+    /**
+     * Resolve the provided future once the stub has terminated, checking again on the engine's timer until the grace
+     * deadline passes, after which the stub is forcibly shut down.
+     *
+     * @param terminated Future to resolve upon termination.
+     * @param deadline Grace deadline, in terms of {@link System#nanoTime()}.
+     */
+    private void awaitTermination(@Nonnull SettableFuture<Void> terminated, long deadline) {
+        var svc = service();
+        if (svc.isTerminated()) {
+            terminated.set(null);
+            return;
+        }
+        if (System.nanoTime() - deadline >= 0) {
+            svc.shutdownNow();
+            terminated.set(null);
+            return;
+        }
+        try {
+            engine().timer().schedule(
+                () -> awaitTermination(terminated, deadline),
+                TERMINATION_POLL_MILLIS,
+                TimeUnit.MILLISECONDS
+            );
+        } catch (RejectedExecutionException rxe) {
+            svc.shutdownNow();
+            terminated.set(null);
+        }
+    }
+
+    /**
+     * Close this service down for any further interaction, by gracefully finishing any in-flight RPCs, and then shutting
+     * down the stub's channel. The execution engine is not owned by the service, and so is left running.
+     *
+     * <p>New calls are rejected once this method begins; see {@link #closeAsync(Duration)} to wait for in-flight calls
+     * without blocking.</p>
      */
     @Override
     public void close() {
+        drain();
         var svc = service();
         try {
             svc.shutdown();
@@ -137,9 +460,12 @@ public abstract class BaseService<Stub extends BackgroundResource> implements Se
      * the provided transformer to convert each into final return values, and then flat-concatenate the resulting stream
      * and return to invoking code wrapped in a future value.
      *
+     * <p>The method is handed a per-call context which carries the operation's timeout as a transport deadline, merged
+     * with any custom call context present on the operation.</p>
+     *
      * @param rpc RPC request which we need to stream and transform.
      * @param descriptor gRPC method descriptor, mostly used for error logging.
-     * @param method API method we wish to run to fulfill this request.
+     * @param method API method we wish to run to fulfill this request, given the request and call context.
      * @param transformer Transformer function which knows how to stream-ify each response.
      * @param <Request> RPC request type (a {@link Message}) provided to the server to produce the stream.
      * @param <Response> Streaming RPC response type (a {@link Message}) expected to be yielded by the server.
@@ -149,15 +475,63 @@ public abstract class BaseService<Stub extends BackgroundResource> implements Se
     protected final @Nonnull <Request extends Message, Response extends Message, T> ListenableFuture<Stream<T>> stream(
             @Nonnull AsyncRPC<Request> rpc,
             @Nonnull MethodDescriptor<Request, Response> descriptor,
-            @Nonnull Function<Request, ServerStream<Response>> method,
+            @Nonnull BiFunction<Request, ApiCallContext, ServerStream<Response>> method,
+            @Nonnull Function<Response, Stream<T>> transformer) {
+        admit();
+        var timing = metrics.method(descriptor);
+        long start = timing.start();
+        try {
+            Supplier<ListenableFuture<Stream<T>>> call = () -> applyStream(
+                logger(),
+                rpc,
+                method.apply(rpc.request(), callContext(rpc)),
+                descriptor,
+                transformer,
+                engine().callbacks()
+            );
+            return track(
+                breaker != null ? breaker.run(descriptor.getFullMethodName(), call) : call.get(),
+                timing,
+                start
+            );
+        } catch (RuntimeException | Error err) {
+            release();
+            timing.finish(start, err);
+            throw err;
+        }
+    }
+
+    /**
+     * Prepare a publisher for the provided server-streaming RPC operation, which, once subscribed to, starts the call and
+     * publishes the items produced by the transformer from each response, according to subscriber demand.
+     *
+     * <p>Unlike {@link #stream}, this does not block any thread while waiting on the network: response stanzas are
+     * requested from the transport one at a time, only as the subscriber signals demand, and cancelling the subscription
+     * cancels the call. Each subscription starts a new call.</p>
+     *
+     * @param rpc RPC request which we need to stream and transform.
+     * @param descriptor gRPC method descriptor, mostly used for error logging.
+     * @param callable Server-streaming callable which implements the API method.
+     * @param transformer Transformer function which knows how to stream-ify each response.
+     * @param <Request> RPC request type (a {@link Message}) provided to the server to produce the stream.
+     * @param <Response> Streaming RPC response type (a {@link Message}) expected to be yielded by the server.
+     * @param <T> Final item type published to subscribers.
+     * @return Publisher of transformed items.
+     */
+    protected final @Nonnull <Request extends Message, Response extends Message, T> Flow.Publisher<T> publish(
+            @Nonnull AsyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull ServerStreamingCallable<Request, Response> callable,
             @Nonnull Function<Response, Stream<T>> transformer) {
-        return applyStream(
+        if (draining) {
+            throw closedError();
+        }
+        return new StreamPublisher<>(
             logger(),
             rpc,
-            method.apply(rpc.request()),
             descriptor,
-            transformer,
-            executorService()
+            callable,
+            transformer
         );
     }
 
@@ -168,9 +542,9 @@ public abstract class BaseService<Stub extends BackgroundResource> implements Se
      * <p>If a response needs to be transformed before being handed back to invoking code, see method variants of this
      * same name that accept a transformer argument.</p>
      *
-     * @see #execute(AsyncRPC, MethodDescriptor, Function, Function) For the ability to transform the response.
+     * @see #execute(AsyncRPC, MethodDescriptor, BiFunction, Function) For the ability to transform the response.
      * @param rpc RPC request which we need to execute and transform.
-     * @param method API method we wish to run to fulfill this request.
+     * @param method API method we wish to run to fulfill this request, given the request and call context.
      * @param <Request> Request message type for this operation.
      * @param <Response> Response message type for this operation.
      * @return Future which wraps the operation to execute the RPC and transform it.
@@ -178,7 +552,7 @@ public abstract class BaseService<Stub extends BackgroundResource> implements Se
     protected final @Nonnull <Request extends Message, Response extends Message> ListenableFuture<Response> execute(
         @Nonnull AsyncRPC<Request> rpc,
         @Nonnull MethodDescriptor<Request, Response> descriptor,
-        @Nonnull Function<Request, ApiFuture<Response>> method) {
+        @Nonnull BiFunction<Request, ApiCallContext, ApiFuture<Response>> method) {
         return execute(
             rpc,
             descriptor,
@@ -192,8 +566,11 @@ public abstract class BaseService<Stub extends BackgroundResource> implements Se
      * provided transformer function, returning the entire operation in a future value container upon which conclusion
      * listeners may be affixed.
      *
+     * <p>The method is handed a per-call context which carries the operation's timeout as a transport deadline, merged
+     * with any custom call context present on the operation; expired calls are cancelled by the transport itself.</p>
+     *
      * @param rpc RPC request which we need to execute and transform.
-     * @param method API method we wish to run to fulfill this request.
+     * @param method API method we wish to run to fulfill this request, given the request and call context.
      * @param transformer Function which knows how to transform the response into the final return result.
      * @param <Request> Request message type for this operation.
      * @param <Response> Response message type for this operation.
@@ -203,15 +580,363 @@ public abstract class BaseService<Stub extends BackgroundResource> implements Se
     protected final @Nonnull <Request extends Message, Response extends Message, T> ListenableFuture<T> execute(
             @Nonnull AsyncRPC<Request> rpc,
             @Nonnull MethodDescriptor<Request, Response> descriptor,
-            @Nonnull Function<Request, ApiFuture<Response>> method,
+            @Nonnull BiFunction<Request, ApiCallContext, ApiFuture<Response>> method,
             @Nonnull Function<Response, T> transformer) {
-        return applyAsync(
-            logger(),
+        admit();
+        var timing = metrics.method(descriptor);
+        long start = timing.start();
+        try {
+            return track(applyAsync(
+                logger(),
+                rpc,
+                send(descriptor, rpc.request(), callContext(rpc), method),
+                descriptor,
+                transformer,
+                engine().direct()
+            ), timing, start);
+        } catch (RuntimeException | Error err) {
+            release();
+            timing.finish(start, err);
+            throw err;
+        }
+    }
+
+    /**
+     * Execute the provided synchronous RPC operation directly on the calling thread, blocking until the server responds
+     * or the operation's deadline expires, and return any response as-is.
+     *
+     * <p>Unlike the default blocking method implementations, which unwrap to an async operation and wait on the
+     * resulting future, this path invokes the callable's blocking form with the timeout applied as a transport
+     * deadline, and so schedules no executor work at all.</p>
+     *
+     * @see #execute(SyncRPC, MethodDescriptor, UnaryCallable, Function) For the ability to transform the response.
+     * @param rpc RPC request which we need to execute.
+     * @param descriptor gRPC method descriptor, mostly used for error logging.
+     * @param callable Unary callable which implements the API method.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @return Response produced by the server.
+     */
+    protected final @Nonnull <Request extends Message, Response extends Message> Response execute(
+            @Nonnull SyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull UnaryCallable<Request, Response> callable) {
+        return execute(
+            rpc,
+            descriptor,
+            callable,
+            (response) -> response
+        );
+    }
+
+    /**
+     * Execute the provided synchronous RPC operation directly on the calling thread, blocking until the server responds
+     * or the operation's deadline expires, and transform any response via the provided transformer function before
+     * returning it.
+     *
+     * @param rpc RPC request which we need to execute and transform.
+     * @param descriptor gRPC method descriptor, mostly used for error logging.
+     * @param callable Unary callable which implements the API method.
+     * @param transformer Function which knows how to transform the response into the final return result.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @param <T> Ultimate (final) return type from the corresponding method facade.
+     * @return Transformed response produced by the server.
+     */
+    protected final @Nonnull <Request extends Message, Response extends Message, T> T execute(
+            @Nonnull SyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull UnaryCallable<Request, Response> callable,
+            @Nonnull Function<Response, T> transformer) {
+        admit();
+        var timing = metrics.method(descriptor);
+        long start = timing.start();
+        try {
+            var result = guard(descriptor, () -> invoke(
+                logger(),
+                rpc,
+                descriptor,
+                callable,
+                transformer
+            ));
+            timing.finish(start, null);
+            return result;
+        } catch (RuntimeException | Error err) {
+            timing.finish(start, err);
+            throw err;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Execute the provided asynchronous, idempotent read operation, coalescing it with any identical call already in
+     * flight on this service, and return the response as-is.
+     *
+     * @see #read(AsyncRPC, MethodDescriptor, BiFunction, Function) For details, and the ability to transform the
+     *      response.
+     * @param rpc RPC request which we need to execute.
+     * @param descriptor gRPC method descriptor, which also keys coalesced calls.
+     * @param method API method we wish to run to fulfill this request, given the request and call context.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @return Future which wraps the operation to execute the RPC.
+     */
+    protected final @Nonnull <Request extends Message, Response extends Message> ListenableFuture<Response> read(
+            @Nonnull AsyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull BiFunction<Request, ApiCallContext, ApiFuture<Response>> method) {
+        return read(
+            rpc,
+            descriptor,
+            method,
+            (response) -> response
+        );
+    }
+
+    /**
+     * Execute the provided asynchronous, idempotent read operation, coalescing it with any identical call already in
+     * flight on this service, and transform the response via the provided transformer function.
+     *
+     * <p>Calls are identical when they share a method, timeout, and serialized request (see {@link RequestCoalescer}).
+     * Operations carrying a custom call context are never coalesced, since the context may change credentials or
+     * headers. Each caller receives its own future; cancelling it detaches only that caller, and the shared call is
+     * cancelled once all callers have detached.</p>
+     *
+     * <p>If the service has a {@link HedgingPolicy}, the shared call is hedged via {@link RequestHedger}; operations
+     * with a custom call context are not hedged either.</p>
+     *
+     * @param rpc RPC request which we need to execute and transform.
+     * @param descriptor gRPC method descriptor, which also keys coalesced calls.
+     * @param method API method we wish to run to fulfill this request, given the request and call context.
+     * @param transformer Function which knows how to transform the response into the final return result.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @param <T> Ultimate (final) return type from the corresponding method facade.
+     * @return Future which wraps the operation to execute the RPC and transform it.
+     */
+    protected final @Nonnull <Request extends Message, Response extends Message, T> ListenableFuture<T> read(
+            @Nonnull AsyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull BiFunction<Request, ApiCallContext, ApiFuture<Response>> method,
+            @Nonnull Function<Response, T> transformer) {
+        if (rpc.context().isPresent()) {
+            return execute(rpc, descriptor, method, transformer);
+        }
+        admit();
+        var timing = metrics.method(descriptor);
+        long start = timing.start();
+        try {
+            var shared = coalescer.join(
+                RequestCoalescer.key(descriptor, rpc),
+                () -> hedger != null ?
+                    hedged(hedger, rpc, descriptor, method) :
+                    wrap(send(descriptor, rpc.request(), callContext(rpc), method))
+            );
+            return track(applyAsync(
+                logger(),
+                rpc,
+                new ListenableFutureToApiFuture<>(shared),
+                descriptor,
+                transformer,
+                engine().direct()
+            ), timing, start);
+        } catch (RuntimeException | Error err) {
+            release();
+            timing.finish(start, err);
+            throw err;
+        }
+    }
+
+    /**
+     * Send one asynchronous call, under the method's circuit if circuit breaking is enabled, and under this service's
+     * adaptive limiter if limiting is enabled; an open circuit refuses the call before it takes a permit.
+     *
+     * @param descriptor gRPC method descriptor, which also keys the circuit.
+     * @param request Request to send.
+     * @param context Call context to send it with.
+     * @param method API method which sends the request, given the request and call context.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @return Future for the response; fails with an {@link co.cookies.sdk.exceptions.RPCCircuitOpenException} if the
+     *         circuit is open, or an {@link co.cookies.sdk.exceptions.RPCOverloadException} if the limit is reached.
+     */
+    private @Nonnull <Request extends Message, Response extends Message> ApiFuture<Response> send(
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull Request request,
+            @Nonnull ApiCallContext context,
+            @Nonnull BiFunction<Request, ApiCallContext, ApiFuture<Response>> method) {
+        if (breaker == null && limiter == null) {
+            return method.apply(request, context);
+        }
+        Supplier<ListenableFuture<Response>> call = limiter != null ?
+            () -> limiter.run(() -> wrap(method.apply(request, context))) :
+            () -> wrap(method.apply(request, context));
+        return new ListenableFutureToApiFuture<>(
+            breaker != null ? breaker.run(descriptor.getFullMethodName(), call) : call.get()
+        );
+    }
+
+    /**
+     * Run one blocking call on the calling thread, under the method's circuit if circuit breaking is enabled, and under
+     * this service's adaptive limiter if limiting is enabled.
+     *
+     * @param descriptor gRPC method descriptor, which also keys the circuit.
+     * @param call Supplier which runs the call.
+     * @param <R> Response type of the call.
+     * @return Response from the call.
+     */
+    private <R> R guard(@Nonnull MethodDescriptor<?, ?> descriptor, @Nonnull Supplier<R> call) {
+        Supplier<R> limited = limiter != null ? () -> limiter.call(call) : call;
+        return breaker != null ? breaker.call(descriptor.getFullMethodName(), limited) : limited.get();
+    }
+
+    /**
+     * Run the provided idempotent read through the provided hedger, so that a second, identical call is sent if the
+     * first runs long; the hedge carries whatever remains of the operation's timeout.
+     *
+     * @param hedger Hedger to run the read through.
+     * @param rpc RPC request which we need to execute.
+     * @param descriptor gRPC method descriptor, which also keys latency tracking.
+     * @param method API method we wish to run to fulfill this request, given the request and call context.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @return Future for the first successful response.
+     */
+    private @Nonnull <Request extends Message, Response extends Message> ListenableFuture<Response> hedged(
+            @Nonnull RequestHedger hedger,
+            @Nonnull AsyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull BiFunction<Request, ApiCallContext, ApiFuture<Response>> method) {
+        var timeout = rpc.timeout();
+        return hedger.call(
+            descriptor.getFullMethodName(),
+            Duration.ofNanos(timeout.unit().toNanos(timeout.value())),
+            (remaining) -> wrap(send(
+                descriptor,
+                rpc.request(),
+                callContext(rpc).withTimeout(org.threeten.bp.Duration.ofNanos(remaining.toNanos())),
+                method
+            ))
+        );
+    }
+
+    /**
+     * Execute the provided synchronous, idempotent read operation, coalescing it with any identical call already in
+     * flight on this service, and return the response as-is.
+     *
+     * @see #read(SyncRPC, MethodDescriptor, UnaryCallable, Function) For details, and the ability to transform the
+     *      response.
+     * @param rpc RPC request which we need to execute.
+     * @param descriptor gRPC method descriptor, which also keys coalesced calls.
+     * @param callable Unary callable which implements the API method.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @return Response produced by the server.
+     */
+    protected final @Nonnull <Request extends Message, Response extends Message> Response read(
+            @Nonnull SyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull UnaryCallable<Request, Response> callable) {
+        return read(
             rpc,
-            method.apply(rpc.request()),
             descriptor,
-            transformer,
-            executorService()
+            callable,
+            (response) -> response
         );
     }
+
+    /**
+     * Execute the provided synchronous, idempotent read operation, coalescing it with any identical call already in
+     * flight on this service, and transform the response via the provided transformer function.
+     *
+     * <p>If no identical call is in flight, this caller leads: it runs the call directly on the calling thread, just as
+     * {@link #execute(SyncRPC, MethodDescriptor, UnaryCallable, Function)} would, and publishes the outcome to any
+     * callers which attach meanwhile. Otherwise, this caller blocks on the call already in flight, up to its own
+     * timeout.</p>
+     *
+     * @param rpc RPC request which we need to execute and transform.
+     * @param descriptor gRPC method descriptor, which also keys coalesced calls.
+     * @param callable Unary callable which implements the API method.
+     * @param transformer Function which knows how to transform the response into the final return result.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @param <T> Ultimate (final) return type from the corresponding method facade.
+     * @return Transformed response produced by the server.
+     */
+    protected final @Nonnull <Request extends Message, Response extends Message, T> T read(
+            @Nonnull SyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull UnaryCallable<Request, Response> callable,
+            @Nonnull Function<Response, T> transformer) {
+        if (rpc.context().isPresent()) {
+            return execute(rpc, descriptor, callable, transformer);
+        }
+        if (hedger != null) {
+            // hedging needs a second call in flight alongside the first, so wait on the async form instead.
+            return block(rpc, logger(), descriptor, (op) -> read(op, descriptor, callable::futureCall, transformer));
+        }
+        admit();
+        var timing = metrics.method(descriptor);
+        long start = timing.start();
+        try {
+            var result = lead(rpc, descriptor, callable, transformer);
+            timing.finish(start, null);
+            return result;
+        } catch (RuntimeException | Error err) {
+            timing.finish(start, err);
+            throw err;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Run or join a coalesced synchronous read; see {@link #read(SyncRPC, MethodDescriptor, UnaryCallable, Function)}.
+     *
+     * @param rpc RPC request which we need to execute and transform.
+     * @param descriptor gRPC method descriptor, which also keys coalesced calls.
+     * @param callable Unary callable which implements the API method.
+     * @param transformer Function which knows how to transform the response into the final return result.
+     * @param <Request> Request message type for this operation.
+     * @param <Response> Response message type for this operation.
+     * @param <T> Ultimate (final) return type from the corresponding method facade.
+     * @return Transformed response produced by the server.
+     */
+    private @Nonnull <Request extends Message, Response extends Message, T> T lead(
+            @Nonnull SyncRPC<Request> rpc,
+            @Nonnull MethodDescriptor<Request, Response> descriptor,
+            @Nonnull UnaryCallable<Request, Response> callable,
+            @Nonnull Function<Response, T> transformer) {
+        var slot = SettableFuture.<Response>create();
+        var leading = new boolean[] { false };
+        var shared = coalescer.join(RequestCoalescer.key(descriptor, rpc), () -> {
+            leading[0] = true;
+            return slot;
+        });
+
+        if (!leading[0]) {
+            return block(rpc, logger(), descriptor, (op) -> applyAsync(
+                logger(),
+                op,
+                new ListenableFutureToApiFuture<>(shared),
+                descriptor,
+                transformer,
+                engine().direct()
+            ));
+        }
+
+        final Response response;
+        try {
+            response = guard(descriptor, () -> callable.call(rpc.request(), callContext(rpc)));
+        } catch (RuntimeException rxe) {
+            slot.setException(rxe);
+            throw translateErr(logger(), rxe, rpc.timeout(), descriptor);
+        } catch (Error err) {
+            slot.setException(err);
+            throw err;
+        }
+        slot.set(response);
+        return transformer.apply(response);
+    }
 }
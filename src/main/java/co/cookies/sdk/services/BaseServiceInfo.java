@@ -19,6 +19,25 @@ package co.cookies.sdk.services;
  * name and version of a given service.
  */
 public abstract class BaseServiceInfo implements ServiceInfo {
+    /** Composed tag for this service, computed on first use; service names and versions never change. */
+    private volatile String tag;
+
+    /**
+     * Compose the tag for this service once, and return the same value afterwards, so that using service info objects
+     * as map keys doesn't format a fresh string on every lookup.
+     *
+     * @return Composed tag for this service (name and version).
+     */
+    @Override
+    public String serviceTag() {
+        var current = tag;
+        if (current == null) {
+            current = ServiceInfo.super.serviceTag();
+            tag = current;
+        }
+        return current;
+    }
+
     /**
      * Delegate to the `hashCode` result of this service's composed tag.
      *
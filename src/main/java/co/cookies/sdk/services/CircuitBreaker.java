@@ -0,0 +1,442 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import co.cookies.sdk.exceptions.RPCCircuitOpenException;
+import co.cookies.sdk.exceptions.RPCOverloadException;
+import co.cookies.sdk.exceptions.RPCTimeoutException;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+
+/**
+ * Guards each method of a service with its own circuit, keyed by the method's full gRPC name, so that a method whose
+ * backend is degraded fails fast instead of holding callers until their deadline.
+ *
+ * <p>Each circuit tracks the outcomes of a sliding window of recent calls. Once the window holds enough calls, and the
+ * share which failed or ran slow reaches the {@link CircuitBreakerPolicy} thresholds, the circuit opens: calls fail at
+ * once with an {@link RPCCircuitOpenException}, without being sent. After the open period, the circuit goes half-open
+ * and lets a few probe calls through; if they fare well the circuit closes, otherwise it opens again.</p>
+ *
+ * <p>Only errors which reflect on the backend count as failures: timeouts, and statuses such as unavailable or
+ * internal. Errors such as not-found count as ordinary outcomes, and calls which were cancelled, or refused
+ * client-side, are not counted at all. Per-method state is available via {@link #state(String)} and
+ * {@link #stats()}.</p>
+ */
+@ThreadSafe
+public final class CircuitBreaker {
+    /** State of a method's circuit. */
+    public enum State {
+        /** Calls flow normally, and their outcomes are tracked. */
+        CLOSED,
+
+        /** Calls fail fast without being sent. */
+        OPEN,
+
+        /** A limited number of probe calls are let through, to decide whether to close the circuit. */
+        HALF_OPEN
+    }
+
+    /** Permit returned when a circuit refuses a call. */
+    private static final long REFUSED = -1;
+
+    /** Name of the service this breaker guards, for error reporting. */
+    private final @Nonnull String name;
+
+    /** Policy which governs this breaker. */
+    private final @Nonnull CircuitBreakerPolicy policy;
+
+    /** Circuits for each method called so far, keyed by full method name. */
+    private final @Nonnull ConcurrentHashMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /** Spawns the circuit for a method; held so that looking up a circuit allocates no lambda. */
+    private final @Nonnull Function<String, Circuit> spawn = Circuit::new;
+
+    /**
+     * Private constructor. Please use {@link #create(String, CircuitBreakerPolicy)}.
+     *
+     * @param name Name of the service this breaker guards.
+     * @param policy Policy which governs this breaker.
+     */
+    private CircuitBreaker(@Nonnull String name, @Nonnull CircuitBreakerPolicy policy) {
+        this.name = name;
+        this.policy = policy;
+    }
+
+    /**
+     * @param name Name of the service this breaker guards, for error reporting.
+     * @param policy Policy which governs this breaker.
+     * @return Circuit breaker.
+     */
+    public static @Nonnull CircuitBreaker create(@Nonnull String name, @Nonnull CircuitBreakerPolicy policy) {
+        return new CircuitBreaker(name, policy);
+    }
+
+    /** @return Policy which governs this breaker. */
+    public @Nonnull CircuitBreakerPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * @param method Full gRPC name of the method.
+     * @return Current state of the method's circuit; methods not yet called are closed.
+     */
+    public @Nonnull State state(@Nonnull String method) {
+        var circuit = circuits.get(method);
+        return circuit == null ? State.CLOSED : circuit.state();
+    }
+
+    /** @return Point-in-time statistics for each method called so far, keyed by full method name. */
+    public @Nonnull ImmutableMap<String, Stats> stats() {
+        var stats = ImmutableMap.<String, Stats>builder();
+        circuits.forEach((method, circuit) -> stats.put(method, circuit.stats()));
+        return stats.build();
+    }
+
+    // -- Running Calls -- //
+
+    /**
+     * Run an asynchronous call under the circuit for the provided method: if the circuit allows it, the call is
+     * started, and its outcome is recorded once it concludes.
+     *
+     * @param method Full gRPC name of the method.
+     * @param call Supplier which starts the call.
+     * @param <R> Response type of the call.
+     * @return Future for the call, which fails with an {@link RPCCircuitOpenException} if the circuit is open.
+     */
+    public @Nonnull <R> ListenableFuture<R> run(@Nonnull String method, @Nonnull Supplier<ListenableFuture<R>> call) {
+        var circuit = circuit(method);
+        long permit = circuit.acquire();
+        if (permit == REFUSED) {
+            return Futures.immediateFailedFuture(circuit.openError());
+        }
+        long start = System.nanoTime();
+        final ListenableFuture<R> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException | Error err) {
+            circuit.record(permit, start, err);
+            throw err;
+        }
+        future.addListener(() -> circuit.record(permit, start, failure(future)), MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /**
+     * Run a blocking call under the circuit for the provided method, on the calling thread: if the circuit allows it,
+     * the call is run, and its outcome is recorded once it returns.
+     *
+     * @param method Full gRPC name of the method.
+     * @param call Supplier which runs the call.
+     * @param <R> Response type of the call.
+     * @return Response from the call.
+     * @throws RPCCircuitOpenException If the circuit is open.
+     */
+    public <R> R call(@Nonnull String method, @Nonnull Supplier<R> call) {
+        var circuit = circuit(method);
+        long permit = circuit.acquire();
+        if (permit == REFUSED) {
+            throw circuit.openError();
+        }
+        long start = System.nanoTime();
+        final R response;
+        try {
+            response = call.get();
+        } catch (RuntimeException | Error err) {
+            circuit.record(permit, start, err);
+            throw err;
+        }
+        circuit.record(permit, start, null);
+        return response;
+    }
+
+    // -- Outcomes -- //
+
+    /**
+     * @param error Error raised by a call.
+     * @return Whether the error reflects on the health of the backend, and so counts as a failure.
+     */
+    public static boolean isFailure(@Nonnull Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RPCTimeoutException) {
+                return true;
+            }
+            if (cause instanceof ApiException) {
+                var code = ((ApiException) cause).getStatusCode().getCode();
+                return code == StatusCode.Code.DEADLINE_EXCEEDED ||
+                    code == StatusCode.Code.UNAVAILABLE ||
+                    code == StatusCode.Code.RESOURCE_EXHAUSTED ||
+                    code == StatusCode.Code.INTERNAL ||
+                    code == StatusCode.Code.UNKNOWN ||
+                    code == StatusCode.Code.DATA_LOSS;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param error Error raised by a call.
+     * @return Whether the call never had a fair outcome (it was cancelled, or refused client-side), and so is not
+     *         counted at all.
+     */
+    private static boolean isIgnored(@Nonnull Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CancellationException ||
+                    cause instanceof RPCOverloadException ||
+                    cause instanceof RPCCircuitOpenException) {
+                return true;
+            }
+            if (cause instanceof ApiException) {
+                return ((ApiException) cause).getStatusCode().getCode() == StatusCode.Code.CANCELLED;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param future Completed future.
+     * @return Error the future failed with, or `null` if it succeeded.
+     */
+    private static @Nullable Throwable failure(@Nonnull ListenableFuture<?> future) {
+        try {
+            Futures.getDone(future);
+            return null;
+        } catch (ExecutionException exe) {
+            return exe.getCause();
+        } catch (CancellationException cxe) {
+            return cxe;
+        }
+    }
+
+    // -- Circuits -- //
+
+    /**
+     * @param method Full gRPC name of the method.
+     * @return Circuit for the method, spawned on first use.
+     */
+    private @Nonnull Circuit circuit(@Nonnull String method) {
+        var circuit = circuits.get(method);
+        return circuit != null ? circuit : circuits.computeIfAbsent(method, spawn);
+    }
+
+    /**
+     * Circuit for one method. Its phase packs a generation counter, bumped on every state change, with the current
+     * state; each permit carries the phase it was issued in, so outcomes which arrive after a state change are dropped
+     * rather than counted against the new state.
+     */
+    private final class Circuit {
+        /** Full gRPC name of the method. */
+        private final @Nonnull String method;
+
+        /** Generation and state, packed as `(generation << 2) | state`; closed at generation zero. */
+        private volatile long phase = State.CLOSED.ordinal();
+
+        /** Recent outcomes in a ring, as flags: 1 if failed, 2 if slow. */
+        @GuardedBy("this") private final byte[] window = new byte[policy.windowSize()];
+
+        /** Next slot to write in the window. */
+        @GuardedBy("this") private int head = 0;
+
+        /** Count of outcomes held in the window. */
+        @GuardedBy("this") private int size = 0;
+
+        /** Count of failed outcomes held in the window. */
+        @GuardedBy("this") private int failures = 0;
+
+        /** Count of slow outcomes held in the window. */
+        @GuardedBy("this") private int slow = 0;
+
+        /** Time the circuit last opened, in terms of {@link System#nanoTime()}. */
+        @GuardedBy("this") private long openedAt = 0;
+
+        /** Count of probes let through since the circuit went half-open. */
+        @GuardedBy("this") private int probes = 0;
+
+        // -- Counters -- //
+
+        private final AtomicLong rejected = new AtomicLong(0);
+        @GuardedBy("this") private long opened = 0;
+
+        /** @param method Full gRPC name of the method. */
+        Circuit(@Nonnull String method) {
+            this.method = method;
+        }
+
+        /** @return Current state of this circuit. */
+        State state() {
+            return State.values()[(int) (phase & 3)];
+        }
+
+        /** @return Permit for a call, to hand back via {@link #record}, or {@link #REFUSED}. */
+        long acquire() {
+            long current = phase;
+            if ((current & 3) == State.CLOSED.ordinal()) {
+                return current;
+            }
+            synchronized (this) {
+                if (state() == State.OPEN) {
+                    if (System.nanoTime() - openedAt < policy.openDuration().toNanos()) {
+                        rejected.incrementAndGet();
+                        return REFUSED;
+                    }
+                    transition(State.HALF_OPEN);
+                }
+                if (state() == State.HALF_OPEN) {
+                    if (probes >= policy.halfOpenProbes()) {
+                        rejected.incrementAndGet();
+                        return REFUSED;
+                    }
+                    probes++;
+                }
+                return phase;
+            }
+        }
+
+        /**
+         * Record the outcome of a call.
+         *
+         * @param permit Permit the call was issued.
+         * @param startNanos Time the call started, in terms of {@link System#nanoTime()}.
+         * @param error Error the call failed with, or `null` if it succeeded.
+         */
+        void record(long permit, long startNanos, @Nullable Throwable error) {
+            if (error != null && isIgnored(error)) {
+                synchronized (this) {
+                    if (permit == phase && state() == State.HALF_OPEN) {
+                        probes--;  // hand the probe to another call
+                    }
+                }
+                return;
+            }
+            byte outcome = 0;
+            if (error != null && isFailure(error)) {
+                outcome |= 1;
+            }
+            if (System.nanoTime() - startNanos >= policy.slowCallDuration().toNanos()) {
+                outcome |= 2;
+            }
+            synchronized (this) {
+                if (permit != phase) {
+                    return;  // issued before the last state change
+                }
+                if (size == window.length) {
+                    var evicted = window[head];
+                    failures -= evicted & 1;
+                    slow -= (evicted >> 1) & 1;
+                } else {
+                    size++;
+                }
+                window[head] = outcome;
+                head = (head + 1) % window.length;
+                failures += outcome & 1;
+                slow += (outcome >> 1) & 1;
+
+                var required = state() == State.HALF_OPEN ?
+                    Math.min(policy.halfOpenProbes(), window.length) :
+                    policy.minCalls();
+                if (size < required) {
+                    return;
+                }
+                if (failures >= policy.failureRate() * size || slow >= policy.slowCallRate() * size) {
+                    transition(State.OPEN);
+                } else if (state() == State.HALF_OPEN) {
+                    transition(State.CLOSED);
+                }
+            }
+        }
+
+        /**
+         * Move this circuit to a new state, starting a new generation. Opening keeps the window which tripped the
+         * circuit, for reporting; any other change starts with an empty window.
+         *
+         * @param next State to move to.
+         */
+        @GuardedBy("this")
+        private void transition(@Nonnull State next) {
+            if (next == State.OPEN) {
+                openedAt = System.nanoTime();
+                opened++;
+            } else {
+                head = 0;
+                size = 0;
+                failures = 0;
+                slow = 0;
+            }
+            probes = 0;
+            phase = (((phase >> 2) + 1) << 2) | next.ordinal();
+        }
+
+        /** @return Error describing a call refused while the circuit is open. */
+        @Nonnull RPCCircuitOpenException openError() {
+            return new RPCCircuitOpenException(format(
+                "Circuit open for method '%s' on service '%s'; failing fast.",
+                method,
+                name
+            ));
+        }
+
+        /** @return Point-in-time statistics for this circuit. */
+        synchronized @Nonnull Stats stats() {
+            return new AutoValue_CircuitBreaker_Stats(
+                state(),
+                size,
+                size == 0 ? 0 : (double) failures / size,
+                size == 0 ? 0 : (double) slow / size,
+                rejected.get(),
+                opened
+            );
+        }
+    }
+
+    /** Point-in-time statistics for one method's circuit in a {@link CircuitBreaker}. */
+    @AutoValue @Immutable @ThreadSafe
+    public abstract static class Stats {
+        /** @return Current state of the circuit. */
+        public abstract @Nonnull State state();
+
+        /** @return Count of outcomes held in the window; while open, the window which tripped the circuit. */
+        public abstract int bufferedCalls();
+
+        /** @return Share of buffered calls which failed. */
+        public abstract double failureRate();
+
+        /** @return Share of buffered calls which ran slow. */
+        public abstract double slowCallRate();
+
+        /** @return Count of calls refused while the circuit was open or probing. */
+        public abstract long rejectedCount();
+
+        /** @return Count of times the circuit has opened. */
+        public abstract long openCount();
+    }
+}
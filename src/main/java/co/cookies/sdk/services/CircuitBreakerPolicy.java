@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Objects;
+
+
+/**
+ * Describes when a {@link CircuitBreaker} opens the circuit for a method, and how it recovers: outcomes are tracked
+ * over a sliding window of recent calls, and the circuit opens once enough of them have failed, or run slow.
+ *
+ * <p>Once open, calls fail fast for {@link #openDuration()}; the circuit then goes half-open, and lets
+ * {@link #halfOpenProbes()} calls through. If the probes fare well the circuit closes, otherwise it opens again.</p>
+ */
+@Immutable @ThreadSafe
+public final class CircuitBreakerPolicy {
+    /** Default count of recent calls over which outcomes are tracked. */
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+
+    /** Default count of calls the window must hold before the circuit may open. */
+    public static final int DEFAULT_MIN_CALLS = 20;
+
+    /** Default share of failed calls at which the circuit opens. */
+    public static final double DEFAULT_FAILURE_RATE = 0.5;
+
+    /** Default duration beyond which a call counts as slow. */
+    public static final Duration DEFAULT_SLOW_CALL_DURATION = Duration.ofSeconds(2);
+
+    /** Default share of slow calls at which the circuit opens. */
+    public static final double DEFAULT_SLOW_CALL_RATE = 0.8;
+
+    /** Default time the circuit stays open before letting probes through. */
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(5);
+
+    /** Default count of probe calls let through while half-open. */
+    public static final int DEFAULT_HALF_OPEN_PROBES = 5;
+
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRate;
+    private final @Nonnull Duration slowCallDuration;
+    private final double slowCallRate;
+    private final @Nonnull Duration openDuration;
+    private final int halfOpenProbes;
+
+    /**
+     * Private constructor. Please use {@link #builder()} or {@link #defaults()}.
+     *
+     * @param builder Builder holding settings for this policy.
+     */
+    private CircuitBreakerPolicy(@Nonnull Builder builder) {
+        this.windowSize = builder.windowSize;
+        this.minCalls = builder.minCalls;
+        this.failureRate = builder.failureRate;
+        this.slowCallDuration = builder.slowCallDuration;
+        this.slowCallRate = builder.slowCallRate;
+        this.openDuration = builder.openDuration;
+        this.halfOpenProbes = builder.halfOpenProbes;
+    }
+
+    /** Builder for {@link CircuitBreakerPolicy} instances. */
+    public static final class Builder {
+        private int windowSize = DEFAULT_WINDOW_SIZE;
+        private int minCalls = DEFAULT_MIN_CALLS;
+        private double failureRate = DEFAULT_FAILURE_RATE;
+        private Duration slowCallDuration = DEFAULT_SLOW_CALL_DURATION;
+        private double slowCallRate = DEFAULT_SLOW_CALL_RATE;
+        private Duration openDuration = DEFAULT_OPEN_DURATION;
+        private int halfOpenProbes = DEFAULT_HALF_OPEN_PROBES;
+
+        private Builder() { /* Use `CircuitBreakerPolicy.builder()`. */ }
+
+        /**
+         * @param windowSize Count of recent calls over which outcomes are tracked.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setWindowSize(int windowSize) {
+            if (windowSize < 1) {
+                throw new IllegalArgumentException("windowSize must be positive, got " + windowSize);
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param minCalls Count of calls the window must hold before the circuit may open.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMinCalls(int minCalls) {
+            if (minCalls < 1) {
+                throw new IllegalArgumentException("minCalls must be positive, got " + minCalls);
+            }
+            this.minCalls = minCalls;
+            return this;
+        }
+
+        /**
+         * @param failureRate Share of failed calls, in (0, 1], at which the circuit opens.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setFailureRate(double failureRate) {
+            if (!(failureRate > 0 && failureRate <= 1)) {
+                throw new IllegalArgumentException("failureRate must be in (0, 1], got " + failureRate);
+            }
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        /**
+         * @param slowCallDuration Duration beyond which a call counts as slow.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setSlowCallDuration(@Nonnull Duration slowCallDuration) {
+            if (Objects.requireNonNull(slowCallDuration, "slowCallDuration").isNegative() ||
+                    slowCallDuration.isZero()) {
+                throw new IllegalArgumentException("slowCallDuration must be positive, got " + slowCallDuration);
+            }
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        /**
+         * @param slowCallRate Share of slow calls, in (0, 1], at which the circuit opens.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setSlowCallRate(double slowCallRate) {
+            if (!(slowCallRate > 0 && slowCallRate <= 1)) {
+                throw new IllegalArgumentException("slowCallRate must be in (0, 1], got " + slowCallRate);
+            }
+            this.slowCallRate = slowCallRate;
+            return this;
+        }
+
+        /**
+         * @param openDuration Time the circuit stays open before letting probes through.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setOpenDuration(@Nonnull Duration openDuration) {
+            if (Objects.requireNonNull(openDuration, "openDuration").isNegative()) {
+                throw new IllegalArgumentException("openDuration must not be negative, got " + openDuration);
+            }
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * @param halfOpenProbes Count of probe calls let through while half-open.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setHalfOpenProbes(int halfOpenProbes) {
+            if (halfOpenProbes < 1) {
+                throw new IllegalArgumentException("halfOpenProbes must be positive, got " + halfOpenProbes);
+            }
+            this.halfOpenProbes = halfOpenProbes;
+            return this;
+        }
+
+        /** @return Circuit breaker policy. */
+        public @Nonnull CircuitBreakerPolicy build() {
+            if (minCalls > windowSize) {
+                throw new IllegalArgumentException(
+                    "minCalls (" + minCalls + ") must not exceed windowSize (" + windowSize + ")");
+            }
+            return new CircuitBreakerPolicy(this);
+        }
+    }
+
+    /** @return Builder for a circuit breaker policy, with default settings. */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    /** @return Circuit breaker policy with default settings. */
+    public static @Nonnull CircuitBreakerPolicy defaults() {
+        return builder().build();
+    }
+
+    /** @return Count of recent calls over which outcomes are tracked. */
+    public int windowSize() {
+        return windowSize;
+    }
+
+    /** @return Count of calls the window must hold before the circuit may open. */
+    public int minCalls() {
+        return minCalls;
+    }
+
+    /** @return Share of failed calls at which the circuit opens. */
+    public double failureRate() {
+        return failureRate;
+    }
+
+    /** @return Duration beyond which a call counts as slow. */
+    public @Nonnull Duration slowCallDuration() {
+        return slowCallDuration;
+    }
+
+    /** @return Share of slow calls at which the circuit opens. */
+    public double slowCallRate() {
+        return slowCallRate;
+    }
+
+    /** @return Time the circuit stays open before letting probes through. */
+    public @Nonnull Duration openDuration() {
+        return openDuration;
+    }
+
+    /** @return Count of probe calls let through while half-open. */
+    public int halfOpenProbes() {
+        return halfOpenProbes;
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Closeable;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Execution engine shared by Cookies API services, which owns the executors used to time, dispatch, and transform RPC
+ * operations.
+ *
+ * <p>Work is split by cost: cheap transformer stages run on a {@link #direct()} executor, on whichever thread completes
+ * the underlying call; blocking work, such as draining a server stream, runs on a bounded {@link #callbacks()} pool;
+ * and timed work runs on a small {@link #timer()} pool. Transport work, such as gRPC listener callbacks, runs on a
+ * {@link #transport()} pool which is spawned on first use. Thread count for an engine is fixed at construction, no
+ * matter how much traffic is pushed through it. When the callback queue is full, work runs on the submitting thread
+ * instead, which applies back-pressure and is reported via {@link #saturationCount()}.</p>
+ *
+ * <p>Engines are resolved once per service, typically from the {@link co.cookies.sdk.CookiesSDKManager} which owns
+ * them; services created outside a manager use the process-wide {@link #shared()} engine.</p>
+ */
+@ThreadSafe
+public final class ExecutionEngine implements Closeable {
+    /** Default number of timer threads. */
+    public static final int DEFAULT_TIMER_THREADS = 2;
+
+    /** Default number of callback threads. */
+    public static final int DEFAULT_CALLBACK_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /** Default number of transport threads. */
+    public static final int DEFAULT_TRANSPORT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /** Default capacity of the callback queue. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /** Logger for engine setup. */
+    private static final @Nonnull Logger logging = LoggerFactory.getLogger(ExecutionEngine.class);
+
+    /** Process-wide default engine, spawned on first use. */
+    private static volatile Optional<ExecutionEngine> SHARED_ENGINE = Optional.empty();
+
+    /** Executor for timed work. */
+    private final @Nonnull ListeningScheduledExecutorService timer;
+
+    /** Executor for callbacks and blocking work. */
+    private final @Nonnull ListeningExecutorService callbacks;
+
+    /** Executor for transport work, if wrapping an external executor; otherwise spawned on first use. */
+    private volatile ScheduledExecutorService transport;
+
+    /** Underlying callback pool, if owned by this engine, for stats. */
+    private final @Nonnull Optional<ThreadPoolExecutor> callbackPool;
+
+    /** Whether this engine owns (and should shut down) its executors. */
+    private final boolean owned;
+
+    /** Whether callbacks run on virtual threads. */
+    private final boolean virtual;
+
+    /** Count of submissions which found the callback queue full. */
+    private final @Nonnull AtomicLong saturated;
+
+    /** Keeps track of the open/closed state of this engine. */
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * Private constructor. Please use static factories.
+     *
+     * @param timer Executor for timed work.
+     * @param callbacks Executor for callbacks and blocking work.
+     * @param transport Executor for transport work, or `null` to spawn a pool on first use.
+     * @param callbackPool Underlying callback pool, if any.
+     * @param saturated Counter incremented by the callback pool when its queue is full.
+     * @param owned Whether this engine owns its executors.
+     * @param virtual Whether callbacks run on virtual threads.
+     */
+    private ExecutionEngine(@Nonnull ListeningScheduledExecutorService timer,
+                            @Nonnull ListeningExecutorService callbacks,
+                            @Nullable ScheduledExecutorService transport,
+                            @Nonnull Optional<ThreadPoolExecutor> callbackPool,
+                            @Nonnull AtomicLong saturated,
+                            boolean owned,
+                            boolean virtual) {
+        this.timer = timer;
+        this.callbacks = callbacks;
+        this.transport = transport;
+        this.callbackPool = callbackPool;
+        this.saturated = saturated;
+        this.owned = owned;
+        this.virtual = virtual;
+    }
+
+    // -- Static Factories -- //
+
+    /**
+     * Create a new engine with default sizing, which owns its executors and shuts them down when closed.
+     *
+     * @return Execution engine.
+     */
+    public static @Nonnull ExecutionEngine create() {
+        return create(DEFAULT_TIMER_THREADS, DEFAULT_CALLBACK_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Create a new engine with the provided sizing, which owns its executors and shuts them down when closed.
+     *
+     * @param timerThreads Number of threads to use for timed work.
+     * @param callbackThreads Maximum number of threads to use for callbacks and blocking work.
+     * @param queueCapacity Capacity of the callback queue, beyond which work runs on the submitting thread.
+     * @return Execution engine.
+     */
+    public static @Nonnull ExecutionEngine create(int timerThreads, int callbackThreads, int queueCapacity) {
+        return create(timerThreads, callbackThreads, queueCapacity, true);
+    }
+
+    /**
+     * Wrap an existing executor, typically provided by the developer, in an engine which uses it for timed work,
+     * callbacks, and transport work; the executor is not shut down when the engine is closed.
+     *
+     * @param executor Executor to wrap.
+     * @return Execution engine backed by the provided executor.
+     */
+    public static @Nonnull ExecutionEngine wrapping(@Nonnull ScheduledExecutorService executor) {
+        var decorated = MoreExecutors.listeningDecorator(executor);
+        return new ExecutionEngine(
+            decorated,
+            decorated,
+            executor,
+            Optional.empty(),
+            new AtomicLong(0),
+            false,
+            false
+        );
+    }
+
+    /**
+     * Create a new engine which runs callbacks and blocking work, such as draining server streams, on virtual threads,
+     * keeping a small platform pool only for timed work. The engine owns its executors and shuts them down when closed.
+     *
+     * <p>Virtual threads are available on JDK 21 and newer, via the JDK 21 layer of the multi-release SDK jar, which is
+     * only present when the SDK is built with `-Pjava21` (as released artifacts are). On older runtimes, or with a jar
+     * built without the layer, this method falls back to {@link #create()}, logging a warning in the latter case; use
+     * {@link #isVirtual()} to check which mode is active.</p>
+     *
+     * @return Execution engine, backed by virtual threads where available.
+     */
+    public static @Nonnull ExecutionEngine virtual() {
+        var executor = VirtualThreads.executor("cookies-sdk-virtual-");
+        if (executor.isEmpty()) {
+            if (Runtime.version().feature() >= 21 && logging.isWarnEnabled()) {
+                logging.warn(
+                    "Virtual threads requested on JDK {}, but this SDK jar lacks its JDK 21 layer (build with " +
+                    "`-Pjava21`); falling back to platform threads.",
+                    Runtime.version().feature()
+                );
+            }
+            return create();
+        }
+        return new ExecutionEngine(
+            timerPool(DEFAULT_TIMER_THREADS),
+            MoreExecutors.listeningDecorator(executor.get()),
+            null,
+            Optional.empty(),
+            new AtomicLong(0),
+            true,
+            true
+        );
+    }
+
+    /**
+     * Acquire the process-wide shared engine, which is spawned on first use with default sizing and daemon threads, and
+     * is never shut down. Closing the shared engine has no effect.
+     *
+     * @return Shared execution engine.
+     */
+    public static @Nonnull ExecutionEngine shared() {
+        var engine = SHARED_ENGINE;
+        if (engine.isPresent()) {
+            return engine.get();
+        }
+        synchronized (ExecutionEngine.class) {
+            if (SHARED_ENGINE.isEmpty()) {
+                SHARED_ENGINE = Optional.of(create(
+                    DEFAULT_TIMER_THREADS,
+                    DEFAULT_CALLBACK_THREADS,
+                    DEFAULT_QUEUE_CAPACITY,
+                    false
+                ));
+            }
+            return SHARED_ENGINE.get();
+        }
+    }
+
+    // Create an engine with owned pools.
+    private static @Nonnull ExecutionEngine create(int timerThreads,
+                                                   int callbackThreads,
+                                                   int queueCapacity,
+                                                   boolean owned) {
+        var saturated = new AtomicLong(0);
+        var callbackPool = new ThreadPoolExecutor(
+            callbackThreads,
+            callbackThreads,
+            30,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new ThreadFactoryBuilder()
+                .setNameFormat("cookies-sdk-callback-%d")
+                .setDaemon(true)
+                .build(),
+            (task, pool) -> {
+                // the queue is full: count the saturation event, and run the task on the submitting thread, which
+                // applies back-pressure rather than spawning more threads or dropping work.
+                saturated.incrementAndGet();
+                if (!pool.isShutdown()) {
+                    task.run();
+                } else {
+                    throw new RejectedExecutionException("Execution engine is closed.");
+                }
+            }
+        );
+        callbackPool.allowCoreThreadTimeOut(true);
+
+        return new ExecutionEngine(
+            timerPool(timerThreads),
+            MoreExecutors.listeningDecorator(callbackPool),
+            null,
+            Optional.of(callbackPool),
+            saturated,
+            owned,
+            false
+        );
+    }
+
+    // Create a platform timer pool with daemon threads.
+    private static @Nonnull ListeningScheduledExecutorService timerPool(int timerThreads) {
+        var timerPool = new ScheduledThreadPoolExecutor(timerThreads, new ThreadFactoryBuilder()
+            .setNameFormat("cookies-sdk-timer-%d")
+            .setDaemon(true)
+            .build());
+        timerPool.setRemoveOnCancelPolicy(true);
+        return MoreExecutors.listeningDecorator(timerPool);
+    }
+
+    // -- Executors -- //
+
+    /** @return Scheduled executor for timed work, such as deadlines, refreshes, and retries. */
+    public @Nonnull ListeningScheduledExecutorService timer() {
+        return timer;
+    }
+
+    /** @return Bounded executor for callbacks and blocking work, such as draining server streams. */
+    public @Nonnull ListeningExecutorService callbacks() {
+        return callbacks;
+    }
+
+    /**
+     * Return the executor for transport work, such as gRPC listener callbacks and gax background tasks, which may also
+     * schedule work. Engines which wrap an external executor return it; otherwise, a platform pool of
+     * {@link #DEFAULT_TRANSPORT_THREADS} threads is spawned on first use, and owned by this engine.
+     *
+     * @return Scheduled executor for transport work.
+     */
+    public @Nonnull ScheduledExecutorService transport() {
+        var current = transport;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (transport == null) {
+                if (closed.get()) {
+                    throw new RejectedExecutionException("Execution engine is closed.");
+                }
+                var pool = new ScheduledThreadPoolExecutor(DEFAULT_TRANSPORT_THREADS, new ThreadFactoryBuilder()
+                    .setNameFormat("cookies-sdk-transport-%d")
+                    .setDaemon(true)
+                    .build());
+                pool.setRemoveOnCancelPolicy(true);
+                transport = pool;
+            }
+            return transport;
+        }
+    }
+
+    /** @return Direct executor for cheap work, such as response transformers, which runs on the completing thread. */
+    public @Nonnull Executor direct() {
+        return MoreExecutors.directExecutor();
+    }
+
+    // -- Stats -- //
+
+    /** @return Number of tasks waiting in the callback queue, or `0` for external executors and virtual threads. */
+    public int queueDepth() {
+        return callbackPool.map((pool) -> pool.getQueue().size()).orElse(0);
+    }
+
+    /** @return Number of callback threads actively running tasks, or `0` for external executors and virtual threads. */
+    public int activeCount() {
+        return callbackPool.map(ThreadPoolExecutor::getActiveCount).orElse(0);
+    }
+
+    /** @return Number of callback threads currently alive, or `0` for external executors and virtual threads. */
+    public int poolSize() {
+        return callbackPool.map(ThreadPoolExecutor::getPoolSize).orElse(0);
+    }
+
+    /**
+     * Return the current saturation of the callback pool, as a ratio between `0` (idle) and `1` (all threads busy and
+     * the queue full).
+     *
+     * @return Saturation ratio, or `0` for external executors and virtual threads.
+     */
+    public double saturation() {
+        return callbackPool.map((pool) -> {
+            double capacity = pool.getMaximumPoolSize() + pool.getQueue().size() + pool.getQueue().remainingCapacity();
+            return (pool.getActiveCount() + pool.getQueue().size()) / capacity;
+        }).orElse(0d);
+    }
+
+    /** @return Number of submissions which found the callback queue full, and ran on the submitting thread instead. */
+    public long saturationCount() {
+        return saturated.get();
+    }
+
+    /** @return Whether callbacks and blocking work run on virtual threads. */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /** @return Whether this engine owns its executors, and shuts them down when closed. */
+    public boolean isOwned() {
+        return owned;
+    }
+
+    // -- Termination -- //
+
+    /**
+     * Return whether this engine has been closed, and every executor it owns has terminated. Engines which don't own
+     * their executors have nothing to terminate, and always report `true`.
+     *
+     * @return Whether this engine's owned executors have terminated.
+     */
+    public boolean isTerminated() {
+        if (!owned) {
+            return true;
+        }
+        if (!closed.get() || !timer.isTerminated() || !callbacks.isTerminated()) {
+            return false;
+        }
+        synchronized (this) {
+            return transport == null || transport.isTerminated();
+        }
+    }
+
+    /**
+     * Block until every executor owned by this engine has terminated after {@link #close()}, or the timeout expires.
+     *
+     * @param timeout Maximum time to wait.
+     * @param unit Unit for the timeout.
+     * @return Whether the engine terminated before the timeout expired.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        if (!owned) {
+            return true;
+        }
+        var remaining = unit.toNanos(timeout);
+        ScheduledExecutorService spawned;
+        synchronized (this) {
+            spawned = transport;
+        }
+        for (var executor : spawned == null ?
+                new ExecutorService[] {timer, callbacks} :
+                new ExecutorService[] {timer, callbacks, spawned}) {
+            var start = System.nanoTime();
+            if (!executor.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            remaining -= System.nanoTime() - start;
+        }
+        return closed.get();
+    }
+
+    // -- Interface: Closeable -- //
+
+    /**
+     * Close this engine, shutting down its executors if it owns them; engines which wrap external executors, and the
+     * shared engine, are left running.
+     */
+    @Override
+    public void close() {
+        if (owned && closed.compareAndSet(false, true)) {
+            timer.shutdown();
+            callbacks.shutdown();
+            synchronized (this) {
+                if (transport != null) {
+                    transport.shutdown();
+                }
+            }
+        }
+    }
+}
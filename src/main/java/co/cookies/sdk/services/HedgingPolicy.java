@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Objects;
+
+
+/**
+ * Describes when idempotent reads should be hedged: if a read hasn't completed by a delay derived from the observed
+ * latency of its method, a second, identical call is sent, and whichever call succeeds first wins.
+ *
+ * <p>The hedge delay is the configured {@link #percentile()} of the method's recent latency (see
+ * {@link LatencyHistogram}), clamped to `[minDelay, maxDelay]`. No hedges are sent for a method until it has gathered
+ * {@link #minSamples()} samples. Extra load is capped by a token budget: each call earns {@link #budget()} of a token,
+ * and each hedge spends one whole token, so hedges never exceed that fraction of calls beyond a small burst.</p>
+ *
+ * @see RequestHedger Hedging implementation
+ */
+@Immutable @ThreadSafe
+public final class HedgingPolicy {
+    /** Default latency percentile after which a hedge is sent. */
+    public static final double DEFAULT_PERCENTILE = 0.95;
+
+    /** Default minimum hedge delay. */
+    public static final Duration DEFAULT_MIN_DELAY = Duration.ofMillis(5);
+
+    /** Default maximum hedge delay. */
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(1);
+
+    /** Default fraction of calls which may be hedged. */
+    public static final double DEFAULT_BUDGET = 0.05;
+
+    /** Default count of samples a method needs before it is hedged. */
+    public static final int DEFAULT_MIN_SAMPLES = 100;
+
+    private final double percentile;
+    private final @Nonnull Duration minDelay;
+    private final @Nonnull Duration maxDelay;
+    private final double budget;
+    private final int minSamples;
+
+    /**
+     * Private constructor. Please use {@link #builder()} or {@link #defaults()}.
+     *
+     * @param builder Builder holding settings for this policy.
+     */
+    private HedgingPolicy(@Nonnull Builder builder) {
+        this.percentile = builder.percentile;
+        this.minDelay = builder.minDelay;
+        this.maxDelay = builder.maxDelay;
+        this.budget = builder.budget;
+        this.minSamples = builder.minSamples;
+    }
+
+    /** Builder for {@link HedgingPolicy} instances. */
+    public static final class Builder {
+        private double percentile = DEFAULT_PERCENTILE;
+        private Duration minDelay = DEFAULT_MIN_DELAY;
+        private Duration maxDelay = DEFAULT_MAX_DELAY;
+        private double budget = DEFAULT_BUDGET;
+        private int minSamples = DEFAULT_MIN_SAMPLES;
+
+        private Builder() { /* Use `HedgingPolicy.builder()`. */ }
+
+        /**
+         * @param percentile Latency percentile after which a hedge is sent, in `(0, 1)`.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setPercentile(double percentile) {
+            if (!(percentile > 0 && percentile < 1)) {
+                throw new IllegalArgumentException("percentile must be in (0, 1), got " + percentile);
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * @param minDelay Minimum hedge delay, which guards against hedging calls that are merely fast.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMinDelay(@Nonnull Duration minDelay) {
+            if (Objects.requireNonNull(minDelay, "minDelay").isNegative()) {
+                throw new IllegalArgumentException("minDelay must not be negative, got " + minDelay);
+            }
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        /**
+         * @param maxDelay Maximum hedge delay.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMaxDelay(@Nonnull Duration maxDelay) {
+            if (Objects.requireNonNull(maxDelay, "maxDelay").isNegative() || maxDelay.isZero()) {
+                throw new IllegalArgumentException("maxDelay must be positive, got " + maxDelay);
+            }
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * @param budget Fraction of calls which may be hedged, in `(0, 1]`.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setBudget(double budget) {
+            if (!(budget > 0 && budget <= 1)) {
+                throw new IllegalArgumentException("budget must be in (0, 1], got " + budget);
+            }
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * @param minSamples Count of latency samples a method needs before it is hedged.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMinSamples(int minSamples) {
+            if (minSamples < 1) {
+                throw new IllegalArgumentException("minSamples must be positive, got " + minSamples);
+            }
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        /** @return Hedging policy. */
+        public @Nonnull HedgingPolicy build() {
+            if (minDelay.compareTo(maxDelay) > 0) {
+                throw new IllegalArgumentException(
+                    "minDelay (" + minDelay + ") must not exceed maxDelay (" + maxDelay + ")");
+            }
+            return new HedgingPolicy(this);
+        }
+    }
+
+    /** @return Builder for a hedging policy, with default settings. */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    /** @return Hedging policy with default settings. */
+    public static @Nonnull HedgingPolicy defaults() {
+        return builder().build();
+    }
+
+    /** @return Latency percentile after which a hedge is sent. */
+    public double percentile() {
+        return percentile;
+    }
+
+    /** @return Minimum hedge delay. */
+    public @Nonnull Duration minDelay() {
+        return minDelay;
+    }
+
+    /** @return Maximum hedge delay. */
+    public @Nonnull Duration maxDelay() {
+        return maxDelay;
+    }
+
+    /** @return Fraction of calls which may be hedged. */
+    public double budget() {
+        return budget;
+    }
+
+    /** @return Count of latency samples a method needs before it is hedged. */
+    public int minSamples() {
+        return minSamples;
+    }
+}
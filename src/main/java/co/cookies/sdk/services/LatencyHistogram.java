@@ -0,0 +1,201 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Records call latencies into log-linear buckets, and answers percentile queries over them, without taking locks.
+ *
+ * <p>Latencies are bucketed at microsecond granularity, with eight buckets per power of two, so that any percentile is
+ * reported within 12.5% of the true value. Recorded values are capped at roughly 68 seconds. So that percentiles track
+ * recent behavior, every bucket is halved each time the histogram gathers another {@link #window()} samples; a
+ * percentile therefore reflects (roughly) the last one or two windows of calls.</p>
+ *
+ * <p>A {@link #cumulative()} histogram never decays, and so reports percentiles over every sample it has recorded.</p>
+ */
+@ThreadSafe
+public final class LatencyHistogram {
+    /** Default count of samples after which the histogram decays. */
+    public static final int DEFAULT_WINDOW = 1024;
+
+    /** Count of sub-buckets per power of two, as a power of two. */
+    private static final int SUB_BITS = 3;
+
+    /** Count of sub-buckets per power of two. */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /** Largest recordable latency, in microseconds. */
+    private static final long MAX_MICROS = (1L << 36) - 1;
+
+    /** Total count of buckets. */
+    private static final int BUCKETS = index(MAX_MICROS) + 1;
+
+    /** Sample count per bucket. */
+    private final @Nonnull AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /** Samples currently held across all buckets. */
+    private final @Nonnull AtomicLong count = new AtomicLong(0);
+
+    /** Samples recorded since the last decay. */
+    private final @Nonnull AtomicLong sinceDecay = new AtomicLong(0);
+
+    /** Guards against concurrent decays. */
+    private final @Nonnull AtomicBoolean decaying = new AtomicBoolean(false);
+
+    /** Count of samples after which the histogram decays; zero if it never decays. */
+    private final int window;
+
+    /**
+     * Private constructor. Please use {@link #create()}, {@link #create(int)}, or {@link #cumulative()}.
+     *
+     * @param window Count of samples after which the histogram decays; zero if it never decays.
+     */
+    private LatencyHistogram(int window) {
+        this.window = window;
+    }
+
+    /** @return Latency histogram with the {@link #DEFAULT_WINDOW}. */
+    public static @Nonnull LatencyHistogram create() {
+        return create(DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param window Count of samples after which the histogram decays.
+     * @return Latency histogram.
+     */
+    public static @Nonnull LatencyHistogram create(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be positive, got " + window);
+        }
+        return new LatencyHistogram(window);
+    }
+
+    /** @return Latency histogram which never decays. */
+    public static @Nonnull LatencyHistogram cumulative() {
+        return new LatencyHistogram(0);
+    }
+
+    // -- Bucketing -- //
+
+    /**
+     * @param micros Latency, in microseconds, within `[0, MAX_MICROS]`.
+     * @return Index of the bucket holding the provided latency.
+     */
+    private static int index(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * @param index Index of a bucket.
+     * @return Largest latency, in microseconds, held by the bucket.
+     */
+    private static long upperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_COUNT + SUB_BITS - 1;
+        long sub = index % SUB_COUNT;
+        return ((SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+
+    // -- API -- //
+
+    /**
+     * Record a single latency sample.
+     *
+     * @param nanos Latency, in nanoseconds; negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long micros = Math.min(MAX_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        buckets.incrementAndGet(index(micros));
+        count.incrementAndGet();
+        if (window > 0 && sinceDecay.incrementAndGet() >= window) {
+            decay();
+        }
+    }
+
+    /**
+     * Estimate the provided percentile of recorded latencies.
+     *
+     * @param percentile Percentile to estimate, in `[0, 1]`.
+     * @return Estimated latency at the percentile, or {@link Duration#ZERO} if nothing has been recorded.
+     */
+    public @Nonnull Duration percentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 1)) {
+            throw new IllegalArgumentException("percentile must be in [0, 1], got " + percentile);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(upperBound(i)));
+            }
+        }
+        return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(MAX_MICROS));
+    }
+
+    /** @return Count of samples currently held, after decay; approximate while samples are being recorded. */
+    public long count() {
+        return count.get();
+    }
+
+    /** @return Count of samples after which the histogram decays; zero if it never decays. */
+    public int window() {
+        return window;
+    }
+
+    /** Halve every bucket, so that older samples carry less weight than newer ones. */
+    private void decay() {
+        if (!decaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sinceDecay.set(0);
+            long removed = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long current;
+                long halved;
+                do {
+                    current = buckets.get(i);
+                    halved = current >>> 1;
+                } while (!buckets.compareAndSet(i, current, halved));
+                removed += current - halved;
+            }
+            count.addAndGet(-removed);
+        } finally {
+            decaying.set(false);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Objects;
+
+
+/**
+ * Describes how a service's {@link AdaptiveLimiter} bounds the calls it has in flight: where the limit starts, the
+ * range it may move within, and what happens to calls which arrive while the limit is reached.
+ *
+ * <p>By default, calls arriving at the limit fail fast. With a positive {@link #maxWait()}, they instead queue (up to
+ * {@link #maxQueue()} deep) for a permit, failing once the wait expires.</p>
+ */
+@Immutable @ThreadSafe
+public final class LimiterPolicy {
+    /** Default concurrency limit before any latency is observed. */
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    /** Default floor for the concurrency limit. */
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    /** Default ceiling for the concurrency limit. */
+    public static final int DEFAULT_MAX_LIMIT = 500;
+
+    /** Default wait for a permit; calls fail fast at the limit. */
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ZERO;
+
+    /** Default count of calls which may queue for a permit. */
+    public static final int DEFAULT_MAX_QUEUE = 256;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final @Nonnull Duration maxWait;
+    private final int maxQueue;
+
+    /**
+     * Private constructor. Please use {@link #builder()} or {@link #defaults()}.
+     *
+     * @param builder Builder holding settings for this policy.
+     */
+    private LimiterPolicy(@Nonnull Builder builder) {
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.maxWait = builder.maxWait;
+        this.maxQueue = builder.maxQueue;
+    }
+
+    /** Builder for {@link LimiterPolicy} instances. */
+    public static final class Builder {
+        private int initialLimit = DEFAULT_INITIAL_LIMIT;
+        private int minLimit = DEFAULT_MIN_LIMIT;
+        private int maxLimit = DEFAULT_MAX_LIMIT;
+        private Duration maxWait = DEFAULT_MAX_WAIT;
+        private int maxQueue = DEFAULT_MAX_QUEUE;
+
+        private Builder() { /* Use `LimiterPolicy.builder()`. */ }
+
+        /**
+         * @param initialLimit Concurrency limit before any latency is observed.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setInitialLimit(int initialLimit) {
+            if (initialLimit < 1) {
+                throw new IllegalArgumentException("initialLimit must be positive, got " + initialLimit);
+            }
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * @param minLimit Floor for the concurrency limit.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMinLimit(int minLimit) {
+            if (minLimit < 1) {
+                throw new IllegalArgumentException("minLimit must be positive, got " + minLimit);
+            }
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * @param maxLimit Ceiling for the concurrency limit.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMaxLimit(int maxLimit) {
+            if (maxLimit < 1) {
+                throw new IllegalArgumentException("maxLimit must be positive, got " + maxLimit);
+            }
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @param maxWait Maximum time a call may wait for a permit at the limit; zero fails fast.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMaxWait(@Nonnull Duration maxWait) {
+            if (Objects.requireNonNull(maxWait, "maxWait").isNegative()) {
+                throw new IllegalArgumentException("maxWait must not be negative, got " + maxWait);
+            }
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * @param maxQueue Maximum count of calls which may wait for a permit at once.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMaxQueue(int maxQueue) {
+            if (maxQueue < 0) {
+                throw new IllegalArgumentException("maxQueue must not be negative, got " + maxQueue);
+            }
+            this.maxQueue = maxQueue;
+            return this;
+        }
+
+        /** @return Limiter policy. */
+        public @Nonnull LimiterPolicy build() {
+            if (minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException(
+                    "limits must satisfy min (" + minLimit + ") <= initial (" + initialLimit + ") <= max (" +
+                    maxLimit + ")");
+            }
+            return new LimiterPolicy(this);
+        }
+    }
+
+    /** @return Builder for a limiter policy, with default settings. */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    /** @return Limiter policy with default settings. */
+    public static @Nonnull LimiterPolicy defaults() {
+        return builder().build();
+    }
+
+    /** @return Concurrency limit before any latency is observed. */
+    public int initialLimit() {
+        return initialLimit;
+    }
+
+    /** @return Floor for the concurrency limit. */
+    public int minLimit() {
+        return minLimit;
+    }
+
+    /** @return Ceiling for the concurrency limit. */
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    /** @return Maximum time a call may wait for a permit at the limit; zero fails fast. */
+    public @Nonnull Duration maxWait() {
+        return maxWait;
+    }
+
+    /** @return Maximum count of calls which may wait for a permit at once. */
+    public int maxQueue() {
+        return maxQueue;
+    }
+}
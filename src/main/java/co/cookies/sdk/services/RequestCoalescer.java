@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import io.grpc.MethodDescriptor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+
+/**
+ * Coalesces identical in-flight reads, so that callers who issue the same request while an earlier copy is still
+ * running attach to that call, rather than opening one of their own.
+ *
+ * <p>Calls are keyed by method, timeout, and serialized request; see {@link #key}. Each caller receives its own future,
+ * and cancellation is reference-counted: a caller that gives up only detaches itself, and the shared call is cancelled
+ * once every attached caller has cancelled. Once a call completes, it is forgotten, and the next caller starts afresh.
+ * Only idempotent reads should ever be routed through a coalescer.</p>
+ */
+@ThreadSafe
+public final class RequestCoalescer {
+    /** Calls currently in flight, by key. */
+    private final @Nonnull ConcurrentHashMap<Key, Shared<?>> inflight = new ConcurrentHashMap<>();
+
+    /** Count of callers which attached to an existing call. */
+    private final @Nonnull AtomicLong coalesced = new AtomicLong(0);
+
+    /** Identifies a call by method, timeout, and serialized request. */
+    @Immutable
+    public static final class Key {
+        private final @Nonnull String method;
+        private final long timeoutNanos;
+        private final @Nonnull ByteString request;
+        private final int hash;
+
+        private Key(@Nonnull String method, long timeoutNanos, @Nonnull ByteString request) {
+            this.method = method;
+            this.timeoutNanos = timeoutNanos;
+            this.request = request;
+            this.hash = Objects.hash(method, timeoutNanos, request);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return hash == that.hash &&
+                timeoutNanos == that.timeoutNanos &&
+                method.equals(that.method) &&
+                request.equals(that.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Shared call state: the result all callers observe, and the count of callers still attached.
+     *
+     * @param <R> Result type of the call.
+     */
+    private final class Shared<R> {
+        final @Nonnull Key key;
+        final @Nonnull SettableFuture<R> result = SettableFuture.create();
+
+        // starts at one, for the caller which creates the call.
+        final @Nonnull AtomicInteger refs = new AtomicInteger(1);
+
+        Shared(@Nonnull Key key) {
+            this.key = key;
+        }
+
+        /** @return Whether another caller could attach; `false` if the call was already abandoned. */
+        boolean acquire() {
+            int current;
+            do {
+                current = refs.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!refs.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /** @return Future for a single caller, which detaches that caller if cancelled. */
+        @Nonnull ListenableFuture<R> attach() {
+            var mine = SettableFuture.<R>create();
+            mine.setFuture(Futures.nonCancellationPropagating(result));
+            mine.addListener(() -> {
+                if (mine.isCancelled() && refs.decrementAndGet() == 0) {
+                    inflight.remove(key, this);
+                    result.cancel(true);
+                }
+            }, MoreExecutors.directExecutor());
+            return mine;
+        }
+    }
+
+    /**
+     * Compute the coalescing key for an operation.
+     *
+     * @param descriptor Method the operation is bound for.
+     * @param operation Operation to key.
+     * @return Key identifying the operation.
+     */
+    public static @Nonnull Key key(@Nonnull MethodDescriptor<?, ?> descriptor,
+                                   @Nonnull RPCOperation<? extends Message> operation) {
+        var timeout = operation.timeout();
+        return new Key(
+            descriptor.getFullMethodName(),
+            timeout.unit().toNanos(timeout.value()),
+            operation.request().toByteString()
+        );
+    }
+
+    /**
+     * Attach to the in-flight call for the provided key, or start one via the provided supplier if none is running. The
+     * supplier is invoked at most once per call, on the thread of the caller which starts it.
+     *
+     * @param key Key identifying the call.
+     * @param call Supplier which starts the call.
+     * @param <R> Result type of the call.
+     * @return Future for this caller's view of the call; cancelling it detaches only this caller.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nonnull <R> ListenableFuture<R> join(@Nonnull Key key, @Nonnull Supplier<ListenableFuture<R>> call) {
+        while (true) {
+            var existing = (Shared<R>) inflight.get(key);
+            if (existing != null) {
+                if (existing.acquire()) {
+                    coalesced.incrementAndGet();
+                    return existing.attach();
+                }
+                // abandoned by every caller, but not yet removed; clear it and go around again.
+                inflight.remove(key, existing);
+                continue;
+            }
+
+            var created = new Shared<R>(key);
+            if (inflight.putIfAbsent(key, created) != null) {
+                continue;
+            }
+            created.result.addListener(() -> inflight.remove(key, created), MoreExecutors.directExecutor());
+            try {
+                created.result.setFuture(call.get());
+            } catch (RuntimeException | Error err) {
+                created.result.setException(err);
+            }
+            return created.attach();
+        }
+    }
+
+    /** @return Count of calls currently in flight. */
+    public int inflightCount() {
+        return inflight.size();
+    }
+
+    /** @return Count of callers which attached to an existing call, rather than starting their own. */
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+}
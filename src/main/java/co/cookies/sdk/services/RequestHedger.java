@@ -0,0 +1,353 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+
+/**
+ * Hedges idempotent reads according to a {@link HedgingPolicy}: each call's latency is recorded per method, and if a
+ * call hasn't completed by the policy's percentile of its method's latency, an identical call is sent alongside it. The
+ * first call to succeed wins, and the other is cancelled; the caller only sees a failure once every call sent has
+ * failed.
+ *
+ * <p>Hedges are paid for from a token budget shared by every method on the service. Each call earns a fraction of a
+ * token (the policy's {@link HedgingPolicy#budget()}), each hedge spends a whole one, and at most {@link #MAX_TOKENS}
+ * may be banked, so hedging adds at most that fraction of extra load, plus a small burst. Hedges carry whatever remains
+ * of the original call's timeout.</p>
+ */
+@ThreadSafe
+public final class RequestHedger {
+    /** Maximum count of tokens which may be banked for hedges. */
+    public static final int MAX_TOKENS = 10;
+
+    /** Token balances are kept in thousandths of a token. */
+    private static final long TOKEN = 1000;
+
+    /** Policy which governs hedging. */
+    private final @Nonnull HedgingPolicy policy;
+
+    /** Timer on which hedges are scheduled. */
+    private final @Nonnull ScheduledExecutorService timer;
+
+    /** Thousandths of a token earned by each call. */
+    private final long earned;
+
+    /** Thousandths of a token currently banked. */
+    private final @Nonnull AtomicLong tokens = new AtomicLong(0);
+
+    /** Latency histogram for each method, by full method name. */
+    private final @Nonnull ConcurrentHashMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    // -- Counters -- //
+
+    private final AtomicLong calls = new AtomicLong(0);
+    private final AtomicLong hedges = new AtomicLong(0);
+    private final AtomicLong wins = new AtomicLong(0);
+    private final AtomicLong throttled = new AtomicLong(0);
+
+    /**
+     * Private constructor. Please use {@link #create(HedgingPolicy, ScheduledExecutorService)}.
+     *
+     * @param policy Policy which governs hedging.
+     * @param timer Timer on which hedges are scheduled.
+     */
+    private RequestHedger(@Nonnull HedgingPolicy policy, @Nonnull ScheduledExecutorService timer) {
+        this.policy = policy;
+        this.timer = timer;
+        this.earned = Math.max(1, Math.round(policy.budget() * TOKEN));
+    }
+
+    /**
+     * @param policy Policy which governs hedging.
+     * @param timer Timer on which hedges are scheduled, typically {@link ExecutionEngine#timer()}.
+     * @return Request hedger.
+     */
+    public static @Nonnull RequestHedger create(@Nonnull HedgingPolicy policy,
+                                                @Nonnull ScheduledExecutorService timer) {
+        return new RequestHedger(policy, timer);
+    }
+
+    /** @return Policy which governs hedging. */
+    public @Nonnull HedgingPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * @param method Full name of a gRPC method.
+     * @return Latency histogram for the method, if any calls to it have been made.
+     */
+    public @Nonnull Optional<LatencyHistogram> latency(@Nonnull String method) {
+        return Optional.ofNullable(latencies.get(method));
+    }
+
+    /** @return Point-in-time statistics for this hedger. */
+    public @Nonnull Stats stats() {
+        return new AutoValue_RequestHedger_Stats(
+            calls.get(),
+            hedges.get(),
+            wins.get(),
+            throttled.get()
+        );
+    }
+
+    /**
+     * Run a call, hedging it if it runs long.
+     *
+     * @param method Full name of the gRPC method being called, which keys its latency histogram.
+     * @param timeout Timeout for the call.
+     * @param attempt Function which sends one copy of the call with the provided timeout.
+     * @param <R> Response type of the call.
+     * @return Future for the first successful response, or the last failure.
+     */
+    public @Nonnull <R> ListenableFuture<R> call(@Nonnull String method,
+                                                 @Nonnull Duration timeout,
+                                                 @Nonnull Function<Duration, ListenableFuture<R>> attempt) {
+        calls.incrementAndGet();
+        tokens.accumulateAndGet(earned, (current, add) -> Math.min(MAX_TOKENS * TOKEN, current + add));
+        var histogram = histogram(method);
+        long delay = delay(histogram);
+        var remaining = timeout.toNanos() - delay;
+        if (delay < 0 || remaining <= 0) {
+            // not enough samples yet, or the hedge would have no time left; just measure.
+            long start = System.nanoTime();
+            var primary = attempt.apply(timeout);
+            primary.addListener(() -> {
+                if (isSuccess(primary)) {
+                    histogram.record(System.nanoTime() - start);
+                }
+            }, MoreExecutors.directExecutor());
+            return primary;
+        }
+        var race = new Race<R>(histogram);
+        race.attach(attempt.apply(timeout), false);
+        if (!race.result.isDone()) {
+            try {
+                var scheduled = timer.schedule(
+                    () -> hedge(race, attempt, Duration.ofNanos(remaining)),
+                    delay,
+                    TimeUnit.NANOSECONDS
+                );
+                race.result.addListener(() -> scheduled.cancel(false), MoreExecutors.directExecutor());
+            } catch (RejectedExecutionException rxe) {
+                // the timer is gone; run un-hedged.
+            }
+        }
+        return race.result;
+    }
+
+    // -- Internals -- //
+
+    /**
+     * @param method Full name of a gRPC method.
+     * @return Latency histogram for the method, created on first use.
+     */
+    private @Nonnull LatencyHistogram histogram(@Nonnull String method) {
+        var current = latencies.get(method);
+        if (current != null) {
+            return current;
+        }
+        return latencies.computeIfAbsent(method, (name) -> LatencyHistogram.create());
+    }
+
+    /**
+     * @param histogram Latency histogram for a method.
+     * @return Hedge delay for the method, in nanoseconds, or `-1` if it has too few samples to hedge.
+     */
+    private long delay(@Nonnull LatencyHistogram histogram) {
+        if (histogram.count() < policy.minSamples()) {
+            return -1;
+        }
+        var observed = histogram.percentile(policy.percentile()).toNanos();
+        return Math.min(policy.maxDelay().toNanos(), Math.max(policy.minDelay().toNanos(), observed));
+    }
+
+    /** @return Whether a token could be spent on a hedge. */
+    private boolean spend() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Send a hedge for the provided race, if it is still undecided, and the budget allows.
+     *
+     * @param race Race to hedge.
+     * @param attempt Function which sends one copy of the call.
+     * @param remaining Time remaining of the call's timeout.
+     * @param <R> Response type of the call.
+     */
+    private <R> void hedge(@Nonnull Race<R> race,
+                           @Nonnull Function<Duration, ListenableFuture<R>> attempt,
+                           @Nonnull Duration remaining) {
+        if (race.result.isDone() || race.pending.get() == 0) {
+            return;  // decided, or every call already failed
+        }
+        if (!spend()) {
+            throttled.incrementAndGet();
+            return;
+        }
+        if (race.pending.getAndUpdate((count) -> count == 0 ? 0 : count + 1) == 0) {
+            // every call failed while the token was spent; hand it back.
+            tokens.accumulateAndGet(TOKEN, (current, add) -> Math.min(MAX_TOKENS * TOKEN, current + add));
+            return;
+        }
+        hedges.incrementAndGet();
+        ListenableFuture<R> hedge;
+        try {
+            hedge = attempt.apply(remaining);
+        } catch (RuntimeException rxe) {
+            race.fail(rxe);
+            return;
+        }
+        race.attach(hedge, true);
+    }
+
+    /**
+     * @param future Completed future.
+     * @return Whether the future completed successfully.
+     */
+    private static boolean isSuccess(@Nonnull Future<?> future) {
+        try {
+            Futures.getDone(future);
+            return true;
+        } catch (Exception err) {
+            return false;
+        }
+    }
+
+    /** Tracks the calls sent for one hedged read, and the result handed to the caller. */
+    private final class Race<R> {
+        /** Result handed to the caller. */
+        final @Nonnull SettableFuture<R> result = SettableFuture.create();
+
+        /** Count of calls sent which have not yet failed. */
+        final @Nonnull AtomicInteger pending = new AtomicInteger(1);
+
+        /** Latency histogram for the method. */
+        final @Nonnull LatencyHistogram histogram;
+
+        /** When the primary was sent, from which every latency in this race is measured. */
+        final long start = System.nanoTime();
+
+        /** Calls sent for this read; the primary, and the hedge if one was sent. */
+        private volatile @Nullable ListenableFuture<R> primary;
+        private volatile @Nullable ListenableFuture<R> hedge;
+
+        Race(@Nonnull LatencyHistogram histogram) {
+            this.histogram = histogram;
+            result.addListener(this::cancelAll, MoreExecutors.directExecutor());
+        }
+
+        /**
+         * Attach a call to this race, which wins if it is the first to succeed. Only the winner's latency is recorded,
+         * measured from the start of the race, so that a winning hedge records what the caller saw rather than its own,
+         * shorter, time; the losing call is cancelled, and never completes.
+         *
+         * @param call Call sent for this read.
+         * @param hedged Whether the call is a hedge.
+         */
+        void attach(@Nonnull ListenableFuture<R> call, boolean hedged) {
+            if (hedged) {
+                hedge = call;
+            } else {
+                primary = call;
+            }
+            Futures.addCallback(call, new FutureCallback<>() {
+                @Override
+                public void onSuccess(R value) {
+                    long elapsed = System.nanoTime() - start;
+                    if (result.set(value)) {
+                        histogram.record(elapsed);
+                        if (hedged) {
+                            wins.incrementAndGet();
+                        }
+                    }
+                }
+
+                @Override
+                public void onFailure(@Nonnull Throwable err) {
+                    fail(err);
+                }
+            }, MoreExecutors.directExecutor());
+            if (result.isDone()) {
+                call.cancel(true);
+            }
+        }
+
+        /**
+         * Account for a failed call; the race fails once every call sent has failed.
+         *
+         * @param err Error raised by the call.
+         */
+        void fail(@Nonnull Throwable err) {
+            if (pending.decrementAndGet() == 0) {
+                result.setException(err);
+            }
+        }
+
+        /** Cancel every call sent for this read; calls already complete are unaffected. */
+        private void cancelAll() {
+            var first = primary;
+            if (first != null) {
+                first.cancel(true);
+            }
+            var second = hedge;
+            if (second != null) {
+                second.cancel(true);
+            }
+        }
+    }
+
+    /** Point-in-time statistics for a {@link RequestHedger}. */
+    @AutoValue @Immutable @ThreadSafe
+    public abstract static class Stats {
+        /** @return Count of calls run through the hedger. */
+        public abstract long callCount();
+
+        /** @return Count of hedges sent. */
+        public abstract long hedgeCount();
+
+        /** @return Count of reads won by their hedge. */
+        public abstract long hedgeWinCount();
+
+        /** @return Count of hedges withheld because the budget was spent. */
+        public abstract long throttledCount();
+    }
+}
@@ -14,10 +14,14 @@
 package co.cookies.sdk.services;
 
 import com.google.api.gax.core.BackgroundResource;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
 
 
 /**
@@ -72,4 +76,37 @@ public interface ServiceClient<Stub extends BackgroundResource> extends Closeabl
      * @return Assigned version of a given service.
      */
     @Nonnull String getServiceVersion();
+
+    /**
+     * Return the number of calls currently in flight through this service client, which includes calls still waiting
+     * on the server, and coalesced callers attached to another caller's call.
+     *
+     * <p>Clients which don't track their calls report `0`.</p>
+     *
+     * @return Count of in-flight calls.
+     */
+    default int inflight() {
+        return 0;
+    }
+
+    /**
+     * Close this service client without cutting off in-flight calls: new calls are rejected immediately, calls already
+     * in flight are given up to the provided budget to finish, and then the underlying stub is shut down.
+     *
+     * <p>This method does not block. Calls still in flight when the budget expires are abandoned to the transport,
+     * which cancels them once its channel shuts down. Calling this method more than once returns the same future.</p>
+     *
+     * <p>Clients which don't track their calls simply {@link #close()} and return an already-resolved future.</p>
+     *
+     * @param drainBudget Maximum time to wait for in-flight calls to finish.
+     * @return Future which resolves once in-flight calls have drained (or the budget expired), and the stub terminated.
+     */
+    default @Nonnull ListenableFuture<Void> closeAsync(@Nonnull Duration drainBudget) {
+        try {
+            close();
+            return Futures.immediateVoidFuture();
+        } catch (IOException ioe) {
+            return Futures.immediateFailedFuture(ioe);
+        }
+    }
 }
@@ -13,7 +13,11 @@
  */
 package co.cookies.sdk.services;
 
+import io.grpc.MethodDescriptor;
+import io.grpc.ServiceDescriptor;
+
 import javax.annotation.Nonnull;
+import java.util.Optional;
 
 import static java.lang.String.format;
 
@@ -57,6 +61,29 @@ public interface ServiceInfo extends Comparable<ServiceInfo> {
         return false;
     }
 
+    /**
+     * Return the gRPC descriptor for this service, if known; this is used to generate transport-level configuration,
+     * such as retry policies, for each of the service's methods.
+     *
+     * @return gRPC service descriptor, or {@link Optional#empty()}.
+     */
+    default @Nonnull Optional<ServiceDescriptor> serviceDescriptor() {
+        return Optional.empty();
+    }
+
+    /**
+     * Whether the provided method of this service may be retried transparently by the transport when it fails with a
+     * transient error; only reads, and writes which are safe to repeat, should be retried.
+     *
+     * <p>By default, methods are retried only if their descriptor is marked safe or idempotent.</p>
+     *
+     * @param method gRPC descriptor for one of this service's methods.
+     * @return Whether the method may be retried.
+     */
+    default boolean retryable(@Nonnull MethodDescriptor<?, ?> method) {
+        return method.isSafe() || method.isIdempotent();
+    }
+
     /**
      * Return the composed service tag for this service (for example, "catalog:v1").
      *
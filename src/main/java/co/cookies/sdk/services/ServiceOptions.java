@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import co.cookies.sdk.SDKConfiguration;
+import co.cookies.sdk.metrics.MetricsSink;
+import com.google.auto.value.AutoValue;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Optional;
+
+
+/**
+ * Options shared by every {@link BaseService}, resolved once when a service is constructed; these are typically derived
+ * from the {@link SDKConfiguration} which spawned the service.
+ */
+@AutoValue @Immutable @ThreadSafe
+public abstract class ServiceOptions {
+    /** @return Factory to use for spawning the service logger. */
+    public abstract @Nonnull ILoggerFactory loggerFactory();
+
+    /** @return Execution engine to use for the service. */
+    public abstract @Nonnull ExecutionEngine engine();
+
+    /** @return Policy for hedging idempotent reads, if hedging is enabled. */
+    public abstract @Nonnull Optional<HedgingPolicy> hedging();
+
+    /** @return Policy for limiting the service's in-flight calls, if limiting is enabled. */
+    public abstract @Nonnull Optional<LimiterPolicy> limiter();
+
+    /** @return Policy for breaking the circuit of the service's failing methods, if circuit breaking is enabled. */
+    public abstract @Nonnull Optional<CircuitBreakerPolicy> circuitBreaker();
+
+    /** @return Sink which receives the service's per-method call metrics. */
+    public abstract @Nonnull MetricsSink metricsSink();
+
+    /** Builder object for preparing an immutable {@link ServiceOptions} instance. */
+    @AutoValue.Builder
+    @SuppressWarnings("UnusedReturnValue")
+    public abstract static class Builder {
+        /**
+         * Set the logger factory to use for the service.
+         *
+         * @param loggerFactory Logger factory.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setLoggerFactory(ILoggerFactory loggerFactory);
+
+        /**
+         * Set the execution engine to use for the service.
+         *
+         * @param engine Execution engine.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setEngine(ExecutionEngine engine);
+
+        /**
+         * Set the policy for hedging idempotent reads issued through the service; hedging is disabled if empty.
+         *
+         * @param hedging Hedging policy.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setHedging(Optional<HedgingPolicy> hedging);
+
+        /**
+         * Set the policy for adaptively limiting calls in flight through the service; limiting is disabled if empty.
+         *
+         * @param limiter Limiter policy.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setLimiter(Optional<LimiterPolicy> limiter);
+
+        /**
+         * Set the policy for breaking the circuit of methods which fail, or run slow, too often; circuit breaking is
+         * disabled if empty.
+         *
+         * @param circuitBreaker Circuit breaker policy.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setCircuitBreaker(Optional<CircuitBreakerPolicy> circuitBreaker);
+
+        /**
+         * Set the sink which receives the service's per-method call metrics.
+         *
+         * @param metricsSink Metrics sink.
+         * @return Builder, for chainability.
+         */
+        public abstract Builder setMetricsSink(MetricsSink metricsSink);
+
+        /**
+         * Build these settings into an immutable {@link ServiceOptions} instance.
+         *
+         * @return Service options.
+         */
+        public abstract ServiceOptions build();
+    }
+
+    // -- Static Factories -- //
+
+    /** @return Builder for service options, pre-filled with defaults. */
+    public static @Nonnull Builder builder() {
+        return new AutoValue_ServiceOptions.Builder()
+            .setLoggerFactory(LoggerFactory.getILoggerFactory())
+            .setEngine(ExecutionEngine.shared())
+            .setMetricsSink(MetricsSink.noop());
+    }
+
+    /**
+     * @return Default service options: the default SLF4J logger factory, the shared execution engine, a no-op metrics
+     *         sink, and neither hedging, limiting, nor circuit breaking.
+     */
+    public static @Nonnull ServiceOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Derive service options from the provided SDK configuration.
+     *
+     * @param configuration SDK configuration to derive options from.
+     * @return Service options.
+     */
+    public static @Nonnull ServiceOptions from(@Nonnull SDKConfiguration configuration) {
+        return builder()
+            .setLoggerFactory(configuration.loggerFactory())
+            .setEngine(configuration.executionEngine())
+            .setHedging(configuration.hedgingPolicy())
+            .setLimiter(configuration.limiterPolicy())
+            .setCircuitBreaker(configuration.circuitBreakerPolicy())
+            .setMetricsSink(configuration.metricsSink())
+            .build();
+    }
+
+    /** @return Builder pre-filled with these options. */
+    public abstract @Nonnull Builder toBuilder();
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import com.google.api.gax.rpc.ResponseObserver;
+import com.google.api.gax.rpc.ServerStreamingCallable;
+import com.google.api.gax.rpc.StreamController;
+import com.google.protobuf.Message;
+import io.grpc.MethodDescriptor;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static co.cookies.sdk.SDKUtil.callContext;
+import static co.cookies.sdk.SDKUtil.translateErr;
+
+
+/**
+ * Publishes the transformed responses of a server-streaming RPC as a reactive-streams {@link Flow.Publisher}, with
+ * inbound flow control driven by subscriber demand.
+ *
+ * <p>The publisher is cold: each subscription starts its own call. Automatic inbound flow control is disabled, and a
+ * single response stanza is requested from the transport at a time, only once every item from the previous stanza has
+ * been delivered and the subscriber has outstanding demand. Items are delivered on whichever thread signals demand or
+ * receives a response, so no executor thread is ever parked waiting on the network. Cancelling the subscription cancels
+ * the underlying call.</p>
+ *
+ * <p>Errors are delivered via {@link Flow.Subscriber#onError} as SDK exceptions, mapped in the same way as other RPC
+ * methods.</p>
+ *
+ * @param <Request> Request message type for the streaming operation.
+ * @param <Response> Response (stanza) message type yielded by the server.
+ * @param <T> Item type published to subscribers, produced by the transformer from each stanza.
+ */
+@ThreadSafe
+final class StreamPublisher<Request extends Message, Response extends Message, T> implements Flow.Publisher<T> {
+    private final @Nonnull Logger logger;
+    private final @Nonnull RPCOperation<Request> operation;
+    private final @Nonnull MethodDescriptor<Request, Response> descriptor;
+    private final @Nonnull ServerStreamingCallable<Request, Response> callable;
+    private final @Nonnull Function<Response, Stream<T>> transformer;
+
+    /**
+     * Package-private constructor.
+     *
+     * @param logger Service logger, which receives all errors.
+     * @param operation RPC operation to execute for each subscription.
+     * @param descriptor gRPC method descriptor, mostly used for error logging.
+     * @param callable Server-streaming callable which implements the API method.
+     * @param transformer Transformer which converts each stanza into a stream of published items.
+     */
+    StreamPublisher(@Nonnull Logger logger,
+                    @Nonnull RPCOperation<Request> operation,
+                    @Nonnull MethodDescriptor<Request, Response> descriptor,
+                    @Nonnull ServerStreamingCallable<Request, Response> callable,
+                    @Nonnull Function<Response, Stream<T>> transformer) {
+        this.logger = logger;
+        this.operation = operation;
+        this.descriptor = descriptor;
+        this.callable = callable;
+        this.transformer = transformer;
+    }
+
+    /** @inheritDoc */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "cannot subscribe `null` subscriber");
+        var subscription = new StreamSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    // Add to a demand counter, capping at `Long.MAX_VALUE` (which means unbounded).
+    private static long addCap(long current, long n) {
+        long sum = current + n;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /** Subscription which bridges a single streaming call to a single subscriber. */
+    private final class StreamSubscription implements Flow.Subscription, ResponseObserver<Response> {
+        private final @Nonnull Flow.Subscriber<? super T> subscriber;
+        private final @Nonnull Queue<T> buffer = new ConcurrentLinkedQueue<>();
+        private final @Nonnull AtomicLong demand = new AtomicLong(0);
+        private final @Nonnull AtomicInteger wip = new AtomicInteger(0);
+        private final @Nonnull AtomicBoolean stanzaPending = new AtomicBoolean(false);
+        private volatile @Nullable StreamController controller;
+        private volatile @Nullable Throwable error;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        StreamSubscription(@Nonnull Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        // Start the underlying call, unless the subscriber already cancelled.
+        void start() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                callable.call(operation.request(), this, callContext(operation));
+            } catch (RuntimeException rxe) {
+                onError(rxe);
+                return;
+            }
+            drain();
+        }
+
+        // -- Interface: Flow Subscription -- //
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Subscriber demand must be positive (rule 3.9).");
+                done = true;
+                var current = controller;
+                if (current != null) {
+                    current.cancel();
+                }
+                drain();
+                return;
+            }
+            demand.getAndUpdate((current) -> addCap(current, n));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                var current = controller;
+                if (current != null) {
+                    current.cancel();
+                }
+                drain();
+            }
+        }
+
+        // -- Interface: Response Observer -- //
+
+        @Override
+        public void onStart(StreamController streamController) {
+            streamController.disableAutoInboundFlowControl();
+            this.controller = streamController;
+        }
+
+        @Override
+        public void onResponse(Response response) {
+            try {
+                transformer.apply(response).forEach(buffer::offer);
+            } catch (RuntimeException rxe) {
+                var current = controller;
+                if (current != null) {
+                    current.cancel();
+                }
+                onError(rxe);
+                return;
+            }
+            stanzaPending.set(false);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!done) {
+                // errors caused by our own cancellation are not reported.
+                if (!cancelled) {
+                    error = translateErr(
+                        logger,
+                        throwable instanceof RuntimeException ?
+                            (RuntimeException)throwable :
+                            new RuntimeException(throwable),
+                        operation.timeout(),
+                        descriptor
+                    );
+                }
+                done = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        // -- Delivery -- //
+
+        // Deliver buffered items against outstanding demand, then either finish the subscription, or request the next
+        // stanza if the buffer is empty and demand remains. Only one thread drains at a time; other callers just mark
+        // the loop as missed, so the draining thread makes another pass.
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (cancelled) {
+                    buffer.clear();
+                    return;
+                }
+                long requested = demand.get();
+                long emitted = 0;
+                while (emitted != requested) {
+                    var item = buffer.poll();
+                    if (item == null) {
+                        break;
+                    }
+                    subscriber.onNext(item);
+                    emitted++;
+                    if (cancelled) {
+                        buffer.clear();
+                        return;
+                    }
+                }
+                if (emitted > 0 && requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+
+                // a terminal signal is delivered once buffered items are drained, except for subscriber demand errors,
+                // which are delivered right away.
+                if (buffer.isEmpty() || error instanceof IllegalArgumentException) {
+                    if (done) {
+                        // terminal: deliver exactly one completion signal, and stop.
+                        cancelled = true;
+                        buffer.clear();
+                        var err = error;
+                        if (err != null) {
+                            subscriber.onError(err);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                        return;
+                    }
+                    var current = controller;
+                    if (current != null && demand.get() > 0 && stanzaPending.compareAndSet(false, true)) {
+                        current.request(1);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import co.cookies.sdk.storefront.v1.MenuRequestSpec;
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import cookies.schema.store.MenuResponse;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Opt-in cache of rendered menus, which sits in front of a {@link Storefront.MenuClient} and serves repeat requests for
+ * the same {@link MenuRequestSpec} from memory.
+ *
+ * <p>Entries are keyed by a private copy of the request spec (including its product lines), so later mutation of a
+ * caller's spec never affects cached entries. Each entry moves through three windows, measured from when it loaded:
+ * <ul>
+ *     <li><b>Fresh</b> (within the TTL): the cached menu is served as-is.</li>
+ *     <li><b>Stale</b> (within the stale-while-revalidate window after the TTL): the cached menu is served as-is,
+ *     and a single background refresh is started.</li>
+ *     <li><b>Expired</b>: callers wait on a load. If the load fails and the entry is still within the stale-if-error
+ *     window, the cached menu is served instead of the error.</li>
+ * </ul>
+ * At most one load runs per key at any time; concurrent callers share it.</p>
+ *
+ * <p>With {@link Builder#setDeltaRefresh(boolean)} enabled, background refreshes of stale entries go through a
+ * {@link MenuDelta}, which fetches the keys-only menu and hydrates only the products that changed. Loads which callers
+ * wait on always fetch the full menu.</p>
+ *
+ * <p>Instances are created via {@link #builder()}, and are safe for concurrent use.</p>
+ */
+@ThreadSafe
+public final class MenuCache {
+    /** Default time an entry is considered fresh. */
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+
+    /** Default time after the TTL in which a stale entry is served while refreshing. */
+    public static final Duration DEFAULT_STALE_WHILE_REVALIDATE = Duration.ofMinutes(5);
+
+    /** Default time after the TTL in which a stale entry is served if the backend is erroring. */
+    public static final Duration DEFAULT_STALE_IF_ERROR = Duration.ofHours(1);
+
+    /** Default maximum number of cached menus. */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    /** Client which menus are loaded from. */
+    private final @Nonnull Storefront.MenuClient client;
+
+    /** Source of time for entry ages. */
+    private final @Nonnull Ticker ticker;
+
+    /** Fresh window, in nanoseconds. */
+    private final long ttl;
+
+    /** End of the stale-while-revalidate window, in nanoseconds since load. */
+    private final long staleWhileRevalidate;
+
+    /** End of the stale-if-error window, in nanoseconds since load. */
+    private final long staleIfError;
+
+    /** Maximum number of cached menus. */
+    private final int maximumSize;
+
+    /** Delta refresher for background refreshes, if enabled. */
+    private final @Nullable MenuDelta delta;
+
+    /** Cached entries, by spec. */
+    private final @Nonnull ConcurrentHashMap<MenuRequestSpec, Entry> entries = new ConcurrentHashMap<>();
+
+    // -- Counters -- //
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong staleHits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong staleOnError = new AtomicLong(0);
+    private final AtomicLong loadSuccesses = new AtomicLong(0);
+    private final AtomicLong loadFailures = new AtomicLong(0);
+    private final AtomicLong loadTime = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    /** Cached menu, and any in-flight load for it. */
+    private static final class Entry {
+        /** Loaded menu and the tick at which it loaded, or `null` before the first successful load. */
+        final AtomicReference<Loaded> loaded = new AtomicReference<>(null);
+
+        /** In-flight load, if any. */
+        final AtomicReference<ListenableFuture<MenuResponse>> inflight = new AtomicReference<>(null);
+
+        /** Tick at which a caller last requested this menu, or {@link Long#MIN_VALUE} if never. */
+        final AtomicLong requested = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    /** Menu value paired with the tick at which it loaded. */
+    @Immutable
+    private static final class Loaded {
+        final MenuResponse menu;
+        final long at;
+
+        Loaded(MenuResponse menu, long at) {
+            this.menu = menu;
+            this.at = at;
+        }
+    }
+
+    /**
+     * Private constructor. Please use {@link #builder()}.
+     *
+     * @param builder Builder holding settings for this cache.
+     * @param client Client which menus are loaded from.
+     */
+    private MenuCache(@Nonnull Builder builder, @Nonnull Storefront.MenuClient client) {
+        this.client = client;
+        this.ticker = builder.ticker;
+        this.ttl = builder.ttl.toNanos();
+        this.staleWhileRevalidate = this.ttl + builder.staleWhileRevalidate.toNanos();
+        this.staleIfError = this.ttl + builder.staleIfError.toNanos();
+        this.maximumSize = builder.maximumSize;
+        this.delta = builder.deltaRefresh ? MenuDelta.of(client) : null;
+    }
+
+    /** Builder for {@link MenuCache} instances. */
+    public static final class Builder {
+        private Duration ttl = DEFAULT_TTL;
+        private Duration staleWhileRevalidate = DEFAULT_STALE_WHILE_REVALIDATE;
+        private Duration staleIfError = DEFAULT_STALE_IF_ERROR;
+        private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private Ticker ticker = Ticker.systemTicker();
+        private boolean deltaRefresh = false;
+
+        private Builder() { /* Use `MenuCache.builder()`. */ }
+
+        /**
+         * @param ttl Time for which a loaded menu is served without refreshing.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setTtl(@Nonnull Duration ttl) {
+            this.ttl = requirePositive(ttl, "ttl");
+            return this;
+        }
+
+        /**
+         * @param window Time after the TTL during which a stale menu is served while it refreshes in the background.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setStaleWhileRevalidate(@Nonnull Duration window) {
+            this.staleWhileRevalidate = requireNonNegative(window, "staleWhileRevalidate");
+            return this;
+        }
+
+        /**
+         * @param window Time after the TTL during which a stale menu is served if loading fails.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setStaleIfError(@Nonnull Duration window) {
+            this.staleIfError = requireNonNegative(window, "staleIfError");
+            return this;
+        }
+
+        /**
+         * @param maximumSize Maximum number of menus to hold; the least recently loaded are evicted first.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMaximumSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be positive, got " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param ticker Source of time for entry ages; mostly useful for testing.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setTicker(@Nonnull Ticker ticker) {
+            this.ticker = Objects.requireNonNull(ticker, "ticker");
+            return this;
+        }
+
+        /**
+         * @param deltaRefresh Whether background refreshes should apply a keys-only delta via {@link MenuDelta},
+         *                     rather than fetching the full menu. Defaults to `false`.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setDeltaRefresh(boolean deltaRefresh) {
+            this.deltaRefresh = deltaRefresh;
+            return this;
+        }
+
+        /**
+         * Build a menu cache in front of the provided client.
+         *
+         * @param client Client which menus are loaded from.
+         * @return Menu cache.
+         */
+        public @Nonnull MenuCache build(@Nonnull Storefront.MenuClient client) {
+            return new MenuCache(this, Objects.requireNonNull(client, "client"));
+        }
+
+        private static Duration requirePositive(Duration value, String name) {
+            if (value.isNegative() || value.isZero()) {
+                throw new IllegalArgumentException(name + " must be positive, got " + value);
+            }
+            return value;
+        }
+
+        private static Duration requireNonNegative(Duration value, String name) {
+            if (value.isNegative()) {
+                throw new IllegalArgumentException(name + " must not be negative, got " + value);
+            }
+            return value;
+        }
+    }
+
+    /** @return Builder for a menu cache, with default settings. */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    // -- API -- //
+
+    /**
+     * Retrieve the menu for the provided spec, from the cache where possible. See the class docs for the freshness
+     * rules applied.
+     *
+     * @param spec Menu request spec; copied, so callers may freely mutate it afterwards.
+     * @return Future for the rendered menu.
+     */
+    public @Nonnull ListenableFuture<MenuResponse> menu(@Nonnull MenuRequestSpec spec) {
+        var key = spec.copy();
+        var entry = entries.computeIfAbsent(key, (k) -> new Entry());
+        var now = ticker.read();
+        entry.requested.set(now);
+        var loaded = entry.loaded.get();
+        if (loaded != null) {
+            var age = now - loaded.at;
+            if (age < ttl) {
+                hits.incrementAndGet();
+                return Futures.immediateFuture(loaded.menu);
+            }
+            if (age < staleWhileRevalidate) {
+                staleHits.incrementAndGet();
+                load(key, entry, loaded);
+                return Futures.immediateFuture(loaded.menu);
+            }
+        }
+
+        misses.incrementAndGet();
+        var pending = load(key, entry, null);
+        if (loaded == null) {
+            return pending;
+        }
+        return Futures.catchingAsync(pending, Exception.class, (err) -> {
+            if (ticker.read() - loaded.at < staleIfError) {
+                staleOnError.incrementAndGet();
+                return Futures.immediateFuture(loaded.menu);
+            }
+            return Futures.immediateFailedFuture(err);
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Refresh the menu for the provided spec in the background, regardless of its freshness, or join the refresh
+     * already in flight. The entry is created if it doesn't exist yet; callers are not recorded as having requested it.
+     *
+     * @param spec Menu request spec to refresh; copied, so callers may freely mutate it afterwards.
+     * @return Future for the refreshed menu.
+     */
+    public @Nonnull ListenableFuture<MenuResponse> refresh(@Nonnull MenuRequestSpec spec) {
+        var key = spec.copy();
+        var entry = entries.computeIfAbsent(key, (k) -> new Entry());
+        return load(key, entry, entry.loaded.get());
+    }
+
+    /**
+     * @param spec Menu request spec to check.
+     * @return Time since the cached menu for the spec loaded, if one is cached.
+     */
+    public @Nonnull Optional<Duration> age(@Nonnull MenuRequestSpec spec) {
+        var entry = entries.get(spec);
+        var loaded = entry != null ? entry.loaded.get() : null;
+        return loaded == null ? Optional.empty() : Optional.of(Duration.ofNanos(ticker.read() - loaded.at));
+    }
+
+    /**
+     * @param spec Menu request spec to check.
+     * @return Time since a caller last requested the menu for the spec via {@link #menu(MenuRequestSpec)}, if ever.
+     */
+    public @Nonnull Optional<Duration> sinceRequested(@Nonnull MenuRequestSpec spec) {
+        var entry = entries.get(spec);
+        var requested = entry != null ? entry.requested.get() : Long.MIN_VALUE;
+        if (requested == Long.MIN_VALUE) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(ticker.read() - requested));
+    }
+
+    /**
+     * Drop any cached menu for the provided spec.
+     *
+     * @param spec Menu request spec to invalidate.
+     */
+    public void invalidate(@Nonnull MenuRequestSpec spec) {
+        entries.remove(spec);
+    }
+
+    /** Drop all cached menus. */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /** @return Count of cached menus, including entries which are still loading. */
+    public int size() {
+        return entries.size();
+    }
+
+    /** @return Point-in-time statistics for this cache. */
+    public @Nonnull Stats stats() {
+        return new AutoValue_MenuCache_Stats(
+            hits.get(),
+            staleHits.get(),
+            misses.get(),
+            staleOnError.get(),
+            loadSuccesses.get(),
+            loadFailures.get(),
+            Duration.ofNanos(loadTime.get()),
+            evictions.get()
+        );
+    }
+
+    /** @return Statistics for delta refreshes, if enabled. */
+    public @Nonnull Optional<MenuDelta.Stats> deltaStats() {
+        return Optional.ofNullable(delta).map(MenuDelta::stats);
+    }
+
+    // -- Internals -- //
+
+    /**
+     * Start a load for the provided entry, or join the one already in flight.
+     *
+     * @param key Spec to load.
+     * @param entry Entry to load into.
+     * @param stale Stale value being refreshed in the background, or `null` if callers are waiting on this load.
+     * @return Future for the loaded menu.
+     */
+    private @Nonnull ListenableFuture<MenuResponse> load(@Nonnull MenuRequestSpec key,
+                                                         @Nonnull Entry entry,
+                                                         @Nullable Loaded stale) {
+        SettableFuture<MenuResponse> future;
+        do {
+            var existing = entry.inflight.get();
+            if (existing != null) {
+                return Futures.nonCancellationPropagating(existing);
+            }
+            future = SettableFuture.create();
+        } while (!entry.inflight.compareAndSet(null, future));
+
+        // this caller won the slot, so it dispatches the load of record; everyone else joins it above.
+        var start = ticker.read();
+        try {
+            future.setFuture(delta != null && stale != null ? delta.refresh(key, stale.menu) : client.menu(key));
+        } catch (RuntimeException rxe) {
+            future.setException(rxe);
+        }
+        Futures.addCallback(future, new FutureCallback<>() {
+            @Override
+            public void onSuccess(MenuResponse menu) {
+                var now = ticker.read();
+                loadTime.addAndGet(now - start);
+                loadSuccesses.incrementAndGet();
+                entry.loaded.set(new Loaded(menu, now));
+                entry.inflight.set(null);
+                evictIfNeeded();
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable err) {
+                loadTime.addAndGet(ticker.read() - start);
+                loadFailures.incrementAndGet();
+                entry.inflight.set(null);
+                if (entry.loaded.get() == null) {
+                    // nothing to serve stale; don't hold an empty entry.
+                    entries.remove(key, entry);
+                } else {
+                    client.logger().warn("Menu refresh failed; serving stale menu until it expires", err);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+        return Futures.nonCancellationPropagating(future);
+    }
+
+    /** Evict the least recently loaded entries until the cache is within its maximum size. */
+    private void evictIfNeeded() {
+        while (entries.size() > maximumSize) {
+            var oldest = entries.entrySet().stream()
+                .filter((e) -> e.getValue().loaded.get() != null)
+                .min(Comparator.comparingLong((e) -> e.getValue().loaded.get().at));
+            if (oldest.isEmpty() || !entries.remove(oldest.get().getKey(), oldest.get().getValue())) {
+                return;
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    /** Point-in-time statistics for a {@link MenuCache}. */
+    @AutoValue @Immutable @ThreadSafe
+    public abstract static class Stats {
+        /** @return Count of requests served from a fresh entry. */
+        public abstract long hitCount();
+
+        /** @return Count of requests served from a stale entry while it refreshed. */
+        public abstract long staleHitCount();
+
+        /** @return Count of requests which had to wait on a load. */
+        public abstract long missCount();
+
+        /** @return Count of requests served from a stale entry because loading failed. */
+        public abstract long staleOnErrorCount();
+
+        /** @return Count of loads which succeeded. */
+        public abstract long loadSuccessCount();
+
+        /** @return Count of loads which failed. */
+        public abstract long loadFailureCount();
+
+        /** @return Total time spent loading, across all loads. */
+        public abstract @Nonnull Duration totalLoadTime();
+
+        /** @return Count of entries evicted to respect the maximum size. */
+        public abstract long evictionCount();
+
+        /** @return Average time per load, or zero if nothing has loaded. */
+        public @Nonnull Duration averageLoadPenalty() {
+            var loads = loadSuccessCount() + loadFailureCount();
+            return loads == 0 ? Duration.ZERO : totalLoadTime().dividedBy(loads);
+        }
+    }
+}
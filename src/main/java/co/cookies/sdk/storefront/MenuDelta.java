@@ -0,0 +1,369 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.storefront.v1.MenuRequestSpec;
+import com.google.auto.value.AutoValue;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import cookies.schema.ProductLine;
+import cookies.schema.store.MenuResponse;
+import cookies.schema.store.ProductGroupRequest;
+import cookies.schema.store.ProductGroupResponse;
+import cookies.schema.store.model.MenuMeta;
+import cookies.schema.store.model.MenuProduct;
+import cookies.schema.store.model.ProductLineFacet;
+import cookies.schema.store.model.UserLocation;
+import cookies.schema.store.model.VariantKey;
+import cookies.schema.store.model.Variants;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Refreshes a previously-fetched menu by way of its <i>keys-only</i> rendition, which is far smaller on the wire than
+ * the full menu.
+ *
+ * <p>A refresh fetches the keys-only menu for the same spec, and compares each product's keys (CGID, slug, sort, and
+ * variant CTINs with availability) against the previous full menu. Products whose keys are unchanged are reused as-is;
+ * new or changed products are hydrated in parallel via {@link Storefront.MenuClient#product(AsyncRPC)}, and products
+ * missing from the keys-only menu are dropped. Products come back in keys-only order, and the brand, strain, and
+ * product line facets of the previous menu's metadata are adjusted by the difference.</p>
+ *
+ * <p>Whenever a delta can't be applied faithfully (there is no previous menu, a product fails to hydrate, or a product
+ * references a brand or strain which the previous facets don't describe), the refresh falls back to a plain full
+ * fetch, so the result is always a complete menu. Note that product content outside the keys (such as price) is only
+ * re-fetched when the keys change, so callers relying on delta refreshes should still fetch the full menu from time to
+ * time; {@link MenuCache} does this for every blocking load.</p>
+ */
+@ThreadSafe
+public final class MenuDelta {
+    /** Client which menus and products are fetched from. */
+    private final @Nonnull Storefront.MenuClient client;
+
+    // -- Counters -- //
+
+    private final AtomicLong deltas = new AtomicLong(0);
+    private final AtomicLong fallbacks = new AtomicLong(0);
+    private final AtomicLong reused = new AtomicLong(0);
+    private final AtomicLong hydrated = new AtomicLong(0);
+
+    /**
+     * Private constructor. Please use {@link #of(Storefront.MenuClient)}.
+     *
+     * @param client Client which menus and products are fetched from.
+     */
+    private MenuDelta(@Nonnull Storefront.MenuClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Create a delta refresher which fetches through the provided client.
+     *
+     * @param client Client which menus and products are fetched from.
+     * @return Delta refresher.
+     */
+    public static @Nonnull MenuDelta of(@Nonnull Storefront.MenuClient client) {
+        return new MenuDelta(Objects.requireNonNull(client, "client"));
+    }
+
+    // -- API -- //
+
+    /**
+     * Refresh the provided menu, which must have been fetched (in full) for the provided spec.
+     *
+     * @param spec Spec which the previous menu was fetched with.
+     * @param previous Previous full menu for the spec.
+     * @return Future for the refreshed full menu.
+     */
+    public @Nonnull ListenableFuture<MenuResponse> refresh(@Nonnull MenuRequestSpec spec,
+                                                           @Nonnull MenuResponse previous) {
+        if (spec.isKeysOnly() || previous.getMenu().getProductCount() == 0) {
+            // keys-only menus have nothing to hydrate, and an empty menu has nothing to reuse.
+            return full(spec);
+        }
+        var keysOnly = spec.copy().setKeysOnly(true);
+        var market = spec.getLocation().map(UserLocation::getMarket).filter((m) -> !m.isEmpty());
+        ListenableFuture<Optional<MenuResponse>> delta;
+        try {
+            delta = Futures.transformAsync(
+                client.menu(keysOnly),
+                (keys) -> apply(market, previous, Objects.requireNonNull(keys)),
+                MoreExecutors.directExecutor()
+            );
+        } catch (RuntimeException rxe) {
+            delta = Futures.immediateFailedFuture(rxe);
+        }
+        var attempt = Futures.catching(delta, Exception.class, (err) -> {
+            client.logger().debug("Delta menu refresh failed; falling back to full fetch", err);
+            return Optional.<MenuResponse>empty();
+        }, MoreExecutors.directExecutor());
+        return Futures.transformAsync(
+            attempt,
+            (result) -> Objects.requireNonNull(result).isPresent() ?
+                Futures.immediateFuture(result.get()) :
+                full(spec),
+            MoreExecutors.directExecutor()
+        );
+    }
+
+    /** @return Point-in-time statistics for this refresher. */
+    public @Nonnull Stats stats() {
+        return new AutoValue_MenuDelta_Stats(
+            deltas.get(),
+            fallbacks.get(),
+            reused.get(),
+            hydrated.get()
+        );
+    }
+
+    // -- Internals -- //
+
+    /**
+     * Fetch the full menu for the provided spec, counting it as a fallback.
+     *
+     * @param spec Spec to fetch.
+     * @return Future for the full menu.
+     */
+    private @Nonnull ListenableFuture<MenuResponse> full(@Nonnull MenuRequestSpec spec) {
+        fallbacks.incrementAndGet();
+        return client.menu(spec);
+    }
+
+    /**
+     * Apply a keys-only menu to the previous full menu, hydrating whatever changed.
+     *
+     * @param market Market hint for product hydration, if any.
+     * @param previous Previous full menu.
+     * @param keys Keys-only menu just fetched.
+     * @return Future for the refreshed full menu, or empty if the delta can't be applied faithfully.
+     */
+    private @Nonnull ListenableFuture<Optional<MenuResponse>> apply(@Nonnull Optional<String> market,
+                                                                    @Nonnull MenuResponse previous,
+                                                                    @Nonnull MenuResponse keys) {
+        var prior = new HashMap<String, MenuProduct>(previous.getMenu().getProductCount());
+        for (var product : previous.getMenu().getProductList()) {
+            prior.put(product.getCgid(), product);
+        }
+
+        // walk the keys in order, holding reused products in place and hydrating the rest.
+        var keyList = keys.getMenu().getProductList();
+        var products = new ArrayList<MenuProduct>(keyList.size());
+        var pending = new ArrayList<Integer>();
+        var hydrations = new ArrayList<ListenableFuture<ProductGroupResponse>>();
+        for (var key : keyList) {
+            var existing = prior.get(key.getCgid());
+            if (existing != null && sameKeys(existing, key)) {
+                products.add(existing);
+            } else {
+                var request = ProductGroupRequest.newBuilder().setCgid(key.getCgid());
+                market.ifPresent(request::setMarket);
+                pending.add(products.size());
+                products.add(null);
+                hydrations.add(client.product(AsyncRPC.of(request.build())));
+            }
+        }
+
+        return Futures.transformAsync(Futures.allAsList(hydrations), (responses) -> {
+            for (var i = 0; i < pending.size(); i++) {
+                var response = Objects.requireNonNull(responses).get(i);
+                if (!response.hasProduct()) {
+                    // product vanished between the keys fetch and hydration; only a full fetch is consistent.
+                    return Futures.immediateFuture(Optional.empty());
+                }
+                products.set(pending.get(i), response.getProduct());
+            }
+            var meta = adjust(previous.getMenu().getMeta(), keys.getMenu().getMeta(),
+                previous.getMenu().getProductList(), products);
+            if (meta == null) {
+                return Futures.immediateFuture(Optional.empty());
+            }
+            deltas.incrementAndGet();
+            reused.addAndGet(products.size() - pending.size());
+            hydrated.addAndGet(pending.size());
+            var menu = previous.getMenu().toBuilder()
+                .setMeta(meta)
+                .clearProduct()
+                .addAllProduct(products);
+            return Futures.immediateFuture(Optional.of(previous.toBuilder().setMenu(menu).build()));
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Determine whether a previously fetched full product matches the provided keys-only product. Keys-only products
+     * omit sort when it is unchanged, list only variants which carry a CTIN, and may omit availability altogether, so
+     * sort is only compared when present, and availability only when the keys-only product reports it on some variant.
+     *
+     * @param full Product from the previous full menu.
+     * @param key Product from the keys-only menu.
+     * @return Whether the full product can be reused as-is.
+     */
+    static boolean sameKeys(@Nonnull MenuProduct full, @Nonnull MenuProduct key) {
+        if (!full.getCgid().equals(key.getCgid()) || !full.getSlug().equals(key.getSlug())) {
+            return false;
+        }
+        if (key.getSort() != 0 && key.getSort() != full.getSort()) {
+            return false;
+        }
+        var availability = key.getVariants().getVariantList().stream().anyMatch(VariantKey::getAvailable);
+        return variantKeys(full.getVariants(), availability).equals(variantKeys(key.getVariants(), availability));
+    }
+
+    /**
+     * @param variants Variants of a full or keys-only product.
+     * @param availability Whether to keep the availability of each variant.
+     * @return Only the key fields (CTIN and, optionally, availability) of each variant with a CTIN, in order.
+     */
+    private static @Nonnull List<VariantKey> variantKeys(@Nonnull Variants variants, boolean availability) {
+        var keys = new ArrayList<VariantKey>(variants.getVariantCount());
+        for (var variant : variants.getVariantList()) {
+            if (variant.getCtin().isEmpty()) {
+                continue;
+            }
+            keys.add(VariantKey.newBuilder()
+                .setCtin(variant.getCtin())
+                .setAvailable(availability && variant.getAvailable())
+                .build());
+        }
+        return keys;
+    }
+
+    /**
+     * Adjust the facets of the previous menu's metadata by the difference between the old and new product lists.
+     * Fields present on the keys-only metadata replace those on the previous metadata.
+     *
+     * @param previous Metadata from the previous full menu.
+     * @param keys Metadata from the keys-only menu.
+     * @param before Products from the previous full menu.
+     * @param after Products in the refreshed menu.
+     * @return Adjusted metadata, or `null` if a product references a facet the previous metadata doesn't describe.
+     */
+    static @Nullable MenuMeta adjust(@Nonnull MenuMeta previous,
+                                     @Nonnull MenuMeta keys,
+                                     @Nonnull List<MenuProduct> before,
+                                     @Nonnull List<MenuProduct> after) {
+        var brands = new HashMap<Integer, Integer>();
+        var strains = new HashMap<Integer, Integer>();
+        var lines = new LinkedHashMap<ProductLine, Integer>();
+        tally(before, -1, brands, strains, lines);
+        tally(after, 1, brands, strains, lines);
+
+        var meta = previous.toBuilder();
+        for (var field : keys.getAllFields().entrySet()) {
+            meta.setField(field.getKey(), field.getValue());
+        }
+        for (var brand : brands.entrySet()) {
+            var facet = previous.getBrandsMap().get(brand.getKey());
+            if (facet == null) {
+                return null;
+            }
+            var count = facet.getCount() + brand.getValue();
+            if (count > 0) {
+                meta.putBrands(brand.getKey(), facet.toBuilder().setCount(count).build());
+            } else {
+                meta.removeBrands(brand.getKey());
+            }
+        }
+        for (var strain : strains.entrySet()) {
+            var facet = previous.getStrainsMap().get(strain.getKey());
+            if (facet == null) {
+                return null;
+            }
+            var count = facet.getCount() + strain.getValue();
+            if (count > 0) {
+                meta.putStrains(strain.getKey(), facet.toBuilder().setCount(count).build());
+            } else {
+                meta.removeStrains(strain.getKey());
+            }
+        }
+
+        // product lines are a list; keep existing order, and append any lines which are new to this menu.
+        meta.clearProductLines();
+        for (var facet : previous.getProductLinesList()) {
+            var count = facet.getCount() + lines.getOrDefault(facet.getLine(), 0);
+            lines.remove(facet.getLine());
+            if (count > 0) {
+                meta.addProductLines(facet.toBuilder().setCount(count));
+            }
+        }
+        for (var line : lines.entrySet()) {
+            if (line.getValue() > 0) {
+                meta.addProductLines(ProductLineFacet.newBuilder()
+                    .setLine(line.getKey())
+                    .setCount(line.getValue()));
+            }
+        }
+        return meta.build();
+    }
+
+    /**
+     * Add each product's facets to the provided tallies, with the provided sign.
+     *
+     * @param products Products to tally.
+     * @param sign `1` to add, `-1` to subtract.
+     * @param brands Brand tallies.
+     * @param strains Strain tallies.
+     * @param lines Product line tallies.
+     */
+    private static void tally(@Nonnull List<MenuProduct> products,
+                              int sign,
+                              @Nonnull Map<Integer, Integer> brands,
+                              @Nonnull Map<Integer, Integer> strains,
+                              @Nonnull Map<ProductLine, Integer> lines) {
+        for (var product : products) {
+            var info = product.getInfo();
+            if (info.getBrand() != 0) {
+                brands.merge(info.getBrand(), sign, Integer::sum);
+            }
+            if (info.getStrain() != 0) {
+                strains.merge(info.getStrain(), sign, Integer::sum);
+            }
+            if (info.getLine() != ProductLine.PRODUCT_LINE_UNSPECIFIED) {
+                lines.merge(info.getLine(), sign, Integer::sum);
+            }
+        }
+        brands.values().removeIf((v) -> v == 0);
+        strains.values().removeIf((v) -> v == 0);
+        lines.values().removeIf((v) -> v == 0);
+    }
+
+    /** Point-in-time statistics for a {@link MenuDelta}. */
+    @AutoValue @Immutable @ThreadSafe
+    public abstract static class Stats {
+        /** @return Count of refreshes served by applying a delta. */
+        public abstract long deltaCount();
+
+        /** @return Count of refreshes which fell back to a full fetch. */
+        public abstract long fallbackCount();
+
+        /** @return Count of products reused from a previous menu. */
+        public abstract long reusedCount();
+
+        /** @return Count of products hydrated individually. */
+        public abstract long hydratedCount();
+    }
+}
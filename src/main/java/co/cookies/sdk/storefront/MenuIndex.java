@@ -0,0 +1,579 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import cookies.schema.ProductLine;
+import cookies.schema.store.MenuResponse;
+import cookies.schema.store.model.BrandFacet;
+import cookies.schema.store.model.Menu;
+import cookies.schema.store.model.MenuMeta;
+import cookies.schema.store.model.MenuProduct;
+import cookies.schema.store.model.ProductFlag;
+import cookies.schema.store.model.ProductKind;
+import cookies.schema.store.model.ProductLineFacet;
+import cookies.schema.store.model.StrainFacet;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.*;
+import java.util.stream.IntStream;
+
+
+/**
+ * In-memory, faceted index over the products in a rendered menu, which answers filter, facet, and sort queries locally
+ * rather than re-querying the Menu API for each change.
+ *
+ * <p>Each facet value ({@code info.line}, {@code info.kind}, {@code info.flag}, {@code info.brand},
+ * {@code info.strain}, and {@code info.category}) holds a bitset of the products carrying it, and prices are held in a
+ * sorted array for range queries. A {@link Query} combines facets conjunctively, and values within one facet
+ * disjunctively; facet counts on the {@link Result} are computed per facet against every <i>other</i> active filter,
+ * so that counts for a facet's alternatives remain useful while one of them is selected.</p>
+ *
+ * <p>Indexes are immutable once built, and are safe to share between threads. Build a new index for each new menu.</p>
+ */
+@Immutable @ThreadSafe
+public final class MenuIndex {
+    /** Source menu. */
+    private final @Nonnull Menu menu;
+
+    /** Products, by position. */
+    private final @Nonnull ImmutableList<MenuProduct> products;
+
+    /** Postings by product line. */
+    private final @Nonnull ImmutableMap<ProductLine, BitSet> lines;
+
+    /** Postings by product kind. */
+    private final @Nonnull ImmutableMap<ProductKind, BitSet> kinds;
+
+    /** Postings by product flag. */
+    private final @Nonnull ImmutableMap<ProductFlag, BitSet> flags;
+
+    /** Postings by brand reference. */
+    private final @Nonnull ImmutableMap<Integer, BitSet> brands;
+
+    /** Postings by strain reference. */
+    private final @Nonnull ImmutableMap<Integer, BitSet> strains;
+
+    /** Postings by category. */
+    private final @Nonnull ImmutableMap<String, BitSet> categories;
+
+    /** Product prices, ascending. */
+    private final @Nonnull double[] prices;
+
+    /** Product positions, in ascending price order (parallel to {@link #prices}). */
+    private final @Nonnull int[] byPrice;
+
+    /** Product positions, in menu sort order. */
+    private final @Nonnull int[] bySort;
+
+    /** Product positions, in name order. */
+    private final @Nonnull int[] byName;
+
+    /** Sort orders supported by menu index queries. */
+    public enum Sort {
+        /** Order assigned by the menu itself, via each product's {@code sort} value. */
+        MENU,
+
+        /** Ascending price. */
+        PRICE_ASCENDING,
+
+        /** Descending price. */
+        PRICE_DESCENDING,
+
+        /** Product name, alphabetically. */
+        NAME
+    }
+
+    /**
+     * Private constructor. Please use {@link #of(MenuResponse)}.
+     *
+     * @param menu Menu to index.
+     */
+    private MenuIndex(@Nonnull Menu menu) {
+        this.menu = menu;
+        this.products = ImmutableList.copyOf(menu.getProductList());
+
+        var lines = new EnumMap<ProductLine, BitSet>(ProductLine.class);
+        var kinds = new EnumMap<ProductKind, BitSet>(ProductKind.class);
+        var flags = new EnumMap<ProductFlag, BitSet>(ProductFlag.class);
+        var brands = new HashMap<Integer, BitSet>();
+        var strains = new HashMap<Integer, BitSet>();
+        var categories = new HashMap<String, BitSet>();
+        for (int i = 0; i < products.size(); i++) {
+            var info = products.get(i).getInfo();
+            lines.computeIfAbsent(info.getLine(), (k) -> new BitSet()).set(i);
+            kinds.computeIfAbsent(info.getKind(), (k) -> new BitSet()).set(i);
+            for (var flag : info.getFlagList()) {
+                flags.computeIfAbsent(flag, (k) -> new BitSet()).set(i);
+            }
+            if (info.getBrand() != 0) {
+                brands.computeIfAbsent(info.getBrand(), (k) -> new BitSet()).set(i);
+            }
+            if (info.getStrain() != 0) {
+                strains.computeIfAbsent(info.getStrain(), (k) -> new BitSet()).set(i);
+            }
+            if (!info.getCategory().isEmpty()) {
+                categories.computeIfAbsent(info.getCategory(), (k) -> new BitSet()).set(i);
+            }
+        }
+        this.lines = ImmutableMap.copyOf(lines);
+        this.kinds = ImmutableMap.copyOf(kinds);
+        this.flags = ImmutableMap.copyOf(flags);
+        this.brands = ImmutableMap.copyOf(brands);
+        this.strains = ImmutableMap.copyOf(strains);
+        this.categories = ImmutableMap.copyOf(categories);
+
+        this.byPrice = order(Comparator.comparingDouble((MenuProduct p) -> p.getPrice().getValue()));
+        this.prices = new double[byPrice.length];
+        for (int i = 0; i < byPrice.length; i++) {
+            prices[i] = products.get(byPrice[i]).getPrice().getValue();
+        }
+        this.bySort = order(Comparator.comparingInt(MenuProduct::getSort));
+        this.byName = order(Comparator.comparing((MenuProduct p) -> p.getInfo().getName()));
+    }
+
+    /**
+     * Compute product positions in the order given by the provided comparator, breaking ties by position.
+     *
+     * @param comparator Product comparator.
+     * @return Ordered positions.
+     */
+    private int[] order(@Nonnull Comparator<MenuProduct> comparator) {
+        return IntStream.range(0, products.size())
+            .boxed()
+            .sorted(Comparator.comparing(products::get, comparator))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    // -- Factories -- //
+
+    /**
+     * Build an index over the products in the provided menu response.
+     *
+     * @param response Menu response to index.
+     * @return Menu index.
+     */
+    public static @Nonnull MenuIndex of(@Nonnull MenuResponse response) {
+        return of(response.getMenu());
+    }
+
+    /**
+     * Build an index over the products in the provided menu.
+     *
+     * @param menu Menu to index.
+     * @return Menu index.
+     */
+    public static @Nonnull MenuIndex of(@Nonnull Menu menu) {
+        return new MenuIndex(Objects.requireNonNull(menu, "cannot index null menu"));
+    }
+
+    // -- API -- //
+
+    /** @return Count of products in this index. */
+    public int size() {
+        return products.size();
+    }
+
+    /** @return All products in this index, in menu order. */
+    public @Nonnull ImmutableList<MenuProduct> products() {
+        return products;
+    }
+
+    /**
+     * Answer the provided query against this index.
+     *
+     * @param query Query to answer.
+     * @return Matching products, and facet counts.
+     */
+    public @Nonnull Result query(@Nonnull Query query) {
+        var line = union(lines, query.lines);
+        var kind = union(kinds, query.kinds);
+        var flag = union(flags, query.flags);
+        var brand = union(brands, query.brands);
+        var strain = union(strains, query.strains);
+        var category = union(categories, query.categories);
+        var price = priceRange(query.minPrice, query.maxPrice);
+
+        var matched = all();
+        for (var mask : Arrays.asList(line, kind, flag, brand, strain, category, price)) {
+            if (mask != null) {
+                matched.and(mask);
+            }
+        }
+
+        // each facet is counted against every other active filter, but not its own.
+        var lineCounts = count(lines, except(matched, line, kind, flag, brand, strain, category, price));
+        var kindCounts = count(kinds, except(matched, kind, line, flag, brand, strain, category, price));
+        var flagCounts = count(flags, except(matched, flag, line, kind, brand, strain, category, price));
+        var brandCounts = count(brands, except(matched, brand, line, kind, flag, strain, category, price));
+        var strainCounts = count(strains, except(matched, strain, line, kind, flag, brand, category, price));
+        var categoryCounts = count(categories, except(matched, category, line, kind, flag, brand, strain, price));
+
+        var ordered = new ArrayList<MenuProduct>(matched.cardinality());
+        var order = query.sort == Sort.MENU ? bySort : query.sort == Sort.NAME ? byName : byPrice;
+        if (query.sort == Sort.PRICE_DESCENDING) {
+            for (int i = order.length - 1; i >= 0; i--) {
+                if (matched.get(order[i])) ordered.add(products.get(order[i]));
+            }
+        } else {
+            for (int position : order) {
+                if (matched.get(position)) ordered.add(products.get(position));
+            }
+        }
+        var from = Math.min(query.offset, ordered.size());
+        var to = (int) Math.min((long) from + query.limit, ordered.size());
+
+        return new Result(
+            ImmutableList.copyOf(ordered.subList(from, to)),
+            ordered.size(),
+            lineCounts,
+            kindCounts,
+            flagCounts,
+            brandCounts,
+            strainCounts,
+            categoryCounts,
+            menu.getMeta()
+        );
+    }
+
+    // -- Internals -- //
+
+    /** @return Bitset with every product set. */
+    private @Nonnull BitSet all() {
+        var bits = new BitSet(products.size());
+        bits.set(0, products.size());
+        return bits;
+    }
+
+    /**
+     * Union the postings for the selected facet values.
+     *
+     * @param postings Postings for one facet.
+     * @param selected Selected values; if empty, the facet is inactive.
+     * @param <K> Facet value type.
+     * @return Union of postings, or {@code null} if the facet is inactive.
+     */
+    private static <K> BitSet union(@Nonnull Map<K, BitSet> postings, @Nonnull Set<K> selected) {
+        if (selected.isEmpty()) {
+            return null;
+        }
+        var bits = new BitSet();
+        for (var value : selected) {
+            var posting = postings.get(value);
+            if (posting != null) {
+                bits.or(posting);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Select products priced within the provided (inclusive) range, via binary search over the sorted price array.
+     *
+     * @param min Minimum price, or {@code null} for no minimum.
+     * @param max Maximum price, or {@code null} for no maximum.
+     * @return Products within the range, or {@code null} if the range is unbounded.
+     */
+    private BitSet priceRange(Double min, Double max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        var from = min == null ? 0 : lowerBound(min);
+        var to = max == null ? prices.length : upperBound(max);
+        var bits = new BitSet(products.size());
+        for (int i = from; i < to; i++) {
+            bits.set(byPrice[i]);
+        }
+        return bits;
+    }
+
+    /** @return First index in the price array holding a value {@code >= value}. */
+    private int lowerBound(double value) {
+        int lo = 0, hi = prices.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] < value) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** @return First index in the price array holding a value {@code > value}. */
+    private int upperBound(double value) {
+        int lo = 0, hi = prices.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] <= value) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Compute the mask of products matching every active filter except one.
+     *
+     * @param matched Products matching every active filter.
+     * @param excluded Mask of the filter to leave out, or {@code null} if it is inactive.
+     * @param others Masks of every other filter, each {@code null} if inactive.
+     * @return Mask for counting the excluded facet.
+     */
+    private BitSet except(@Nonnull BitSet matched, BitSet excluded, @Nonnull BitSet... others) {
+        if (excluded == null) {
+            return matched;
+        }
+        var bits = all();
+        for (var mask : others) {
+            if (mask != null) {
+                bits.and(mask);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Count, for every value of a facet, the products within the provided mask.
+     *
+     * @param postings Postings for one facet.
+     * @param mask Mask to count within.
+     * @param <K> Facet value type.
+     * @return Counts by facet value, omitting zero counts.
+     */
+    private static <K> ImmutableMap<K, Integer> count(@Nonnull Map<K, BitSet> postings, @Nonnull BitSet mask) {
+        var counts = ImmutableMap.<K, Integer>builder();
+        for (var entry : postings.entrySet()) {
+            var bits = (BitSet) entry.getValue().clone();
+            bits.and(mask);
+            var count = bits.cardinality();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts.build();
+    }
+
+    /**
+     * Specifies filters, sort order, and paging for a {@link MenuIndex} query. Values within one facet match any of the
+     * selected values; separate facets must all match. Facets with no selected values are not applied.
+     */
+    @NotThreadSafe
+    public static final class Query {
+        private final Set<ProductLine> lines = EnumSet.noneOf(ProductLine.class);
+        private final Set<ProductKind> kinds = EnumSet.noneOf(ProductKind.class);
+        private final Set<ProductFlag> flags = EnumSet.noneOf(ProductFlag.class);
+        private final Set<Integer> brands = new HashSet<>();
+        private final Set<Integer> strains = new HashSet<>();
+        private final Set<String> categories = new HashSet<>();
+        private Double minPrice = null;
+        private Double maxPrice = null;
+        private Sort sort = Sort.MENU;
+        private int offset = 0;
+        private int limit = Integer.MAX_VALUE;
+
+        private Query() { /* Use `MenuIndex.query()`. */ }
+
+        /**
+         * @param values Product lines to match.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Query addLines(@Nonnull ProductLine... values) {
+            lines.addAll(Arrays.asList(values));
+            return this;
+        }
+
+        /**
+         * @param values Product kinds to match.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Query addKinds(@Nonnull ProductKind... values) {
+            kinds.addAll(Arrays.asList(values));
+            return this;
+        }
+
+        /**
+         * @param values Product flags to match.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Query addFlags(@Nonnull ProductFlag... values) {
+            flags.addAll(Arrays.asList(values));
+            return this;
+        }
+
+        /**
+         * @param values Brand references (keys of {@code menu.meta.brands}) to match.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Query addBrands(@Nonnull Integer... values) {
+            brands.addAll(Arrays.asList(values));
+            return this;
+        }
+
+        /**
+         * @param values Strain references (keys of {@code menu.meta.strains}) to match.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Query addStrains(@Nonnull Integer... values) {
+            strains.addAll(Arrays.asList(values));
+            return this;
+        }
+
+        /**
+         * @param values Categories to match.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Query addCategories(@Nonnull String... values) {
+            categories.addAll(Arrays.asList(values));
+            return this;
+        }
+
+        /**
+         * @param min Minimum price (inclusive), or empty for no minimum.
+         * @param max Maximum price (inclusive), or empty for no maximum.
+         * @return Self, for chaining.
+         */
+        @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+        public @Nonnull Query setPriceRange(@Nonnull OptionalDouble min, @Nonnull OptionalDouble max) {
+            this.minPrice = min.isPresent() ? min.getAsDouble() : null;
+            this.maxPrice = max.isPresent() ? max.getAsDouble() : null;
+            return this;
+        }
+
+        /**
+         * @param sort Order for matching products.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Query setSort(@Nonnull Sort sort) {
+            this.sort = Objects.requireNonNull(sort, "sort");
+            return this;
+        }
+
+        /**
+         * @param offset Count of matching products to skip.
+         * @param limit Maximum count of matching products to return.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Query setPage(int offset, int limit) {
+            if (offset < 0 || limit < 0) {
+                throw new IllegalArgumentException("offset and limit must not be negative");
+            }
+            this.offset = offset;
+            this.limit = limit;
+            return this;
+        }
+    }
+
+    /** @return New, empty query, which matches every product in menu order. */
+    public static @Nonnull Query query() {
+        return new Query();
+    }
+
+    /** Products matching a {@link Query}, along with facet counts. */
+    @Immutable
+    public static final class Result {
+        private final @Nonnull ImmutableList<MenuProduct> products;
+        private final int total;
+        private final @Nonnull ImmutableMap<ProductLine, Integer> lines;
+        private final @Nonnull ImmutableMap<ProductKind, Integer> kinds;
+        private final @Nonnull ImmutableMap<ProductFlag, Integer> flags;
+        private final @Nonnull ImmutableMap<Integer, Integer> brands;
+        private final @Nonnull ImmutableMap<Integer, Integer> strains;
+        private final @Nonnull ImmutableMap<String, Integer> categories;
+        private final @Nonnull MenuMeta source;
+
+        private Result(@Nonnull ImmutableList<MenuProduct> products,
+                       int total,
+                       @Nonnull ImmutableMap<ProductLine, Integer> lines,
+                       @Nonnull ImmutableMap<ProductKind, Integer> kinds,
+                       @Nonnull ImmutableMap<ProductFlag, Integer> flags,
+                       @Nonnull ImmutableMap<Integer, Integer> brands,
+                       @Nonnull ImmutableMap<Integer, Integer> strains,
+                       @Nonnull ImmutableMap<String, Integer> categories,
+                       @Nonnull MenuMeta source) {
+            this.products = products;
+            this.total = total;
+            this.lines = lines;
+            this.kinds = kinds;
+            this.flags = flags;
+            this.brands = brands;
+            this.strains = strains;
+            this.categories = categories;
+            this.source = source;
+        }
+
+        /** @return Matching products within the requested page, in the requested order. */
+        public @Nonnull ImmutableList<MenuProduct> products() {
+            return products;
+        }
+
+        /** @return Count of matching products, before paging. */
+        public int total() {
+            return total;
+        }
+
+        /** @return Product counts by product line. */
+        public @Nonnull ImmutableMap<ProductLine, Integer> lineCounts() {
+            return lines;
+        }
+
+        /** @return Product counts by product kind. */
+        public @Nonnull ImmutableMap<ProductKind, Integer> kindCounts() {
+            return kinds;
+        }
+
+        /** @return Product counts by product flag. */
+        public @Nonnull ImmutableMap<ProductFlag, Integer> flagCounts() {
+            return flags;
+        }
+
+        /** @return Product counts by brand reference. */
+        public @Nonnull ImmutableMap<Integer, Integer> brandCounts() {
+            return brands;
+        }
+
+        /** @return Product counts by strain reference. */
+        public @Nonnull ImmutableMap<Integer, Integer> strainCounts() {
+            return strains;
+        }
+
+        /** @return Product counts by category. */
+        public @Nonnull ImmutableMap<String, Integer> categoryCounts() {
+            return categories;
+        }
+
+        /**
+         * Render brand, strain, and product line counts in the same shape as {@code menu.meta}, carrying the brand and
+         * strain records from the source menu.
+         *
+         * @return Menu metadata with counts for this result.
+         */
+        public @Nonnull MenuMeta meta() {
+            var meta = MenuMeta.newBuilder();
+            brands.forEach((ref, count) -> meta.putBrands(ref, BrandFacet.newBuilder()
+                .setBrand(source.getBrandsOrDefault(ref, BrandFacet.getDefaultInstance()).getBrand())
+                .setCount(count)
+                .build()));
+            strains.forEach((ref, count) -> meta.putStrains(ref, StrainFacet.newBuilder()
+                .setStrain(source.getStrainsOrDefault(ref, StrainFacet.getDefaultInstance()).getStrain())
+                .setCount(count)
+                .build()));
+            lines.forEach((line, count) -> meta.addProductLines(ProductLineFacet.newBuilder()
+                .setLine(line)
+                .setCount(count)
+                .build()));
+            return meta.build();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.storefront.v1.MenuRequestSpec;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import cookies.schema.store.MenuResponse;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Keeps a fixed set of menus warm in a {@link MenuCache}, by refreshing each of them on a schedule, so that the first
+ * request after a TTL expiry for a hot store doesn't pay full menu latency.
+ *
+ * <p>Specs are typically built via {@link MenuRequestSpec#forStore}, {@link MenuRequestSpec#forUserLocation}, and so
+ * on. Each round runs on a jittered interval, so that many SDK instances prewarming the same stores don't refresh in
+ * lockstep. Within a round, specs which callers requested most recently are refreshed first, and at most a fixed number
+ * of refreshes run at once; refreshes go through {@link MenuCache#refresh(MenuRequestSpec)}, so they share in-flight
+ * loads (and delta refreshes, if enabled) with the cache's own callers.</p>
+ *
+ * <p>Per-spec refresh lag, meaning the age of the cached menu, is available via {@link #lag(MenuRequestSpec)} and
+ * {@link #stats()}. Prewarming starts with {@link #start()} and stops with {@link #close()}.</p>
+ */
+@ThreadSafe
+public final class MenuPrewarmer implements Closeable {
+    /** Default interval between prewarm rounds. */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(20);
+
+    /** Default jitter applied to the interval, as a fraction of it in either direction. */
+    public static final double DEFAULT_JITTER = 0.1;
+
+    /** Default maximum number of refreshes in flight at once. */
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    /** Cache which menus are refreshed into. */
+    private final @Nonnull MenuCache cache;
+
+    /** Scheduler for prewarm rounds. */
+    private final @Nonnull ScheduledExecutorService scheduler;
+
+    /** Interval between rounds, in nanoseconds. */
+    private final long interval;
+
+    /** Jitter applied to the interval, as a fraction of it. */
+    private final double jitter;
+
+    /** Permits for in-flight refreshes. */
+    private final @Nonnull Semaphore permits;
+
+    /** Specs to prewarm, with their state, in the order they were added. */
+    private final @Nonnull ImmutableList<Target> targets;
+
+    /** Targets waiting for a permit in the current round, highest priority first. */
+    private final @Nonnull ArrayDeque<Target> pending = new ArrayDeque<>();
+
+    /** Next scheduled round, if any. */
+    private final @Nonnull AtomicReference<ScheduledFuture<?>> scheduled = new AtomicReference<>(null);
+
+    /** Tracks whether prewarming has started. */
+    private final @Nonnull AtomicBoolean started = new AtomicBoolean(false);
+
+    /** Tracks whether this prewarmer is closed. */
+    private final @Nonnull AtomicBoolean closed = new AtomicBoolean(false);
+
+    /** Count of rounds started. */
+    private final @Nonnull AtomicLong rounds = new AtomicLong(0);
+
+    /** Spec to prewarm, and its refresh state. */
+    private static final class Target {
+        final MenuRequestSpec spec;
+        final AtomicBoolean inflight = new AtomicBoolean(false);
+        final AtomicLong refreshes = new AtomicLong(0);
+        final AtomicLong failures = new AtomicLong(0);
+        final AtomicLong lastRefreshTime = new AtomicLong(0);
+
+        Target(MenuRequestSpec spec) {
+            this.spec = spec;
+        }
+    }
+
+    /**
+     * Private constructor. Please use {@link #builder()}.
+     *
+     * @param builder Builder holding settings for this prewarmer.
+     * @param cache Cache which menus are refreshed into.
+     */
+    private MenuPrewarmer(@Nonnull Builder builder, @Nonnull MenuCache cache) {
+        this.cache = cache;
+        this.scheduler = builder.scheduler != null ? builder.scheduler : ExecutionEngine.shared().timer();
+        this.interval = builder.interval.toNanos();
+        this.jitter = builder.jitter;
+        this.permits = new Semaphore(builder.maxConcurrency);
+        var targets = ImmutableList.<Target>builder();
+        builder.specs.values().forEach((spec) -> targets.add(new Target(spec)));
+        this.targets = targets.build();
+    }
+
+    /** Builder for {@link MenuPrewarmer} instances. */
+    public static final class Builder {
+        private Duration interval = DEFAULT_INTERVAL;
+        private double jitter = DEFAULT_JITTER;
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private ScheduledExecutorService scheduler = null;
+        private final LinkedHashMap<MenuRequestSpec, MenuRequestSpec> specs = new LinkedHashMap<>();
+
+        private Builder() { /* Use `MenuPrewarmer.builder()`. */ }
+
+        /**
+         * @param interval Interval between prewarm rounds; this should be shorter than the cache's TTL.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setInterval(@Nonnull Duration interval) {
+            if (interval.isNegative() || interval.isZero()) {
+                throw new IllegalArgumentException("interval must be positive, got " + interval);
+            }
+            this.interval = interval;
+            return this;
+        }
+
+        /**
+         * @param jitter Fraction of the interval by which each round may run early or late, in `[0, 1)`.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setJitter(double jitter) {
+            if (!(jitter >= 0 && jitter < 1)) {
+                throw new IllegalArgumentException("jitter must be in [0, 1), got " + jitter);
+            }
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency Maximum number of refreshes in flight at once.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be positive, got " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param scheduler Scheduler for prewarm rounds; defaults to the shared execution engine's timer.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder setScheduler(@Nonnull ScheduledExecutorService scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+            return this;
+        }
+
+        /**
+         * @param specs Menu request specs to prewarm; each is copied, and duplicates are ignored.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder addSpecs(@Nonnull MenuRequestSpec... specs) {
+            return addSpecs(Arrays.asList(specs));
+        }
+
+        /**
+         * @param specs Menu request specs to prewarm; each is copied, and duplicates are ignored.
+         * @return Self, for chaining.
+         */
+        public @Nonnull Builder addSpecs(@Nonnull Collection<MenuRequestSpec> specs) {
+            for (var spec : specs) {
+                var copy = Objects.requireNonNull(spec, "spec").copy();
+                this.specs.putIfAbsent(copy, copy);
+            }
+            return this;
+        }
+
+        /**
+         * Build a prewarmer which refreshes into the provided cache. Prewarming does not begin until {@link #start()}.
+         *
+         * @param cache Menu cache to keep warm.
+         * @return Menu prewarmer.
+         */
+        public @Nonnull MenuPrewarmer build(@Nonnull MenuCache cache) {
+            return new MenuPrewarmer(this, Objects.requireNonNull(cache, "cache"));
+        }
+    }
+
+    /** @return Builder for a menu prewarmer, with default settings. */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    // -- Lifecycle -- //
+
+    /** Start prewarming, with an immediate first round, if not already started. Later calls are no-ops. */
+    public void start() {
+        if (started.compareAndSet(false, true) && !closed.get()) {
+            scheduled.set(scheduler.schedule(this::round, 0, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /** Stop prewarming. Refreshes already in flight complete, but nothing new is dispatched. */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            var next = scheduled.getAndSet(null);
+            if (next != null) {
+                next.cancel(false);
+            }
+            synchronized (pending) {
+                pending.clear();
+            }
+        }
+    }
+
+    // -- Stats -- //
+
+    /**
+     * @param spec Menu request spec to check.
+     * @return Refresh lag for the spec, meaning the age of its cached menu, if one is cached.
+     */
+    public @Nonnull Optional<Duration> lag(@Nonnull MenuRequestSpec spec) {
+        return cache.age(spec);
+    }
+
+    /** @return Count of prewarm rounds started. */
+    public long roundCount() {
+        return rounds.get();
+    }
+
+    /** @return Point-in-time statistics for each prewarmed spec, in the order they were added. */
+    public @Nonnull ImmutableMap<MenuRequestSpec, SpecStats> stats() {
+        var stats = ImmutableMap.<MenuRequestSpec, SpecStats>builder();
+        for (var target : targets) {
+            stats.put(target.spec.copy(), new AutoValue_MenuPrewarmer_SpecStats(
+                cache.age(target.spec),
+                cache.sinceRequested(target.spec),
+                target.refreshes.get(),
+                target.failures.get(),
+                Duration.ofNanos(target.lastRefreshTime.get())
+            ));
+        }
+        return stats.build();
+    }
+
+    // -- Internals -- //
+
+    /** Run a prewarm round, then schedule the next one. */
+    void round() {
+        if (closed.get()) {
+            return;
+        }
+        rounds.incrementAndGet();
+
+        // most recently requested first; specs nobody has requested yet go last, in the order they were added.
+        var ordered = new ArrayList<>(targets);
+        ordered.sort(Comparator.comparing(
+            (Target target) -> cache.sinceRequested(target.spec).orElse(null),
+            Comparator.nullsLast(Comparator.naturalOrder())
+        ));
+        synchronized (pending) {
+            // anything left over from the last round is superseded by this one.
+            pending.clear();
+            pending.addAll(ordered);
+        }
+        drain();
+
+        if (!closed.get()) {
+            scheduled.set(scheduler.schedule(this::round, nextDelay(), TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /** @return Delay before the next round, in nanoseconds, with jitter applied. */
+    long nextDelay() {
+        var spread = jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(0, Math.round(interval * (1 + spread)));
+    }
+
+    /** Dispatch pending refreshes for as long as permits are available. */
+    private void drain() {
+        while (!closed.get() && permits.tryAcquire()) {
+            Target target;
+            synchronized (pending) {
+                target = pending.poll();
+            }
+            if (target == null) {
+                permits.release();
+                return;
+            }
+            if (!target.inflight.compareAndSet(false, true)) {
+                // still refreshing from an earlier round; that refresh covers this one.
+                permits.release();
+                continue;
+            }
+            dispatch(target);
+        }
+    }
+
+    /**
+     * Refresh a single target into the cache, releasing its permit (and dispatching more work) once done.
+     *
+     * @param target Target to refresh.
+     */
+    private void dispatch(@Nonnull Target target) {
+        var start = System.nanoTime();
+        var future = cache.refresh(target.spec);
+        Futures.addCallback(future, new FutureCallback<MenuResponse>() {
+            @Override
+            public void onSuccess(MenuResponse result) {
+                target.refreshes.incrementAndGet();
+                done();
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable err) {
+                target.failures.incrementAndGet();
+                done();
+            }
+
+            private void done() {
+                target.lastRefreshTime.set(System.nanoTime() - start);
+                target.inflight.set(false);
+                permits.release();
+                drain();
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /** Point-in-time statistics for one spec kept warm by a {@link MenuPrewarmer}. */
+    @AutoValue @Immutable @ThreadSafe
+    public abstract static class SpecStats {
+        /** @return Refresh lag, meaning the age of the cached menu, if one is cached. */
+        public abstract @Nonnull Optional<Duration> lag();
+
+        /** @return Time since a caller last requested this menu from the cache, if ever. */
+        public abstract @Nonnull Optional<Duration> sinceRequested();
+
+        /** @return Count of successful refreshes. */
+        public abstract long refreshCount();
+
+        /** @return Count of failed refreshes. */
+        public abstract long failureCount();
+
+        /** @return Duration of the most recent refresh, or zero if none has completed. */
+        public abstract @Nonnull Duration lastRefreshTime();
+    }
+}
@@ -69,6 +69,25 @@ public final class MenuRequestSpec implements Serializable {
 
     // -- Object Copy -- //
 
+    /**
+     * Produce an independent copy of this menu request specification, such that later mutations to either instance are
+     * not reflected in the other.
+     *
+     * @return Copied menu request spec.
+     */
+    public @Nonnull MenuRequestSpec copy() {
+        var copy = new MenuRequestSpec(
+            locale,
+            location,
+            storeKey,
+            userId
+        );
+        copy.productLines.clear();
+        copy.productLines.addAll(productLines);
+        copy.keysOnly = keysOnly;
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -88,6 +107,9 @@ public final class MenuRequestSpec implements Serializable {
         ) && Objects.equals(
             isKeysOnly(),
             that.isKeysOnly()
+        ) && Objects.equals(
+            getProductLines(),
+            that.getProductLines()
         );
     }
 
@@ -98,7 +120,8 @@ public final class MenuRequestSpec implements Serializable {
             getLocation(),
             getStoreKey(),
             getUserId(),
-            isKeysOnly()
+            isKeysOnly(),
+            getProductLines()
         );
     }
 
@@ -21,26 +21,25 @@ import co.cookies.sdk.exceptions.ServiceSetupError;
 import co.cookies.sdk.services.AsyncRPC;
 import co.cookies.sdk.services.BaseService;
 import co.cookies.sdk.services.BaseServiceInfo;
+import co.cookies.sdk.services.ServiceOptions;
+import co.cookies.sdk.services.SyncRPC;
 import co.cookies.sdk.storefront.Storefront;
 import co.cookies.sdk.storefront.v1.err.UsernameIneligibleError;
 import co.cookies.sdk.storefront.v1.err.UsernameInvalidError;
 import co.cookies.sdk.storefront.v1.stub.MenuV1Stub;
 import co.cookies.sdk.storefront.v1.stub.ProfileV1Stub;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import cookies.schema.store.*;
 import cookies.schema.store.model.StoreUser;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServiceDescriptor;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
-import org.slf4j.ILoggerFactory;
-import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import java.util.Optional;
-import java.util.concurrent.Executors;
 
 import static co.cookies.sdk.SDKUtil.protect;
 import static com.google.common.util.concurrent.Futures.catching;
@@ -109,16 +108,28 @@ public final class StorefrontClientV1 implements Storefront {
             public boolean authorizationRequired() {
                 return false;
             }
+
+            // gRPC descriptor for this service.
+            @Override
+            public @Nonnull Optional<ServiceDescriptor> serviceDescriptor() {
+                return Optional.of(MenuV1Grpc.getServiceDescriptor());
+            }
+
+            // Every Menu method is a read, and so may be retried.
+            @Override
+            public boolean retryable(@Nonnull MethodDescriptor<?, ?> method) {
+                return true;
+            }
         }
 
         /**
          * Private constructor. Please use static factories.
          *
          * @param menuClient Menu client object to mount.
-         * @param serviceLogger Logger for this service.
+         * @param serviceOptions Options for this service.
          */
-        private MenuClientV1(@Nonnull MenuV1Client menuClient, @Nonnull ILoggerFactory serviceLogger) {
-            super(INFO, menuClient, serviceLogger);
+        private MenuClientV1(@Nonnull MenuV1Client menuClient, @Nonnull ServiceOptions serviceOptions) {
+            super(INFO, menuClient, serviceOptions);
         }
 
         // -- Static Factories -- //
@@ -144,7 +155,7 @@ public final class StorefrontClientV1 implements Storefront {
                     .setCredentialsProvider(configuration.credentialsProvider())
                     .setTransportChannelProvider(configuration.transportChannelProvider())
                     .build()),
-                configuration.loggerFactory()
+                ServiceOptions.from(configuration)
             ));
         }
 
@@ -158,7 +169,7 @@ public final class StorefrontClientV1 implements Storefront {
         public static @Nonnull MenuClientV1 defaults() {
             return protect(ServiceSetupError::new, () -> new MenuClientV1(
                 MenuV1Client.create(),
-                LoggerFactory.getILoggerFactory()
+                ServiceOptions.defaults()
             ));
         }
 
@@ -172,43 +183,61 @@ public final class StorefrontClientV1 implements Storefront {
         public static @Nonnull MenuClientV1 forStub(@Nonnull MenuV1Stub stub) {
             return protect(ServiceSetupError::new, () -> new MenuClientV1(
                 MenuV1Client.create(stub),
-                LoggerFactory.getILoggerFactory()
+                ServiceOptions.defaults()
+            ));
+        }
+
+        /**
+         * Create an instance of the Menu Client backed directly with the provided stub and service options, including
+         * the execution engine and logger factory to use.
+         *
+         * @param stub Service stub to use for the newly-minted client facade.
+         * @param options Service options to use for the newly-minted client facade.
+         * @return Menu client facade.
+         */
+        public static @Nonnull MenuClientV1 forStub(@Nonnull MenuV1Stub stub, @Nonnull ServiceOptions options) {
+            return protect(ServiceSetupError::new, () -> new MenuClientV1(
+                MenuV1Client.create(stub),
+                options
             ));
         }
 
-        // -- Compliance: Base Service -- //
+        // -- Implementation: Menu V1 -- //
 
         /** @inheritDoc */
         @Override
-        public @Nonnull ListeningScheduledExecutorService executorService() {
-            if (service().getSettings() != null) {
-                return MoreExecutors.listeningDecorator(
-                    service().getSettings().getBackgroundExecutorProvider().getExecutor()
-                );
-            }
-
-            // no custom executor: use a single-thread scheduled executor.
-            return MoreExecutors.listeningDecorator(
-                Executors.newSingleThreadScheduledExecutor()
+        public @Nonnull MenuResponse menu(@Nonnull SyncRPC<MenuRequest> rpc) {
+            return read(
+                rpc,
+                MenuV1Grpc.getMenuMethod(),
+                service().menuCallable()
             );
         }
 
-        // -- Implementation: Menu V1 -- //
-
         /** @inheritDoc */
         @Override
         public @Nonnull ListenableFuture<MenuResponse> menu(@Nonnull AsyncRPC<MenuRequest> rpc) {
-            return execute(
+            return read(
                 rpc,
                 MenuV1Grpc.getMenuMethod(),
                 service().menuCallable()::futureCall
             );
         }
 
+        /** @inheritDoc */
+        @Override
+        public @Nonnull ProductGroupResponse product(@Nonnull SyncRPC<ProductGroupRequest> rpc) {
+            return read(
+                rpc,
+                MenuV1Grpc.getProductFetchMethod(),
+                service().productFetchCallable()
+            );
+        }
+
         /** @inheritDoc */
         @Override
         public @Nonnull ListenableFuture<ProductGroupResponse> product(@Nonnull AsyncRPC<ProductGroupRequest> rpc) {
-            return execute(
+            return read(
                 rpc,
                 MenuV1Grpc.getProductFetchMethod(),
                 service().productFetchCallable()::futureCall
@@ -260,16 +289,30 @@ public final class StorefrontClientV1 implements Storefront {
             public boolean authorizationRequired() {
                 return true;
             }
+
+            // gRPC descriptor for this service.
+            @Override
+            public @Nonnull Optional<ServiceDescriptor> serviceDescriptor() {
+                return Optional.of(ProfileV1Grpc.getServiceDescriptor());
+            }
+
+            // Profile reads may be retried; writes (updates, avatar changes) are retried only if marked safe.
+            @Override
+            public boolean retryable(@Nonnull MethodDescriptor<?, ?> method) {
+                return method.equals(ProfileV1Grpc.getProfileMethod()) ||
+                       method.equals(ProfileV1Grpc.getProfileUsernameCheckMethod()) ||
+                       super.retryable(method);
+            }
         }
 
         /**
          * Private constructor. Please use static factories.
          *
          * @param profileClient Profile client object to mount.
-         * @param serviceLogger Logger for this service.
+         * @param serviceOptions Options for this service.
          */
-        public ProfileClientV1(@Nonnull ProfileV1Client profileClient, @Nonnull ILoggerFactory serviceLogger) {
-            super(INFO, profileClient, serviceLogger);
+        public ProfileClientV1(@Nonnull ProfileV1Client profileClient, @Nonnull ServiceOptions serviceOptions) {
+            super(INFO, profileClient, serviceOptions);
         }
 
         // -- Static Factories -- //
@@ -295,7 +338,7 @@ public final class StorefrontClientV1 implements Storefront {
                             .setCredentialsProvider(configuration.credentialsProvider())
                             .setTransportChannelProvider(configuration.transportChannelProvider())
                             .build()),
-                    configuration.loggerFactory()
+                    ServiceOptions.from(configuration)
             ));
         }
 
@@ -309,7 +352,7 @@ public final class StorefrontClientV1 implements Storefront {
         public static @Nonnull ProfileClientV1 defaults() {
             return protect(ServiceSetupError::new, () -> new ProfileClientV1(
                     ProfileV1Client.create(),
-                    LoggerFactory.getILoggerFactory()
+                    ServiceOptions.defaults()
             ));
         }
 
@@ -323,25 +366,23 @@ public final class StorefrontClientV1 implements Storefront {
         public static @Nonnull ProfileClientV1 forStub(@Nonnull ProfileV1Stub stub) {
             return protect(ServiceSetupError::new, () -> new ProfileClientV1(
                     ProfileV1Client.create(stub),
-                    LoggerFactory.getILoggerFactory()
+                    ServiceOptions.defaults()
             ));
         }
 
-        // -- Compliance: Base Service -- //
-
-        /** @inheritDoc */
-        @Override
-        public @Nonnull ListeningScheduledExecutorService executorService() {
-            if (service().getSettings() != null) {
-                return MoreExecutors.listeningDecorator(
-                    service().getSettings().getBackgroundExecutorProvider().getExecutor()
-                );
-            }
-
-            // no custom executor: use a single-thread scheduled executor.
-            return MoreExecutors.listeningDecorator(
-                Executors.newSingleThreadScheduledExecutor()
-            );
+        /**
+         * Create an instance of the Profile Client backed directly with the provided stub and service options, including
+         * the execution engine and logger factory to use.
+         *
+         * @param stub Service stub to use for the newly-minted client facade.
+         * @param options Service options to use for the newly-minted client facade.
+         * @return Profile client facade.
+         */
+        public static @Nonnull ProfileClientV1 forStub(@Nonnull ProfileV1Stub stub, @Nonnull ServiceOptions options) {
+            return protect(ServiceSetupError::new, () -> new ProfileClientV1(
+                    ProfileV1Client.create(stub),
+                    options
+            ));
         }
 
         // -- Implementation: Profile V1 -- //
@@ -382,7 +423,18 @@ public final class StorefrontClientV1 implements Storefront {
                 }
                 // rethrow
                 throw (exc != null ? exc : Status.INTERNAL.asRuntimeException());
-            }, executorService());
+            }, engine().direct());
+        }
+
+        /** @inheritDoc */
+        @Override
+        public @Nonnull Optional<ProfileResponse> fetch(@Nonnull SyncRPC<ProfileRequest> rpc) {
+            return execute(
+                rpc,
+                ProfileV1Grpc.getProfileMethod(),
+                service().profileCallable(),
+                Optional::of
+            );
         }
 
         /** @inheritDoc */
@@ -396,6 +448,16 @@ public final class StorefrontClientV1 implements Storefront {
             );
         }
 
+        /** @inheritDoc */
+        @Override
+        public @Nonnull StoreUser update(@Nonnull SyncRPC<ProfileUpdateRequest> rpc) {
+            return execute(
+                rpc,
+                ProfileV1Grpc.getProfileUpdateMethod(),
+                service().profileUpdateCallable()
+            );
+        }
+
         /** @inheritDoc */
         @Override
         public @Nonnull ListenableFuture<StoreUser> update(@Nonnull AsyncRPC<ProfileUpdateRequest> rpc) {
@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.transport;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+
+/**
+ * Fixed-size pool of gRPC channels to a single endpoint, which itself behaves as one {@link ManagedChannel}, so that
+ * every service in an SDK manager can share the same set of connections.
+ *
+ * <p>Each new call is placed on the channel with the fewest outstanding calls (ties rotate round-robin), so that load
+ * spreads across connections and no single HTTP/2 connection's concurrent-stream limit caps throughput. A call is
+ * outstanding from the moment it starts until it closes.</p>
+ *
+ * <p>Shutting down the pool shuts down every channel in it.</p>
+ */
+@ThreadSafe
+public final class ChannelPool extends ManagedChannel {
+    /** Default number of channels in a pool. */
+    public static final int DEFAULT_SIZE = 2;
+
+    /** Channels in this pool. */
+    private final @Nonnull ImmutableList<ManagedChannel> channels;
+
+    /** Outstanding calls on each channel, by index. */
+    private final @Nonnull AtomicInteger[] outstanding;
+
+    /** Rotates the starting point of each least-loaded scan, so that ties spread across channels. */
+    private final @Nonnull AtomicInteger cursor = new AtomicInteger(0);
+
+    /**
+     * Private constructor. Please use {@link #create(int, Supplier)} or {@link #of(List)}.
+     *
+     * @param channels Channels to pool.
+     */
+    private ChannelPool(@Nonnull ImmutableList<ManagedChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("Channel pool requires at least one channel.");
+        }
+        this.channels = channels;
+        this.outstanding = new AtomicInteger[channels.size()];
+        for (var i = 0; i < outstanding.length; i++) {
+            outstanding[i] = new AtomicInteger(0);
+        }
+    }
+
+    /**
+     * Create a pool of the provided size, spawning each channel from the provided factory.
+     *
+     * @param size Number of channels to hold.
+     * @param factory Factory which builds one channel to the pooled endpoint per call.
+     * @return Channel pool.
+     */
+    public static @Nonnull ChannelPool create(int size, @Nonnull Supplier<ManagedChannel> factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Channel pool size must be positive, got " + size);
+        }
+        var channels = ImmutableList.<ManagedChannel>builderWithExpectedSize(size);
+        for (var i = 0; i < size; i++) {
+            channels.add(Objects.requireNonNull(factory.get(), "channel"));
+        }
+        return new ChannelPool(channels.build());
+    }
+
+    /**
+     * Create a pool over the provided channels, which must all point at the same endpoint.
+     *
+     * @param channels Channels to pool.
+     * @return Channel pool.
+     */
+    public static @Nonnull ChannelPool of(@Nonnull List<ManagedChannel> channels) {
+        return new ChannelPool(ImmutableList.copyOf(channels));
+    }
+
+    // -- Connection -- //
+
+    /**
+     * Ask every channel in the pool to connect, and wait until all of them are ready, so that the first real call on
+     * each doesn't pay for DNS resolution, TLS, and HTTP/2 setup.
+     *
+     * <p>The returned future fails with {@link Status#UNAVAILABLE} if any channel fails to connect or is shut down;
+     * channels which don't report connectivity state are considered ready.</p>
+     *
+     * @return Future which resolves once every channel is ready.
+     */
+    public @Nonnull ListenableFuture<Void> connect() {
+        var ready = new ArrayList<ListenableFuture<Void>>(channels.size());
+        for (var channel : channels) {
+            var future = SettableFuture.<Void>create();
+            awaitReady(channel, future);
+            ready.add(future);
+        }
+        return Futures.whenAllSucceed(ready).call(() -> null, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Resolve the provided future once the channel is ready, re-arming a state watch until it is.
+     *
+     * @param channel Channel to connect.
+     * @param future Future to resolve.
+     */
+    private static void awaitReady(@Nonnull ManagedChannel channel, @Nonnull SettableFuture<Void> future) {
+        ConnectivityState state;
+        try {
+            state = channel.getState(true);
+        } catch (UnsupportedOperationException uoe) {
+            // channel doesn't track its state; nothing to wait for.
+            future.set(null);
+            return;
+        }
+        switch (state) {
+            case READY:
+                future.set(null);
+                return;
+            case TRANSIENT_FAILURE:
+            case SHUTDOWN:
+                future.setException(Status.UNAVAILABLE
+                    .withDescription(format("Channel to '%s' failed to connect (%s).", channel.authority(), state))
+                    .asRuntimeException());
+                return;
+            default:
+                channel.notifyWhenStateChanged(state, () -> awaitReady(channel, future));
+        }
+    }
+
+    // -- Stats -- //
+
+    /** @return Number of channels in this pool. */
+    public int size() {
+        return channels.size();
+    }
+
+    /** @return Outstanding call count for each channel in this pool, by index. */
+    public @Nonnull ImmutableList<Integer> outstanding() {
+        var counts = ImmutableList.<Integer>builderWithExpectedSize(outstanding.length);
+        for (var count : outstanding) {
+            counts.add(count.get());
+        }
+        return counts.build();
+    }
+
+    // -- Internals -- //
+
+    /** @return Index of the channel with the fewest outstanding calls. */
+    int pick() {
+        var size = outstanding.length;
+        var start = Math.floorMod(cursor.getAndIncrement(), size);
+        var best = start;
+        var bestLoad = outstanding[start].get();
+        for (var i = 1; i < size && bestLoad > 0; i++) {
+            var candidate = (start + i) % size;
+            var load = outstanding[candidate].get();
+            if (load < bestLoad) {
+                best = candidate;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /** Call which counts against its channel's load from start until close. */
+    private static final class CountedCall<Req, Resp>
+            extends ForwardingClientCall.SimpleForwardingClientCall<Req, Resp> {
+        private final AtomicInteger load;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        CountedCall(ClientCall<Req, Resp> delegate, AtomicInteger load) {
+            super(delegate);
+            this.load = load;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                load.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void start(Listener<Resp> listener, Metadata headers) {
+            load.incrementAndGet();
+            try {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(listener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        release();
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            } catch (RuntimeException rxe) {
+                release();
+                throw rxe;
+            }
+        }
+    }
+
+    // -- Interface: Channel -- //
+
+    @Override
+    public <Req, Resp> ClientCall<Req, Resp> newCall(MethodDescriptor<Req, Resp> method, CallOptions options) {
+        var index = pick();
+        return new CountedCall<>(channels.get(index).newCall(method, options), outstanding[index]);
+    }
+
+    @Override
+    public String authority() {
+        return channels.get(0).authority();
+    }
+
+    // -- Interface: Managed Channel -- //
+
+    @Override
+    public ManagedChannel shutdown() {
+        channels.forEach(ManagedChannel::shutdown);
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return channels.stream().allMatch(ManagedChannel::isShutdown);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return channels.stream().allMatch(ManagedChannel::isTerminated);
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        channels.forEach(ManagedChannel::shutdownNow);
+        return this;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (var channel : channels) {
+            var remaining = deadline - System.nanoTime();
+            if (!channel.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
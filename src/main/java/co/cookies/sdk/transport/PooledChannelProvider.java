@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.transport;
+
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.TransportChannel;
+import com.google.api.gax.rpc.TransportChannelProvider;
+import com.google.auth.Credentials;
+import com.google.common.collect.ImmutableMap;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.stub.MetadataUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Transport channel provider which hands every service the same {@link ChannelPool}, rather than building a fresh
+ * channel (and fresh connections) for each one.
+ *
+ * <p>Each service's headers are still applied to its own calls, via a header interceptor layered over the shared pool.
+ * Channels handed out by this provider never close the pool; its lifecycle belongs to whoever created it (usually the
+ * {@link co.cookies.sdk.CookiesSDKManager}).</p>
+ */
+@Immutable @ThreadSafe
+public final class PooledChannelProvider implements TransportChannelProvider {
+    /** Header which the channel itself sets, and which gRPC discards from call metadata. */
+    private static final String USER_AGENT = "user-agent";
+
+    /** Shared pool of channels. */
+    private final @Nonnull ChannelPool pool;
+
+    /** Headers to apply to each call, or `null` if not yet provided. */
+    private final @Nullable ImmutableMap<String, String> headers;
+
+    /**
+     * Private constructor. Please use {@link #of(ChannelPool)}.
+     *
+     * @param pool Shared pool of channels.
+     * @param headers Headers to apply to each call, if provided.
+     */
+    private PooledChannelProvider(@Nonnull ChannelPool pool, @Nullable ImmutableMap<String, String> headers) {
+        this.pool = pool;
+        this.headers = headers;
+    }
+
+    /**
+     * Create a provider which hands out the provided pool.
+     *
+     * @param pool Shared pool of channels.
+     * @return Pooled channel provider.
+     */
+    public static @Nonnull PooledChannelProvider of(@Nonnull ChannelPool pool) {
+        return new PooledChannelProvider(Objects.requireNonNull(pool, "pool"), null);
+    }
+
+    /** @return Shared pool of channels handed out by this provider. */
+    public @Nonnull ChannelPool pool() {
+        return pool;
+    }
+
+    /** Non-owning view of the pool, which applies headers and ignores shutdown. */
+    private static final class SharedChannel extends ManagedChannel {
+        private final ChannelPool pool;
+        private final Channel intercepted;
+
+        SharedChannel(ChannelPool pool, Channel intercepted) {
+            this.pool = pool;
+            this.intercepted = intercepted;
+        }
+
+        @Override
+        public <Req, Resp> ClientCall<Req, Resp> newCall(MethodDescriptor<Req, Resp> method, CallOptions options) {
+            return intercepted.newCall(method, options);
+        }
+
+        @Override
+        public String authority() {
+            return pool.authority();
+        }
+
+        @Override
+        public ManagedChannel shutdown() {
+            // the pool outlives any one service.
+            return this;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return pool.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return pool.isTerminated();
+        }
+
+        @Override
+        public ManagedChannel shutdownNow() {
+            return this;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return pool.isTerminated();
+        }
+    }
+
+    // -- Interface: Transport Channel Provider -- //
+
+    @Override
+    public boolean shouldAutoClose() {
+        return false;
+    }
+
+    // deprecated in gax, but still abstract on TransportChannelProvider; pooled channels bring their own executor.
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean needsExecutor() {
+        return false;
+    }
+
+    @Override
+    public TransportChannelProvider withExecutor(Executor executor) {
+        throw new UnsupportedOperationException("PooledChannelProvider doesn't need an executor");
+    }
+
+    // deprecated in gax, but still abstract on TransportChannelProvider, so it must be implemented.
+    @Override
+    @SuppressWarnings("deprecation")
+    public TransportChannelProvider withExecutor(ScheduledExecutorService executor) {
+        throw new UnsupportedOperationException("PooledChannelProvider doesn't need an executor");
+    }
+
+    @Override
+    public boolean needsHeaders() {
+        return headers == null;
+    }
+
+    @Override
+    public TransportChannelProvider withHeaders(Map<String, String> headers) {
+        return new PooledChannelProvider(pool, ImmutableMap.copyOf(headers));
+    }
+
+    @Override
+    public boolean needsEndpoint() {
+        return false;
+    }
+
+    @Override
+    public TransportChannelProvider withEndpoint(String endpoint) {
+        throw new UnsupportedOperationException("PooledChannelProvider doesn't need an endpoint");
+    }
+
+    @Override
+    public boolean acceptsPoolSize() {
+        return false;
+    }
+
+    @Override
+    public TransportChannelProvider withPoolSize(int size) {
+        throw new UnsupportedOperationException("PooledChannelProvider doesn't allow pool size customization");
+    }
+
+    @Override
+    public boolean needsCredentials() {
+        return false;
+    }
+
+    @Override
+    public TransportChannelProvider withCredentials(Credentials credentials) {
+        throw new UnsupportedOperationException("PooledChannelProvider doesn't need credentials");
+    }
+
+    @Override
+    public TransportChannel getTransportChannel() {
+        Channel channel = pool;
+        if (headers != null) {
+            var metadata = new Metadata();
+            headers.forEach((name, value) -> {
+                if (!USER_AGENT.equalsIgnoreCase(name)) {
+                    metadata.put(Metadata.Key.of(name, Metadata.ASCII_STRING_MARSHALLER), value);
+                }
+            });
+            channel = ClientInterceptors.intercept(pool, MetadataUtils.newAttachHeadersInterceptor(metadata));
+        }
+        return GrpcTransportChannel.create(new SharedChannel(pool, channel));
+    }
+
+    @Override
+    public String getTransportName() {
+        return GrpcTransportChannel.getGrpcTransportName();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.transport;
+
+import co.cookies.sdk.services.ServiceInfo;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collection;
+import java.util.Map;
+
+
+/**
+ * Generates a gRPC service config which enables transparent retries, with exponential backoff, for each retryable
+ * method of a set of services; this lets the transport itself retry transient failures (such as a connection dropped
+ * by a load balancer), rather than surfacing them as errors.
+ *
+ * <p>Methods are selected via {@link ServiceInfo#retryable(MethodDescriptor)}, so writes which are not safe to repeat
+ * are left out. Retries are also throttled per-channel, so that a struggling backend is not met with a retry storm:
+ * once too many calls have failed, retries stop until enough calls succeed again.</p>
+ *
+ * <p>The generated config is in the parsed-JSON form accepted by
+ * {@link io.grpc.ManagedChannelBuilder#defaultServiceConfig(Map)}; numbers are expressed as doubles.</p>
+ */
+@Immutable @ThreadSafe
+public final class RetryServiceConfig {
+    /** Maximum number of attempts for each call, including the original attempt. */
+    public static final int MAX_ATTEMPTS = 3;
+
+    /** Backoff before the first retry; later backoffs grow exponentially. */
+    public static final String INITIAL_BACKOFF = "0.1s";
+
+    /** Upper bound on the backoff between retries. */
+    public static final String MAX_BACKOFF = "1s";
+
+    /** Multiplier applied to the backoff after each retry. */
+    public static final double BACKOFF_MULTIPLIER = 2.0;
+
+    /** Status codes which are retried; only transient transport failures qualify. */
+    public static final ImmutableList<Status.Code> RETRYABLE_CODES = ImmutableList.of(Status.Code.UNAVAILABLE);
+
+    /** Size of each channel's retry token bucket; retries stop once it drops to half. */
+    public static final double THROTTLE_MAX_TOKENS = 10.0;
+
+    /** Tokens returned to the bucket for each successful call (each failure costs one token). */
+    public static final double THROTTLE_TOKEN_RATIO = 0.1;
+
+    private RetryServiceConfig() { /* Disallow construction. */ }
+
+    /**
+     * Generate a retry service config covering each retryable method of the provided services. Services which do not
+     * provide a {@link ServiceInfo#serviceDescriptor()} are skipped.
+     *
+     * @param services Services to generate retry configuration for.
+     * @return Service config, in parsed-JSON form.
+     */
+    public static @Nonnull Map<String, ?> forServices(@Nonnull Collection<? extends ServiceInfo> services) {
+        var names = ImmutableList.<Map<String, ?>>builder();
+        for (var info : services) {
+            info.serviceDescriptor().ifPresent(descriptor -> {
+                for (var method : descriptor.getMethods()) {
+                    if (info.retryable(method)) {
+                        names.add(ImmutableMap.of(
+                            "service", descriptor.getName(),
+                            "method", method.getBareMethodName()
+                        ));
+                    }
+                }
+            });
+        }
+        var codes = ImmutableList.<String>builder();
+        for (var code : RETRYABLE_CODES) {
+            codes.add(code.name());
+        }
+
+        var config = ImmutableMap.<String, Object>builder();
+        var methods = names.build();
+        if (!methods.isEmpty()) {
+            config.put("methodConfig", ImmutableList.of(ImmutableMap.of(
+                "name", methods,
+                "retryPolicy", ImmutableMap.of(
+                    "maxAttempts", (double) MAX_ATTEMPTS,
+                    "initialBackoff", INITIAL_BACKOFF,
+                    "maxBackoff", MAX_BACKOFF,
+                    "backoffMultiplier", BACKOFF_MULTIPLIER,
+                    "retryableStatusCodes", codes.build()
+                )
+            )));
+        }
+        config.put("retryThrottling", ImmutableMap.of(
+            "maxTokens", THROTTLE_MAX_TOKENS,
+            "tokenRatio", THROTTLE_TOKEN_RATIO
+        ));
+        return config.build();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.services;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * Access to virtual threads, where supported by the running JVM.
+ *
+ * <p>This is the JDK 21 implementation, packaged under {@code META-INF/versions/21} in the multi-release JAR, which
+ * spawns a new virtual thread per task.</p>
+ */
+public final class VirtualThreads {
+    private VirtualThreads() { /* Disallow construction. */ }
+
+    /** @return Whether virtual threads are available on this JVM. */
+    public static boolean available() {
+        return true;
+    }
+
+    /**
+     * Create an executor which runs each task on a new virtual thread, if virtual threads are available.
+     *
+     * @param prefix Name prefix for spawned threads.
+     * @return Executor backed by virtual threads, or {@link Optional#empty()} if unavailable.
+     */
+    public static @Nonnull Optional<ExecutorService> executor(@Nonnull String prefix) {
+        return Optional.of(Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name(prefix, 0).factory()
+        ));
+    }
+}
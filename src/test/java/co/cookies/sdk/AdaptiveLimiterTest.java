@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk;
+
+import co.cookies.sdk.exceptions.RPCOverloadException;
+import co.cookies.sdk.services.AdaptiveLimiter;
+import co.cookies.sdk.services.LimiterPolicy;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link AdaptiveLimiter} used by services to bound in-flight calls. */
+public final class AdaptiveLimiterTest {
+    private ScheduledExecutorService timer;
+
+    @BeforeEach void setUp() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach void tearDown() {
+        timer.shutdownNow();
+    }
+
+    private AdaptiveLimiter limiter(LimiterPolicy.Builder policy) {
+        return AdaptiveLimiter.create("test:v1", policy.build(), timer);
+    }
+
+    private static RuntimeException unavailable() {
+        return ApiExceptionFactory.createException(
+            Status.UNAVAILABLE.asRuntimeException(),
+            GrpcStatusCode.of(Status.Code.UNAVAILABLE),
+            true
+        );
+    }
+
+    @Test void testPolicyValidation() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LimiterPolicy.builder().setInitialLimit(0),
+            "initial limit must be positive"
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LimiterPolicy.builder().setMaxWait(Duration.ofMillis(-1)),
+            "max wait must not be negative"
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LimiterPolicy.builder().setInitialLimit(50).setMaxLimit(10).build(),
+            "initial limit must be within range"
+        );
+        assertNotNull(LimiterPolicy.defaults(), "default policy should be valid");
+    }
+
+    @Test void testFailFast() throws Exception {
+        var limiter = limiter(LimiterPolicy.builder().setInitialLimit(2));
+        var first = SettableFuture.<String>create();
+        var second = SettableFuture.<String>create();
+        limiter.run(() -> first);
+        limiter.run(() -> second);
+        assertEquals(2, limiter.inflight(), "both calls should hold permits");
+
+        var refused = limiter.run(() -> Futures.immediateFuture("never"));
+        assertTrue(refused.isDone(), "calls at the limit should fail fast by default");
+        var err = assertThrows(ExecutionException.class, refused::get, "refused call should fail");
+        assertTrue(err.getCause() instanceof RPCOverloadException, "refusal should raise an overload error");
+        assertThrows(
+            RPCOverloadException.class,
+            () -> limiter.call(() -> "never"),
+            "blocking calls at the limit should fail fast by default"
+        );
+        assertEquals(2, limiter.stats().rejectedCount(), "refusals should be counted");
+
+        first.set("done");
+        assertEquals(1, limiter.inflight(), "completed calls should release their permits");
+        assertEquals("ok", limiter.call(() -> "ok"), "calls should be admitted once a permit frees up");
+        second.cancel(false);
+        assertEquals(0, limiter.inflight(), "cancelled calls should release their permits");
+    }
+
+    @Test void testQueueHandoff() throws Exception {
+        var limiter = limiter(LimiterPolicy.builder().setInitialLimit(1).setMaxWait(Duration.ofSeconds(30)));
+        var first = SettableFuture.<String>create();
+        limiter.run(() -> first);
+        var queued = limiter.run(() -> Futures.immediateFuture("queued"));
+        assertFalse(queued.isDone(), "calls at the limit should wait for a permit");
+        assertEquals(1, limiter.stats().queued(), "waiting call should be counted");
+
+        first.set("done");
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS), "released permit should pass to the waiting call");
+        assertEquals(0, limiter.inflight(), "every permit should be released");
+    }
+
+    @Test void testQueueExpiry() {
+        var limiter = limiter(LimiterPolicy.builder().setInitialLimit(1).setMaxWait(Duration.ofMillis(50)));
+        var first = SettableFuture.<String>create();
+        limiter.run(() -> first);
+        var queued = limiter.run(() -> Futures.immediateFuture("never"));
+        var err = assertThrows(
+            ExecutionException.class,
+            () -> queued.get(5, TimeUnit.SECONDS),
+            "waiting call should fail once its wait expires"
+        );
+        assertTrue(err.getCause() instanceof RPCOverloadException, "expired wait should raise an overload error");
+        first.set("done");
+        assertEquals(0, limiter.inflight(), "expired waiters should not take permits");
+    }
+
+    @Test void testQueueBound() {
+        var limiter = limiter(LimiterPolicy.builder()
+            .setInitialLimit(1)
+            .setMaxWait(Duration.ofSeconds(30))
+            .setMaxQueue(1));
+        limiter.run(SettableFuture::<String>create);
+        var queued = limiter.run(() -> Futures.immediateFuture("queued"));
+        var refused = limiter.run(() -> Futures.immediateFuture("never"));
+        assertFalse(queued.isDone(), "first waiter should queue");
+        assertTrue(refused.isDone(), "calls beyond the queue bound should fail fast");
+        queued.cancel(false);
+    }
+
+    @Test void testOverloadCutsLimit() {
+        var limiter = limiter(LimiterPolicy.builder().setInitialLimit(20));
+        limiter.run(() -> Futures.<String>immediateFailedFuture(unavailable()));
+        assertEquals(18, limiter.limit(), "overload errors should cut the limit");
+        limiter.run(() -> Futures.<String>immediateFailedFuture(new IllegalStateException("bad request")));
+        assertEquals(18, limiter.limit(), "other errors should not affect the limit");
+        assertEquals(1, limiter.stats().droppedCount(), "overload errors should be counted");
+        assertTrue(AdaptiveLimiter.isOverload(unavailable()), "unavailable should indicate overload");
+        assertFalse(AdaptiveLimiter.isOverload(new IllegalStateException()), "other errors should not");
+    }
+
+    @Test void testLimitGrowsWhileLatencyHolds() throws Exception {
+        var limiter = limiter(LimiterPolicy.builder().setInitialLimit(4).setMaxLimit(100));
+        for (int round = 0; round < 10; round++) {
+            var calls = new ArrayList<SettableFuture<String>>();
+            for (int i = 0; i < limiter.limit(); i++) {
+                var call = SettableFuture.<String>create();
+                ListenableFuture<String> ignored = limiter.run(() -> call);
+                calls.add(call);
+            }
+            Thread.sleep(2);
+            calls.forEach((call) -> call.set("done"));
+        }
+        assertTrue(limiter.limit() > 4, "limit should grow while latency holds at full utilization");
+        assertTrue(limiter.limit() <= 100, "limit should not exceed its ceiling");
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk;
+
+import co.cookies.sdk.exceptions.RPCCircuitOpenException;
+import co.cookies.sdk.exceptions.RPCOverloadException;
+import co.cookies.sdk.services.CircuitBreaker;
+import co.cookies.sdk.services.CircuitBreakerPolicy;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link CircuitBreaker} used by services to fail fast on degraded methods. */
+public final class CircuitBreakerTest {
+    private static final String METHOD = "cookies.schema.catalog.CatalogV1/Brands";
+    private static final String OTHER = "cookies.schema.catalog.CatalogV1/Strains";
+
+    private static CircuitBreaker breaker(CircuitBreakerPolicy.Builder policy) {
+        return CircuitBreaker.create("test:v1", policy.build());
+    }
+
+    private static RuntimeException status(Status status) {
+        return ApiExceptionFactory.createException(
+            status.asRuntimeException(),
+            GrpcStatusCode.of(status.getCode()),
+            false
+        );
+    }
+
+    private static void fail(CircuitBreaker breaker, String method, Status status) {
+        assertThrows(
+            RuntimeException.class,
+            () -> breaker.call(method, () -> { throw status(status); }),
+            "failing call should surface its error"
+        );
+    }
+
+    @Test void testPolicyValidation() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CircuitBreakerPolicy.builder().setWindowSize(0),
+            "window size must be positive"
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CircuitBreakerPolicy.builder().setFailureRate(1.5),
+            "failure rate must be a share"
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CircuitBreakerPolicy.builder().setSlowCallDuration(Duration.ZERO),
+            "slow call duration must be positive"
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CircuitBreakerPolicy.builder().setWindowSize(10).setMinCalls(20).build(),
+            "min calls must fit in the window"
+        );
+        assertNotNull(CircuitBreakerPolicy.defaults(), "default policy should be valid");
+    }
+
+    @Test void testOpensOnFailureRate() throws Exception {
+        var breaker = breaker(CircuitBreakerPolicy.builder()
+            .setWindowSize(10)
+            .setMinCalls(5)
+            .setOpenDuration(Duration.ofMinutes(1)));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state(METHOD), "unused methods should be closed");
+        breaker.call(METHOD, () -> "ok");
+        breaker.call(METHOD, () -> "ok");
+        fail(breaker, METHOD, Status.UNAVAILABLE);
+        fail(breaker, METHOD, Status.INTERNAL);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state(METHOD), "circuit should wait for min calls");
+        fail(breaker, METHOD, Status.UNAVAILABLE);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state(METHOD), "circuit should open at the failure rate");
+
+        assertThrows(
+            RPCCircuitOpenException.class,
+            () -> breaker.call(METHOD, () -> "never"),
+            "blocking calls should fail fast while open"
+        );
+        var refused = breaker.run(METHOD, () -> Futures.immediateFuture("never"));
+        assertTrue(refused.isDone(), "async calls should fail fast while open");
+        var err = assertThrows(ExecutionException.class, refused::get, "refused call should fail");
+        assertTrue(err.getCause() instanceof RPCCircuitOpenException, "refusal should raise a circuit-open error");
+        assertEquals("ok", breaker.call(OTHER, () -> "ok"), "other methods should have their own circuit");
+
+        var stats = breaker.stats().get(METHOD);
+        assertEquals(CircuitBreaker.State.OPEN, stats.state(), "stats should report the open state");
+        assertEquals(2, stats.rejectedCount(), "refusals should be counted");
+        assertEquals(1, stats.openCount(), "openings should be counted");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.stats().get(OTHER).state(), "other method should be closed");
+    }
+
+    @Test void testIgnoresClientErrors() {
+        var breaker = breaker(CircuitBreakerPolicy.builder().setWindowSize(4).setMinCalls(4));
+        for (var i = 0; i < 4; i++) {
+            fail(breaker, METHOD, Status.NOT_FOUND);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state(METHOD), "client errors should not open the circuit");
+        assertEquals(0.0, breaker.stats().get(METHOD).failureRate(), "client errors should not count as failures");
+
+        var cancelled = SettableFuture.<String>create();
+        breaker.run(METHOD, () -> cancelled);
+        cancelled.cancel(false);
+        assertThrows(
+            RPCOverloadException.class,
+            () -> breaker.call(METHOD, () -> { throw new RPCOverloadException("refused"); }),
+            "refused call should surface its error"
+        );
+        assertEquals(4, breaker.stats().get(METHOD).bufferedCalls(), "cancelled and refused calls are not counted");
+    }
+
+    @Test void testOpensOnSlowCalls() throws Exception {
+        var breaker = breaker(CircuitBreakerPolicy.builder()
+            .setWindowSize(4)
+            .setMinCalls(2)
+            .setSlowCallDuration(Duration.ofMillis(10))
+            .setSlowCallRate(0.5)
+            .setOpenDuration(Duration.ofMinutes(1)));
+        for (var i = 0; i < 2; i++) {
+            breaker.call(METHOD, () -> {
+                try {
+                    Thread.sleep(25);
+                } catch (InterruptedException ixe) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            });
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state(METHOD), "slow calls should open the circuit");
+        assertEquals(1.0, breaker.stats().get(METHOD).slowCallRate(), "slow calls should be counted");
+    }
+
+    @Test void testHalfOpenProbes() throws Exception {
+        var breaker = breaker(CircuitBreakerPolicy.builder()
+            .setWindowSize(4)
+            .setMinCalls(2)
+            .setOpenDuration(Duration.ofMillis(50))
+            .setHalfOpenProbes(2));
+        var straggler = SettableFuture.<String>create();
+        breaker.run(METHOD, () -> straggler);
+        fail(breaker, METHOD, Status.UNAVAILABLE);
+        fail(breaker, METHOD, Status.UNAVAILABLE);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state(METHOD), "failures should open the circuit");
+        straggler.set("late");
+        assertEquals(2, breaker.stats().get(METHOD).bufferedCalls(), "calls from before opening should be dropped");
+
+        Thread.sleep(75);
+        var first = SettableFuture.<String>create();
+        var second = SettableFuture.<String>create();
+        breaker.run(METHOD, () -> first);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state(METHOD), "circuit should probe after opening");
+        breaker.run(METHOD, () -> second);
+        assertThrows(
+            RPCCircuitOpenException.class,
+            () -> breaker.call(METHOD, () -> "never"),
+            "calls beyond the probes should fail fast"
+        );
+        first.setException(status(Status.UNAVAILABLE));
+        second.setException(status(Status.UNAVAILABLE));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state(METHOD), "failed probes should re-open the circuit");
+        assertEquals(2, breaker.stats().get(METHOD).openCount(), "re-opening should be counted");
+
+        Thread.sleep(75);
+        assertEquals("ok", breaker.call(METHOD, () -> "ok"), "first probe should be let through");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state(METHOD), "circuit should wait for every probe");
+        assertEquals("ok", breaker.call(METHOD, () -> "ok"), "second probe should be let through");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state(METHOD), "healthy probes should close the circuit");
+        assertEquals(0, breaker.stats().get(METHOD).bufferedCalls(), "closing should start with an empty window");
+    }
+}
@@ -15,24 +15,44 @@ package co.cookies.sdk;
 
 
 import co.cookies.sdk.catalog.CatalogClient;
+import co.cookies.sdk.catalog.v1.CatalogClientV1;
 import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.BaseService;
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.services.ServiceInfo;
+import co.cookies.sdk.services.VirtualThreads;
 import co.cookies.sdk.services.SyncRPC;
 import co.cookies.sdk.storefront.Storefront;
+import co.cookies.sdk.transport.PooledChannelProvider;
 import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
 import com.google.auth.oauth2.JwtClaims;
 import com.google.auth.oauth2.JwtCredentials;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
 import cookies.schema.catalog.BrandsRequest;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.ThrowingSupplier;
 
+import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.truth.extensions.proto.ProtoTruth.assertThat;
@@ -519,4 +539,280 @@ public final class CookiesSDKTests {
         assertThrows(IllegalStateException.class, sdk::catalog);
         assertThrows(IllegalStateException.class, sdk::storefront);
     }
+
+    @Test void testSharedExecutionEngine() {
+        var sdk = CookiesSDK.builder().build();
+        var engine = sdk.executionEngine();
+        assertSame(
+            engine,
+            sdk.executionEngine(),
+            "SDK manager should spawn its execution engine exactly once"
+        );
+        assertSame(
+            engine,
+            ((BaseService<?>) sdk.catalog()).engine(),
+            "catalog service should use the SDK's execution engine"
+        );
+        assertSame(
+            engine,
+            ((BaseService<?>) sdk.storefront().menu()).engine(),
+            "menu service should use the SDK's execution engine"
+        );
+        assertSame(
+            engine.transport(),
+            sdk.executorProvider().getExecutor(),
+            "default executor provider should use the engine's transport pool, not its timer pool"
+        );
+        //noinspection deprecation
+        assertSame(
+            engine.timer(),
+            ((BaseService<?>) sdk.catalog()).executorService(),
+            "deprecated executor service should still resolve, to the engine's timer"
+        );
+        assertDoesNotThrow(
+            sdk::close,
+            "SDK objects should be safely closeable"
+        );
+        assertTrue(
+            engine.timer().isShutdown(),
+            "closing the SDK should shut down the engine it spawned"
+        );
+    }
+
+    @Test void testCustomExecutionEngine() {
+        var engine = ExecutionEngine.create();
+        try {
+            var sdk = CookiesSDK.builder()
+                .setExecutionEngine(Optional.of(engine))
+                .build();
+            assertSame(
+                engine,
+                ((BaseService<?>) sdk.catalog()).engine(),
+                "custom execution engine should be used by services"
+            );
+            assertDoesNotThrow(
+                sdk::close,
+                "SDK objects should be safely closeable"
+            );
+            assertFalse(
+                engine.timer().isShutdown(),
+                "closing the SDK should not shut down a developer-provided engine"
+            );
+        } finally {
+            engine.close();
+        }
+    }
+
+    @Test void testVirtualThreadsSetting() {
+        var sdk = CookiesSDK.builder()
+            .setVirtualThreads(Optional.of(true))
+            .build();
+        assertTrue(
+            sdk.virtualThreads(),
+            "virtual thread setting should be reported when enabled"
+        );
+        assertEquals(
+            VirtualThreads.available(),
+            sdk.executionEngine().isVirtual(),
+            "SDK should spawn a virtual engine exactly when the JVM supports it"
+        );
+        assertDoesNotThrow(
+            sdk::close,
+            "SDK objects should be safely closeable"
+        );
+        assertFalse(
+            CookiesSDK.builder().build().virtualThreads(),
+            "virtual threads should be disabled by default"
+        );
+    }
+
+    @Test void testSharedChannelPool() {
+        var sdk = CookiesSDK.builder()
+            .setChannelPoolSize(Optional.of(3))
+            .build();
+        var provider = sdk.transportChannelProvider();
+        assertTrue(
+            provider instanceof PooledChannelProvider,
+            "default transport should hand out the shared channel pool"
+        );
+        var pool = sdk.channelPool();
+        assertSame(
+            pool,
+            ((PooledChannelProvider) provider).pool(),
+            "every service should share the manager's channel pool"
+        );
+        assertSame(
+            pool,
+            ((PooledChannelProvider) sdk.transportChannelProvider()).pool(),
+            "SDK manager should spawn its channel pool exactly once"
+        );
+        assertEquals(3, pool.size(), "channel pool size should be configurable");
+        assertDoesNotThrow(() -> sdk.catalog(), "catalog service should start on the shared pool");
+        assertDoesNotThrow(() -> sdk.storefront().menu(), "menu service should start on the shared pool");
+        assertDoesNotThrow(
+            sdk::close,
+            "SDK objects should be safely closeable"
+        );
+        assertTrue(
+            pool.isShutdown(),
+            "closing the SDK should shut down the channel pool it spawned"
+        );
+    }
+
+    @Test void testWarmupValidatesFirst() {
+        var executor = new ScheduledThreadPoolExecutor(1);
+        var sdk = CookiesSDK.builder()
+            .setExecutionEngine(Optional.of(ExecutionEngine.wrapping(executor)))
+            .build();
+        try {
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> sdk.warmup(CatalogClientV1.INFO, new ServiceInfo() {
+                    @Override
+                    public @Nonnull String serviceName() {
+                        return "unknown";
+                    }
+
+                    @Override
+                    public @Nonnull String serviceVersion() {
+                        return "v1";
+                    }
+                }),
+                "warming an unknown service should be rejected"
+            );
+            assertEquals(0, executor.getTaskCount(), "no warmup work should be submitted for a rejected call");
+        } finally {
+            sdk.close();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test void testWarmup() throws Exception {
+        var channel = InProcessChannelBuilder.forName(InProcessServerBuilder.generateName()).build();
+        var sdk = CookiesSDK.builder()
+            .setTransportChannelProvider(Optional.of(
+                FixedTransportChannelProvider.create(GrpcTransportChannel.create(channel))))
+            .build();
+        try {
+            assertDoesNotThrow(
+                () -> sdk.warmup().get(30, TimeUnit.SECONDS),
+                "warmup should build and prime every service"
+            );
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> sdk.warmup(new ServiceInfo() {
+                    @Override
+                    public @Nonnull String serviceName() {
+                        return "unknown";
+                    }
+
+                    @Override
+                    public @Nonnull String serviceVersion() {
+                        return "v1";
+                    }
+                }),
+                "warming an unknown service should be rejected"
+            );
+            sdk.close();
+            var closed = sdk.warmup();
+            assertTrue(closed.isDone(), "warming a closed SDK should fail immediately");
+            var err = assertThrows(
+                ExecutionException.class,
+                () -> Futures.getDone(closed),
+                "warming a closed SDK should fail"
+            );
+            assertTrue(err.getCause() instanceof IllegalStateException, "closed SDK should fail with illegal state");
+        } finally {
+            sdk.close();
+            channel.shutdownNow();
+        }
+    }
+
+    @Test void testConcurrentResolveBuildsOnce() throws Exception {
+        var sdk = CookiesSDK.builder().build();
+        var threads = 16;
+        var pool = Executors.newFixedThreadPool(threads);
+        try {
+            var start = new CountDownLatch(1);
+            var results = new ArrayList<Future<CatalogClient>>();
+            for (var i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return sdk.catalog();
+                }));
+            }
+            start.countDown();
+            var first = results.get(0).get(30, TimeUnit.SECONDS);
+            for (var result : results) {
+                assertSame(
+                    first,
+                    result.get(30, TimeUnit.SECONDS),
+                    "concurrent resolution should build exactly one service instance"
+                );
+            }
+            assertSame(
+                sdk.storefront(),
+                sdk.storefront(),
+                "storefront facade should be built once and reused"
+            );
+        } finally {
+            pool.shutdownNow();
+            sdk.close();
+        }
+    }
+
+    @Test void testCloseAsync() throws Exception {
+        var sdk = CookiesSDK.builder().build();
+        var catalog = sdk.catalog();
+        var storefront = sdk.storefront();
+        var pool = sdk.channelPool();
+        var engine = sdk.executionEngine();
+        engine.transport();
+        var closed = sdk.closeAsync(Duration.ofSeconds(5));
+        assertSame(closed, sdk.closeAsync(Duration.ofSeconds(5)), "closing twice should yield the same future");
+        assertThrows(IllegalStateException.class, sdk::catalog, "a closing SDK should not resolve services");
+        assertDoesNotThrow(() -> closed.get(30, TimeUnit.SECONDS), "idle SDK should close within the budget");
+        assertTrue(catalog.service().isShutdown(), "closing the SDK should shut down each registered service");
+        assertTrue(storefront.menu().service().isShutdown(), "closing the SDK should shut down storefront services");
+        assertTrue(pool.isShutdown(), "closing the SDK should shut down the channel pool after draining");
+        assertTrue(pool.isTerminated(), "channel pool should have terminated once the close future resolves");
+        assertTrue(engine.isTerminated(), "spawned engine should have terminated once the close future resolves");
+        assertTrue(
+            sdk.closeAsync(Duration.ofSeconds(5)).isDone(),
+            "closing again should resolve immediately"
+        );
+
+        var other = CookiesSDK.builder().build();
+        other.close();
+        assertTrue(
+            other.closeAsync(Duration.ofSeconds(5)).isDone(),
+            "closing an already-closed SDK should resolve immediately"
+        );
+    }
+
+    @Test void testCloseAsyncBounded() throws Exception {
+        var sdk = CookiesSDK.builder().build();
+        var engine = sdk.executionEngine();
+        var stuck = new CountDownLatch(1);
+        engine.callbacks().execute(() -> {
+            try {
+                stuck.await();
+            } catch (InterruptedException ixe) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            var closed = sdk.closeAsync(Duration.ofMillis(100));
+            var err = assertThrows(
+                ExecutionException.class,
+                () -> closed.get(30, TimeUnit.SECONDS),
+                "a stuck engine task should fail the close future, rather than hold it open forever"
+            );
+            assertInstanceOf(TimeoutException.class, err.getCause(), "close should fail with a timeout");
+            assertTrue(err.getCause().getMessage().contains("execution engine"), "timeout should name what is stuck");
+        } finally {
+            stuck.countDown();
+        }
+        assertTrue(engine.awaitTermination(30, TimeUnit.SECONDS), "engine should terminate once its task finishes");
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk;
+
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.services.VirtualThreads;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link ExecutionEngine} shared by services. */
+public final class ExecutionEngineTest {
+    @Test void testSharedEngine() {
+        var engine = ExecutionEngine.shared();
+        assertSame(
+            engine,
+            ExecutionEngine.shared(),
+            "shared engine should be spawned exactly once"
+        );
+        assertFalse(
+            engine.isOwned(),
+            "shared engine should not be owned"
+        );
+        engine.close();
+        assertFalse(
+            engine.timer().isShutdown(),
+            "closing the shared engine should have no effect"
+        );
+    }
+
+    @Test void testBoundedThreadCount() throws Exception {
+        var engine = ExecutionEngine.create(1, 2, 1000);
+        try {
+            var futures = new ArrayList<ListenableFuture<?>>();
+            for (int i = 0; i < 500; i++) {
+                futures.add(engine.callbacks().submit(() -> {
+                    Thread.sleep(1);
+                    return null;
+                }));
+            }
+            assertTrue(
+                engine.poolSize() <= 2,
+                "callback pool should never exceed its configured thread count"
+            );
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(
+                0,
+                engine.queueDepth(),
+                "callback queue should be drained once all work completes"
+            );
+        } finally {
+            engine.close();
+        }
+    }
+
+    @Test void testSaturationRunsOnCaller() throws Exception {
+        var engine = ExecutionEngine.create(1, 1, 1);
+        var release = new CountDownLatch(1);
+        try {
+            // occupy the only thread, then fill the only queue slot.
+            var blocker = engine.callbacks().submit(() -> {
+                release.await();
+                return null;
+            });
+            var queued = engine.callbacks().submit(() -> null);
+            var caller = Thread.currentThread();
+            var ranOnCaller = engine.callbacks().submit(() -> Thread.currentThread() == caller);
+
+            assertTrue(
+                ranOnCaller.get(5, TimeUnit.SECONDS),
+                "work submitted to a saturated engine should run on the submitting thread"
+            );
+            assertEquals(
+                1,
+                engine.saturationCount(),
+                "saturation events should be counted"
+            );
+            assertTrue(
+                engine.saturation() > 0,
+                "saturation ratio should reflect a busy pool"
+            );
+            release.countDown();
+            blocker.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            engine.close();
+        }
+    }
+
+    @Test void testCloseOwnedEngine() {
+        var engine = ExecutionEngine.create();
+        assertTrue(engine.isOwned(), "created engines should be owned");
+        engine.close();
+        assertTrue(
+            engine.timer().isShutdown(),
+            "closing an owned engine should shut down its timer pool"
+        );
+        assertTrue(
+            engine.callbacks().isShutdown(),
+            "closing an owned engine should shut down its callback pool"
+        );
+    }
+
+    @Test void testTransportPool() throws Exception {
+        var engine = ExecutionEngine.create();
+        var transport = engine.transport();
+        assertSame(
+            transport,
+            engine.transport(),
+            "transport pool should be spawned exactly once"
+        );
+        assertNotSame(
+            engine.timer(),
+            transport,
+            "transport pool should be separate from the timer pool"
+        );
+        var thread = transport.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        assertTrue(
+            thread.startsWith("cookies-sdk-transport-"),
+            "transport work should run on transport threads, got '" + thread + "'"
+        );
+        assertFalse(
+            engine.isTerminated(),
+            "an open engine should not report termination"
+        );
+        engine.close();
+        assertTrue(
+            transport.isShutdown(),
+            "closing an owned engine should shut down its transport pool"
+        );
+        assertTrue(
+            engine.awaitTermination(5, TimeUnit.SECONDS),
+            "a closed engine should terminate once its work is done"
+        );
+        assertTrue(
+            engine.isTerminated(),
+            "a closed engine should report termination once its executors terminate"
+        );
+    }
+
+    @Test void testWrappedEngineLeavesExecutorRunning() {
+        var executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            var engine = ExecutionEngine.wrapping(executor);
+            assertFalse(engine.isOwned(), "wrapping engines should not own their executor");
+            assertSame(
+                executor,
+                engine.transport(),
+                "wrapping engines should use the external executor for transport work"
+            );
+            engine.close();
+            assertFalse(
+                executor.isShutdown(),
+                "closing a wrapping engine should leave the external executor running"
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test void testVirtualEngine() throws Exception {
+        var engine = ExecutionEngine.virtual();
+        try {
+            assertEquals(
+                VirtualThreads.available(),
+                engine.isVirtual(),
+                "virtual engine should use virtual threads exactly when the JVM supports them"
+            );
+            assertTrue(engine.isOwned(), "virtual engines should be owned");
+            assertEquals(
+                "done",
+                engine.callbacks().submit(() -> "done").get(5, TimeUnit.SECONDS),
+                "virtual engine should run callbacks in either mode"
+            );
+        } finally {
+            engine.close();
+        }
+        assertTrue(
+            engine.callbacks().isShutdown(),
+            "closing a virtual engine should shut down its callback executor"
+        );
+    }
+}
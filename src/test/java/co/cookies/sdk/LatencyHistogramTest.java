@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk;
+
+import co.cookies.sdk.services.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link LatencyHistogram} which tracks per-method latency for hedging. */
+public final class LatencyHistogramTest {
+    private static void assertNear(long expectedMillis, Duration actual, String message) {
+        var expected = TimeUnit.MILLISECONDS.toNanos(expectedMillis);
+        assertTrue(
+            Math.abs(actual.toNanos() - expected) <= expected / 8,
+            message + " (expected ~" + expectedMillis + "ms, got " + actual + ")"
+        );
+    }
+
+    @Test void testEmpty() {
+        var histogram = LatencyHistogram.create();
+        assertEquals(0, histogram.count(), "new histogram should hold no samples");
+        assertEquals(Duration.ZERO, histogram.percentile(0.99), "empty histogram should report zero latency");
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(1.5), "percentile must be in range");
+        assertThrows(IllegalArgumentException.class, () -> LatencyHistogram.create(0), "window must be positive");
+    }
+
+    @Test void testPercentiles() {
+        var histogram = LatencyHistogram.create(100_000);
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        assertEquals(1000, histogram.count(), "every sample should be held");
+        assertNear(500, histogram.percentile(0.5), "median should be estimated within bucket precision");
+        assertNear(950, histogram.percentile(0.95), "p95 should be estimated within bucket precision");
+        assertNear(1, histogram.percentile(0), "minimum should be estimated within bucket precision");
+    }
+
+    @Test void testOutOfRange() {
+        var histogram = LatencyHistogram.create();
+        histogram.record(-5);
+        histogram.record(TimeUnit.DAYS.toNanos(1));
+        assertEquals(Duration.ZERO, histogram.percentile(0.5), "negative latencies should be recorded as zero");
+        assertTrue(
+            histogram.percentile(1).compareTo(Duration.ofSeconds(60)) > 0,
+            "huge latencies should be capped, not dropped"
+        );
+    }
+
+    @Test void testDecay() {
+        var histogram = LatencyHistogram.create(100);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(50, histogram.count(), "reaching the window should halve the histogram");
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertNear(10, histogram.percentile(0.5), "recent samples should outweigh decayed ones");
+    }
+
+    @Test void testCumulative() {
+        var histogram = LatencyHistogram.cumulative();
+        assertEquals(0, histogram.window(), "cumulative histogram should report no window");
+        for (int i = 0; i < 5000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(5000, histogram.count(), "cumulative histogram should never decay");
+    }
+}
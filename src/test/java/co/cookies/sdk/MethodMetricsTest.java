@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk;
+
+import co.cookies.sdk.exceptions.RPCCircuitOpenException;
+import co.cookies.sdk.exceptions.RPCOverloadException;
+import co.cookies.sdk.exceptions.RPCTimeoutException;
+import co.cookies.sdk.metrics.MethodMetrics;
+import co.cookies.sdk.metrics.MetricsSink;
+import co.cookies.sdk.metrics.ServiceMetrics;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import cookies.schema.catalog.CatalogV1Grpc;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for per-method {@link MethodMetrics}, and their registration via {@link ServiceMetrics}. */
+public final class MethodMetricsTest {
+    // Sink which records everything it is handed.
+    private static final class RecordingSink implements MetricsSink {
+        final List<MethodMetrics> registered = new ArrayList<>();
+        final List<Status.Code> recorded = new ArrayList<>();
+
+        @Override
+        public void register(@Nonnull MethodMetrics metrics) {
+            registered.add(metrics);
+        }
+
+        @Override
+        public void record(@Nonnull MethodMetrics metrics, long latencyNanos, @Nonnull Status.Code code) {
+            assertTrue(latencyNanos >= 0, "recorded latency should not be negative");
+            recorded.add(code);
+        }
+    }
+
+    private static RuntimeException status(Status status) {
+        return ApiExceptionFactory.createException(
+            status.asRuntimeException(),
+            GrpcStatusCode.of(status.getCode()),
+            false
+        );
+    }
+
+    @Test void testStatusMapping() {
+        assertEquals(Status.Code.NOT_FOUND, MethodMetrics.status(status(Status.NOT_FOUND)), "gRPC status should map");
+        assertEquals(
+            Status.Code.UNAVAILABLE,
+            MethodMetrics.status(new IllegalStateException(status(Status.UNAVAILABLE))),
+            "wrapped gRPC status should map"
+        );
+        assertEquals(
+            Status.Code.DEADLINE_EXCEEDED,
+            MethodMetrics.status(new RPCTimeoutException("timeout", new TimeoutException())),
+            "timeouts should map to deadline exceeded"
+        );
+        assertEquals(
+            Status.Code.RESOURCE_EXHAUSTED,
+            MethodMetrics.status(new RPCOverloadException("overload")),
+            "limiter refusals should map to resource exhausted"
+        );
+        assertEquals(
+            Status.Code.UNAVAILABLE,
+            MethodMetrics.status(new RPCCircuitOpenException("open")),
+            "circuit refusals should map to unavailable"
+        );
+        assertEquals(
+            Status.Code.CANCELLED,
+            MethodMetrics.status(new CancellationException()),
+            "cancellation should map to cancelled"
+        );
+        assertEquals(Status.Code.UNKNOWN, MethodMetrics.status(new IllegalStateException()), "others are unknown");
+    }
+
+    @Test void testRecording() {
+        var sink = new RecordingSink();
+        var metrics = MethodMetrics.create("catalog:v1", "cookies.schema.catalog.CatalogV1/Brands", sink);
+        var first = metrics.start();
+        var second = metrics.start();
+        assertEquals(2, metrics.inflight(), "started calls should be counted as in flight");
+        metrics.finish(first, null);
+        metrics.finish(second, new RPCTimeoutException("timeout", new TimeoutException()));
+        metrics.finish(metrics.start(), status(Status.UNAVAILABLE));
+
+        var snapshot = metrics.snapshot();
+        assertEquals("catalog:v1", snapshot.service(), "snapshot should carry the service tag");
+        assertEquals(3, snapshot.callCount(), "concluded calls should be counted");
+        assertEquals(0, snapshot.inflight(), "concluded calls should no longer be in flight");
+        assertEquals(1, snapshot.timeoutCount(), "timeouts should be counted");
+        assertEquals(1L, snapshot.errorCounts().get(Status.Code.DEADLINE_EXCEEDED), "timeouts should count as errors");
+        assertEquals(1L, snapshot.errorCounts().get(Status.Code.UNAVAILABLE), "errors should be counted by status");
+        assertFalse(snapshot.errorCounts().containsKey(Status.Code.OK), "successes should not count as errors");
+        assertEquals(3, metrics.latency().count(), "every call should be recorded in the histogram");
+        assertFalse(snapshot.p999().isNegative(), "percentiles should be reported");
+        assertEquals(
+            List.of(Status.Code.OK, Status.Code.DEADLINE_EXCEEDED, Status.Code.UNAVAILABLE),
+            sink.recorded,
+            "sink should be handed each call's status"
+        );
+    }
+
+    @Test void testServiceRegistration() {
+        var sink = new RecordingSink();
+        var metrics = ServiceMetrics.create("catalog:v1", sink);
+        var brands = metrics.method(CatalogV1Grpc.getBrandsMethod());
+        assertSame(brands, metrics.method(CatalogV1Grpc.getBrandsMethod()), "method metrics should be reused");
+        metrics.method(CatalogV1Grpc.getStrainsMethod());
+        assertEquals(2, sink.registered.size(), "each method should be registered with the sink once");
+        assertEquals(
+            CatalogV1Grpc.getBrandsMethod().getFullMethodName(),
+            brands.method(),
+            "method metrics should be keyed by full method name"
+        );
+        assertEquals(2, metrics.snapshot().size(), "snapshot should cover each method called");
+        assertNotNull(MetricsSink.noop(), "no-op sink should be available");
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk;
+
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.RequestCoalescer;
+import co.cookies.sdk.services.Timeout;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import cookies.schema.catalog.BrandsRequest;
+import cookies.schema.catalog.CatalogV1Grpc;
+import cookies.schema.catalog.StrainsRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static co.cookies.sdk.CookiesSDK.async;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link RequestCoalescer} used by services for idempotent reads. */
+public final class RequestCoalescerTest {
+    private static RequestCoalescer.Key brandsKey() {
+        return RequestCoalescer.key(CatalogV1Grpc.getBrandsMethod(), async(BrandsRequest.getDefaultInstance()));
+    }
+
+    @Test void testKeys() {
+        assertEquals(brandsKey(), brandsKey(), "identical operations should share a key");
+        assertEquals(brandsKey().hashCode(), brandsKey().hashCode(), "identical operations should share a hash");
+        assertNotEquals(
+            brandsKey(),
+            RequestCoalescer.key(CatalogV1Grpc.getStrainsMethod(), async(StrainsRequest.getDefaultInstance())),
+            "operations on different methods should not share a key"
+        );
+        assertNotEquals(
+            brandsKey(),
+            RequestCoalescer.key(
+                CatalogV1Grpc.getBrandsMethod(),
+                AsyncRPC.async(BrandsRequest.getDefaultInstance(), Timeout.of(1, TimeUnit.SECONDS))
+            ),
+            "operations with different timeouts should not share a key"
+        );
+    }
+
+    @Test void testCoalescesInFlight() throws ExecutionException, InterruptedException {
+        var coalescer = new RequestCoalescer();
+        var calls = new AtomicInteger(0);
+        var underlying = SettableFuture.<String>create();
+        ListenableFuture<String> first = coalescer.join(brandsKey(), () -> {
+            calls.incrementAndGet();
+            return underlying;
+        });
+        ListenableFuture<String> second = coalescer.join(brandsKey(), () -> {
+            calls.incrementAndGet();
+            return SettableFuture.create();
+        });
+        assertEquals(1, calls.get(), "only one call should start while one is in flight");
+        assertEquals(1, coalescer.inflightCount(), "one call should be in flight");
+        assertEquals(1, coalescer.coalescedCount(), "second caller should have been coalesced");
+
+        underlying.set("hello");
+        assertEquals("hello", first.get(), "first caller should observe the result");
+        assertEquals("hello", second.get(), "second caller should observe the result");
+        assertEquals(0, coalescer.inflightCount(), "completed calls should be forgotten");
+
+        coalescer.join(brandsKey(), () -> {
+            calls.incrementAndGet();
+            return SettableFuture.create();
+        });
+        assertEquals(2, calls.get(), "calls after completion should start afresh");
+    }
+
+    @Test void testReferenceCountedCancellation() throws ExecutionException, InterruptedException {
+        var coalescer = new RequestCoalescer();
+        var underlying = SettableFuture.<String>create();
+        ListenableFuture<String> first = coalescer.join(brandsKey(), () -> underlying);
+        ListenableFuture<String> second = coalescer.join(brandsKey(), SettableFuture::create);
+        ListenableFuture<String> third = coalescer.join(brandsKey(), SettableFuture::create);
+
+        first.cancel(true);
+        assertFalse(underlying.isCancelled(), "one caller cancelling should not cancel the shared call");
+        second.cancel(true);
+        assertFalse(underlying.isCancelled(), "shared call should run while any caller remains");
+        underlying.set("hello");
+        assertEquals("hello", third.get(), "remaining caller should observe the result");
+
+        var abandoned = SettableFuture.<String>create();
+        ListenableFuture<String> fourth = coalescer.join(brandsKey(), () -> abandoned);
+        ListenableFuture<String> fifth = coalescer.join(brandsKey(), SettableFuture::create);
+        fourth.cancel(true);
+        fifth.cancel(true);
+        assertTrue(abandoned.isCancelled(), "shared call should be cancelled once every caller has cancelled");
+        assertEquals(0, coalescer.inflightCount(), "abandoned calls should be forgotten");
+    }
+
+    @Test void testFailuresShared() {
+        var coalescer = new RequestCoalescer();
+        var underlying = SettableFuture.<String>create();
+        ListenableFuture<String> first = coalescer.join(brandsKey(), () -> underlying);
+        ListenableFuture<String> second = coalescer.join(brandsKey(), SettableFuture::create);
+        underlying.setException(new IllegalStateException("boom"));
+        assertThrows(ExecutionException.class, first::get, "first caller should observe the failure");
+        assertThrows(ExecutionException.class, second::get, "second caller should observe the failure");
+
+        ListenableFuture<String> thrown = coalescer.join(brandsKey(), () -> {
+            throw new IllegalStateException("boom");
+        });
+        assertThrows(ExecutionException.class, thrown::get, "supplier errors should surface via the future");
+        assertEquals(0, coalescer.inflightCount(), "failed calls should be forgotten");
+    }
+}
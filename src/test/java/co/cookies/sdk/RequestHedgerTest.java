@@ -0,0 +1,203 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk;
+
+import co.cookies.sdk.services.HedgingPolicy;
+import co.cookies.sdk.services.RequestHedger;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link RequestHedger} used by services to hedge idempotent reads. */
+public final class RequestHedgerTest {
+    private static final String METHOD = "cookies.schema.store.MenuV1/Menu";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private ScheduledExecutorService timer;
+
+    // Records each call sent, and answers it with a pending future.
+    private static final class Attempts {
+        final List<SettableFuture<String>> calls = new CopyOnWriteArrayList<>();
+        final List<Duration> timeouts = new CopyOnWriteArrayList<>();
+
+        ListenableFuture<String> send(Duration timeout) {
+            var call = SettableFuture.<String>create();
+            calls.add(call);
+            timeouts.add(timeout);
+            return call;
+        }
+
+        void awaitCalls(int count) throws InterruptedException {
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (calls.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(count, calls.size(), "expected " + count + " call(s) to be sent");
+        }
+    }
+
+    @BeforeEach void setUp() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach void tearDown() {
+        timer.shutdownNow();
+    }
+
+    private RequestHedger hedger(double budget) {
+        return RequestHedger.create(HedgingPolicy.builder()
+            .setMinSamples(10)
+            .setMinDelay(Duration.ofMillis(20))
+            .setBudget(budget)
+            .build(), timer);
+    }
+
+    private static void prime(RequestHedger hedger, int count) {
+        for (int i = 0; i < count; i++) {
+            hedger.call(METHOD, TIMEOUT, (timeout) -> Futures.immediateFuture("warm"));
+        }
+    }
+
+    @Test void testPolicyValidation() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> HedgingPolicy.builder().setPercentile(1),
+            "percentile must be below 1"
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> HedgingPolicy.builder().setBudget(0),
+            "budget must be positive"
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> HedgingPolicy.builder().setMinSamples(0),
+            "min samples must be positive"
+        );
+        assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.builder()
+            .setMinDelay(Duration.ofSeconds(2))
+            .setMaxDelay(Duration.ofSeconds(1))
+            .build(), "min delay must not exceed max delay");
+        assertNotNull(HedgingPolicy.defaults(), "default policy should be valid");
+    }
+
+    @Test void testNoHedgeBeforeSamples() throws Exception {
+        var hedger = hedger(1);
+        prime(hedger, 5);
+        var attempts = new Attempts();
+        var result = hedger.call(METHOD, TIMEOUT, attempts::send);
+        Thread.sleep(100);
+        assertEquals(1, attempts.calls.size(), "methods without enough samples should not be hedged");
+        attempts.calls.get(0).set("primary");
+        assertEquals("primary", result.get(), "un-hedged call should resolve directly");
+        assertTrue(hedger.latency(METHOD).isPresent(), "latency should be tracked for the method");
+        assertEquals(6, hedger.latency(METHOD).get().count(), "every successful call should be measured");
+    }
+
+    @Test void testHedgeWins() throws Exception {
+        var hedger = hedger(1);
+        prime(hedger, 10);
+        var attempts = new Attempts();
+        var result = hedger.call(METHOD, TIMEOUT, attempts::send);
+        attempts.awaitCalls(2);
+        assertTrue(
+            attempts.timeouts.get(1).compareTo(TIMEOUT) < 0,
+            "hedge should carry only what remains of the timeout"
+        );
+        attempts.calls.get(1).set("hedge");
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS), "first successful call should win");
+        assertTrue(attempts.calls.get(0).isCancelled(), "losing call should be cancelled");
+        var stats = hedger.stats();
+        assertEquals(1, stats.hedgeCount(), "one hedge should have been sent");
+        assertEquals(1, stats.hedgeWinCount(), "hedge should be counted as the winner");
+    }
+
+    @Test void testHedgeLatency() throws Exception {
+        var hedger = hedger(1);
+        prime(hedger, 10);
+        var attempts = new Attempts();
+        var result = hedger.call(METHOD, TIMEOUT, attempts::send);
+        attempts.awaitCalls(2);
+        attempts.calls.get(1).set("hedge");
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS), "hedge should win");
+        assertTrue(attempts.calls.get(0).isCancelled(), "losing primary should be cancelled");
+        var histogram = hedger.latency(METHOD).orElseThrow();
+        assertEquals(11, histogram.count(), "only the winning call should be measured");
+        assertTrue(
+            histogram.percentile(1).compareTo(Duration.ofMillis(20)) >= 0,
+            "winning hedge should be measured from the start of the read, including the hedge delay"
+        );
+    }
+
+    @Test void testFailureWaitsForOtherCall() throws Exception {
+        var hedger = hedger(1);
+        prime(hedger, 10);
+        var attempts = new Attempts();
+        var result = hedger.call(METHOD, TIMEOUT, attempts::send);
+        attempts.awaitCalls(2);
+        attempts.calls.get(0).setException(new IllegalStateException("primary failed"));
+        assertFalse(result.isDone(), "a failure should not decide the race while another call is pending");
+        attempts.calls.get(1).set("hedge");
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS), "surviving call should win");
+
+        var failing = new Attempts();
+        var failed = hedger.call(METHOD, TIMEOUT, failing::send);
+        failing.awaitCalls(2);
+        failing.calls.get(0).setException(new IllegalStateException("primary failed"));
+        failing.calls.get(1).setException(new IllegalStateException("hedge failed"));
+        var err = assertThrows(ExecutionException.class, failed::get, "race should fail once every call has");
+        assertEquals("hedge failed", err.getCause().getMessage(), "last failure should be surfaced");
+    }
+
+    @Test void testCancelPropagates() throws Exception {
+        var hedger = hedger(1);
+        prime(hedger, 10);
+        var attempts = new Attempts();
+        var result = hedger.call(METHOD, TIMEOUT, attempts::send);
+        attempts.awaitCalls(2);
+        result.cancel(true);
+        assertTrue(attempts.calls.get(0).isCancelled(), "cancelling the read should cancel the primary");
+        assertTrue(attempts.calls.get(1).isCancelled(), "cancelling the read should cancel the hedge");
+    }
+
+    @Test void testBudget() throws Exception {
+        var hedger = hedger(0.05);
+        prime(hedger, 10);
+        var attempts = new Attempts();
+        var result = hedger.call(METHOD, TIMEOUT, attempts::send);
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (hedger.stats().throttledCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, hedger.stats().throttledCount(), "hedge should be withheld once the budget is spent");
+        assertEquals(1, attempts.calls.size(), "no hedge should be sent without budget");
+        attempts.calls.get(0).set("primary");
+        assertEquals("primary", result.get(), "withheld hedge should leave the primary to finish");
+        assertEquals(0, hedger.stats().hedgeCount(), "no hedges should be counted");
+    }
+}
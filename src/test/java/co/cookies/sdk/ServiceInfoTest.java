@@ -17,6 +17,9 @@ package co.cookies.sdk;
 import co.cookies.sdk.catalog.v1.CatalogClientV1;
 import co.cookies.sdk.services.BaseServiceInfo;
 import co.cookies.sdk.services.ServiceInfo;
+import co.cookies.sdk.storefront.v1.StorefrontClientV1;
+import cookies.schema.catalog.CatalogV1Grpc;
+import cookies.schema.store.ProfileV1Grpc;
 import org.junit.jupiter.api.Test;
 
 import javax.annotation.Nonnull;
@@ -67,6 +70,12 @@ public final class ServiceInfoTest {
         assertEquals(0, left.compareTo(right), "comparing two equal service infos should equal 0");
     }
 
+    @Test void testServiceTagComputedOnce() {
+        var info = CatalogClientV1.INFO;
+        assertEquals("catalog:v1", info.serviceTag(), "service tag should compose name and version");
+        assertSame(info.serviceTag(), info.serviceTag(), "service tag should be computed once and reused");
+    }
+
     @Test void testServiceInfoDefaults() {
         var defaultInfo = new ServiceInfo() {
             @Nonnull
@@ -105,5 +114,25 @@ public final class ServiceInfoTest {
             defaultInfo.authorizationRequired(),
             "auth keys should not be required by default"
         );
+        assertTrue(
+            defaultInfo.serviceDescriptor().isEmpty(),
+            "service descriptor should be absent by default"
+        );
+        assertFalse(
+            defaultInfo.retryable(CatalogV1Grpc.getBrandsMethod()),
+            "methods not marked safe or idempotent should not be retryable by default"
+        );
+    }
+
+    @Test void testServiceInfoRetryable() {
+        var profile = StorefrontClientV1.ProfileClientV1.INFO;
+        assertTrue(CatalogClientV1.INFO.serviceDescriptor().isPresent(), "catalog should provide its descriptor");
+        assertTrue(CatalogClientV1.INFO.retryable(CatalogV1Grpc.getBrandsMethod()), "catalog reads should retry");
+        assertTrue(profile.retryable(ProfileV1Grpc.getProfileMethod()), "profile reads should retry");
+        assertFalse(profile.retryable(ProfileV1Grpc.getProfileUpdateMethod()), "profile writes should not retry");
+        assertTrue(
+            profile.retryable(ProfileV1Grpc.getProfileUpdateMethod().toBuilder().setSafe(true).build()),
+            "profile writes marked safe should retry"
+        );
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk;
+
+import co.cookies.sdk.services.ExecutionEngine;
+import co.cookies.sdk.services.VirtualThreads;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * Tests for {@link VirtualThreads}. The regular test run covers the baseline (JDK 11) class; the multi-release case is
+ * run by the {@code java21Test} task ({@code ./gradlew check -Pjava21}), on JDK 21 against the packaged jar.
+ */
+public final class VirtualThreadsTest {
+    /** System property set by the {@code java21Test} task. */
+    private static final String MULTI_RELEASE = "cookies.sdk.multiRelease";
+
+    @Test void testBaselineUnavailable() {
+        assumeFalse(Boolean.getBoolean(MULTI_RELEASE), "baseline class is not loaded from the multi-release jar");
+        assertFalse(
+            VirtualThreads.available(),
+            "baseline class should report virtual threads as unavailable"
+        );
+        assertTrue(
+            VirtualThreads.executor("test-virtual-").isEmpty(),
+            "baseline class should not offer a virtual thread executor"
+        );
+    }
+
+    @Test void testVersionedClassLoaded() throws Exception {
+        assumeTrue(Boolean.getBoolean(MULTI_RELEASE), "only runs against the multi-release jar, via `java21Test`");
+        var location = VirtualThreads.class.getProtectionDomain().getCodeSource().getLocation();
+        try (var jar = new JarFile(Path.of(location.toURI()).toFile(), true, ZipFile.OPEN_READ, Runtime.version())) {
+            assertTrue(jar.isMultiRelease(), "SDK jar should be multi-release");
+            var entry = jar.getJarEntry(VirtualThreads.class.getName().replace('.', '/') + ".class");
+            assertTrue(
+                entry.getRealName().startsWith("META-INF/versions/21/"),
+                "JDK 21 should resolve the versioned class, got '" + entry.getRealName() + "'"
+            );
+        }
+        assertTrue(
+            VirtualThreads.available(),
+            "versioned class should report virtual threads as available"
+        );
+
+        var executor = VirtualThreads.executor("test-virtual-").orElseThrow();
+        try {
+            var virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual")
+                .invoke(Thread.currentThread())).get(5, TimeUnit.SECONDS);
+            assertTrue(virtual, "versioned executor should run tasks on virtual threads");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (var engine = ExecutionEngine.virtual()) {
+            assertTrue(engine.isVirtual(), "virtual engine should use virtual threads on JDK 21");
+        }
+    }
+}
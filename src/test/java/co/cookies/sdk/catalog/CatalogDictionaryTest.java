@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.catalog;
+
+import co.cookies.sdk.catalog.v1.CatalogClientV1;
+import co.cookies.sdk.catalog.v1.MockCatalogServiceImpl;
+import co.cookies.sdk.catalog.v1.stub.CatalogV1StubSettings;
+import cookies.schema.catalog.*;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static co.cookies.sdk.ServiceTestUtil.resolve;
+import static co.cookies.sdk.ServiceTestUtil.setupMockedClient;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link CatalogDictionary}. */
+public final class CatalogDictionaryTest {
+    // Mock catalog service which counts brand loads, and can be switched into failure.
+    private static final class CountingCatalogService extends CatalogV1Grpc.CatalogV1ImplBase {
+        final MockCatalogServiceImpl delegate = MockCatalogServiceImpl.acquire();
+        final AtomicInteger brandLoads = new AtomicInteger(0);
+        volatile boolean fail = false;
+
+        @Override
+        public void brands(BrandsRequest request, StreamObserver<BrandsResponse> responseObserver) {
+            brandLoads.incrementAndGet();
+            if (fail) {
+                responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+            } else {
+                delegate.brands(request, responseObserver);
+            }
+        }
+
+        @Override
+        public void strains(StrainsRequest request, StreamObserver<StrainsResponse> responseObserver) {
+            delegate.strains(request, responseObserver);
+        }
+    }
+
+    private void withClient(CountingCatalogService service, Consumer<CatalogClient> test) {
+        setupMockedClient(
+            test,
+            () -> service,
+            (server, channelProvider) -> CatalogV1StubSettings.newBuilder()
+                    .setTransportChannelProvider(channelProvider)
+                    .build()
+                    .createStub(),
+            CatalogClientV1::forStub
+        );
+    }
+
+    private static void await(String message, BooleanSupplier condition) {
+        var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ixe) {
+                throw new RuntimeException(ixe);
+            }
+        }
+    }
+
+    @Test void testLookups() {
+        withClient(new CountingCatalogService(), (client) -> {
+            try (var dictionary = CatalogDictionary.builder().build(client)) {
+                assertTrue(dictionary.brand("C6BI-00001").isEmpty(), "nothing should resolve before loading");
+                assertTrue(dictionary.isExpired(), "dictionary should be expired before loading");
+                var snapshot = resolve(dictionary.start());
+                assertSame(snapshot, dictionary.snapshot(), "first snapshot should be current");
+                assertFalse(dictionary.isExpired(), "fresh dictionary should not be expired");
+                assertEquals(2, snapshot.brands().size(), "snapshot should hold every brand");
+                assertTrue(dictionary.brand("C6BI-00001").isPresent(), "brand should resolve by bid");
+                assertTrue(dictionary.brandBySlug("cookies").isPresent(), "brand should resolve by slug");
+                assertTrue(dictionary.strain("C6V20-0002").isPresent(), "strain should resolve by id");
+                assertTrue(dictionary.strainBySlug("pink-rozay").isPresent(), "strain should resolve by slug");
+                assertTrue(dictionary.strainBySlug("unknown").isEmpty(), "unknown strain should not resolve");
+            }
+        });
+    }
+
+    @Test void testRefreshAhead() {
+        var service = new CountingCatalogService();
+        withClient(service, (client) -> {
+            try (var dictionary = CatalogDictionary.builder().setTtl(Duration.ofMillis(50)).build(client)) {
+                var first = resolve(dictionary.start());
+                await("dictionary should refresh in the background", () -> dictionary.loadCount() >= 2);
+                assertNotSame(first, dictionary.snapshot(), "refresh should swap in a new snapshot");
+            }
+        });
+    }
+
+    @Test void testFailedRefreshKeepsSnapshot() {
+        var service = new CountingCatalogService();
+        withClient(service, (client) -> {
+            try (var dictionary = CatalogDictionary.builder()
+                    .setTtl(Duration.ofMillis(50))
+                    .setRetryDelay(Duration.ofMillis(10))
+                    .build(client)) {
+                var first = resolve(dictionary.start());
+                service.fail = true;
+                await("failed refreshes should be retried", () -> dictionary.failureCount() >= 2);
+                assertSame(first, dictionary.snapshot(), "failed refresh should keep the previous snapshot");
+                assertTrue(dictionary.brand("C6BI-00001").isPresent(), "lookups should keep working");
+
+                service.fail = false;
+                await("dictionary should recover", () -> dictionary.snapshot() != first);
+            }
+        });
+    }
+
+    @Test void testDispatchFailureRetries() {
+        withClient(new CountingCatalogService(), (client) -> {
+            // a closed client throws from each call, rather than returning a failed future.
+            assertDoesNotThrow(client::close, "client should close");
+            var dictionary = CatalogDictionary.builder().setRetryDelay(Duration.ofMillis(10)).build(client);
+            var ready = dictionary.start();
+            await("calls which throw should be retried", () -> dictionary.failureCount() >= 2);
+            assertFalse(ready.isDone(), "dictionary should keep trying until it loads or closes");
+            dictionary.close();
+            var err = assertThrows(ExecutionException.class, ready::get, "closing should fail a pending ready()");
+            assertInstanceOf(IllegalStateException.class, err.getCause(), "ready() should fail as closed");
+        });
+    }
+
+    @Test void testClose() {
+        var service = new CountingCatalogService();
+        withClient(service, (client) -> {
+            var dictionary = CatalogDictionary.builder().setTtl(Duration.ofMillis(20)).build(client);
+            resolve(dictionary.start());
+            dictionary.close();
+            var loads = service.brandLoads.get();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ixe) {
+                throw new RuntimeException(ixe);
+            }
+            assertTrue(service.brandLoads.get() <= loads + 1, "closed dictionary should stop refreshing");
+            assertTrue(dictionary.brand("C6BI-00001").isPresent(), "closed dictionary should remain readable");
+        });
+    }
+}
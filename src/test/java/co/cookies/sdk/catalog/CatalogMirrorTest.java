@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.catalog;
+
+import cookies.schema.catalog.CatalogProduct;
+import cookies.schema.catalog.FinalProduct;
+import cookies.schema.catalog.ProductRef;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the local {@link CatalogMirror}. */
+public final class CatalogMirrorTest {
+    private static CatalogProduct product(String ctin, String cpid, String cgid, String gtin, long version, String name) {
+        return CatalogProduct.newBuilder()
+                .setRef(ProductRef.newBuilder()
+                        .setCtin(ctin)
+                        .setCpid(cpid)
+                        .setCgid(cgid)
+                        .setGtin(gtin)
+                        .setVersion(version))
+                .setProduct(FinalProduct.newBuilder().setName(name))
+                .build();
+    }
+
+    @Test void testUpsertAndLookup() {
+        var mirror = new CatalogMirror();
+        assertTrue(mirror.upsert(product("C1", "P1", "G1", "0001", 1, "one")), "first upsert should apply");
+        assertTrue(mirror.upsert(product("C2", "P2", "G1", "0002", 1, "two")), "second upsert should apply");
+        assertEquals(2, mirror.size(), "mirror should hold both products");
+        assertEquals("one", mirror.byCtin("C1").orElseThrow().getProduct().getName(), "lookup by CTIN should work");
+        assertEquals("two", mirror.byCpid("P2").orElseThrow().getProduct().getName(), "lookup by CPID should work");
+        assertEquals("one", mirror.byGtin("0001").orElseThrow().getProduct().getName(), "lookup by GTIN should work");
+        assertEquals(2, mirror.byCgid("G1").size(), "lookup by CGID should return every product in the group");
+        assertTrue(mirror.byCtin("C3").isEmpty(), "unknown CTIN should not resolve");
+        assertTrue(mirror.byCgid("G2").isEmpty(), "unknown CGID should resolve to an empty group");
+    }
+
+    @Test void testStaleRecordsIgnored() {
+        var mirror = new CatalogMirror();
+        assertTrue(mirror.upsert(product("C1", "P1", "G1", "0001", 5, "newer")), "first upsert should apply");
+        assertFalse(mirror.upsert(product("C1", "P1", "G1", "0001", 4, "older")), "older record should be ignored");
+        assertFalse(mirror.upsert(product("C1", "P1", "G1", "0001", 5, "replay")), "replayed record should be ignored");
+        assertEquals("newer", mirror.byCtin("C1").orElseThrow().getProduct().getName(), "newest record should win");
+        assertEquals(5, mirror.version(), "mirror version should track the highest version seen");
+        assertEquals(1, mirror.appliedCount(), "only one upsert should have applied");
+        assertEquals(2, mirror.staleCount(), "stale upserts should be counted");
+    }
+
+    @Test void testSecondaryIndexesMove() {
+        var mirror = new CatalogMirror();
+        mirror.upsert(product("C1", "P1", "G1", "0001", 1, "one"));
+        mirror.upsert(product("C1", "P9", "G9", "0009", 2, "moved"));
+        assertTrue(mirror.byCpid("P1").isEmpty(), "old CPID should no longer resolve");
+        assertTrue(mirror.byGtin("0001").isEmpty(), "old GTIN should no longer resolve");
+        assertTrue(mirror.byCgid("G1").isEmpty(), "old group should no longer hold the product");
+        assertEquals("moved", mirror.byCpid("P9").orElseThrow().getProduct().getName(), "new CPID should resolve");
+        assertEquals(1, mirror.byCgid("G9").size(), "new group should hold the product");
+    }
+
+    @Test void testMissingCtinIgnored() {
+        var mirror = new CatalogMirror();
+        assertFalse(mirror.upsert(CatalogProduct.getDefaultInstance()), "product without a CTIN should be ignored");
+        assertEquals(0, mirror.size(), "mirror should remain empty");
+    }
+
+    @Test void testSnapshots() {
+        var mirror = new CatalogMirror();
+        assertEquals(2, mirror.apply(Stream.of(
+            product("C1", "P1", "G1", "0001", 1, "one"),
+            product("C2", "P2", "G1", "0002", 3, "two")
+        )), "stream apply should report the count applied");
+        var first = mirror.snapshot();
+        assertSame(first, mirror.snapshot(), "snapshot should be reused while there are no writes");
+        assertEquals(2, first.size(), "snapshot should hold every product");
+        assertEquals(3, first.version(), "snapshot should carry the mirror version");
+
+        mirror.upsert(product("C1", "P1", "G1", "0001", 0, "stale"));
+        assertSame(first, mirror.snapshot(), "stale writes should not invalidate the snapshot");
+
+        mirror.upsert(product("C3", "P3", "G2", "0003", 4, "three"));
+        var second = mirror.snapshot();
+        assertNotSame(first, second, "effective writes should invalidate the snapshot");
+        assertEquals(2, first.size(), "earlier snapshot should be unaffected by later writes");
+        assertEquals(3, second.size(), "later snapshot should observe the write");
+    }
+
+    @Test void testConcurrentUpserts() {
+        var mirror = new CatalogMirror();
+        var versions = Stream.iterate(1L, (v) -> v + 1).limit(2000).collect(Collectors.toList());
+        versions.parallelStream().forEach((v) -> mirror.upsert(product("C1", "P" + v, "G1", "0001", v, "v" + v)));
+        assertEquals("v2000", mirror.byCtin("C1").orElseThrow().getProduct().getName(), "newest version should win");
+        assertEquals("v2000", mirror.byCpid("P2000").orElseThrow().getProduct().getName(), "CPID should follow");
+        assertTrue(mirror.byCpid("P1999").isEmpty(), "superseded CPID should not resolve");
+    }
+}
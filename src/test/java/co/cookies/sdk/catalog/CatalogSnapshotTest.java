@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.catalog;
+
+import cookies.schema.catalog.CatalogProduct;
+import cookies.schema.catalog.FinalProduct;
+import cookies.schema.catalog.ProductRef;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for on-disk {@link CatalogSnapshot}s. */
+public final class CatalogSnapshotTest {
+    private static CatalogProduct product(String ctin, String gtin, long version, String name) {
+        return CatalogProduct.newBuilder()
+                .setRef(ProductRef.newBuilder()
+                        .setCtin(ctin)
+                        .setGtin(gtin)
+                        .setVersion(version))
+                .setProduct(FinalProduct.newBuilder().setName(name))
+                .build();
+    }
+
+    @Test void testMissingSnapshot(@TempDir Path dir) throws IOException {
+        assertTrue(CatalogSnapshot.open(dir).isEmpty(), "opening an empty directory should yield no snapshot");
+    }
+
+    @Test void testWriteAndOpen(@TempDir Path dir) throws IOException {
+        var written = CatalogSnapshot.write(dir, List.of(
+            product("C1", "0001", 3, "one"),
+            product("C2", "", 7, "two"),
+            product("C1", "0001", 2, "stale"),
+            product("", "0009", 9, "no ctin")
+        ));
+        assertEquals(7, written, "write should report the highest version written");
+        assertTrue(Files.exists(dir.resolve(CatalogSnapshot.DATA_FILE)), "data file should exist");
+        assertTrue(Files.exists(dir.resolve(CatalogSnapshot.INDEX_FILE)), "index file should exist");
+
+        var snapshot = CatalogSnapshot.open(dir).orElseThrow();
+        assertEquals(7, snapshot.maxVersion(), "snapshot should carry its highest version");
+        assertEquals(2, snapshot.size(), "snapshot should skip stale duplicates and products without a CTIN");
+        assertEquals("one", snapshot.byCtin("C1").orElseThrow().getProduct().getName(), "CTIN lookup should decode");
+        assertEquals("one", snapshot.byGtin("0001").orElseThrow().getProduct().getName(), "GTIN lookup should decode");
+        assertEquals("two", snapshot.byCtin("C2").orElseThrow().getProduct().getName(), "CTIN lookup should decode");
+        assertTrue(snapshot.byCtin("C9").isEmpty(), "unknown CTIN should not resolve");
+        assertTrue(snapshot.byGtin("0009").isEmpty(), "skipped products should not be indexed");
+        assertEquals(
+            snapshot.ctins(),
+            snapshot.products().map((p) -> p.getRef().getCtin()).collect(Collectors.toSet()),
+            "streamed products should match the indexed CTINs"
+        );
+    }
+
+    @Test void testRefreshViaMirror(@TempDir Path dir) throws IOException {
+        CatalogSnapshot.write(dir, List.of(product("C1", "0001", 1, "one"), product("C2", "0002", 1, "two")));
+        var mirror = new CatalogMirror();
+        assertEquals(2, CatalogSnapshot.open(dir).orElseThrow().loadInto(mirror), "snapshot should seed the mirror");
+        mirror.upsert(product("C2", "0002", 2, "two, updated"));
+        assertEquals(2, CatalogSnapshot.write(dir, mirror.snapshot()), "refreshed snapshot should carry new version");
+
+        var refreshed = CatalogSnapshot.open(dir).orElseThrow();
+        assertEquals(2, refreshed.size(), "refreshed snapshot should hold every product");
+        assertEquals(
+            "two, updated",
+            refreshed.byCtin("C2").orElseThrow().getProduct().getName(),
+            "refreshed snapshot should hold the updated record"
+        );
+    }
+
+    @Test void testMismatchedIndexRejected(@TempDir Path dir) throws IOException {
+        CatalogSnapshot.write(dir, List.of(product("C1", "0001", 1, "one")));
+        Files.write(dir.resolve(CatalogSnapshot.DATA_FILE), new byte[] { 0x01 },
+                StandardOpenOption.APPEND);
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(dir), "index should be validated against data");
+    }
+}
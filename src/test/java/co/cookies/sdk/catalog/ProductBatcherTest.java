@@ -0,0 +1,199 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.catalog;
+
+import co.cookies.sdk.catalog.v1.CatalogClientV1;
+import co.cookies.sdk.catalog.v1.stub.CatalogV1StubSettings;
+import com.google.common.util.concurrent.Futures;
+import cookies.schema.catalog.*;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import static co.cookies.sdk.CookiesSDK.async;
+import static co.cookies.sdk.ServiceTestUtil.resolve;
+import static co.cookies.sdk.ServiceTestUtil.setupMockedClient;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link ProductBatcher}. */
+public final class ProductBatcherTest {
+    // Catalog service which answers sync calls with every requested CTIN, except those starting with `X`.
+    private static final class EchoCatalogService extends CatalogV1Grpc.CatalogV1ImplBase {
+        final List<MultiProductRequest> requests = new CopyOnWriteArrayList<>();
+        volatile boolean fail = false;
+
+        @Override
+        public void sync(MultiProductRequest request, StreamObserver<CatalogProductSet> responseObserver) {
+            requests.add(request);
+            if (fail) {
+                responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                return;
+            }
+            for (var ctin : request.getCtinList()) {
+                if (ctin.startsWith("X")) {
+                    continue;
+                }
+                responseObserver.onNext(CatalogProductSet.newBuilder().addProduct(product(ctin)).build());
+            }
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void product(ProductRequest request, StreamObserver<CatalogProduct> responseObserver) {
+            responseObserver.onNext(product(request.getCtin()));
+            responseObserver.onCompleted();
+        }
+
+        private static CatalogProduct product(String ctin) {
+            var product = CatalogProduct.newBuilder().setRef(ProductRef.newBuilder().setCtin(ctin));
+            if (!ctin.startsWith("X")) {
+                product.setProduct(FinalProduct.newBuilder().setName("product " + ctin));
+            }
+            return product.build();
+        }
+    }
+
+    private void withClient(EchoCatalogService service, Consumer<CatalogClient> test) {
+        setupMockedClient(
+            test,
+            () -> service,
+            (server, channelProvider) -> CatalogV1StubSettings.newBuilder()
+                    .setTransportChannelProvider(channelProvider)
+                    .build()
+                    .createStub(),
+            CatalogClientV1::forStub
+        );
+    }
+
+    private static ProductRequest lookup(String ctin) {
+        return ProductRequest.newBuilder().setCtin(ctin).build();
+    }
+
+    @Test void testBatchesWithinWindow() {
+        var service = new EchoCatalogService();
+        withClient(service, (client) -> {
+            try (var batcher = ProductBatcher.builder().setWindow(Duration.ofSeconds(30)).build(client)) {
+                var first = batcher.product(lookup("C1"));
+                var second = batcher.product(lookup("C2"));
+                var repeat = batcher.product(lookup("C1"));
+                var missing = batcher.product(lookup("X1"));
+                batcher.flush();
+
+                assertEquals("product C1", resolve(first).orElseThrow().getName(), "lookup should be routed");
+                assertEquals("product C2", resolve(second).orElseThrow().getName(), "lookup should be routed");
+                assertEquals("product C1", resolve(repeat).orElseThrow().getName(), "repeat should share result");
+                assertEquals(Optional.empty(), resolve(missing), "missing product should resolve to empty");
+                assertEquals(1, service.requests.size(), "lookups should be sent as one call");
+                assertEquals(
+                    List.of("C1", "C2", "X1"),
+                    service.requests.get(0).getCtinList(),
+                    "batch should carry each distinct CTIN once, in order"
+                );
+                assertEquals(4, batcher.lookupCount(), "every lookup should be counted");
+            }
+        });
+    }
+
+    @Test void testMatchesUnaryLookup() {
+        var service = new EchoCatalogService();
+        withClient(service, (client) -> {
+            try (var batcher = ProductBatcher.builder().setWindow(Duration.ofSeconds(30)).build(client)) {
+                var found = batcher.product(lookup("C1"));
+                var missing = batcher.product(lookup("X1"));
+                batcher.flush();
+                assertEquals(
+                    resolve(client.product(async(lookup("C1")))),
+                    resolve(found),
+                    "batched lookup should match a unary lookup for a known product"
+                );
+                assertEquals(Optional.empty(), resolve(missing), "batched lookup should be empty when not found");
+                assertEquals(
+                    Optional.empty(),
+                    resolve(client.product(async(lookup("X1")))),
+                    "unary lookup should be empty when not found"
+                );
+            }
+        });
+    }
+
+    @Test void testWindowElapses() {
+        var service = new EchoCatalogService();
+        withClient(service, (client) -> {
+            try (var batcher = ProductBatcher.builder().setWindow(Duration.ofMillis(1)).build(client)) {
+                var product = batcher.product(lookup("C1"));
+                assertEquals("product C1", resolve(product).orElseThrow().getName(), "window should flush batch");
+                assertEquals(1, batcher.batchCount(), "one batch should be sent");
+            }
+        });
+    }
+
+    @Test void testMaxBatchSize() {
+        var service = new EchoCatalogService();
+        withClient(service, (client) -> {
+            try (var batcher = ProductBatcher.builder()
+                    .setWindow(Duration.ofMinutes(1))
+                    .setMaxBatchSize(2)
+                    .build(client)) {
+                var first = batcher.product(lookup("C1"));
+                var second = batcher.product(lookup("C2"));
+                assertTrue(resolve(first).isPresent(), "full batch should be sent without waiting");
+                assertTrue(resolve(second).isPresent(), "full batch should be sent without waiting");
+                assertEquals(1, service.requests.size(), "one full batch should be sent");
+            }
+        });
+    }
+
+    @Test void testTemplatesSeparated() {
+        var service = new EchoCatalogService();
+        withClient(service, (client) -> {
+            try (var batcher = ProductBatcher.builder().setWindow(Duration.ofMinutes(1)).build(client)) {
+                var english = batcher.product(lookup("C1").toBuilder().setLocale("en-US").build());
+                var french = batcher.product(lookup("C2").toBuilder().setLocale("fr-FR").build());
+                batcher.flush();
+                resolve(Futures.allAsList(english, french));
+                assertEquals(2, service.requests.size(), "lookups in different locales should not be batched");
+            }
+        });
+    }
+
+    @Test void testBatchFailure() {
+        var service = new EchoCatalogService();
+        service.fail = true;
+        withClient(service, (client) -> {
+            try (var batcher = ProductBatcher.builder().setWindow(Duration.ofMinutes(1)).build(client)) {
+                var first = batcher.product(lookup("C1"));
+                var second = batcher.product(lookup("C2"));
+                batcher.flush();
+                assertThrows(ExecutionException.class, first::get, "failure should reach every caller");
+                assertThrows(ExecutionException.class, second::get, "failure should reach every caller");
+            }
+        });
+    }
+
+    @Test void testClosed() {
+        withClient(new EchoCatalogService(), (client) -> {
+            var batcher = ProductBatcher.builder().build(client);
+            batcher.close();
+            assertThrows(IllegalStateException.class, () -> batcher.product(lookup("C1")), "closed should reject");
+        });
+    }
+}
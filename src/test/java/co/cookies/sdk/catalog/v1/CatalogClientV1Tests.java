@@ -14,10 +14,32 @@
 package co.cookies.sdk.catalog.v1;
 
 import co.cookies.sdk.catalog.CatalogClient;
+import co.cookies.sdk.catalog.CatalogMirror;
 import co.cookies.sdk.catalog.v1.stub.CatalogV1StubSettings;
+import co.cookies.sdk.exceptions.RPCCircuitOpenException;
+import co.cookies.sdk.exceptions.RPCExecutionException;
+import co.cookies.sdk.exceptions.RPCOverloadException;
+import co.cookies.sdk.exceptions.RPCTimeoutException;
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.CircuitBreaker;
+import co.cookies.sdk.services.CircuitBreakerPolicy;
+import co.cookies.sdk.services.LimiterPolicy;
+import co.cookies.sdk.services.ServiceOptions;
+import co.cookies.sdk.services.SyncRPC;
+import co.cookies.sdk.services.Timeout;
+import com.google.api.gax.grpc.GrpcCallContext;
 import cookies.schema.catalog.*;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -45,6 +67,79 @@ public final class CatalogClientV1Tests {
         );
     }
 
+    private void acquireFailingClient(CatalogV1Grpc.CatalogV1ImplBase service, Consumer<CatalogClient> clientTest) {
+        setupMockedClient(
+            clientTest,
+            () -> service,
+            (server, channelProvider) -> CatalogV1StubSettings.newBuilder()
+                    .setTransportChannelProvider(channelProvider)
+                    .build()
+                    .createStub(),
+            CatalogClientV1::forStub
+        );
+    }
+
+    // Catalog service which holds each brands call open until released.
+    private static final class HeldCatalogService extends CatalogV1Grpc.CatalogV1ImplBase {
+        final List<StreamObserver<BrandsResponse>> held = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void brands(BrandsRequest request, StreamObserver<BrandsResponse> responseObserver) {
+            held.add(responseObserver);
+        }
+
+        void release() {
+            for (var observer : held) {
+                observer.onNext(BrandsResponse.getDefaultInstance());
+                observer.onCompleted();
+            }
+            held.clear();
+        }
+    }
+
+    // Subscriber which requests items one at a time, optionally cancelling after a given number of items.
+    private static final class SteppingSubscriber<T> implements Flow.Subscriber<T> {
+        final List<T> items = new CopyOnWriteArrayList<>();
+        final CountDownLatch finished = new CountDownLatch(1);
+        final int cancelAfter;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        SteppingSubscriber(int cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override public void onNext(T item) {
+            items.add(item);
+            if (items.size() == cancelAfter) {
+                subscription.cancel();
+                finished.countDown();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override public void onComplete() {
+            completed = true;
+            finished.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(finished.await(30, TimeUnit.SECONDS), "subscriber should finish within the timeout");
+        }
+    }
+
     @Test void testAcquireMockService() {
         assertNotNull(
             acquireService(),
@@ -111,6 +206,28 @@ public final class CatalogClientV1Tests {
             var product = client.product(sync(ProductRequest.getDefaultInstance()));
             assertNotNull(product, "mock product response should not be null");
             assertFalse(product.isEmpty(), "mock product should not be empty");
+            assertEquals(
+                "Caps by Cookies | Bed Head CBD Capsules",
+                product.get().getName(),
+                "mock product should carry the fixture's product"
+            );
+        });
+    }
+
+    @Test void testFetchProductNotFound() {
+        var service = new CatalogV1Grpc.CatalogV1ImplBase() {
+            @Override
+            public void product(ProductRequest request, StreamObserver<CatalogProduct> responseObserver) {
+                responseObserver.onNext(CatalogProduct.newBuilder()
+                    .setRef(ProductRef.newBuilder().setCtin(request.getCtin()))
+                    .build());
+                responseObserver.onCompleted();
+            }
+        };
+        acquireFailingClient(service, (client) -> {
+            var request = ProductRequest.newBuilder().setCtin("C000000").build();
+            assertEquals(Optional.empty(), client.product(sync(request)), "missing product should be empty");
+            assertEquals(Optional.empty(), resolve(client.product(async(request))), "missing product should be empty");
         });
     }
 
@@ -151,4 +268,306 @@ public final class CatalogClientV1Tests {
             assertFalse(items.isEmpty(), "mock product sync response should not be empty");
         });
     }
+
+    @Test void testBlockingErrorMapping() {
+        acquireFailingClient(
+            ErrorInjectingCatalogServiceImpl.injectThrowable(Status.UNAVAILABLE.asRuntimeException()),
+            (client) -> {
+                var err = assertThrows(RPCExecutionException.class, () -> {
+                    client.brands(sync(BrandsRequest.getDefaultInstance()));
+                }, "blocking call errors should surface as an RPC execution exception");
+                assertNotNull(err.getCause(), "RPC execution exception should carry the underlying cause");
+            }
+        );
+    }
+
+    @Test void testCallMetrics() {
+        acquireMockedClient((client) -> {
+            var metrics = ((CatalogClientV1) client).metrics();
+            client.brands(sync(BrandsRequest.getDefaultInstance()));
+            client.brands(sync(BrandsRequest.getDefaultInstance()));
+            client.strains(sync(StrainsRequest.getDefaultInstance()));
+            var snapshot = metrics.snapshot();
+            var brands = snapshot.get(CatalogV1Grpc.getBrandsMethod().getFullMethodName());
+            assertNotNull(brands, "called methods should have metrics");
+            assertEquals("catalog:v1", brands.service(), "metrics should carry the service tag");
+            assertEquals(2, brands.callCount(), "each call should be recorded");
+            assertEquals(0, brands.inflight(), "concluded calls should not be in flight");
+            assertTrue(brands.errorCounts().isEmpty(), "successful calls should not count as errors");
+            assertEquals(
+                1,
+                snapshot.get(CatalogV1Grpc.getStrainsMethod().getFullMethodName()).callCount(),
+                "each method should be recorded separately"
+            );
+            assertFalse(
+                snapshot.containsKey(CatalogV1Grpc.getProductMethod().getFullMethodName()),
+                "methods not yet called should have no metrics"
+            );
+        });
+    }
+
+    @Test void testCallMetricsErrors() {
+        acquireFailingClient(
+            ErrorInjectingCatalogServiceImpl.injectThrowable(Status.UNAVAILABLE.asRuntimeException()),
+            (client) -> {
+                assertThrows(
+                    RPCExecutionException.class,
+                    () -> client.brands(sync(BrandsRequest.getDefaultInstance())),
+                    "failing call should surface its error"
+                );
+                var brands = ((CatalogClientV1) client).metrics()
+                    .snapshot()
+                    .get(CatalogV1Grpc.getBrandsMethod().getFullMethodName());
+                assertEquals(1, brands.callCount(), "failed calls should be recorded");
+                assertEquals(
+                    1L,
+                    brands.errorCounts().get(Status.Code.UNAVAILABLE),
+                    "failed calls should be counted by status"
+                );
+                assertEquals(0, brands.timeoutCount(), "unavailable calls should not count as timeouts");
+            }
+        );
+    }
+
+    @Test void testBlockingDeadlineExceeded() {
+        acquireFailingClient(
+            ErrorInjectingCatalogServiceImpl.injectThrowable(
+                Status.INTERNAL.asRuntimeException(),
+                Duration.ofMillis(500)
+            ),
+            (client) -> {
+                var err = assertThrows(RPCTimeoutException.class, () -> {
+                    client.product(SyncRPC.sync(
+                        ProductRequest.getDefaultInstance(),
+                        Timeout.of(50, TimeUnit.MILLISECONDS)
+                    ));
+                }, "blocking call which outlives its deadline should surface as an RPC timeout");
+                assertNotNull(err.getCause(), "RPC timeout exception should carry the underlying cause");
+            }
+        );
+    }
+
+    @Test void testNonBlockingDeadlineExceeded() {
+        acquireFailingClient(
+            ErrorInjectingCatalogServiceImpl.injectThrowable(
+                Status.INTERNAL.asRuntimeException(),
+                Duration.ofMillis(500)
+            ),
+            (client) -> {
+                var future = client.brands(AsyncRPC.async(
+                    BrandsRequest.getDefaultInstance(),
+                    Timeout.of(50, TimeUnit.MILLISECONDS)
+                ));
+                assertThrows(RPCTimeoutException.class, () -> {
+                    resolve(future);
+                }, "async call which outlives its deadline should surface as an RPC timeout");
+            }
+        );
+    }
+
+    @Test void testNonBlockingCustomContextApplied() {
+        acquireFailingClient(
+            ErrorInjectingCatalogServiceImpl.injectThrowable(
+                Status.INTERNAL.asRuntimeException(),
+                Duration.ofMillis(500)
+            ),
+            (client) -> {
+                // the operation timeout is generous, but the custom context shortens it; the context should win.
+                var future = client.strains(AsyncRPC.async(
+                    StrainsRequest.getDefaultInstance(),
+                    Timeout.of(30, TimeUnit.SECONDS),
+                    GrpcCallContext.createDefault().withTimeout(org.threeten.bp.Duration.ofMillis(50))
+                ));
+                assertThrows(RPCTimeoutException.class, () -> {
+                    resolve(future);
+                }, "custom call context should be applied to async calls");
+            }
+        );
+    }
+
+    @Test void testSyncProductsPublisher() {
+        acquireMockedClient((client) -> {
+            var expected = resolve(client.sync(async(MultiProductRequest.getDefaultInstance())))
+                .collect(Collectors.toUnmodifiableList());
+            var subscriber = new SteppingSubscriber<CatalogProduct>(Integer.MAX_VALUE);
+            client.syncPublisher(async(MultiProductRequest.getDefaultInstance())).subscribe(subscriber);
+            assertDoesNotThrow(subscriber::await);
+            assertNull(subscriber.error, "publisher should not report an error");
+            assertTrue(subscriber.completed, "publisher should complete once all stanzas are delivered");
+            assertEquals(
+                expected,
+                subscriber.items,
+                "publisher should deliver the same products as the stream variant, in order"
+            );
+        });
+    }
+
+    @Test void testSyncProductsMirror() {
+        acquireMockedClient((client) -> {
+            var expected = resolve(client.sync(async(MultiProductRequest.getDefaultInstance())))
+                .collect(Collectors.toUnmodifiableList());
+            var mirror = new CatalogMirror();
+            resolve(mirror.sync(client, async(MultiProductRequest.getDefaultInstance())));
+            assertFalse(expected.isEmpty(), "mock sync should produce products");
+            for (var product : expected) {
+                assertTrue(
+                    mirror.byCtin(product.getRef().getCtin()).isPresent(),
+                    "mirror should hold every product delivered by sync"
+                );
+            }
+            assertFalse(
+                resolve(mirror.sync(client, async(MultiProductRequest.getDefaultInstance()))) > 0,
+                "replaying the same sync should apply nothing"
+            );
+        });
+    }
+
+    @Test void testSyncProductsPublisherCancel() {
+        acquireMockedClient((client) -> {
+            var subscriber = new SteppingSubscriber<CatalogProduct>(1);
+            client.syncPublisher(async(MultiProductRequest.getDefaultInstance())).subscribe(subscriber);
+            assertDoesNotThrow(subscriber::await);
+            assertEquals(1, subscriber.items.size(), "publisher should stop delivering items once cancelled");
+            assertFalse(subscriber.completed, "cancelled publisher should not signal completion");
+            assertNull(subscriber.error, "cancelled publisher should not signal an error");
+        });
+    }
+
+    @Test void testSyncProductsPublisherError() {
+        acquireFailingClient(
+            ErrorInjectingCatalogServiceImpl.injectThrowable(Status.UNAVAILABLE.asRuntimeException()),
+            (client) -> {
+                var subscriber = new SteppingSubscriber<CatalogProduct>(Integer.MAX_VALUE);
+                client.syncPublisher(async(MultiProductRequest.getDefaultInstance())).subscribe(subscriber);
+                assertDoesNotThrow(subscriber::await);
+                assertTrue(
+                    subscriber.error instanceof RPCExecutionException,
+                    "publisher errors should surface as an RPC execution exception"
+                );
+                assertTrue(subscriber.items.isEmpty(), "failed publisher should not deliver items");
+            }
+        );
+    }
+
+    @Test void testCloseAsyncDrainsInFlight() {
+        var service = new HeldCatalogService();
+        acquireFailingClient(service, (client) -> {
+            var call = client.brands(async(BrandsRequest.getDefaultInstance()));
+            assertEquals(1, client.inflight(), "pending call should be counted as in flight");
+
+            var closed = client.closeAsync(Duration.ofSeconds(30));
+            assertSame(closed, client.closeAsync(Duration.ofSeconds(30)), "closing twice should yield the same future");
+            assertThrows(
+                IllegalStateException.class,
+                () -> client.brands(async(BrandsRequest.getDefaultInstance())),
+                "a closing service should reject new calls"
+            );
+            assertThrows(
+                IllegalStateException.class,
+                () -> client.brands(sync(BrandsRequest.getDefaultInstance())),
+                "a closing service should reject new blocking calls"
+            );
+            assertFalse(closed.isDone(), "close should wait for the in-flight call");
+            assertFalse(call.isDone(), "in-flight call should not be cut off by close");
+
+            service.release();
+            assertNotNull(resolve(call), "in-flight call should finish while draining");
+            assertDoesNotThrow(() -> closed.get(30, TimeUnit.SECONDS), "close should finish once drained");
+            assertEquals(0, client.inflight(), "no calls should remain in flight after draining");
+            assertTrue(client.service().isShutdown(), "stub should be shut down after draining");
+        });
+    }
+
+    @Test void testCloseAsyncBudgetExpires() {
+        var service = new HeldCatalogService();
+        acquireFailingClient(service, (client) -> {
+            var call = client.brands(async(BrandsRequest.getDefaultInstance()));
+            var closed = client.closeAsync(Duration.ofMillis(50));
+            assertDoesNotThrow(
+                () -> closed.get(30, TimeUnit.SECONDS),
+                "close should finish once the drain budget expires, even with calls in flight"
+            );
+            assertTrue(client.service().isShutdown(), "stub should be shut down after the budget expires");
+            assertFalse(call.isDone(), "abandoned call should be left to the transport");
+            call.cancel(true);
+            assertEquals(0, client.inflight(), "cancelled call should no longer be counted as in flight");
+        });
+    }
+
+    @Test void testConcurrencyLimit() {
+        var service = new HeldCatalogService();
+        var options = ServiceOptions.builder()
+            .setLimiter(Optional.of(LimiterPolicy.builder().setInitialLimit(1).setMaxLimit(1).build()))
+            .build();
+        setupMockedClient(
+            (CatalogClientV1 client) -> {
+                assertTrue(client.limiter().isPresent(), "limiter should be enabled by the service options");
+                var call = client.brands(async(BrandsRequest.getDefaultInstance()));
+                assertEquals(1, client.limiter().get().inflight(), "pending call should hold a permit");
+                assertThrows(
+                    RPCOverloadException.class,
+                    () -> resolve(client.strains(async(StrainsRequest.getDefaultInstance()))),
+                    "calls beyond the limit should fail fast"
+                );
+                assertThrows(
+                    RPCOverloadException.class,
+                    () -> client.strains(sync(StrainsRequest.getDefaultInstance())),
+                    "blocking calls beyond the limit should fail fast"
+                );
+                service.release();
+                assertNotNull(resolve(call), "admitted call should finish normally");
+                assertEquals(0, client.limiter().get().inflight(), "finished calls should release their permits");
+            },
+            () -> service,
+            (server, channelProvider) -> CatalogV1StubSettings.newBuilder()
+                .setTransportChannelProvider(channelProvider)
+                .build()
+                .createStub(),
+            (stub) -> CatalogClientV1.forStub(stub, options)
+        );
+    }
+
+    @Test void testCircuitBreaker() {
+        var options = ServiceOptions.builder()
+            .setCircuitBreaker(Optional.of(CircuitBreakerPolicy.builder()
+                .setWindowSize(3)
+                .setMinCalls(3)
+                .setOpenDuration(Duration.ofMinutes(1))
+                .build()))
+            .build();
+        var brands = CatalogV1Grpc.getBrandsMethod().getFullMethodName();
+        var strains = CatalogV1Grpc.getStrainsMethod().getFullMethodName();
+        setupMockedClient(
+            (CatalogClientV1 client) -> {
+                assertTrue(client.circuitBreaker().isPresent(), "breaker should be enabled by the service options");
+                var breaker = client.circuitBreaker().get();
+                for (var i = 0; i < 3; i++) {
+                    assertThrows(
+                        RPCExecutionException.class,
+                        () -> client.brands(sync(BrandsRequest.getDefaultInstance())),
+                        "failing calls should surface their error while the circuit is closed"
+                    );
+                }
+                assertEquals(CircuitBreaker.State.OPEN, breaker.state(brands), "failures should open the circuit");
+                assertThrows(
+                    RPCCircuitOpenException.class,
+                    () -> client.brands(sync(BrandsRequest.getDefaultInstance())),
+                    "blocking calls should fail fast while the circuit is open"
+                );
+                assertThrows(
+                    RPCCircuitOpenException.class,
+                    () -> resolve(client.brands(async(BrandsRequest.getDefaultInstance()))),
+                    "async calls should fail fast while the circuit is open"
+                );
+                assertEquals(CircuitBreaker.State.CLOSED, breaker.state(strains), "other methods should stay closed");
+                assertEquals(2, breaker.stats().get(brands).rejectedCount(), "refusals should be counted");
+            },
+            () -> ErrorInjectingCatalogServiceImpl.injectThrowable(Status.UNAVAILABLE.asRuntimeException()),
+            (server, channelProvider) -> CatalogV1StubSettings.newBuilder()
+                .setTransportChannelProvider(channelProvider)
+                .build()
+                .createStub(),
+            (stub) -> CatalogClientV1.forStub(stub, options)
+        );
+    }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import co.cookies.sdk.services.AsyncRPC;
+import co.cookies.sdk.services.ServiceInfo;
+import co.cookies.sdk.storefront.v1.MenuV1Client;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import cookies.schema.store.MenuRequest;
+import cookies.schema.store.MenuResponse;
+import cookies.schema.store.ProductGroupRequest;
+import cookies.schema.store.ProductGroupResponse;
+import cookies.schema.store.model.Menu;
+import cookies.schema.store.model.MenuMeta;
+import cookies.schema.store.model.MenuProduct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Menu client for storefront tests, which serves a mutable "server-side" menu in full, keys-only, or one product at a
+ * time. Menu calls may instead be answered with queued responses, or held open until the test completes them.
+ */
+final class FakeMenuClient implements Storefront.MenuClient {
+    final Map<String, MenuProduct> catalog = new HashMap<>();
+    final List<String> order = new ArrayList<>();
+    MenuMeta meta = MenuMeta.getDefaultInstance();
+
+    /** Queued answers for menu calls, which take precedence over the catalog. */
+    private final Deque<ListenableFuture<MenuResponse>> responses = new ArrayDeque<>();
+
+    /** Whether menu calls are held open, in {@link #pending}, until the test completes them. */
+    private boolean hold = false;
+
+    /** Menu calls held open, in the order they were made. */
+    final List<SettableFuture<MenuResponse>> pending = new ArrayList<>();
+
+    /** Market of each menu call, in the order they were made. */
+    final List<String> markets = new ArrayList<>();
+
+    // -- Counters -- //
+
+    final AtomicInteger calls = new AtomicInteger(0);
+    final AtomicInteger fullCalls = new AtomicInteger(0);
+    final AtomicInteger keysCalls = new AtomicInteger(0);
+    final AtomicInteger productCalls = new AtomicInteger(0);
+
+    // -- Setup -- //
+
+    FakeMenuClient put(MenuProduct product) {
+        if (catalog.put(product.getCgid(), product) == null) {
+            order.add(product.getCgid());
+        }
+        return this;
+    }
+
+    FakeMenuClient remove(String cgid) {
+        catalog.remove(cgid);
+        order.remove(cgid);
+        return this;
+    }
+
+    FakeMenuClient respond(MenuResponse response) {
+        return respond(Futures.immediateFuture(response));
+    }
+
+    FakeMenuClient respond(ListenableFuture<MenuResponse> response) {
+        responses.add(response);
+        return this;
+    }
+
+    FakeMenuClient fail() {
+        return respond(Futures.immediateFailedFuture(new IllegalStateException("backend down")));
+    }
+
+    FakeMenuClient hold() {
+        hold = true;
+        return this;
+    }
+
+    void completeAll() {
+        // completing a call may dispatch more, so walk by index.
+        for (var i = 0; i < pending.size(); i++) {
+            pending.get(i).set(MenuResponse.getDefaultInstance());
+        }
+    }
+
+    // -- Server-side menu -- //
+
+    MenuResponse full() {
+        var menu = Menu.newBuilder().setMeta(meta);
+        order.forEach((cgid) -> menu.addProduct(catalog.get(cgid)));
+        return MenuResponse.newBuilder().setMenu(menu).build();
+    }
+
+    MenuResponse keys() {
+        var menu = Menu.newBuilder();
+        for (var cgid : order) {
+            var product = catalog.get(cgid);
+            menu.addProduct(MenuProduct.newBuilder()
+                .setCgid(product.getCgid())
+                .setSlug(product.getSlug())
+                .setSort(product.getSort())
+                .setVariants(product.getVariants()));
+        }
+        return MenuResponse.newBuilder().setMenu(menu).build();
+    }
+
+    // -- Client -- //
+
+    @Override
+    public synchronized @Nonnull ListenableFuture<MenuResponse> menu(@Nonnull AsyncRPC<MenuRequest> rpc) {
+        calls.incrementAndGet();
+        markets.add(rpc.request().getLocation().getMarket());
+        if (rpc.request().getKeysOnly()) {
+            keysCalls.incrementAndGet();
+        } else {
+            fullCalls.incrementAndGet();
+        }
+        if (hold) {
+            var future = SettableFuture.<MenuResponse>create();
+            pending.add(future);
+            return future;
+        }
+        if (!responses.isEmpty()) {
+            return responses.remove();
+        }
+        return Futures.immediateFuture(rpc.request().getKeysOnly() ? keys() : full());
+    }
+
+    @Override
+    public @Nonnull ListenableFuture<ProductGroupResponse> product(@Nonnull AsyncRPC<ProductGroupRequest> rpc) {
+        productCalls.incrementAndGet();
+        var response = ProductGroupResponse.newBuilder();
+        var product = catalog.get(rpc.request().getCgid());
+        if (product != null) {
+            response.setProduct(product);
+        }
+        return Futures.immediateFuture(response.build());
+    }
+
+    @Override
+    public @Nonnull MenuV1Client service() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public @Nonnull Logger logger() {
+        return LoggerFactory.getLogger(FakeMenuClient.class);
+    }
+
+    @Override
+    public @Nonnull ServiceInfo getServiceInfo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public @Nonnull String getServiceName() {
+        return "menu";
+    }
+
+    @Override
+    public @Nonnull String getServiceVersion() {
+        return "v1";
+    }
+
+    @Override
+    public void close() {
+        // nothing to close
+    }
+}
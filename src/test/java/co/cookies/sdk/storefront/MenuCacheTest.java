@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import co.cookies.sdk.storefront.v1.MenuRequestSpec;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.SettableFuture;
+import cookies.schema.ProductLine;
+import cookies.schema.store.MenuResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link MenuCache}. */
+public final class MenuCacheTest {
+    // Ticker which only moves when told to.
+    private static final class ManualTicker extends Ticker {
+        final AtomicLong nanos = new AtomicLong(0);
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+    }
+
+    private static MenuResponse menu() {
+        return MenuResponse.newBuilder().build();
+    }
+
+    private static MenuCache cache(FakeMenuClient client, ManualTicker ticker) {
+        return MenuCache.builder()
+            .setTtl(Duration.ofSeconds(10))
+            .setStaleWhileRevalidate(Duration.ofSeconds(20))
+            .setStaleIfError(Duration.ofMinutes(1))
+            .setTicker(ticker)
+            .build(client);
+    }
+
+    @Test void testFreshHit() throws ExecutionException, InterruptedException {
+        var first = menu();
+        var client = new FakeMenuClient().respond(first);
+        var cache = cache(client, new ManualTicker());
+        assertSame(first, cache.menu(MenuRequestSpec.defaults()).get(), "first call should load");
+        assertSame(first, cache.menu(MenuRequestSpec.defaults()).get(), "second call should hit");
+        assertEquals(1, client.calls.get(), "only one call should reach the backend");
+        assertEquals(1, cache.stats().hitCount(), "hit should be counted");
+        assertEquals(1, cache.stats().missCount(), "miss should be counted");
+        assertEquals(1, cache.stats().loadSuccessCount(), "load should be counted");
+    }
+
+    @Test void testKeyIncludesProductLines() throws ExecutionException, InterruptedException {
+        var client = new FakeMenuClient().respond(menu()).respond(menu());
+        var cache = cache(client, new ManualTicker());
+        cache.menu(MenuRequestSpec.defaults()).get();
+        cache.menu(MenuRequestSpec.defaults().clearProductLines().addProductLines(ProductLine.THC)).get();
+        assertEquals(2, client.calls.get(), "specs differing by product line should not share an entry");
+        assertEquals(2, cache.size(), "cache should hold both entries");
+    }
+
+    @Test void testSpecMutationDoesNotAffectKey() throws ExecutionException, InterruptedException {
+        var client = new FakeMenuClient().respond(menu());
+        var cache = cache(client, new ManualTicker());
+        var spec = MenuRequestSpec.defaults();
+        cache.menu(spec).get();
+        spec.setKeysOnly(true);
+        cache.menu(MenuRequestSpec.defaults()).get();
+        assertEquals(1, client.calls.get(), "mutating a caller's spec should not disturb the cached key");
+    }
+
+    @Test void testStaleWhileRevalidate() throws ExecutionException, InterruptedException {
+        var ticker = new ManualTicker();
+        var first = menu();
+        var second = menu();
+        var refresh = SettableFuture.<MenuResponse>create();
+        var client = new FakeMenuClient().respond(first).respond(refresh);
+        var cache = cache(client, ticker);
+        cache.menu(MenuRequestSpec.defaults()).get();
+
+        ticker.advance(Duration.ofSeconds(15));
+        assertSame(first, cache.menu(MenuRequestSpec.defaults()).get(), "stale menu should be served");
+        assertSame(first, cache.menu(MenuRequestSpec.defaults()).get(), "stale menu should be served again");
+        assertEquals(2, client.calls.get(), "only one background refresh should run");
+        assertEquals(2, cache.stats().staleHitCount(), "stale hits should be counted");
+
+        refresh.set(second);
+        assertSame(second, cache.menu(MenuRequestSpec.defaults()).get(), "refreshed menu should be served");
+        assertEquals(1, cache.stats().hitCount(), "refreshed menu should be fresh");
+    }
+
+    @Test void testStaleIfError() throws ExecutionException, InterruptedException {
+        var ticker = new ManualTicker();
+        var first = menu();
+        var client = new FakeMenuClient().respond(first).fail().fail();
+        var cache = cache(client, ticker);
+        cache.menu(MenuRequestSpec.defaults()).get();
+
+        ticker.advance(Duration.ofSeconds(45));
+        assertSame(first, cache.menu(MenuRequestSpec.defaults()).get(), "stale menu should be served on error");
+        assertEquals(1, cache.stats().staleOnErrorCount(), "stale-on-error should be counted");
+        assertEquals(1, cache.stats().loadFailureCount(), "failed load should be counted");
+
+        ticker.advance(Duration.ofMinutes(5));
+        var err = assertThrows(
+            ExecutionException.class,
+            () -> cache.menu(MenuRequestSpec.defaults()).get(),
+            "errors should surface once the stale-if-error window has passed"
+        );
+        assertTrue(err.getCause() instanceof IllegalStateException, "original error should surface");
+    }
+
+    @Test void testFailedInitialLoadNotCached() {
+        var client = new FakeMenuClient().fail().respond(menu());
+        var cache = cache(client, new ManualTicker());
+        assertThrows(ExecutionException.class, () -> cache.menu(MenuRequestSpec.defaults()).get());
+        assertEquals(0, cache.size(), "failed initial load should not leave an entry behind");
+        assertDoesNotThrow(() -> cache.menu(MenuRequestSpec.defaults()).get(), "next call should retry");
+    }
+
+    @Test void testEviction() throws ExecutionException, InterruptedException {
+        var ticker = new ManualTicker();
+        var client = new FakeMenuClient().respond(menu()).respond(menu()).respond(menu());
+        var cache = MenuCache.builder().setMaximumSize(2).setTicker(ticker).build(client);
+        cache.menu(MenuRequestSpec.defaults()).get();
+        ticker.advance(Duration.ofSeconds(1));
+        cache.menu(MenuRequestSpec.defaults().setKeysOnly(true)).get();
+        ticker.advance(Duration.ofSeconds(1));
+        cache.menu(MenuRequestSpec.defaults().clearProductLines()).get();
+        assertEquals(2, cache.size(), "cache should respect its maximum size");
+        assertEquals(1, cache.stats().evictionCount(), "eviction should be counted");
+        cache.menu(MenuRequestSpec.defaults().setKeysOnly(true)).get();
+        assertEquals(3, client.calls.get(), "newer entries should survive eviction");
+    }
+}
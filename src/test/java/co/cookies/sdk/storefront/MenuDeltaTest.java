@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import co.cookies.sdk.ProtoLoader;
+import co.cookies.sdk.storefront.v1.MenuRequestSpec;
+import com.google.common.base.Ticker;
+import cookies.schema.Brand;
+import cookies.schema.ProductLine;
+import cookies.schema.store.MenuResponse;
+import cookies.schema.store.model.BrandFacet;
+import cookies.schema.store.model.MenuMeta;
+import cookies.schema.store.model.MenuProduct;
+import cookies.schema.store.model.Price;
+import cookies.schema.store.model.ProductInfo;
+import cookies.schema.store.model.ProductLineFacet;
+import cookies.schema.store.model.VariantKey;
+import cookies.schema.store.model.Variants;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link MenuDelta} refresher. */
+public final class MenuDeltaTest {
+    private static MenuProduct product(String cgid,
+                                       int sort,
+                                       int brand,
+                                       ProductLine line,
+                                       double price,
+                                       String... ctins) {
+        var variants = Variants.newBuilder();
+        Arrays.stream(ctins).forEach((ctin) -> variants.addVariant(
+            VariantKey.newBuilder().setCtin(ctin).setAvailable(true)));
+        return MenuProduct.newBuilder()
+            .setCgid(cgid)
+            .setSlug("product-" + cgid)
+            .setSort(sort)
+            .setPrice(Price.newBuilder().setValue(price))
+            .setInfo(ProductInfo.newBuilder().setName("Product " + cgid).setBrand(brand).setLine(line))
+            .setVariants(variants)
+            .build();
+    }
+
+    private static BrandFacet brand(int bid, int count) {
+        return BrandFacet.newBuilder()
+            .setBrand(Brand.newBuilder().setBid(String.valueOf(bid)))
+            .setCount(count)
+            .build();
+    }
+
+    private static FakeMenuClient server() {
+        var client = new FakeMenuClient()
+            .put(product("1", 1, 1, ProductLine.THC, 10, "c1"))
+            .put(product("2", 2, 1, ProductLine.THC, 20, "c2"))
+            .put(product("3", 3, 2, ProductLine.CBD, 30, "c3a", "c3b"));
+        client.meta = MenuMeta.newBuilder()
+            .putBrands(1, brand(1, 2))
+            .putBrands(2, brand(2, 1))
+            .addProductLines(ProductLineFacet.newBuilder().setLine(ProductLine.THC).setCount(2))
+            .addProductLines(ProductLineFacet.newBuilder().setLine(ProductLine.CBD).setCount(1))
+            .build();
+        return client;
+    }
+
+    @Test void testUnchangedMenuReusesEverything() throws ExecutionException, InterruptedException {
+        var client = server();
+        var delta = MenuDelta.of(client);
+        var previous = client.full();
+        var refreshed = delta.refresh(MenuRequestSpec.defaults(), previous).get();
+        assertEquals(previous, refreshed, "unchanged menu should refresh to an identical menu");
+        assertEquals(1, client.keysCalls.get(), "refresh should fetch the keys-only menu");
+        assertEquals(0, client.productCalls.get(), "unchanged products should not be hydrated");
+        assertEquals(0, client.fullCalls.get(), "no full fetch should happen");
+        assertEquals(3, delta.stats().reusedCount(), "reused products should be counted");
+        assertEquals(1, delta.stats().deltaCount(), "delta refresh should be counted");
+    }
+
+    @Test void testDeltaMatchesFullFetch() throws ExecutionException, InterruptedException {
+        var client = server();
+        var delta = MenuDelta.of(client);
+        var previous = client.full();
+
+        // change a variant, drop a product, and add a product under an existing brand and a new product line.
+        client.put(product("2", 2, 1, ProductLine.THC, 25, "c2", "c2b"))
+            .remove("3")
+            .put(product("4", 4, 1, ProductLine.APPAREL, 40, "c4"));
+        client.meta = MenuMeta.newBuilder()
+            .putBrands(1, brand(1, 3))
+            .addProductLines(ProductLineFacet.newBuilder().setLine(ProductLine.THC).setCount(2))
+            .addProductLines(ProductLineFacet.newBuilder().setLine(ProductLine.APPAREL).setCount(1))
+            .build();
+
+        var refreshed = delta.refresh(MenuRequestSpec.defaults(), previous).get();
+        assertEquals(client.full(), refreshed, "delta refresh should match a full fetch");
+        assertEquals(2, client.productCalls.get(), "only new and changed products should be hydrated");
+        assertEquals(2, delta.stats().hydratedCount(), "hydrated products should be counted");
+        assertEquals(1, delta.stats().reusedCount(), "reused products should be counted");
+        assertEquals(0, delta.stats().fallbackCount(), "no fallback should be needed");
+    }
+
+    @Test void testUnknownBrandFallsBack() throws ExecutionException, InterruptedException {
+        var client = server();
+        var delta = MenuDelta.of(client);
+        var previous = client.full();
+        client.put(product("5", 5, 9, ProductLine.THC, 50, "c5"));
+        client.meta = client.meta.toBuilder().putBrands(9, brand(9, 1)).build();
+
+        var refreshed = delta.refresh(MenuRequestSpec.defaults(), previous).get();
+        assertEquals(client.full(), refreshed, "fallback should produce the full menu");
+        assertEquals(1, delta.stats().fallbackCount(), "fallback should be counted");
+        assertEquals(1, client.fullCalls.get(), "fallback should fetch the full menu");
+    }
+
+    @Test void testKeysOnlySpecFetchesDirectly() throws ExecutionException, InterruptedException {
+        var client = server();
+        var delta = MenuDelta.of(client);
+        delta.refresh(MenuRequestSpec.defaults().setKeysOnly(true), client.full()).get();
+        assertEquals(1, client.keysCalls.get(), "keys-only specs should be fetched as-is");
+        assertEquals(0, client.productCalls.get(), "keys-only specs have nothing to hydrate");
+        assertEquals(0, delta.stats().deltaCount(), "no delta should be applied");
+    }
+
+    @Test void testSameKeys() {
+        var full = product("1", 1, 1, ProductLine.THC, 10, "c1");
+        var keys = MenuProduct.newBuilder()
+            .setCgid("1")
+            .setSlug("product-1")
+            .setVariants(full.getVariants())
+            .build();
+        assertTrue(MenuDelta.sameKeys(full, keys), "missing sort on the keys should not count as a change");
+        assertFalse(MenuDelta.sameKeys(full, keys.toBuilder().setSort(2).build()), "sort change should count");
+        assertFalse(MenuDelta.sameKeys(full, keys.toBuilder().setVariants(Variants.newBuilder().addVariant(
+            VariantKey.newBuilder().setCtin("c2"))).build()), "CTIN change should count");
+
+        var pair = product("2", 2, 1, ProductLine.THC, 20, "c2a", "c2b");
+        var pairKeys = MenuProduct.newBuilder()
+            .setCgid("2")
+            .setSlug("product-2")
+            .setVariants(Variants.newBuilder()
+                .addVariant(VariantKey.newBuilder().setCtin("c2a").setAvailable(true))
+                .addVariant(VariantKey.newBuilder().setCtin("c2b")))
+            .build();
+        assertFalse(MenuDelta.sameKeys(pair, pairKeys), "availability change should count when it is reported");
+        assertTrue(MenuDelta.sameKeys(pair, pairKeys.toBuilder().setVariants(Variants.newBuilder()
+            .addVariant(VariantKey.newBuilder().setCtin("c2a"))
+            .addVariant(VariantKey.newBuilder().setCtin("c2b"))).build()), "unreported availability should be ignored");
+    }
+
+    @Test void testKeysOnlyFixtureReusesEverything() throws ExecutionException, InterruptedException {
+        MenuResponse previous = ProtoLoader.loadTextFile(MenuResponse.newBuilder(), "/store_menu_default.prototxt");
+        MenuResponse keys = ProtoLoader.loadTextFile(MenuResponse.newBuilder(), "/store_menu_keysonly.prototxt");
+        for (var i = 0; i < previous.getMenu().getProductCount(); i++) {
+            assertTrue(
+                MenuDelta.sameKeys(previous.getMenu().getProduct(i), keys.getMenu().getProduct(i)),
+                "unchanged product " + keys.getMenu().getProduct(i).getCgid() + " should match its keys"
+            );
+        }
+
+        var client = new FakeMenuClient().respond(keys);
+        var delta = MenuDelta.of(client);
+        var refreshed = delta.refresh(MenuRequestSpec.defaults(), previous).get();
+        assertEquals(
+            previous.getMenu().getProductList(),
+            refreshed.getMenu().getProductList(),
+            "refresh against the keys-only fixture should keep every product"
+        );
+        assertEquals(0, client.productCalls.get(), "no product from the fixture should be hydrated");
+        assertEquals(0, client.fullCalls.get(), "no full fetch should happen");
+        assertEquals(previous.getMenu().getProductCount(), delta.stats().reusedCount(), "every product is reused");
+    }
+
+    @Test void testMenuCacheDeltaRefresh() throws ExecutionException, InterruptedException {
+        var nanos = new AtomicLong(0);
+        var ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        var client = server();
+        var cache = MenuCache.builder()
+            .setTtl(Duration.ofSeconds(10))
+            .setStaleWhileRevalidate(Duration.ofSeconds(20))
+            .setDeltaRefresh(true)
+            .setTicker(ticker)
+            .build(client);
+        cache.menu(MenuRequestSpec.defaults()).get();
+        assertEquals(1, client.fullCalls.get(), "initial load should fetch the full menu");
+
+        client.put(product("2", 2, 1, ProductLine.THC, 25, "c2", "c2b"));
+        nanos.addAndGet(Duration.ofSeconds(15).toNanos());
+        cache.menu(MenuRequestSpec.defaults()).get();
+        assertEquals(1, client.keysCalls.get(), "background refresh should use the keys-only menu");
+        assertEquals(1, client.fullCalls.get(), "background refresh should not fetch the full menu");
+        assertEquals(client.full(), cache.menu(MenuRequestSpec.defaults()).get(), "refreshed menu should be served");
+        assertTrue(cache.deltaStats().isPresent(), "delta stats should be available when enabled");
+        assertEquals(1, cache.deltaStats().get().hydratedCount(), "one product should have been hydrated");
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        cache.menu(MenuRequestSpec.defaults()).get();
+        assertEquals(2, client.fullCalls.get(), "blocking loads should always fetch the full menu");
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import co.cookies.sdk.ProtoLoader;
+import cookies.schema.ProductLine;
+import cookies.schema.store.MenuResponse;
+import cookies.schema.store.model.MenuProduct;
+import cookies.schema.store.model.ProductFlag;
+import cookies.schema.store.model.ProductKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalDouble;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the local {@link MenuIndex}. */
+public final class MenuIndexTest {
+    private static MenuIndex index() {
+        return MenuIndex.of(ProtoLoader.<MenuResponse.Builder, MenuResponse>loadTextFile(
+            MenuResponse.newBuilder(),
+            "/store_menu_default.prototxt"
+        ));
+    }
+
+    @Test void testUnfiltered() {
+        var index = index();
+        var result = index.query(MenuIndex.query());
+        assertEquals(index.size(), result.total(), "empty query should match every product");
+        assertEquals(index.products(), result.products(), "empty query should keep menu order");
+        assertEquals(2, result.lineCounts().get(ProductLine.MUSHROOMS), "line counts should match the menu");
+        assertEquals(1, result.lineCounts().get(ProductLine.THC), "line counts should match the menu");
+        assertEquals(index.size(), result.brandCounts().get(1), "every product should be counted under its brand");
+    }
+
+    @Test void testFacetFilters() {
+        var result = index().query(MenuIndex.query().addLines(ProductLine.MUSHROOMS));
+        assertEquals(2, result.total(), "line filter should match products in that line");
+        assertTrue(
+            result.products().stream().allMatch((p) -> p.getInfo().getLine() == ProductLine.MUSHROOMS),
+            "every match should carry the selected line"
+        );
+        assertEquals(
+            1,
+            result.lineCounts().get(ProductLine.THC),
+            "counts for the filtered facet should ignore its own selection"
+        );
+        assertEquals(2, result.kindCounts().get(ProductKind.APOTHECARY), "other facets should count within matches");
+        assertNull(result.kindCounts().get(ProductKind.FLOWER), "zero counts should be omitted");
+
+        var combined = index().query(MenuIndex.query()
+            .addLines(ProductLine.MUSHROOMS, ProductLine.THC)
+            .addStrains(2, 4));
+        assertEquals(2, combined.total(), "values should be OR'd within a facet, and facets AND'd together");
+
+        var flagged = index().query(MenuIndex.query().addFlags(ProductFlag.FEATURED));
+        assertEquals(2, flagged.total(), "flag filter should match flagged products");
+        assertEquals(
+            1,
+            index().query(MenuIndex.query().addCategories("Apparel / T-Shirt")).total(),
+            "category filter should match products in that category"
+        );
+    }
+
+    @Test void testPriceRangeAndSort() {
+        var index = index();
+        var ranged = index.query(MenuIndex.query().setPriceRange(OptionalDouble.of(30), OptionalDouble.of(40)));
+        assertEquals(1, ranged.total(), "price range should select products within it");
+        assertEquals(34.0, ranged.products().get(0).getPrice().getValue(), "price range should be inclusive");
+
+        var ascending = index.query(MenuIndex.query().setSort(MenuIndex.Sort.PRICE_ASCENDING)).products();
+        for (int i = 1; i < ascending.size(); i++) {
+            assertTrue(
+                ascending.get(i - 1).getPrice().getValue() <= ascending.get(i).getPrice().getValue(),
+                "ascending sort should order by price"
+            );
+        }
+        var descending = index.query(MenuIndex.query().setSort(MenuIndex.Sort.PRICE_DESCENDING)).products();
+        assertEquals(
+            ascending.get(ascending.size() - 1).getPrice().getValue(),
+            descending.get(0).getPrice().getValue(),
+            "descending sort should start with the highest price"
+        );
+        var names = index.query(MenuIndex.query().setSort(MenuIndex.Sort.NAME)).products().stream()
+            .map((p) -> p.getInfo().getName())
+            .collect(Collectors.toList());
+        assertEquals(names.stream().sorted().collect(Collectors.toList()), names, "name sort should be alphabetical");
+    }
+
+    @Test void testPagingAndMeta() {
+        var index = index();
+        var page = index.query(MenuIndex.query().setPage(1, 2));
+        assertEquals(index.size(), page.total(), "total should ignore paging");
+        assertEquals(2, page.products().size(), "page should be limited");
+        assertEquals(index.products().subList(1, 3), page.products(), "page should start at the offset");
+        assertTrue(index.query(MenuIndex.query().setPage(100, 2)).products().isEmpty(), "pages may run off the end");
+        assertEquals(
+            index.products().subList(1, index.size()),
+            index.query(MenuIndex.query().setPage(1, Integer.MAX_VALUE)).products(),
+            "unbounded page after an offset should hold every remaining product"
+        );
+
+        MenuProduct first = index.products().get(0);
+        var meta = index.query(MenuIndex.query().addLines(ProductLine.MUSHROOMS)).meta();
+        assertEquals(2, meta.getBrandsOrThrow(1).getCount(), "meta should carry brand counts");
+        assertEquals(
+            "C6BI-00001",
+            meta.getBrandsOrThrow(first.getInfo().getBrand()).getBrand().getBid(),
+            "meta should carry brand records from the source menu"
+        );
+        assertFalse(meta.getProductLinesList().isEmpty(), "meta should carry product line counts");
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.storefront;
+
+import co.cookies.sdk.storefront.v1.MenuRequestSpec;
+import com.google.common.base.Ticker;
+import cookies.schema.store.MenuResponse;
+import cookies.schema.store.model.UserLocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link MenuPrewarmer}. */
+public final class MenuPrewarmerTest {
+    private final AtomicLong nanos = new AtomicLong(0);
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    private static MenuRequestSpec spec(String market) {
+        return MenuRequestSpec.forUserLocation(UserLocation.newBuilder().setMarket(market).build());
+    }
+
+    private MenuPrewarmer prewarmer(MenuCache cache, int maxConcurrency) {
+        return MenuPrewarmer.builder()
+            .setInterval(Duration.ofHours(1))
+            .setMaxConcurrency(maxConcurrency)
+            .setScheduler(scheduler)
+            .addSpecs(spec("ca"), spec("nv"), spec("mi"))
+            .build(cache);
+    }
+
+    @Test void testRecentlyRequestedFirst() throws ExecutionException, InterruptedException {
+        var client = new FakeMenuClient().hold();
+        var cache = MenuCache.builder().setTicker(ticker).build(client);
+        try (var prewarmer = prewarmer(cache, 1)) {
+            // callers ask for "mi", then "nv"; "ca" is never requested.
+            var mi = cache.menu(spec("mi"));
+            client.pending.get(0).set(MenuResponse.getDefaultInstance());
+            mi.get();
+            nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+            var nv = cache.menu(spec("nv"));
+            client.pending.get(1).set(MenuResponse.getDefaultInstance());
+            nv.get();
+            client.markets.clear();
+            client.pending.clear();
+
+            prewarmer.round();
+            assertEquals(List.of("nv"), client.markets, "only one refresh should run at a time");
+            client.pending.get(0).set(MenuResponse.getDefaultInstance());
+            assertEquals(List.of("nv", "mi"), client.markets, "next refresh should start once a permit frees up");
+            client.pending.get(1).set(MenuResponse.getDefaultInstance());
+            assertEquals(List.of("nv", "mi", "ca"), client.markets, "never-requested specs should go last");
+            client.pending.get(2).set(MenuResponse.getDefaultInstance());
+            assertEquals(1, prewarmer.roundCount(), "round should be counted");
+        }
+    }
+
+    @Test void testConcurrencyCap() {
+        var client = new FakeMenuClient().hold();
+        var cache = MenuCache.builder().setTicker(ticker).build(client);
+        try (var prewarmer = prewarmer(cache, 2)) {
+            prewarmer.round();
+            assertEquals(2, client.pending.size(), "refreshes should respect the concurrency cap");
+            client.pending.get(0).set(MenuResponse.getDefaultInstance());
+            assertEquals(3, client.pending.size(), "remaining spec should refresh once a permit frees up");
+            client.completeAll();
+            assertEquals(3, client.pending.size(), "each spec should refresh once per round");
+            prewarmer.stats().values().forEach((stats) -> assertEquals(
+                1, stats.refreshCount(), "each spec should have refreshed once"));
+        }
+    }
+
+    @Test void testLag() {
+        var client = new FakeMenuClient().hold();
+        var cache = MenuCache.builder().setTicker(ticker).build(client);
+        try (var prewarmer = prewarmer(cache, 4)) {
+            assertTrue(prewarmer.lag(spec("ca")).isEmpty(), "nothing cached should have no lag");
+            prewarmer.round();
+            client.completeAll();
+            nanos.addAndGet(Duration.ofSeconds(7).toNanos());
+            assertEquals(Optional.of(Duration.ofSeconds(7)), prewarmer.lag(spec("ca")), "lag should be menu age");
+            var stats = prewarmer.stats().get(spec("ca"));
+            assertNotNull(stats, "stats should be keyed by spec");
+            assertEquals(Optional.of(Duration.ofSeconds(7)), stats.lag(), "stats should carry lag");
+            assertTrue(stats.sinceRequested().isEmpty(), "prewarming should not count as a request");
+            assertEquals(3, cache.size(), "prewarmed menus should land in the cache");
+            assertEquals(0, cache.stats().missCount(), "prewarming should not count as cache misses");
+        }
+    }
+
+    @Test void testJitter() {
+        var prewarmer = MenuPrewarmer.builder()
+            .setInterval(Duration.ofSeconds(10))
+            .setJitter(0.2)
+            .build(MenuCache.builder().build(new FakeMenuClient().hold()));
+        for (var i = 0; i < 100; i++) {
+            var delay = prewarmer.nextDelay();
+            assertTrue(delay >= Duration.ofSeconds(8).toNanos(), "delay should not undershoot jitter bounds");
+            assertTrue(delay <= Duration.ofSeconds(12).toNanos(), "delay should not overshoot jitter bounds");
+        }
+        assertThrows(IllegalArgumentException.class, () -> MenuPrewarmer.builder().setJitter(1));
+    }
+
+    @Test void testClosedDoesNothing() {
+        var client = new FakeMenuClient().hold();
+        var prewarmer = prewarmer(MenuCache.builder().build(client), 4);
+        prewarmer.close();
+        prewarmer.start();
+        prewarmer.round();
+        assertEquals(0, client.pending.size(), "closed prewarmer should not refresh");
+    }
+}
@@ -440,4 +440,39 @@ public class MenuRequestSpecTests {
             "hash code should differ for different specs"
         );
     }
+
+    @Test public void testMenuSpecEqualsProductLines() {
+        var spec = MenuRequestSpec.defaults();
+        var spec2 = MenuRequestSpec.defaults().clearProductLines().addProductLines(ProductLine.THC);
+        assertNotEquals(
+            spec,
+            spec2,
+            "specs with different product lines should not be equal"
+        );
+        assertNotEquals(
+            spec.hashCode(),
+            spec2.hashCode(),
+            "specs with different product lines should not share a hash code"
+        );
+    }
+
+    @Test public void testMenuSpecCopy() {
+        var spec = MenuRequestSpec.forStore(storeKey("CTL")).setKeysOnly(true);
+        var copy = spec.copy();
+        assertEquals(
+            spec,
+            copy,
+            "copied spec should equal the original"
+        );
+        spec.clearProductLines();
+        assertNotEquals(
+            spec,
+            copy,
+            "mutating the original should not affect the copy"
+        );
+        assertTrue(
+            copy.isKeysOnly(),
+            "copied spec should retain `keysOnly`"
+        );
+    }
 }
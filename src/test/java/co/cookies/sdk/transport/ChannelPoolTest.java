@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.transport;
+
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.testing.TestMethodDescriptors;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link ChannelPool} and {@link PooledChannelProvider}. */
+public final class ChannelPoolTest {
+    // Channel whose calls stay open until the test closes them, and which records the headers each call started with.
+    private static final class HeldChannel extends ManagedChannel {
+        final List<ClientCall.Listener<?>> open = new ArrayList<>();
+        final List<Metadata> headers = new ArrayList<>();
+        final List<Runnable> watchers = new ArrayList<>();
+        ConnectivityState state = ConnectivityState.IDLE;
+        boolean shutdown = false;
+
+        void transition(ConnectivityState next) {
+            state = next;
+            var callbacks = new ArrayList<>(watchers);
+            watchers.clear();
+            callbacks.forEach(Runnable::run);
+        }
+
+        @Override
+        public ConnectivityState getState(boolean requestConnection) {
+            if (requestConnection && state == ConnectivityState.IDLE) {
+                state = ConnectivityState.CONNECTING;
+            }
+            return state;
+        }
+
+        @Override
+        public void notifyWhenStateChanged(ConnectivityState source, Runnable callback) {
+            watchers.add(callback);
+        }
+
+        void closeAll() {
+            var listeners = new ArrayList<>(open);
+            open.clear();
+            listeners.forEach((listener) -> listener.onClose(Status.OK, new Metadata()));
+        }
+
+        @Override
+        public <Req, Resp> ClientCall<Req, Resp> newCall(MethodDescriptor<Req, Resp> method, CallOptions options) {
+            return new ClientCall<>() {
+                @Override
+                public void start(Listener<Resp> listener, Metadata metadata) {
+                    open.add(listener);
+                    headers.add(metadata);
+                }
+
+                @Override
+                public void request(int count) {
+                    // nothing to deliver
+                }
+
+                @Override
+                public void cancel(@Nullable String message, @Nullable Throwable cause) {
+                    // calls are closed by the test
+                }
+
+                @Override
+                public void halfClose() {
+                    // nothing to do
+                }
+
+                @Override
+                public void sendMessage(Req message) {
+                    // nothing to do
+                }
+            };
+        }
+
+        @Override
+        public String authority() {
+            return "held";
+        }
+
+        @Override
+        public ManagedChannel shutdown() {
+            shutdown = true;
+            return this;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public ManagedChannel shutdownNow() {
+            return shutdown();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return shutdown;
+        }
+    }
+
+    private static void start(io.grpc.Channel channel) {
+        channel.newCall(TestMethodDescriptors.voidMethod(), CallOptions.DEFAULT)
+            .start(new ClientCall.Listener<>() {}, new Metadata());
+    }
+
+    @Test void testSpreadsCalls() {
+        var channels = List.of(new HeldChannel(), new HeldChannel(), new HeldChannel());
+        var pool = ChannelPool.of(List.copyOf(channels));
+        assertEquals(3, pool.size(), "pool should hold every channel");
+        for (var i = 0; i < 6; i++) {
+            start(pool);
+        }
+        assertEquals(List.of(2, 2, 2), pool.outstanding(), "calls should spread evenly across channels");
+        channels.forEach((channel) -> assertEquals(2, channel.open.size(), "each channel should carry its share"));
+    }
+
+    @Test void testLeastLoaded() {
+        var first = new HeldChannel();
+        var second = new HeldChannel();
+        var pool = ChannelPool.of(List.of(first, second));
+        for (var i = 0; i < 4; i++) {
+            start(pool);
+        }
+        first.closeAll();
+        assertEquals(List.of(0, 2), pool.outstanding(), "closed calls should no longer count as load");
+        start(pool);
+        start(pool);
+        assertEquals(List.of(2, 2), pool.outstanding(), "new calls should go to the least-loaded channel");
+        assertEquals(2, first.open.size(), "idle channel should pick up new calls");
+    }
+
+    @Test void testShutdown() {
+        var channels = List.of(new HeldChannel(), new HeldChannel());
+        var pool = ChannelPool.of(List.copyOf(channels));
+        assertFalse(pool.isShutdown(), "pool should start open");
+        pool.shutdown();
+        assertTrue(pool.isShutdown(), "pool should report shutdown");
+        channels.forEach((channel) -> assertTrue(channel.shutdown, "shutdown should reach every channel"));
+        assertThrows(IllegalArgumentException.class, () -> ChannelPool.create(0, HeldChannel::new));
+    }
+
+    @Test void testProviderAppliesHeaders() throws Exception {
+        var held = new HeldChannel();
+        var pool = ChannelPool.of(List.of(held));
+        var provider = PooledChannelProvider.of(pool);
+        assertTrue(provider.needsHeaders(), "provider should accept service headers");
+        assertFalse(provider.shouldAutoClose(), "services should not close the shared pool");
+
+        var bound = provider.withHeaders(Map.of("x-api-key", "abc123", "user-agent", "test"));
+        assertFalse(bound.needsHeaders(), "bound provider should not need headers again");
+        var transport = (GrpcTransportChannel) bound.getTransportChannel();
+        start(transport.getChannel());
+        var metadata = held.headers.get(0);
+        assertEquals(
+            "abc123",
+            metadata.get(Metadata.Key.of("x-api-key", Metadata.ASCII_STRING_MARSHALLER)),
+            "service headers should be attached to each call"
+        );
+        assertEquals(1, pool.outstanding().get(0), "calls through the provider should count against the pool");
+
+        transport.shutdownNow();
+        transport.close();
+        assertFalse(pool.isShutdown(), "closing one service's transport should not shut down the pool");
+    }
+
+    @Test void testConnect() {
+        var first = new HeldChannel();
+        var second = new HeldChannel();
+        var pool = ChannelPool.of(List.of(first, second));
+        var connected = pool.connect();
+        assertEquals(ConnectivityState.CONNECTING, first.state, "connect should ask each channel to connect");
+        first.transition(ConnectivityState.READY);
+        assertFalse(connected.isDone(), "pool should not be ready until every channel is");
+        second.transition(ConnectivityState.READY);
+        assertTrue(connected.isDone(), "pool should be ready once every channel is");
+        assertDoesNotThrow(() -> connected.get(), "connect should succeed");
+    }
+
+    @Test void testConnectFailure() {
+        var channel = new HeldChannel();
+        var connected = ChannelPool.of(List.of(channel)).connect();
+        channel.transition(ConnectivityState.TRANSIENT_FAILURE);
+        var err = assertThrows(ExecutionException.class, connected::get, "failed connection should fail connect");
+        assertTrue(err.getCause() instanceof StatusRuntimeException, "failure should surface as a gRPC status");
+        assertEquals(
+            Status.Code.UNAVAILABLE,
+            ((StatusRuntimeException) err.getCause()).getStatus().getCode(),
+            "failure should surface as unavailable"
+        );
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2021, Cookies Creative Consulting & Promotions, Inc. All rights reserved.
+ *
+ * This project and all associated source or object computer code, except where otherwise noted, are licensed for
+ * private use by Cookies Creative Consulting & Promotions, Inc., a California Corporation (heretofore referred to as
+ * "Cookies"), and affiliates, partners, vendors, or contractors, as authorized in writing by Cookies. Use of this
+ * computer code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Cookies and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Cookies and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package co.cookies.sdk.transport;
+
+import co.cookies.sdk.catalog.v1.CatalogClientV1;
+import co.cookies.sdk.storefront.v1.StorefrontClientV1;
+import cookies.schema.catalog.BrandsRequest;
+import cookies.schema.catalog.BrandsResponse;
+import cookies.schema.catalog.CatalogV1Grpc;
+import cookies.schema.store.ProfileUpdateRequest;
+import cookies.schema.store.ProfileV1Grpc;
+import cookies.schema.store.model.StoreUser;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link RetryServiceConfig} generator, and the transport retries it enables. */
+public final class RetryServiceConfigTest {
+    private final AtomicInteger brandsCalls = new AtomicInteger(0);
+    private final AtomicInteger updateCalls = new AtomicInteger(0);
+    private volatile int brandsFailures = 0;
+    private Server server;
+    private ManagedChannel channel;
+
+    // Catalog service which fails the first `brandsFailures` calls to `Brands` as unavailable.
+    private final class FlakyCatalog extends CatalogV1Grpc.CatalogV1ImplBase {
+        @Override
+        public void brands(BrandsRequest request, StreamObserver<BrandsResponse> observer) {
+            if (brandsCalls.incrementAndGet() <= brandsFailures) {
+                observer.onError(Status.UNAVAILABLE.withDescription("flaky").asRuntimeException());
+                return;
+            }
+            observer.onNext(BrandsResponse.getDefaultInstance());
+            observer.onCompleted();
+        }
+    }
+
+    // Profile service which always fails `ProfileUpdate` as unavailable.
+    private final class FlakyProfile extends ProfileV1Grpc.ProfileV1ImplBase {
+        @Override
+        public void profileUpdate(ProfileUpdateRequest request, StreamObserver<StoreUser> observer) {
+            updateCalls.incrementAndGet();
+            observer.onError(Status.UNAVAILABLE.withDescription("flaky").asRuntimeException());
+        }
+    }
+
+    private void start() throws IOException {
+        var name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+            .directExecutor()
+            .addService(new FlakyCatalog())
+            .addService(new FlakyProfile())
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(name)
+            .directExecutor()
+            .enableRetry()
+            .maxRetryAttempts(RetryServiceConfig.MAX_ATTEMPTS)
+            .defaultServiceConfig(RetryServiceConfig.forServices(List.of(
+                CatalogClientV1.INFO,
+                StorefrontClientV1.MenuClientV1.INFO,
+                StorefrontClientV1.ProfileClientV1.INFO
+            )))
+            .build();
+    }
+
+    @AfterEach void teardown() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (server != null) {
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test void testGeneratedConfig() {
+        var config = RetryServiceConfig.forServices(List.of(
+            CatalogClientV1.INFO,
+            StorefrontClientV1.MenuClientV1.INFO,
+            StorefrontClientV1.ProfileClientV1.INFO
+        ));
+        var methodConfig = (List<Map<String, ?>>) config.get("methodConfig");
+        assertNotNull(methodConfig, "generated config should carry method config");
+        assertEquals(1, methodConfig.size(), "all retryable methods should share one method config");
+        var names = (List<Map<String, String>>) methodConfig.get(0).get("name");
+        assertTrue(
+            names.contains(Map.of("service", "cookies.schema.catalog.CatalogV1", "method", "Brands")),
+            "catalog reads should be retryable"
+        );
+        assertTrue(
+            names.contains(Map.of("service", "cookies.schema.store.MenuV1", "method", "Menu")),
+            "menu reads should be retryable"
+        );
+        assertTrue(
+            names.contains(Map.of("service", "cookies.schema.store.ProfileV1", "method", "Profile")),
+            "profile reads should be retryable"
+        );
+        assertFalse(
+            names.contains(Map.of("service", "cookies.schema.store.ProfileV1", "method", "ProfileUpdate")),
+            "profile writes should not be retryable"
+        );
+        var policy = (Map<String, ?>) methodConfig.get(0).get("retryPolicy");
+        assertEquals(3.0, policy.get("maxAttempts"), "max attempts should be expressed as a double");
+        assertEquals(List.of("UNAVAILABLE"), policy.get("retryableStatusCodes"), "only UNAVAILABLE should retry");
+        assertNotNull(config.get("retryThrottling"), "generated config should throttle retries");
+        assertTrue(
+            RetryServiceConfig.forServices(List.of()).containsKey("retryThrottling"),
+            "empty config should still throttle retries"
+        );
+    }
+
+    @Test void testTransientReadFailureRetried() throws IOException {
+        start();
+        brandsFailures = 2;
+        var response = CatalogV1Grpc.newBlockingStub(channel).brands(BrandsRequest.getDefaultInstance());
+        assertNotNull(response, "read should succeed once transient failures are retried");
+        assertEquals(3, brandsCalls.get(), "read should be attempted up to the max attempts");
+    }
+
+    @Test void testWriteNotRetried() throws IOException {
+        start();
+        var err = assertThrows(
+            StatusRuntimeException.class,
+            () -> ProfileV1Grpc.newBlockingStub(channel).profileUpdate(ProfileUpdateRequest.getDefaultInstance()),
+            "failed write should surface its error"
+        );
+        assertEquals(Status.Code.UNAVAILABLE, err.getStatus().getCode(), "write error should be preserved");
+        assertEquals(1, updateCalls.get(), "write should not be retried by the transport");
+    }
+
+    @Test void testRetriesThrottled() throws IOException {
+        start();
+        brandsFailures = Integer.MAX_VALUE;
+        var stub = CatalogV1Grpc.newBlockingStub(channel);
+        var calls = 10;
+        for (var i = 0; i < calls; i++) {
+            assertThrows(
+                StatusRuntimeException.class,
+                () -> stub.brands(BrandsRequest.getDefaultInstance()),
+                "persistently failing read should surface its error"
+            );
+        }
+        assertTrue(brandsCalls.get() >= calls, "each call should be attempted at least once");
+        assertTrue(
+            brandsCalls.get() < calls * RetryServiceConfig.MAX_ATTEMPTS,
+            "retries should be throttled once failures pile up"
+        );
+    }
+}